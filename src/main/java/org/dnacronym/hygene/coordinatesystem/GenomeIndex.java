@@ -3,16 +3,18 @@ package org.dnacronym.hygene.coordinatesystem;
 import org.dnacronym.hygene.graph.Graph;
 import org.dnacronym.hygene.graph.GraphIterator;
 import org.dnacronym.hygene.graph.SequenceDirection;
+import org.dnacronym.hygene.graph.TopologicalOrder;
 import org.dnacronym.hygene.parser.GfaFile;
+import org.dnacronym.hygene.parser.GfaTokenizer;
 import org.dnacronym.hygene.parser.ProgressUpdater;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
-import java.util.HashSet;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
 import java.util.Map;
-import java.util.Set;
-import java.util.StringTokenizer;
 import java.util.TreeMap;
 
 
@@ -21,13 +23,18 @@ import java.util.TreeMap;
  */
 public final class GenomeIndex {
     public static final String GENOME_LIST_HEADER_PREFIX = "ORI:Z:";
+    private static final byte[] GENOME_LIST_HEADER_PREFIX_BYTES
+            = GENOME_LIST_HEADER_PREFIX.getBytes(StandardCharsets.UTF_8);
+    private static final byte GENOME_SEPARATOR = ';';
 
     private final GfaFile gfaFile;
     private final Graph graph;
     private final String name;
     private final String index;
-    private final Set<Integer> visited;
-    private final Set<Integer> nodesInGenome;
+    private final byte[] nameBytes;
+    private final byte[] indexBytes;
+    private final BitSet visited;
+    private final BitSet nodesInGenome;
     /**
      * Maps from base counts to node IDs.
      */
@@ -49,10 +56,12 @@ public final class GenomeIndex {
         this.index = gfaFile.getGenomeMapping().entrySet().stream()
                 .filter(entry -> entry.getValue().equals(name))
                 .map(Map.Entry::getKey).findFirst().orElse(name);
+        this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        this.indexBytes = index.getBytes(StandardCharsets.UTF_8);
 
-        visited = new HashSet<>();
+        visited = new BitSet(graph.size());
         baseCounts = new TreeMap<>();
-        nodesInGenome = new HashSet<>();
+        nodesInGenome = new BitSet(graph.size());
         currentNode = -1;
     }
 
@@ -64,18 +73,21 @@ public final class GenomeIndex {
      * @throws IOException if an error occurs during IO operations
      */
     public void buildIndex(final ProgressUpdater progressUpdater) throws IOException {
-        if (graph.getNodeArrays().length == 2) {
+        if (graph.size() == 2) {
             return;
         }
         final GraphIterator graphIterator = new GraphIterator(gfaFile.getGraph());
 
         collectNodesOfGenome(progressUpdater);
+        if (nodesInGenome.isEmpty()) {
+            return;
+        }
 
-        findLeftMostNode(graphIterator);
+        findLeftMostNode();
 
         int currentBaseCount = 1;
-        visited.add(currentNode);
-        while (currentNode != graph.getNodeArrays().length - 1) {
+        visited.set(currentNode);
+        while (currentNode != graph.size() - 1) {
             baseCounts.put(currentBaseCount, currentNode);
             currentBaseCount += graph.getSequenceLength(currentNode);
 
@@ -87,7 +99,7 @@ public final class GenomeIndex {
                 break;
             }
 
-            visited.add(currentNode);
+            visited.set(currentNode);
         }
     }
 
@@ -121,55 +133,59 @@ public final class GenomeIndex {
 
     /**
      * Collects all nodes that belong to the current genome and stores it in {@code nodesInGenome}.
+     * <p>
+     * The GFA file is scanned with a {@link GfaTokenizer}, so that segment lines are never decoded.
      *
      * @param progressUpdater the instance that should be informed of the progress of this task
      * @throws IOException            if an error occurs during IO operations
      */
-    @SuppressWarnings("squid:S1188")
     private void collectNodesOfGenome(final ProgressUpdater progressUpdater) throws IOException {
-        final int[] counter = {0};
-        final int[] currentProgress = {-1};
-        Files.lines(Paths.get(gfaFile.getFileName())).forEach(line -> {
-            if (line.charAt(0) != 'S') {
-                return;
-            }
-            counter[0]++;
-
-            final int oriIndex = line.indexOf(GENOME_LIST_HEADER_PREFIX) + GENOME_LIST_HEADER_PREFIX.length();
-            final String genomesRaw = line.substring(oriIndex);
-            final int tabIndex = genomesRaw.indexOf('\t');
-            final String genomes;
-            if (tabIndex == -1) {
-                genomes = genomesRaw;
-            } else {
-                genomes = genomesRaw.substring(0, tabIndex);
-            }
+        int counter = 0;
+        int currentProgress = -1;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(gfaFile.getFileName()), StandardOpenOption.READ)) {
+            final GfaTokenizer tokenizer = new GfaTokenizer(channel);
+            while (tokenizer.nextLine()) {
+                if (tokenizer.getRecordType() != 'S') {
+                    continue;
+                }
+                counter++;
 
-            handleGenomeString(genomes, counter[0]);
+                while (tokenizer.nextField()) {
+                    if (tokenizer.fieldStartsWith(GENOME_LIST_HEADER_PREFIX_BYTES)) {
+                        handleGenomeField(tokenizer, counter);
+                        break;
+                    }
+                }
 
-            final int newProgress = Math.round((100.0f * counter[0]) / (graph.getNodeArrays().length - 2));
-            if (newProgress > currentProgress[0]) {
-                progressUpdater.updateProgress(newProgress, "Indexing genomes...");
-                currentProgress[0] = newProgress;
+                final int newProgress = Math.round((100.0f * counter) / (graph.size() - 2));
+                if (newProgress > currentProgress) {
+                    progressUpdater.updateProgress(newProgress, "Indexing genomes...");
+                    currentProgress = newProgress;
+                }
             }
-        });
+        }
     }
 
     /**
-     * Evaluates the genome field string of a node.
+     * Evaluates the genome field of a node.
      *
-     * @param genomes   the string of genomes
-     * @param currentId the ID of the node that is being evaluated
+     * @param tokenizer a {@link GfaTokenizer} positioned at the genome field of a segment line
+     * @param currentId the original ID of the node that is being evaluated, i.e. the index of its segment line
      */
-    private void handleGenomeString(final String genomes, final int currentId) {
-        final StringTokenizer st = new StringTokenizer(genomes, ";");
-        String token;
-        while (st.hasMoreTokens()) {
-            token = st.nextToken();
-            if (token.equals(index) || token.equals(name)) {
-                nodesInGenome.add(currentId);
-                break;
+    private void handleGenomeField(final GfaTokenizer tokenizer, final int currentId) {
+        int tokenStart = GENOME_LIST_HEADER_PREFIX_BYTES.length;
+        while (tokenStart <= tokenizer.getFieldLength()) {
+            final int separator = tokenizer.fieldIndexOf(GENOME_SEPARATOR, tokenStart);
+            final int tokenEnd = separator < 0 ? tokenizer.getFieldLength() : separator;
+
+            if (tokenizer.fieldRegionEquals(tokenStart, tokenEnd - tokenStart, indexBytes)
+                    || tokenizer.fieldRegionEquals(tokenStart, tokenEnd - tokenStart, nameBytes)) {
+                nodesInGenome.set(graph.getNodeIdByOriginalId(currentId));
+                return;
             }
+
+            tokenStart = tokenEnd + 1;
         }
     }
 
@@ -182,15 +198,15 @@ public final class GenomeIndex {
      * @param graphIterator the graph iterator
      */
     private void findNextNode(final GraphIterator graphIterator) {
-        graphIterator.visitDirectNeighbours(currentNode, SequenceDirection.RIGHT, neighbour -> {
-            if (neighbour == graph.getNodeArrays().length - 1 || !nodesInGenome.contains(neighbour)) {
+        graphIterator.visitDirectNeighbourIds(currentNode, SequenceDirection.RIGHT, neighbour -> {
+            if (neighbour == graph.size() - 1 || !nodesInGenome.get(neighbour)) {
                 return;
             }
 
             final boolean[] flag = {false};
 
-            graphIterator.visitDirectNeighbours(neighbour, SequenceDirection.LEFT, neighbourOfNeighbour -> {
-                if (!visited.contains(neighbourOfNeighbour) && nodesInGenome.contains(neighbourOfNeighbour)) {
+            graphIterator.visitDirectNeighbourIds(neighbour, SequenceDirection.LEFT, neighbourOfNeighbour -> {
+                if (!visited.get(neighbourOfNeighbour) && nodesInGenome.get(neighbourOfNeighbour)) {
                     flag[0] = true;
                 }
             });
@@ -206,18 +222,21 @@ public final class GenomeIndex {
     /**
      * Finds the left most node in the graph.
      * <p>
-     * It first picks a random node within the genome, and then it goes as much to the left as possible to find the
-     * left most node.
-     *
-     * @param graphIterator the graph iterator
+     * This is the node of the genome with the lowest rank in the graph's {@link TopologicalOrder}. If none of the
+     * genome's nodes are part of the order, an arbitrary node of the genome is picked. The genome should contain at
+     * least one node.
      */
-    private void findLeftMostNode(final GraphIterator graphIterator) {
-        currentNode = nodesInGenome.iterator().next();
-
-        graphIterator.visitIndirectNeighbours(currentNode, SequenceDirection.LEFT, neighbour -> {
-            if (neighbour != 0 && nodesInGenome.contains(neighbour)) {
-                currentNode = neighbour;
+    private void findLeftMostNode() {
+        final TopologicalOrder topologicalOrder = graph.getTopologicalOrder();
+
+        currentNode = nodesInGenome.nextSetBit(0);
+        int currentRank = Integer.MAX_VALUE;
+        for (int node = currentNode; node >= 0; node = nodesInGenome.nextSetBit(node + 1)) {
+            final int rank = topologicalOrder.getRank(node);
+            if (rank != TopologicalOrder.UNORDERED && rank < currentRank) {
+                currentNode = node;
+                currentRank = rank;
             }
-        });
+        }
     }
 }
@@ -0,0 +1,179 @@
+package org.dnacronym.hygene.core;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+
+
+/**
+ * A fixed-size array of byte offsets into a file of up to 1 TB.
+ * <p>
+ * The lower 32 bits of each offset are stored as {@link UnsignedInteger}s in an {@code int} array. Only arrays for
+ * files of 4 GB and more are wide, and store the next 8 bits of each offset in an additional {@code byte} array. This
+ * way, offsets into smaller files still take four bytes each.
+ */
+public final class ByteOffsetArray {
+    /**
+     * The largest offset that can be stored in a wide array, 2^40 - 1.
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    private final int[] lows;
+    private final byte @Nullable [] highs;
+
+
+    /**
+     * Constructs a new {@link ByteOffsetArray} of which no offsets have been set yet.
+     *
+     * @param size the number of offsets
+     * @param wide whether the array should be able to store offsets larger than {@link UnsignedInteger#MAX_VALUE}
+     */
+    public ByteOffsetArray(final int size, final boolean wide) {
+        this(new int[size], wide ? new byte[size] : null);
+    }
+
+    /**
+     * Constructs a new {@link ByteOffsetArray} backed by the given arrays.
+     * <p>
+     * The arrays are not copied.
+     *
+     * @param lows  the lower 32 bits of each offset, as {@link UnsignedInteger}s
+     * @param highs the next 8 bits of each offset, or {@code null} if the array is not wide
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP2",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
+    public ByteOffsetArray(final int[] lows, final byte @Nullable [] highs) {
+        if (highs != null && highs.length != lows.length) {
+            throw new IllegalArgumentException("There should be exactly as many high parts as low parts.");
+        }
+
+        this.lows = lows;
+        this.highs = highs;
+    }
+
+
+    /**
+     * Returns {@code true} iff. the given offset can only be stored in a wide array.
+     *
+     * @param offset a byte offset
+     * @return {@code true} iff. the given offset can only be stored in a wide array
+     */
+    public static boolean isWide(final long offset) {
+        return offset > UnsignedInteger.MAX_VALUE;
+    }
+
+    /**
+     * Returns the lower 32 bits of the given offset, as an {@link UnsignedInteger}.
+     *
+     * @param offset a byte offset of at most {@link #MAX_VALUE}
+     * @return the lower 32 bits of the given offset, as an {@link UnsignedInteger}
+     */
+    public static int getLow(final long offset) {
+        if (offset < 0 || offset > MAX_VALUE) {
+            throw new IllegalArgumentException("Byte offset " + offset + " is not between 0 and " + MAX_VALUE + ".");
+        }
+        return UnsignedInteger.fromLong(offset & UnsignedInteger.MAX_VALUE);
+    }
+
+    /**
+     * Returns the 8 bits of the given offset that follow its lower 32 bits.
+     *
+     * @param offset a byte offset of at most {@link #MAX_VALUE}
+     * @return the 8 bits of the given offset that follow its lower 32 bits
+     */
+    public static byte getHigh(final long offset) {
+        return (byte) (offset >>> Integer.SIZE);
+    }
+
+    /**
+     * Combines the given parts into a byte offset.
+     *
+     * @param low  the lower 32 bits of the offset, as an {@link UnsignedInteger}
+     * @param high the next 8 bits of the offset
+     * @return the byte offset
+     */
+    public static long toLong(final int low, final byte high) {
+        return (Byte.toUnsignedLong(high) << Integer.SIZE) | UnsignedInteger.toLong(low);
+    }
+
+
+    /**
+     * Returns the number of offsets in the array.
+     *
+     * @return the number of offsets in the array
+     */
+    public int size() {
+        return lows.length;
+    }
+
+    /**
+     * Returns {@code true} iff. the array can store offsets larger than {@link UnsignedInteger#MAX_VALUE}.
+     *
+     * @return {@code true} iff. the array can store offsets larger than {@link UnsignedInteger#MAX_VALUE}
+     */
+    public boolean isWide() {
+        return highs != null;
+    }
+
+    /**
+     * Returns the offset at the given index.
+     *
+     * @param index an index in the array
+     * @return the offset at the given index
+     */
+    public long get(final int index) {
+        if (highs == null) {
+            return UnsignedInteger.toLong(lows[index]);
+        }
+        return toLong(lows[index], highs[index]);
+    }
+
+    /**
+     * Sets the offset at the given index.
+     *
+     * @param index  an index in the array
+     * @param offset a byte offset
+     * @throws IllegalArgumentException if the offset is negative, or if it is too large to be stored in this array
+     */
+    public void set(final int index, final long offset) {
+        if (highs == null) {
+            lows[index] = UnsignedInteger.fromLong(offset);
+            return;
+        }
+
+        lows[index] = getLow(offset);
+        highs[index] = getHigh(offset);
+    }
+
+    /**
+     * Swaps the offsets at the given indices.
+     *
+     * @param index      an index in the array
+     * @param otherIndex another index in the array
+     */
+    public void swap(final int index, final int otherIndex) {
+        final int low = lows[index];
+        lows[index] = lows[otherIndex];
+        lows[otherIndex] = low;
+
+        if (highs != null) {
+            final byte high = highs[index];
+            highs[index] = highs[otherIndex];
+            highs[otherIndex] = high;
+        }
+    }
+
+    /**
+     * Returns a copy of this array with the given size, truncating it or padding it with unset offsets if necessary.
+     *
+     * @param size the size of the copy
+     * @return a copy of this array with the given size
+     */
+    public ByteOffsetArray copyOf(final int size) {
+        return new ByteOffsetArray(Arrays.copyOf(lows, size), highs == null ? null : Arrays.copyOf(highs, size));
+    }
+}
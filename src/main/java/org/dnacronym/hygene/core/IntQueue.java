@@ -0,0 +1,110 @@
+package org.dnacronym.hygene.core;
+
+import java.util.NoSuchElementException;
+
+
+/**
+ * A first-in-first-out queue of primitive {@code int}s.
+ * <p>
+ * Elements are stored in a ring buffer that doubles in size when it is full, so that adding and removing elements
+ * does not box them or allocate a node per element.
+ */
+public final class IntQueue {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] elements;
+    private int head;
+    private int size;
+
+
+    /**
+     * Constructs a new, empty {@link IntQueue}.
+     */
+    public IntQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty {@link IntQueue} that can hold the given number of elements before it has to grow.
+     *
+     * @param capacity the initial capacity of the queue
+     */
+    public IntQueue(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        }
+
+        elements = new int[Math.max(capacity, 1)];
+    }
+
+
+    /**
+     * Adds an element to the tail of the queue.
+     *
+     * @param element the element to add
+     */
+    public void add(final int element) {
+        if (size == elements.length) {
+            grow();
+        }
+
+        elements[(head + size) % elements.length] = element;
+        size++;
+    }
+
+    /**
+     * Removes the element at the head of the queue and returns it.
+     *
+     * @return the element at the head of the queue
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public int remove() {
+        if (size == 0) {
+            throw new NoSuchElementException("Cannot remove an element from an empty queue.");
+        }
+
+        final int element = elements[head];
+        head = (head + 1) % elements.length;
+        size--;
+        return element;
+    }
+
+    /**
+     * Returns {@code true} iff. the queue contains no elements.
+     *
+     * @return {@code true} iff. the queue contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of elements in the queue.
+     *
+     * @return the number of elements in the queue
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all elements from the queue, while keeping its capacity.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Doubles the capacity of the queue, moving the elements to the start of the new buffer.
+     */
+    private void grow() {
+        final int[] newElements = new int[elements.length * 2];
+        final int headLength = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, newElements, 0, headLength);
+        System.arraycopy(elements, 0, newElements, headLength, size - headLength);
+
+        elements = newElements;
+        head = 0;
+    }
+}
@@ -7,7 +7,9 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -29,12 +31,18 @@ import static com.google.common.util.concurrent.MoreExecutors.getExitingExecutor
  * the minimal timeout has passed.
  * When {@link #run(Runnable)} is called while a thread is currently running, that thread is interrupted, and the new
  * action is executed as soon as the minimal timeout has passed.
+ * <p>
+ * Actions that must not be interrupted, such as those that read from a {@link java.nio.channels.FileChannel}, which
+ * is closed by an interrupt, can be run by an executor that cancels cooperatively instead. Such an executor never
+ * interrupts a running action, and the new action is executed once the running action has noticed that it is
+ * outdated and returned.
  */
 public class ThrottledExecutor {
     private static final Logger LOGGER = LogManager.getLogger(ThrottledExecutor.class);
     private static final int THREAD_COUNT = 1;
 
     private final ExecutorService executor;
+    private final boolean interrupting;
 
     private @MonotonicNonNull Runnable currentAction;
     private @MonotonicNonNull Future<?> future;
@@ -46,6 +54,27 @@ public class ThrottledExecutor {
      * @param timeout the minimal time between each execution in milliseconds
      */
     public ThrottledExecutor(final int timeout) {
+        this(timeout, Executors.defaultThreadFactory());
+    }
+
+    /**
+     * Constructs a new {@link ThrottledExecutor} that runs its actions in threads created by the given factory.
+     *
+     * @param timeout       the minimal time between each execution in milliseconds
+     * @param threadFactory the {@link ThreadFactory} that creates the thread in which actions are run
+     */
+    public ThrottledExecutor(final int timeout, final ThreadFactory threadFactory) {
+        this(timeout, threadFactory, true);
+    }
+
+    /**
+     * Constructs a new {@link ThrottledExecutor} that runs its actions in threads created by the given factory.
+     *
+     * @param timeout       the minimal time between each execution in milliseconds
+     * @param threadFactory the {@link ThreadFactory} that creates the thread in which actions are run
+     * @param interrupting  whether a running action is interrupted when it is cancelled, rather than left to finish
+     */
+    public ThrottledExecutor(final int timeout, final ThreadFactory threadFactory, final boolean interrupting) {
         if (timeout < 0) {
             throw new IllegalArgumentException("The timeout must be a positive integer.");
         }
@@ -53,7 +82,9 @@ public class ThrottledExecutor {
         this.executor = getExitingExecutorService(new ThreadPoolExecutor(
                 THREAD_COUNT, THREAD_COUNT, 0L, TimeUnit.MILLISECONDS,
                 new ArrayBlockingQueue<>(2, true),
+                threadFactory,
                 new DiscardNewestPolicy()));
+        this.interrupting = interrupting;
     }
 
 
@@ -68,7 +99,7 @@ public class ThrottledExecutor {
                 return;
             }
 
-            future.cancel(true);
+            future.cancel(interrupting);
         }
 
         currentAction = action;
@@ -84,7 +115,7 @@ public class ThrottledExecutor {
             return;
         }
         if (!future.isDone() && !future.isCancelled()) {
-            future.cancel(true);
+            future.cancel(interrupting);
         }
     }
 
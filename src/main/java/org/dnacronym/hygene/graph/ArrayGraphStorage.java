@@ -0,0 +1,117 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.dnacronym.hygene.core.UnsignedInteger;
+
+
+/**
+ * A {@link GraphStorage} that stores each node in its own array, using the node array format described in
+ * {@link Graph}.
+ * <p>
+ * The nested array is not copied, so changes to it are reflected in this storage.
+ */
+final class ArrayGraphStorage implements GraphStorage {
+    private final int[][] nodeArrays;
+
+
+    /**
+     * Constructs a new {@link ArrayGraphStorage}.
+     *
+     * @param nodeArrays nested array containing the graph's data
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP2",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
+    ArrayGraphStorage(final int[][] nodeArrays) {
+        this.nodeArrays = nodeArrays;
+    }
+
+
+    @Override
+    public int size() {
+        return nodeArrays.length;
+    }
+
+    @Override
+    public long getByteOffset(final int id) {
+        return UnsignedInteger.toLong(nodeArrays[id][Graph.NODE_BYTE_OFFSET_INDEX]);
+    }
+
+    @Override
+    public boolean hasWideByteOffsets() {
+        return false;
+    }
+
+    @Override
+    public int getSequenceLength(final int id) {
+        return nodeArrays[id][Graph.NODE_SEQUENCE_LENGTH_INDEX];
+    }
+
+    @Override
+    public int getUnscaledXPosition(final int id) {
+        return nodeArrays[id][Graph.UNSCALED_X_POSITION_INDEX];
+    }
+
+    @Override
+    public void setUnscaledXPosition(final int id, final int unscaledXPosition) {
+        nodeArrays[id][Graph.UNSCALED_X_POSITION_INDEX] = unscaledXPosition;
+    }
+
+    @Override
+    public int getNeighbourCount(final int id, final SequenceDirection direction) {
+        final int outgoingEdgeCount = nodeArrays[id][Graph.NODE_OUTGOING_EDGES_INDEX];
+        if (direction == SequenceDirection.RIGHT) {
+            return outgoingEdgeCount;
+        }
+        return (nodeArrays[id].length - Graph.NODE_EDGE_DATA_OFFSET) / Graph.EDGE_DATA_SIZE - outgoingEdgeCount;
+    }
+
+    @Override
+    public int getNeighbour(final int id, final SequenceDirection direction, final int index) {
+        return nodeArrays[id][getEdgeIndex(id, direction, index)];
+    }
+
+    @Override
+    public long getEdgeByteOffset(final int id, final SequenceDirection direction, final int index) {
+        final int edgeIndex = getEdgeIndex(id, direction, index);
+        return UnsignedInteger.toLong(nodeArrays[id][edgeIndex + Graph.EDGE_BYTE_OFFSET_OFFSET]);
+    }
+
+    @Override
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    public int[] getNodeArray(final int id) {
+        return nodeArrays[id];
+    }
+
+    /**
+     * Returns the nested array containing the graph's data.
+     *
+     * @return the nested array containing the graph's data
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
+    int[][] getNodeArrays() {
+        return nodeArrays;
+    }
+
+
+    /**
+     * Returns the index in the node's array at which the data of the given edge starts.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of the neighbour
+     * @param index     the index of the neighbour among the node's neighbours in the given direction
+     * @return the index in the node's array at which the data of the given edge starts
+     */
+    private int getEdgeIndex(final int id, final SequenceDirection direction, final int index) {
+        final int directionOffset = direction == SequenceDirection.LEFT
+                ? nodeArrays[id][Graph.NODE_OUTGOING_EDGES_INDEX] * Graph.EDGE_DATA_SIZE
+                : 0;
+        return Graph.NODE_EDGE_DATA_OFFSET + directionOffset + index * Graph.EDGE_DATA_SIZE;
+    }
+}
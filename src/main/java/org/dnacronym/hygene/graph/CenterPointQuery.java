@@ -8,6 +8,7 @@ import org.dnacronym.hygene.graph.edge.Edge;
 import org.dnacronym.hygene.graph.edge.SimpleEdge;
 import org.dnacronym.hygene.graph.layout.Layout;
 import org.dnacronym.hygene.graph.layout.SugiyamaLayout;
+import org.dnacronym.hygene.graph.metadata.MetadataPrefetcher;
 import org.dnacronym.hygene.graph.metadata.NodeMetadataCache;
 import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.graph.node.Segment;
@@ -68,9 +69,11 @@ public final class CenterPointQuery {
     /**
      * The cache for metadata of nodes.
      */
-    @SuppressWarnings({"PMD.SingularField", "PMD.UnusedPrivateField", "squid:S1068"})
-    // Receives layout events, so must be declared somewhere to prevent garbage collection
     private final NodeMetadataCache nodeMetadataCache;
+    /**
+     * The prefetcher of metadata of nodes that are about to come into view.
+     */
+    private final MetadataPrefetcher metadataPrefetcher;
     /**
      * Maps each node id in the cache to the distance from the centre point of the query.
      */
@@ -108,6 +111,7 @@ public final class CenterPointQuery {
         this.iterator = new GraphIterator(graph);
         this.subgraph = new Subgraph();
         this.nodeMetadataCache = new NodeMetadataCache(graph.getGfaFile());
+        this.metadataPrefetcher = new MetadataPrefetcher(graph, nodeMetadataCache);
         this.distanceMap = new NodeDistanceMap();
         this.layoutExecutor = new ThrottledDefaultExecutor(LAYOUT_TIMEOUT, () -> {
             if (this.subgraph == null) {
@@ -155,7 +159,7 @@ public final class CenterPointQuery {
         if (centre < 0) {
             throw new IllegalArgumentException("Centre point node id cannot be negative.");
         }
-        if (centre >= graph.getNodeArrays().length) {
+        if (centre >= graph.size()) {
             throw new IllegalArgumentException("Centre point node id cannot exceed graph size.");
         }
         if (radius < 0) {
@@ -168,8 +172,8 @@ public final class CenterPointQuery {
 
         clear();
 
-        iterator.visitIndirectNeighboursWithinRange(centre, radius, (depth, nodeId) -> {
-            if (nodeId == 0 || nodeId == graph.getNodeArrays().length - 1) {
+        iterator.visitIndirectNeighbourIdsWithinRange(centre, radius, (depth, nodeId) -> {
+            if (nodeId == 0 || nodeId == graph.size() - 1) {
                 return;
             }
 
@@ -179,7 +183,7 @@ public final class CenterPointQuery {
             node.setXPosition((long) graph.getUnscaledXPosition(nodeId) * EDGE_WIDTH);
             subgraph.add(node);
         });
-        iterator.visitIndirectNeighboursWithinRange(centre, radius, (depth, nodeId) -> addEdges(nodeId));
+        iterator.visitIndirectNeighbourIdsWithinRange(centre, radius, (depth, nodeId) -> addEdges(nodeId));
 
         layoutExecutor.run();
 
@@ -195,7 +199,7 @@ public final class CenterPointQuery {
         if (centre < 0) {
             throw new IllegalArgumentException("Centre point node id cannot be negative.");
         }
-        if (centre >= graph.getNodeArrays().length) {
+        if (centre >= graph.size()) {
             throw new IllegalArgumentException("Centre point node id cannot exceed graph size.");
         }
 
@@ -229,6 +233,24 @@ public final class CenterPointQuery {
         return subgraph;
     }
 
+    /**
+     * Returns the {@link NodeMetadataCache} that retrieves the metadata of nodes in the query.
+     *
+     * @return the {@link NodeMetadataCache} that retrieves the metadata of nodes in the query
+     */
+    public NodeMetadataCache getNodeMetadataCache() {
+        return nodeMetadataCache;
+    }
+
+    /**
+     * Returns the {@link MetadataPrefetcher} that prefetches the metadata of nodes that are about to come into view.
+     *
+     * @return the {@link MetadataPrefetcher} that prefetches the metadata of nodes that are about to come into view
+     */
+    public MetadataPrefetcher getMetadataPrefetcher() {
+        return metadataPrefetcher;
+    }
+
 
     /*
      * Query methods
@@ -258,7 +280,7 @@ public final class CenterPointQuery {
         cacheRadius++;
 
         distanceMap.getNodes(cacheRadius - 1).forEach(nodeId -> {
-            iterator.visitDirectNeighbours(nodeId, neighbour -> distanceMap.setDistance(neighbour, cacheRadius));
+            iterator.visitDirectNeighbourIds(nodeId, neighbour -> distanceMap.setDistance(neighbour, cacheRadius));
             addEdges(nodeId);
         });
 
@@ -338,7 +360,7 @@ public final class CenterPointQuery {
             return;
         }
 
-        iterator.visitDirectNeighbours(nodeId, SequenceDirection.RIGHT, neighbourId -> {
+        iterator.visitDirectNeighbourIds(nodeId, SequenceDirection.RIGHT, neighbourId -> {
             final Optional<Segment> neighbour = subgraph.getSegment(neighbourId);
             if (!neighbour.isPresent()) {
                 return;
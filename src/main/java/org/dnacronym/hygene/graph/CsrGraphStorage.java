@@ -0,0 +1,255 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.dnacronym.hygene.core.ByteOffsetArray;
+
+
+/**
+ * A {@link GraphStorage} that stores all nodes and edges in a few flat arrays, in the manner of a compressed sparse
+ * row matrix.
+ * <p>
+ * Node data is stored in one array per field, indexed by node ID. The edges are stored once per direction: the
+ * neighbours of node {@code i} in a direction are found at indices {@code start[i]} up to {@code start[i + 1]} of the
+ * neighbour and edge byte offset arrays of that direction. Byte offsets are stored in {@link ByteOffsetArray}s, which
+ * only take more than four bytes per offset for GFA files of 4 GB and more.
+ * <p>
+ * Compared to a nested array, this avoids an object per node and keeps the neighbours of consecutive nodes close to
+ * each other in memory.
+ */
+@SuppressWarnings("PMD.TooManyFields") // Each field is a column of the graph
+public final class CsrGraphStorage implements GraphStorage {
+    private final ByteOffsetArray byteOffsets;
+    private final int[] sequenceLengths;
+    private final int[] unscaledXPositions;
+
+    private final int[] outgoingStarts;
+    private final int[] outgoingNeighbours;
+    private final ByteOffsetArray outgoingByteOffsets;
+    private final int[] incomingStarts;
+    private final int[] incomingNeighbours;
+    private final ByteOffsetArray incomingByteOffsets;
+
+
+    /**
+     * Constructs a new {@link CsrGraphStorage}.
+     * <p>
+     * The arrays are not copied.
+     *
+     * @param byteOffsets         the byte offset of each node
+     * @param sequenceLengths     the sequence length of each node
+     * @param unscaledXPositions  the unscaled x position of each node
+     * @param outgoingStarts      for each node, the index of its first outgoing edge, followed by the number of
+     *                            outgoing edges
+     * @param outgoingNeighbours  the node IDs the outgoing edges point to
+     * @param outgoingByteOffsets the byte offsets of the outgoing edges
+     * @param incomingStarts      for each node, the index of its first incoming edge, followed by the number of
+     *                            incoming edges
+     * @param incomingNeighbours  the node IDs the incoming edges come from
+     * @param incomingByteOffsets the byte offsets of the incoming edges
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP2",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings({"PMD.ArrayIsStoredDirectly", "PMD.ExcessiveParameterList"}) // Performance
+    public CsrGraphStorage(final ByteOffsetArray byteOffsets, final int[] sequenceLengths,
+                           final int[] unscaledXPositions, final int[] outgoingStarts, final int[] outgoingNeighbours,
+                           final ByteOffsetArray outgoingByteOffsets, final int[] incomingStarts,
+                           final int[] incomingNeighbours, final ByteOffsetArray incomingByteOffsets) {
+        this.byteOffsets = byteOffsets;
+        this.sequenceLengths = sequenceLengths;
+        this.unscaledXPositions = unscaledXPositions;
+        this.outgoingStarts = outgoingStarts;
+        this.outgoingNeighbours = outgoingNeighbours;
+        this.outgoingByteOffsets = outgoingByteOffsets;
+        this.incomingStarts = incomingStarts;
+        this.incomingNeighbours = incomingNeighbours;
+        this.incomingByteOffsets = incomingByteOffsets;
+    }
+
+
+    /**
+     * Creates a new {@link CsrGraphStorage} containing the same nodes and edges as the given node arrays.
+     *
+     * @param nodeArrays nested array in the node array format described in {@link Graph}
+     * @return a new {@link CsrGraphStorage}
+     */
+    public static CsrGraphStorage fromNodeArrays(final int[][] nodeArrays) {
+        final int size = nodeArrays.length;
+        final int[] byteOffsets = new int[size];
+        final int[] sequenceLengths = new int[size];
+        final int[] unscaledXPositions = new int[size];
+        final int[] outgoingStarts = new int[size + 1];
+        final int[] incomingStarts = new int[size + 1];
+
+        for (int id = 0; id < size; id++) {
+            final int[] nodeArray = nodeArrays[id];
+            final int outgoingEdgeCount = nodeArray[Graph.NODE_OUTGOING_EDGES_INDEX];
+            final int edgeCount = (nodeArray.length - Graph.NODE_EDGE_DATA_OFFSET) / Graph.EDGE_DATA_SIZE;
+
+            byteOffsets[id] = nodeArray[Graph.NODE_BYTE_OFFSET_INDEX];
+            sequenceLengths[id] = nodeArray[Graph.NODE_SEQUENCE_LENGTH_INDEX];
+            unscaledXPositions[id] = nodeArray[Graph.UNSCALED_X_POSITION_INDEX];
+            outgoingStarts[id + 1] = outgoingStarts[id] + outgoingEdgeCount;
+            incomingStarts[id + 1] = incomingStarts[id] + edgeCount - outgoingEdgeCount;
+        }
+
+        final int[] outgoingNeighbours = new int[outgoingStarts[size]];
+        final int[] outgoingByteOffsets = new int[outgoingStarts[size]];
+        final int[] incomingNeighbours = new int[incomingStarts[size]];
+        final int[] incomingByteOffsets = new int[incomingStarts[size]];
+
+        for (int id = 0; id < size; id++) {
+            final int[] nodeArray = nodeArrays[id];
+            final int outgoingEdgeCount = outgoingStarts[id + 1] - outgoingStarts[id];
+
+            for (int i = 0; i < outgoingEdgeCount; i++) {
+                final int edgeIndex = Graph.NODE_EDGE_DATA_OFFSET + i * Graph.EDGE_DATA_SIZE;
+                outgoingNeighbours[outgoingStarts[id] + i] = nodeArray[edgeIndex];
+                outgoingByteOffsets[outgoingStarts[id] + i] = nodeArray[edgeIndex + Graph.EDGE_BYTE_OFFSET_OFFSET];
+            }
+            for (int i = 0; i < incomingStarts[id + 1] - incomingStarts[id]; i++) {
+                final int edgeIndex = Graph.NODE_EDGE_DATA_OFFSET + (outgoingEdgeCount + i) * Graph.EDGE_DATA_SIZE;
+                incomingNeighbours[incomingStarts[id] + i] = nodeArray[edgeIndex];
+                incomingByteOffsets[incomingStarts[id] + i] = nodeArray[edgeIndex + Graph.EDGE_BYTE_OFFSET_OFFSET];
+            }
+        }
+
+        return new CsrGraphStorage(new ByteOffsetArray(byteOffsets, null), sequenceLengths, unscaledXPositions,
+                outgoingStarts, outgoingNeighbours, new ByteOffsetArray(outgoingByteOffsets, null),
+                incomingStarts, incomingNeighbours, new ByteOffsetArray(incomingByteOffsets, null));
+    }
+
+
+    @Override
+    public int size() {
+        return byteOffsets.size();
+    }
+
+    @Override
+    public long getByteOffset(final int id) {
+        return byteOffsets.get(id);
+    }
+
+    @Override
+    public boolean hasWideByteOffsets() {
+        return byteOffsets.isWide();
+    }
+
+    @Override
+    public int getSequenceLength(final int id) {
+        return sequenceLengths[id];
+    }
+
+    @Override
+    public int getUnscaledXPosition(final int id) {
+        return unscaledXPositions[id];
+    }
+
+    @Override
+    public void setUnscaledXPosition(final int id, final int unscaledXPosition) {
+        unscaledXPositions[id] = unscaledXPosition;
+    }
+
+    @Override
+    public int getNeighbourCount(final int id, final SequenceDirection direction) {
+        final int[] starts = direction == SequenceDirection.RIGHT ? outgoingStarts : incomingStarts;
+        return starts[id + 1] - starts[id];
+    }
+
+    @Override
+    public int getNeighbour(final int id, final SequenceDirection direction, final int index) {
+        if (direction == SequenceDirection.RIGHT) {
+            return outgoingNeighbours[outgoingStarts[id] + index];
+        }
+        return incomingNeighbours[incomingStarts[id] + index];
+    }
+
+    @Override
+    public long getEdgeByteOffset(final int id, final SequenceDirection direction, final int index) {
+        if (direction == SequenceDirection.RIGHT) {
+            return outgoingByteOffsets.get(outgoingStarts[id] + index);
+        }
+        return incomingByteOffsets.get(incomingStarts[id] + index);
+    }
+
+    @Override
+    public int[] getNodeArray(final int id) {
+        final int outgoingEdgeCount = outgoingStarts[id + 1] - outgoingStarts[id];
+        final int incomingEdgeCount = incomingStarts[id + 1] - incomingStarts[id];
+        final int[] nodeArray = new int[Graph.NODE_EDGE_DATA_OFFSET
+                + (outgoingEdgeCount + incomingEdgeCount) * Graph.EDGE_DATA_SIZE];
+
+        nodeArray[Graph.NODE_BYTE_OFFSET_INDEX] = Graph.toNodeArrayByteOffset(byteOffsets.get(id));
+        nodeArray[Graph.NODE_SEQUENCE_LENGTH_INDEX] = sequenceLengths[id];
+        nodeArray[Graph.UNSCALED_X_POSITION_INDEX] = unscaledXPositions[id];
+        nodeArray[Graph.NODE_OUTGOING_EDGES_INDEX] = outgoingEdgeCount;
+
+        int index = Graph.NODE_EDGE_DATA_OFFSET;
+        for (int i = outgoingStarts[id]; i < outgoingStarts[id + 1]; i++) {
+            nodeArray[index] = outgoingNeighbours[i];
+            nodeArray[index + Graph.EDGE_BYTE_OFFSET_OFFSET] = Graph.toNodeArrayByteOffset(outgoingByteOffsets.get(i));
+            index += Graph.EDGE_DATA_SIZE;
+        }
+        for (int i = incomingStarts[id]; i < incomingStarts[id + 1]; i++) {
+            nodeArray[index] = incomingNeighbours[i];
+            nodeArray[index + Graph.EDGE_BYTE_OFFSET_OFFSET] = Graph.toNodeArrayByteOffset(incomingByteOffsets.get(i));
+            index += Graph.EDGE_DATA_SIZE;
+        }
+
+        return nodeArray;
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return the number of edges in the graph
+     */
+    public int getEdgeCount() {
+        return outgoingNeighbours.length;
+    }
+
+    /**
+     * Renumbers the nodes in this storage in place.
+     *
+     * @param renumbering a {@link NodeRenumbering} of the nodes in this storage
+     * @see NodeRenumbering#renumberInPlace(GraphStorage)
+     */
+    void renumber(final NodeRenumbering renumbering) {
+        renumbering.permuteNodes((index, otherIndex) -> {
+            byteOffsets.swap(index, otherIndex);
+            swap(sequenceLengths, index, otherIndex);
+            swap(unscaledXPositions, index, otherIndex);
+        });
+
+        renumbering.permuteEdges(outgoingStarts, (index, otherIndex) -> {
+            swap(outgoingNeighbours, index, otherIndex);
+            outgoingByteOffsets.swap(index, otherIndex);
+        });
+        renumbering.permuteEdges(incomingStarts, (index, otherIndex) -> {
+            swap(incomingNeighbours, index, otherIndex);
+            incomingByteOffsets.swap(index, otherIndex);
+        });
+
+        for (int i = 0; i < outgoingNeighbours.length; i++) {
+            outgoingNeighbours[i] = renumbering.getId(outgoingNeighbours[i]);
+        }
+        for (int i = 0; i < incomingNeighbours.length; i++) {
+            incomingNeighbours[i] = renumbering.getId(incomingNeighbours[i]);
+        }
+    }
+
+
+    /**
+     * Swaps the values at the given indices of the given column.
+     *
+     * @param column     a column
+     * @param index      an index in the column
+     * @param otherIndex another index in the column
+     */
+    private static void swap(final int[] column, final int index, final int otherIndex) {
+        final int value = column[index];
+        column[index] = column[otherIndex];
+        column[otherIndex] = value;
+    }
+}
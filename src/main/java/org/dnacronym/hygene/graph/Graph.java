@@ -1,20 +1,22 @@
 package org.dnacronym.hygene.graph;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.dnacronym.hygene.core.UnsignedInteger;
 import org.dnacronym.hygene.graph.layout.FafospLayerer;
 import org.dnacronym.hygene.parser.GfaFile;
 
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.function.IntConsumer;
 
 
 /**
- * Class wraps around the graph data represented as a nested array and provides utility methods.
+ * Class wraps around the graph data stored in a {@link GraphStorage} and provides utility methods.
+ * <p>
+ * Graphs are either stored in flat arrays by a {@link CsrGraphStorage}, or as a nested array of node arrays.
  * <p>
  * Node array format:
- * [[nodeByteOffset, sequenceLength, outgoingEdges, xPosition, edge1, edge1ByteOffset...]]
+ * [[nodeByteOffset, sequenceLength, xPosition, outgoingEdges, outgoingEdge1, outgoingEdge1ByteOffset...,
+ * incomingEdge1, incomingEdge1ByteOffset...]]
  */
 public final class Graph {
     public static final int NODE_BYTE_OFFSET_INDEX = 0;
@@ -26,25 +28,33 @@ public final class Graph {
     public static final int EDGE_DATA_SIZE = 2;
     static final int MINIMUM_SEQUENCE_LENGTH = 500;
 
-    private final int[][] nodeArrays;
+    private final GraphStorage storage;
     private final GfaFile gfaFile;
-    @SuppressWarnings("PMD.LooseCoupling")
-    private @MonotonicNonNull TreeMap<Long, Integer> nodePositions;
+    private @MonotonicNonNull NodePositionIndex nodePositions;
+    private @MonotonicNonNull TopologicalOrder topologicalOrder;
+    private @Nullable NodeRenumbering nodeRenumbering;
 
 
     /**
      * Constructs a graph from array based data structure.
+     * <p>
+     * The nested array is not copied, so changes to it are reflected in this graph.
      *
      * @param nodeArrays nested array containing the graph's data
      * @param gfaFile    a reference to the GFA file from which the graph is created
      */
-    @SuppressFBWarnings(
-            value = "EI_EXPOSE_REP2",
-            justification = "For performance reasons, we don't want to create a copy here"
-    )
-    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
     public Graph(final int[][] nodeArrays, final GfaFile gfaFile) {
-        this.nodeArrays = nodeArrays;
+        this(new ArrayGraphStorage(nodeArrays), gfaFile);
+    }
+
+    /**
+     * Constructs a graph from the given {@link GraphStorage}.
+     *
+     * @param storage the storage containing the graph's data
+     * @param gfaFile a reference to the GFA file from which the graph is created
+     */
+    public Graph(final GraphStorage storage, final GfaFile gfaFile) {
+        this.storage = storage;
         this.gfaFile = gfaFile;
     }
 
@@ -58,29 +68,74 @@ public final class Graph {
         return new int[] {0, 0, -1, 0};
     }
 
+    /**
+     * Converts a byte offset to its representation in the node array format.
+     * <p>
+     * Node arrays store byte offsets as {@link UnsignedInteger}s, so they cannot describe
+     * nodes and edges that lie 4 GB or more into their GFA file.
+     *
+     * @param byteOffset a byte offset
+     * @return the byte offset as it is stored in a node array
+     * @throws UnsupportedOperationException if the byte offset does not fit in a node array
+     */
+    static int toNodeArrayByteOffset(final long byteOffset) {
+        if (byteOffset > UnsignedInteger.MAX_VALUE) {
+            throw new UnsupportedOperationException("Byte offset " + byteOffset + " lies beyond 4 GB and cannot be"
+                    + " stored in a node array. Use the byte offset getters of the graph instead.");
+        }
+        return UnsignedInteger.fromLong(byteOffset);
+    }
+
+
+    /**
+     * Returns the number of nodes in the graph, including the source and sink.
+     *
+     * @return the number of nodes in the graph
+     */
+    public int size() {
+        return storage.size();
+    }
+
+    /**
+     * Returns the {@link GraphStorage} containing the graph's data.
+     *
+     * @return the {@link GraphStorage} containing the graph's data
+     */
+    public GraphStorage getStorage() {
+        return storage;
+    }
 
     /**
      * Getter for the array representing a {@link Node}'s metadata.
+     * <p>
+     * If the graph is not stored as a nested array, a new array is created on each call.
      *
      * @param id the {@link Node}'s id
      * @return the array representing a {@link Node}'s metadata
+     * @throws UnsupportedOperationException if a byte offset of the node or its edges lies beyond 4 GB
      */
-    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
     public int[] getNodeArray(final int id) {
-        return nodeArrays[id];
+        return storage.getNodeArray(id);
     }
 
     /**
      * Gets the array representation of all node arrays.
+     * <p>
+     * If the graph is not stored as a nested array, the nested array is created on each call. This is expensive for
+     * large graphs, so prefer the accessors of this class instead.
      *
      * @return the array representation of all node arrays
+     * @throws UnsupportedOperationException if a byte offset of a node or edge lies beyond 4 GB
      */
-    @SuppressFBWarnings(
-            value = "EI_EXPOSE_REP",
-            justification = "For performance reasons, we don't want to create a copy here"
-    )
-    @SuppressWarnings("PMD.MethodReturnsInternalArray") // Performance
     public int[][] getNodeArrays() {
+        if (storage instanceof ArrayGraphStorage) {
+            return ((ArrayGraphStorage) storage).getNodeArrays();
+        }
+
+        final int[][] nodeArrays = new int[storage.size()][];
+        for (int id = 0; id < nodeArrays.length; id++) {
+            nodeArrays[id] = storage.getNodeArray(id);
+        }
         return nodeArrays;
     }
 
@@ -91,7 +146,7 @@ public final class Graph {
      * @return the {@link Node}'s byte offset
      */
     public long getByteOffset(final int id) {
-        return UnsignedInteger.toLong(nodeArrays[id][NODE_BYTE_OFFSET_INDEX]);
+        return storage.getByteOffset(id);
     }
 
     /**
@@ -101,10 +156,7 @@ public final class Graph {
      * @return the {@link Node}'s (capped) sequence length
      */
     public int getLength(final int id) {
-        if (nodeArrays[id][NODE_SEQUENCE_LENGTH_INDEX] < MINIMUM_SEQUENCE_LENGTH) {
-            return MINIMUM_SEQUENCE_LENGTH;
-        }
-        return nodeArrays[id][NODE_SEQUENCE_LENGTH_INDEX];
+        return Math.max(MINIMUM_SEQUENCE_LENGTH, storage.getSequenceLength(id));
     }
 
     /**
@@ -114,7 +166,7 @@ public final class Graph {
      * @return the {@link Node}'s sequence length
      */
     public int getSequenceLength(final int id) {
-        return nodeArrays[id][NODE_SEQUENCE_LENGTH_INDEX];
+        return storage.getSequenceLength(id);
     }
 
     /**
@@ -124,7 +176,7 @@ public final class Graph {
      * @return the unscaled x position
      */
     public int getUnscaledXPosition(final int id) {
-        return nodeArrays[id][UNSCALED_X_POSITION_INDEX];
+        return storage.getUnscaledXPosition(id);
     }
 
     public long getRealStartXPosition(final int id) {
@@ -142,7 +194,7 @@ public final class Graph {
      * @param unscaledXPosition the unscaled x position
      */
     public void setUnscaledXPosition(final int id, final int unscaledXPosition) {
-        nodeArrays[id][UNSCALED_X_POSITION_INDEX] = unscaledXPosition;
+        storage.setUnscaledXPosition(id, unscaledXPosition);
     }
 
     /**
@@ -153,34 +205,117 @@ public final class Graph {
      * @return the number of neighbours of a node in the given direction
      */
     public int getNeighbourCount(final int id, final SequenceDirection direction) {
-        return direction.ternary(
-                (nodeArrays[id].length
-                        - nodeArrays[id][NODE_OUTGOING_EDGES_INDEX] * EDGE_DATA_SIZE
-                        - (NODE_OUTGOING_EDGES_INDEX + 1)
-                ) / EDGE_DATA_SIZE,
-                nodeArrays[id][NODE_OUTGOING_EDGES_INDEX]
-        );
+        return storage.getNeighbourCount(id, direction);
+    }
+
+    /**
+     * Returns the identifier of a neighbour of a node.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of the neighbour
+     * @param index     the index of the neighbour among the node's neighbours in the given direction, ranging from 0
+     *                  to {@link #getNeighbourCount(int, SequenceDirection)}, exclusive
+     * @return the identifier of the neighbour
+     */
+    public int getNeighbour(final int id, final SequenceDirection direction, final int index) {
+        return storage.getNeighbour(id, direction, index);
+    }
+
+    /**
+     * Returns the byte offset of the edge between a node and one of its neighbours.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of the neighbour
+     * @param index     the index of the neighbour among the node's neighbours in the given direction
+     * @return the byte offset of the edge's line in the GFA file
+     */
+    public long getEdgeByteOffset(final int id, final SequenceDirection direction, final int index) {
+        return storage.getEdgeByteOffset(id, direction, index);
     }
 
-    @SuppressWarnings({"PMD.LooseCoupling", "squid:S1319"}) // I need a TreeMap
-    public void setNodePositions(final TreeMap<Long, Integer> nodePositions) {
+    public void setNodePositions(final NodePositionIndex nodePositions) {
         this.nodePositions = nodePositions;
     }
 
-    public int getNodeAtPosition(final long position) {
+    /**
+     * Returns the {@link NodePositionIndex} of the nodes in this graph.
+     *
+     * @return the {@link NodePositionIndex} of the nodes in this graph
+     * @throws IllegalStateException if the node positions have not been set
+     */
+    public NodePositionIndex getNodePositions() {
         if (nodePositions == null) {
-            throw new IllegalStateException("Cannot give node position while TreeMap was not set.");
+            throw new IllegalStateException("Cannot give node positions while they were not set.");
         }
+        return nodePositions;
+    }
+
+    public int getNodeAtPosition(final long position) {
+        return getNodePositions().getNodeAtPosition(position);
+    }
 
-        Map.Entry<Long, Integer> myEntry = nodePositions.floorEntry(position);
-        if (myEntry == null) {
-            myEntry = nodePositions.ceilingEntry(position);
-            if (myEntry == null) {
-                throw new IllegalStateException("Could not find that kind of node.");
-            }
+    /**
+     * Applies the given action to all nodes of which the horizontal span intersects the given range.
+     * <p>
+     * The span of a node starts at its position in the {@link NodePositionIndex} and has the node's length.
+     *
+     * @param from   the start of the range, inclusive
+     * @param to     the end of the range, inclusive
+     * @param action the function to apply to each node's identifier
+     */
+    public void visitNodesInRange(final long from, final long to, final IntConsumer action) {
+        getNodePositions().visitNodesInRange(from, to, this::getLength, action);
+    }
+
+    public void setTopologicalOrder(final TopologicalOrder topologicalOrder) {
+        this.topologicalOrder = topologicalOrder;
+    }
+
+    /**
+     * Returns the {@link TopologicalOrder} of the nodes in this graph.
+     *
+     * @return the {@link TopologicalOrder} of the nodes in this graph
+     * @throws IllegalStateException if the topological order has not been set
+     */
+    public TopologicalOrder getTopologicalOrder() {
+        if (topologicalOrder == null) {
+            throw new IllegalStateException("Cannot give topological order while it was not set.");
         }
+        return topologicalOrder;
+    }
+
+    public void setNodeRenumbering(final @Nullable NodeRenumbering nodeRenumbering) {
+        this.nodeRenumbering = nodeRenumbering;
+    }
+
+    /**
+     * Returns the {@link NodeRenumbering} of the nodes in this graph.
+     *
+     * @return the {@link NodeRenumbering} of the nodes in this graph, or {@code null} if they have not been renumbered
+     */
+    public @Nullable NodeRenumbering getNodeRenumbering() {
+        return nodeRenumbering;
+    }
 
-        return myEntry.getValue();
+    /**
+     * Returns the original identifier of the node with the given identifier, which is the index of the node's segment
+     * among the segments in the GFA file.
+     *
+     * @param id the node's identifier
+     * @return the node's original identifier, which equals its identifier if the nodes have not been renumbered
+     */
+    public int getOriginalNodeId(final int id) {
+        return nodeRenumbering == null ? id : nodeRenumbering.getOriginalId(id);
+    }
+
+    /**
+     * Returns the identifier of the node with the given original identifier.
+     *
+     * @param originalId the index of the node's segment among the segments in the GFA file
+     * @return the node's identifier, which equals its original identifier if the nodes have not been renumbered
+     */
+    public int getNodeIdByOriginalId(final int originalId) {
+        return nodeRenumbering == null ? originalId : nodeRenumbering.getId(originalId);
     }
 
     /**
@@ -1,9 +1,12 @@
 package org.dnacronym.hygene.graph;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.dnacronym.hygene.core.IntQueue;
+
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 
 
@@ -12,12 +15,23 @@ import java.util.function.Predicate;
  * <p>
  * A direct neighbour is a node that can be reached over a single edge. An indirect neighbour is a node that can be
  * reached over at least one edge.
+ * <p>
+ * Each iteration function comes in two variants. The variants that take a {@link Consumer} or a {@link Predicate} box
+ * every identifier they pass on, and are convenient when the identifiers are collected anyway. The variants with
+ * {@code Ids} in their name take an {@link IntConsumer} or an {@link IntPredicate} instead, and do not allocate
+ * anything per visited node.
+ * <p>
+ * Traversals that have to keep track of the nodes they visited share a single {@link VisitedSet}, which is allocated on
+ * the first such traversal and emptied in constant time before each next one. A traversal therefore takes time
+ * proportional to the number of nodes it visits rather than to the size of the {@link Graph}. As a consequence, a
+ * {@link GraphIterator} should not be used by multiple threads at the same time.
  */
 // All methods are closely related and cannot be refactored further
 @SuppressWarnings("PMD.TooManyMethods")
 public final class GraphIterator {
     private final Graph graph;
-    private final int[][] nodeArrays;
+    private @MonotonicNonNull VisitedSet visitedSet;
+    private boolean visitedSetInUse;
 
 
     /**
@@ -27,7 +41,6 @@ public final class GraphIterator {
      */
     public GraphIterator(final Graph graph) {
         this.graph = graph;
-        this.nodeArrays = graph.getNodeArrays();
     }
 
 
@@ -38,8 +51,18 @@ public final class GraphIterator {
      * @param action the function to apply to each neighbour's identifier
      */
     public void visitDirectNeighbours(final int id, final Consumer<Integer> action) {
-        visitDirectNeighbours(id, SequenceDirection.LEFT, action);
-        visitDirectNeighbours(id, SequenceDirection.RIGHT, action);
+        visitDirectNeighbourIds(id, action::accept);
+    }
+
+    /**
+     * Applies the given {@link IntConsumer} to the identifiers of the direct neighbours in either direction.
+     *
+     * @param id     the node's identifier
+     * @param action the function to apply to each neighbour's identifier
+     */
+    public void visitDirectNeighbourIds(final int id, final IntConsumer action) {
+        visitDirectNeighbourIds(id, SequenceDirection.LEFT, action);
+        visitDirectNeighbourIds(id, SequenceDirection.RIGHT, action);
     }
 
     /**
@@ -50,11 +73,21 @@ public final class GraphIterator {
      * @param action    the function to apply to each neighbour's identifier
      */
     public void visitDirectNeighbours(final int id, final SequenceDirection direction, final Consumer<Integer> action) {
-        final int neighbourOffset = getNeighbourOffset(id, direction);
+        visitDirectNeighbourIds(id, direction, action::accept);
+    }
 
-        for (int i = 0; i < graph.getNeighbourCount(id, direction); i++) {
-            final int neighbourIndex = neighbourOffset + Graph.EDGE_DATA_SIZE * i;
-            action.accept(nodeArrays[id][neighbourIndex]);
+    /**
+     * Applies the given {@link IntConsumer} to the identifiers of the direct neighbours in the given direction.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of neighbours to visit
+     * @param action    the function to apply to each neighbour's identifier
+     */
+    public void visitDirectNeighbourIds(final int id, final SequenceDirection direction, final IntConsumer action) {
+        final int neighbourCount = graph.getNeighbourCount(id, direction);
+
+        for (int i = 0; i < neighbourCount; i++) {
+            action.accept(graph.getNeighbour(id, direction, i));
         }
     }
 
@@ -70,10 +103,25 @@ public final class GraphIterator {
      */
     public void visitDirectNeighboursWhile(final int id, final SequenceDirection direction,
                                            final Predicate<Integer> condition, final Consumer<Integer> action) {
-        final Consumer<Integer> emptyCatchAction = ignored -> {
+        visitDirectNeighbourIdsWhile(id, direction, condition::test, action::accept);
+    }
+
+    /**
+     * Applies the given {@link IntConsumer} to the identifiers of the direct neighbours in the given direction until
+     * the given {@link IntPredicate} returns {@code false} for that neighbour's identifier or until there are no more
+     * neighbours.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of neighbours to visit
+     * @param condition the {@link IntPredicate} that holds until no more neighbours should be visited
+     * @param action    the function to apply to each neighbour's identifier
+     */
+    public void visitDirectNeighbourIdsWhile(final int id, final SequenceDirection direction,
+                                             final IntPredicate condition, final IntConsumer action) {
+        final IntConsumer emptyCatchAction = ignored -> {
             // Do nothing
         };
-        visitDirectNeighboursWhile(id, direction, condition, emptyCatchAction, action);
+        visitDirectNeighbourIdsWhile(id, direction, condition, emptyCatchAction, action);
     }
 
     /**
@@ -90,10 +138,27 @@ public final class GraphIterator {
     public void visitDirectNeighboursWhile(final int id, final SequenceDirection direction,
                                            final Predicate<Integer> condition, final Consumer<Integer> catchAction,
                                            final Consumer<Integer> action) {
-        final int neighbourOffset = getNeighbourOffset(id, direction);
+        visitDirectNeighbourIdsWhile(id, direction, condition::test, catchAction::accept, action::accept);
+    }
+
+    /**
+     * Applies the given {@link IntConsumer} to the identifiers of the direct neighbours in the given direction until
+     * the given {@link IntPredicate} returns {@code false} for that neighbour's identifier or until there are no more
+     * neighbours.
+     *
+     * @param id          the node's identifier
+     * @param direction   the direction of neighbours to visit
+     * @param condition   the {@link IntPredicate} that holds until no more neighbours should be visited
+     * @param catchAction the {@link IntConsumer} to execute as soon as the condition no longer holds
+     * @param action      the function to apply to each neighbour's identifier
+     */
+    public void visitDirectNeighbourIdsWhile(final int id, final SequenceDirection direction,
+                                             final IntPredicate condition, final IntConsumer catchAction,
+                                             final IntConsumer action) {
+        final int neighbourCount = graph.getNeighbourCount(id, direction);
 
-        for (int i = 0; i < graph.getNeighbourCount(id, direction); i++) {
-            final int neighbour = nodeArrays[id][neighbourOffset + Graph.EDGE_DATA_SIZE * i];
+        for (int i = 0; i < neighbourCount; i++) {
+            final int neighbour = graph.getNeighbour(id, direction, i);
 
             if (!condition.test(neighbour)) {
                 catchAction.accept(neighbour);
@@ -113,11 +178,26 @@ public final class GraphIterator {
      */
     public void visitIndirectNeighbours(final int id, final SequenceDirection direction,
                                         final Consumer<Integer> action) {
-        final boolean[] visited = new boolean[nodeArrays.length];
-        visitIndirectNeighbours(id, direction, node -> visited[node], node -> {
-            visited[node] = true;
-            action.accept(node);
-        });
+        visitIndirectNeighbourIds(id, direction, action::accept);
+    }
+
+    /**
+     * Applies the given {@link IntConsumer} to the identifiers of the indirect neighbours in the given direction.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of neighbours to visit
+     * @param action    the function to apply to each neighbour's identifier
+     */
+    public void visitIndirectNeighbourIds(final int id, final SequenceDirection direction, final IntConsumer action) {
+        final VisitedSet visited = acquireVisitedSet();
+        try {
+            visitIndirectNeighbourIds(id, direction, visited::contains, node -> {
+                visited.add(node);
+                action.accept(node);
+            });
+        } finally {
+            releaseVisitedSet(visited);
+        }
     }
 
     /**
@@ -131,7 +211,21 @@ public final class GraphIterator {
      */
     public void visitIndirectNeighbours(final int id, final SequenceDirection direction,
                                         final Predicate<Integer> visited, final Consumer<Integer> action) {
-        final Queue<Integer> queue = new LinkedList<>();
+        visitIndirectNeighbourIds(id, direction, visited::test, action::accept);
+    }
+
+    /**
+     * Applies the given {@link IntConsumer} to the identifiers of the indirect neighbours in the given direction.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of neighbours to visit
+     * @param visited   a function that returns true if the node with the supplied id has been visited during this
+     *                  iteration
+     * @param action    the function to apply to each neighbour's identifier
+     */
+    public void visitIndirectNeighbourIds(final int id, final SequenceDirection direction,
+                                          final IntPredicate visited, final IntConsumer action) {
+        final IntQueue queue = new IntQueue();
         queue.add(id);
 
         while (!queue.isEmpty()) {
@@ -141,16 +235,19 @@ public final class GraphIterator {
             }
 
             action.accept(head);
-            visitDirectNeighbours(head, direction, index -> {
-                if (!visited.test(index)) {
-                    queue.add(index);
+
+            final int neighbourCount = graph.getNeighbourCount(head, direction);
+            for (int i = 0; i < neighbourCount; i++) {
+                final int neighbour = graph.getNeighbour(head, direction, i);
+                if (!visited.test(neighbour)) {
+                    queue.add(neighbour);
                 }
-            });
+            }
         }
     }
 
     /**
-     * Applies the given {@link Consumer} to the identifiers of the indirect neighbours that can be reached within
+     * Applies the given {@link BiConsumer} to the identifiers of the indirect neighbours that can be reached within
      * the given number of hops in both directions.
      * <p>
      * Visits left neighbours first.
@@ -161,41 +258,64 @@ public final class GraphIterator {
      */
     public void visitIndirectNeighboursWithinRange(final int id, final int maxDepth,
                                                    final BiConsumer<Integer, Integer> action) {
-        final boolean[] visited = new boolean[nodeArrays.length];
-        final Queue<Integer> queue = new LinkedList<>();
+        visitIndirectNeighbourIdsWithinRange(id, maxDepth, action::accept);
+    }
+
+    /**
+     * Applies the given {@link DepthConsumer} to the identifiers of the indirect neighbours that can be reached
+     * within the given number of hops in both directions.
+     * <p>
+     * Visits left neighbours first.
+     *
+     * @param id       the node's identifier
+     * @param maxDepth the maximum number of hops a neighbour can be removed from the node
+     * @param action   the function to apply to each neighbour's depth and identifier
+     */
+    public void visitIndirectNeighbourIdsWithinRange(final int id, final int maxDepth, final DepthConsumer action) {
+        final VisitedSet visited = acquireVisitedSet();
+        try {
+            visitIndirectNeighbourIdsWithinRange(id, maxDepth, visited, action);
+        } finally {
+            releaseVisitedSet(visited);
+        }
+    }
+
+    /**
+     * Applies the given {@link DepthConsumer} to the identifiers of the indirect neighbours that can be reached
+     * within the given number of hops in both directions, keeping track of visited nodes in the given set.
+     *
+     * @param id       the node's identifier
+     * @param maxDepth the maximum number of hops a neighbour can be removed from the node
+     * @param visited  an empty {@link VisitedSet}
+     * @param action   the function to apply to each neighbour's depth and identifier
+     */
+    private void visitIndirectNeighbourIdsWithinRange(final int id, final int maxDepth, final VisitedSet visited,
+                                                      final DepthConsumer action) {
+        final IntQueue queue = new IntQueue();
         queue.add(id);
 
         int currentDepth = 0;
-        final int[] depthIncreaseTimes = {1, 0};
-
-        final Consumer<Integer> visitDirectNeighbourAction = neighbour -> {
-            if (!visited[neighbour]) {
-                depthIncreaseTimes[1]++;
-                queue.add(neighbour);
-            }
-        };
+        int currentDepthRemaining = 1;
+        int nextDepthCount = 0;
 
         while (!queue.isEmpty()) {
             final int head = queue.remove();
 
-            if (!visited[head]) {
-                visited[head] = true;
+            if (visited.add(head)) {
                 action.accept(currentDepth, head);
 
-                if (currentDepth >= maxDepth) {
-                    continue;
+                if (currentDepth < maxDepth) {
+                    nextDepthCount += enqueueUnvisitedNeighbours(head, SequenceDirection.LEFT, visited, queue);
+                    nextDepthCount += enqueueUnvisitedNeighbours(head, SequenceDirection.RIGHT, visited, queue);
                 }
-
-                visitDirectNeighbours(head, SequenceDirection.LEFT, visitDirectNeighbourAction);
-                visitDirectNeighbours(head, SequenceDirection.RIGHT, visitDirectNeighbourAction);
             }
 
-            depthIncreaseTimes[0]--;
-            if (depthIncreaseTimes[0] <= 0) {
+            currentDepthRemaining--;
+            if (currentDepthRemaining <= 0) {
                 currentDepth++;
 
-                depthIncreaseTimes[0] = depthIncreaseTimes[1];
-                depthIncreaseTimes[1] = 0;
+                currentDepthRemaining = nextDepthCount;
+                nextDepthCount = 0;
             }
         }
     }
@@ -207,13 +327,23 @@ public final class GraphIterator {
      * @param action    the function to apply to each node's identifier
      */
     public void visitAll(final SequenceDirection direction, final Consumer<Integer> action) {
-        final int sentinelId = direction.ternary(nodeArrays.length - 1, 0);
-        visitIndirectNeighbours(sentinelId, direction, action);
+        visitAllIds(direction, action::accept);
+    }
+
+    /**
+     * Visits all nodes in this {@link Graph} and applies the given {@link IntConsumer} to their identifiers.
+     *
+     * @param direction the direction to visit the nodes in
+     * @param action    the function to apply to each node's identifier
+     */
+    public void visitAllIds(final SequenceDirection direction, final IntConsumer action) {
+        final int sentinelId = direction == SequenceDirection.RIGHT ? 0 : graph.size() - 1;
+        visitIndirectNeighbourIds(sentinelId, direction, action);
     }
 
     /**
      * Visits all nodes in this {@link Graph} that can be reached within the given number of hops from the sentinel
-     * node and, applies the given {@link Consumer} to their identifiers.
+     * node and, applies the given {@link BiConsumer} to their identifiers.
      *
      * @param direction the direction to visit the nodes in
      * @param maxDepth  the maximum number of hops a neighbour can be removed from the node
@@ -221,20 +351,97 @@ public final class GraphIterator {
      */
     public void visitAllWithinRange(final SequenceDirection direction, final int maxDepth,
                                     final BiConsumer<Integer, Integer> action) {
-        final int sentinelId = direction.ternary(nodeArrays.length - 1, 0);
-        visitIndirectNeighboursWithinRange(sentinelId, maxDepth, action);
+        visitAllIdsWithinRange(direction, maxDepth, action::accept);
     }
 
+    /**
+     * Visits all nodes in this {@link Graph} that can be reached within the given number of hops from the sentinel
+     * node and, applies the given {@link DepthConsumer} to their identifiers.
+     *
+     * @param direction the direction to visit the nodes in
+     * @param maxDepth  the maximum number of hops a neighbour can be removed from the node
+     * @param action    the function to apply to each node's depth and identifier
+     */
+    public void visitAllIdsWithinRange(final SequenceDirection direction, final int maxDepth,
+                                       final DepthConsumer action) {
+        final int sentinelId = direction == SequenceDirection.RIGHT ? 0 : graph.size() - 1;
+        visitIndirectNeighbourIdsWithinRange(sentinelId, maxDepth, action);
+    }
 
     /**
-     * Returns the offset within a node array where the neighbours in the given direction begin.
+     * Adds the direct neighbours in the given direction that have not been visited yet to the queue.
      *
      * @param id        the node's identifier
-     * @param direction the direction of the neighbours
-     * @return the offset within a node array where the neighbours in the given direction begin
+     * @param direction the direction of neighbours to add
+     * @param visited   the nodes that have been visited
+     * @param queue     the queue to add the neighbours to
+     * @return the number of neighbours that were added to the queue
+     */
+    private int enqueueUnvisitedNeighbours(final int id, final SequenceDirection direction, final VisitedSet visited,
+                                           final IntQueue queue) {
+        final int neighbourCount = graph.getNeighbourCount(id, direction);
+
+        int added = 0;
+        for (int i = 0; i < neighbourCount; i++) {
+            final int neighbour = graph.getNeighbour(id, direction, i);
+            if (!visited.contains(neighbour)) {
+                queue.add(neighbour);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Returns the shared {@link VisitedSet} after emptying it, allocating it if this is the first traversal.
+     * <p>
+     * If the shared set is already in use by a traversal that has not finished yet, for example because a traversal
+     * is started from within the action of another, a new set is returned instead.
+     *
+     * @return an empty {@link VisitedSet}, which should be released with {@link #releaseVisitedSet(VisitedSet)}
+     */
+    private VisitedSet acquireVisitedSet() {
+        if (visitedSetInUse) {
+            return new VisitedSet(graph.size());
+        }
+
+        VisitedSet set = visitedSet;
+        if (set == null) {
+            set = new VisitedSet(graph.size());
+            visitedSet = set;
+        } else {
+            set.clear();
+        }
+
+        visitedSetInUse = true;
+        return set;
+    }
+
+    /**
+     * Releases a {@link VisitedSet} that was acquired with {@link #acquireVisitedSet()}.
+     *
+     * @param set the {@link VisitedSet} to release
+     */
+    private void releaseVisitedSet(final VisitedSet set) {
+        if (set == visitedSet) {
+            visitedSetInUse = false;
+        }
+    }
+
+
+    /**
+     * Represents an operation that accepts the depth and the identifier of a node.
+     * <p>
+     * This is the primitive specialization of {@link BiConsumer} for traversals that keep track of depth.
      */
-    private int getNeighbourOffset(final int id, final SequenceDirection direction) {
-        return 1 + Graph.NODE_OUTGOING_EDGES_INDEX + direction.ternary(
-                graph.getNeighbourCount(id, direction.opposite()) * Graph.EDGE_DATA_SIZE, 0);
+    @FunctionalInterface
+    public interface DepthConsumer {
+        /**
+         * Performs this operation on the given depth and node identifier.
+         *
+         * @param depth the number of hops the node is removed from the start of the traversal
+         * @param id    the node's identifier
+         */
+        void accept(int depth, int id);
     }
 }
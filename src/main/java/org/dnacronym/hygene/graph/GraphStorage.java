@@ -0,0 +1,98 @@
+package org.dnacronym.hygene.graph;
+
+
+/**
+ * The underlying storage of the nodes and edges of a {@link Graph}.
+ * <p>
+ * Nodes are identified by their index, ranging from 0 to {@link #size()}, exclusive. The edges of a node are ordered
+ * per direction, and are accessed by their index within that direction.
+ */
+public interface GraphStorage {
+    /**
+     * Returns the number of nodes, including the source and sink.
+     *
+     * @return the number of nodes
+     */
+    int size();
+
+    /**
+     * Returns the byte offset of the node's line in the GFA file.
+     *
+     * @param id the node's identifier
+     * @return the byte offset of the node's line in the GFA file
+     */
+    long getByteOffset(int id);
+
+    /**
+     * Returns {@code true} iff. the storage can hold byte offsets beyond 4 GB.
+     * <p>
+     * Such storages are only needed for GFA files of 4 GB and more, and cannot be converted to the node array format.
+     *
+     * @return {@code true} iff. the storage can hold byte offsets beyond 4 GB
+     */
+    boolean hasWideByteOffsets();
+
+    /**
+     * Returns the number of base pairs in the node's sequence.
+     *
+     * @param id the node's identifier
+     * @return the number of base pairs in the node's sequence
+     */
+    int getSequenceLength(int id);
+
+    /**
+     * Returns the unscaled x position of the node.
+     *
+     * @param id the node's identifier
+     * @return the unscaled x position of the node
+     */
+    int getUnscaledXPosition(int id);
+
+    /**
+     * Sets the unscaled x position of the node.
+     *
+     * @param id                the node's identifier
+     * @param unscaledXPosition the unscaled x position
+     */
+    void setUnscaledXPosition(int id, int unscaledXPosition);
+
+    /**
+     * Returns the number of neighbours of the node in the given direction.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of the neighbours
+     * @return the number of neighbours of the node in the given direction
+     */
+    int getNeighbourCount(int id, SequenceDirection direction);
+
+    /**
+     * Returns the identifier of a neighbour of the node.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of the neighbour
+     * @param index     the index of the neighbour among the node's neighbours in the given direction
+     * @return the identifier of the neighbour
+     */
+    int getNeighbour(int id, SequenceDirection direction, int index);
+
+    /**
+     * Returns the byte offset of the line in the GFA file of the edge between the node and one of its neighbours.
+     *
+     * @param id        the node's identifier
+     * @param direction the direction of the neighbour
+     * @param index     the index of the neighbour among the node's neighbours in the given direction
+     * @return the byte offset of the edge's line in the GFA file
+     */
+    long getEdgeByteOffset(int id, SequenceDirection direction, int index);
+
+    /**
+     * Returns the node in the node array format described in {@link Graph}.
+     * <p>
+     * Implementations that do not store nodes as arrays create a new array on each call.
+     *
+     * @param id the node's identifier
+     * @return the node in the node array format
+     * @throws UnsupportedOperationException if a byte offset of the node or its edges lies beyond 4 GB
+     */
+    int[] getNodeArray(int id);
+}
@@ -0,0 +1,16 @@
+package org.dnacronym.hygene.graph;
+
+
+/**
+ * The kinds of {@link GraphStorage} a graph can be loaded into.
+ */
+public enum GraphStorageType {
+    /**
+     * Stores the graph in arrays on the Java heap, using a {@link CsrGraphStorage}.
+     */
+    HEAP,
+    /**
+     * Stores the graph in direct buffers outside of the Java heap, using an {@link OffHeapGraphStorage}.
+     */
+    OFF_HEAP
+}
@@ -0,0 +1,20 @@
+package org.dnacronym.hygene.graph;
+
+
+/**
+ * The orders in which the nodes of a parsed graph can be numbered.
+ */
+public enum NodeOrdering {
+    /**
+     * Numbers nodes in the order in which their segments appear in the GFA file.
+     */
+    FILE,
+    /**
+     * Renumbers nodes by their rank in the graph's {@link TopologicalOrder}.
+     */
+    TOPOLOGICAL,
+    /**
+     * Renumbers nodes by their horizontal position in the graph's {@link NodePositionIndex}.
+     */
+    HORIZONTAL
+}
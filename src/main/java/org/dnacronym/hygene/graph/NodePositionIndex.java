@@ -0,0 +1,225 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+
+
+/**
+ * An index of the horizontal positions of the nodes in a {@link Graph}.
+ * <p>
+ * Positions are stored in a sorted array, next to an array containing the identifier of the node at each position.
+ * Nodes with equal positions are ordered by identifier. Lookups use a binary search, so that they do not require an
+ * object per node.
+ * <p>
+ * Each node spans from its position up to its position plus its length. The largest such span is stored as well, so
+ * that range queries know how far to the left of a range they have to look for nodes that intersect it.
+ */
+public final class NodePositionIndex {
+    private final long[] positions;
+    private final int[] ids;
+    private final int maxSpan;
+
+
+    /**
+     * Constructs a new {@link NodePositionIndex}.
+     * <p>
+     * The arrays are not copied.
+     *
+     * @param positions the positions of the nodes, sorted in ascending order
+     * @param ids       the identifier of the node at each position, in ascending order for equal positions
+     * @param maxSpan   the largest length of any of the nodes
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP2",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
+    public NodePositionIndex(final long[] positions, final int[] ids, final int maxSpan) {
+        if (positions.length != ids.length) {
+            throw new IllegalArgumentException("There should be exactly one node identifier for each position.");
+        }
+
+        this.positions = positions;
+        this.ids = ids;
+        this.maxSpan = maxSpan;
+    }
+
+
+    /**
+     * Creates a new {@link NodePositionIndex} from positions in no particular order.
+     * <p>
+     * The arrays are sorted in place. The sort is stable, so nodes with equal positions should be given in ascending
+     * order of identifier.
+     *
+     * @param positions the positions of the nodes
+     * @param ids       the identifier of the node at each position
+     * @param maxSpan   the largest length of any of the nodes
+     * @return a new {@link NodePositionIndex}
+     */
+    public static NodePositionIndex fromUnsorted(final long[] positions, final int[] ids, final int maxSpan) {
+        sort(positions, ids, new long[positions.length], new int[ids.length], 0, positions.length);
+        return new NodePositionIndex(positions, ids, maxSpan);
+    }
+
+    /**
+     * Sorts the given range of the arrays by position using a merge sort, which is stable.
+     *
+     * @param positions      the positions to sort
+     * @param ids            the identifiers to reorder along with their positions
+     * @param positionBuffer a buffer of the same length as the positions
+     * @param idBuffer       a buffer of the same length as the identifiers
+     * @param from           the first index of the range, inclusive
+     * @param to             the last index of the range, exclusive
+     */
+    private static void sort(final long[] positions, final int[] ids, final long[] positionBuffer,
+                             final int[] idBuffer, final int from, final int to) {
+        if (to - from < 2) {
+            return;
+        }
+
+        final int middle = (from + to) >>> 1;
+        sort(positions, ids, positionBuffer, idBuffer, from, middle);
+        sort(positions, ids, positionBuffer, idBuffer, middle, to);
+        if (positions[middle - 1] <= positions[middle]) {
+            return;
+        }
+
+        System.arraycopy(positions, from, positionBuffer, from, to - from);
+        System.arraycopy(ids, from, idBuffer, from, to - from);
+
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || left < middle && positionBuffer[left] <= positionBuffer[right]) {
+                positions[i] = positionBuffer[left];
+                ids[i] = idBuffer[left];
+                left++;
+            } else {
+                positions[i] = positionBuffer[right];
+                ids[i] = idBuffer[right];
+                right++;
+            }
+        }
+    }
+
+
+    /**
+     * Returns the number of nodes in the index.
+     *
+     * @return the number of nodes in the index
+     */
+    public int size() {
+        return positions.length;
+    }
+
+    /**
+     * Returns the position at the given index.
+     *
+     * @param index an index in the sorted positions
+     * @return the position at the given index
+     */
+    public long getPosition(final int index) {
+        return positions[index];
+    }
+
+    /**
+     * Returns the identifier of the node at the given index.
+     *
+     * @param index an index in the sorted positions
+     * @return the identifier of the node at the given index
+     */
+    public int getNodeId(final int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns the largest length of any of the nodes.
+     *
+     * @return the largest length of any of the nodes
+     */
+    public int getMaxSpan() {
+        return maxSpan;
+    }
+
+    /**
+     * Returns the node with the greatest position less than or equal to the given position, or the node with the
+     * least position if there is no such node.
+     * <p>
+     * If several nodes share that position, the one with the highest identifier is returned.
+     *
+     * @param position a position
+     * @return the identifier of the node at or directly before the given position
+     * @throws IllegalStateException if the index is empty
+     */
+    public int getNodeAtPosition(final long position) {
+        if (positions.length == 0) {
+            throw new IllegalStateException("Could not find that kind of node.");
+        }
+
+        final int index = getUpperBound(position) - 1;
+        return ids[Math.max(index, 0)];
+    }
+
+    /**
+     * Applies the given action to all nodes whose span intersects the given range.
+     * <p>
+     * Nodes are visited in order of position.
+     *
+     * @param from    the start of the range, inclusive
+     * @param to      the end of the range, inclusive
+     * @param lengths a function that returns the length of the node with the given identifier
+     * @param action  the function to apply to each node's identifier
+     */
+    public void visitNodesInRange(final long from, final long to, final IntUnaryOperator lengths,
+                                  final IntConsumer action) {
+        final int end = getUpperBound(to);
+        for (int i = getLowerBound(from - maxSpan); i < end; i++) {
+            if (positions[i] + lengths.applyAsInt(ids[i]) >= from) {
+                action.accept(ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the first position greater than or equal to the given position.
+     *
+     * @param position a position
+     * @return the index of the first position greater than or equal to the given position, or {@link #size()} if
+     * there is none
+     */
+    public int getLowerBound(final long position) {
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (positions[middle] < position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first position greater than the given position.
+     *
+     * @param position a position
+     * @return the index of the first position greater than the given position, or {@link #size()} if there is none
+     */
+    public int getUpperBound(final long position) {
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (positions[middle] <= position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
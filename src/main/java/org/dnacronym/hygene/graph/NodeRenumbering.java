@@ -0,0 +1,403 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.dnacronym.hygene.core.ByteOffsetArray;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntUnaryOperator;
+
+
+/**
+ * A renumbering of the nodes in a {@link Graph}.
+ * <p>
+ * Nodes are initially numbered in the order in which their segments appear in the GFA file, which is often unrelated
+ * to where they are in the graph. Renumbering them by their position in the graph places nodes that are close to each
+ * other in the graph at nearby identifiers, so that neighbourhood queries touch nearby memory and nearby parts of the
+ * file.
+ * <p>
+ * The renumbering maps each node identifier to its original identifier, and vice versa. The source and the sink keep
+ * their identifiers. Since the byte offsets of nodes and edges are renumbered along with them, the names and other
+ * metadata of renumbered nodes can still be read from the GFA file.
+ */
+public final class NodeRenumbering {
+    private final int[] originalIds;
+    private final int[] ids;
+
+
+    /**
+     * Constructs a new {@link NodeRenumbering}.
+     * <p>
+     * The array is not copied.
+     *
+     * @param originalIds the original identifier of each node, indexed by new identifier
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP2",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
+    public NodeRenumbering(final int[] originalIds) {
+        this.originalIds = originalIds;
+        this.ids = new int[originalIds.length];
+
+        Arrays.fill(ids, -1);
+        for (int id = 0; id < originalIds.length; id++) {
+            final int originalId = originalIds[id];
+            if (originalId < 0 || originalId >= originalIds.length || ids[originalId] >= 0) {
+                throw new IllegalArgumentException("The original identifiers should be a permutation of the node"
+                        + " identifiers.");
+            }
+            ids[originalId] = id;
+        }
+    }
+
+
+    /**
+     * Creates a {@link NodeRenumbering} that numbers nodes by their rank in the given {@link TopologicalOrder}.
+     * <p>
+     * Nodes that are not part of the order come after the ordered nodes, in their original order.
+     *
+     * @param topologicalOrder a {@link TopologicalOrder}
+     * @return a {@link NodeRenumbering} that numbers nodes in the given order
+     */
+    public static NodeRenumbering fromTopologicalOrder(final TopologicalOrder topologicalOrder) {
+        return fromSequence(topologicalOrder.getNodeCount(), topologicalOrder.size(), topologicalOrder::getNodeId);
+    }
+
+    /**
+     * Creates a {@link NodeRenumbering} that numbers nodes by their position in the given {@link NodePositionIndex}.
+     * <p>
+     * Nodes that have no position come after the positioned nodes, in their original order.
+     *
+     * @param nodePositions a {@link NodePositionIndex}
+     * @param size          the number of nodes in the graph
+     * @return a {@link NodeRenumbering} that numbers nodes from left to right
+     */
+    public static NodeRenumbering fromNodePositions(final NodePositionIndex nodePositions, final int size) {
+        return fromSequence(size, nodePositions.size(), nodePositions::getNodeId);
+    }
+
+    /**
+     * Creates a {@link NodeRenumbering} that numbers nodes in the order of the given sequence of nodes.
+     * <p>
+     * The source and sink keep their identifiers, and nodes that do not occur in the sequence come after the nodes
+     * that do, in their original order. Only the first occurrence of a node in the sequence is taken into account.
+     *
+     * @param size   the number of nodes in the graph
+     * @param length the length of the sequence
+     * @param nodeAt the original identifier of the node at each index in the sequence
+     * @return a {@link NodeRenumbering} that numbers nodes in the order of the sequence
+     */
+    private static NodeRenumbering fromSequence(final int size, final int length, final IntUnaryOperator nodeAt) {
+        final int[] originalIds = new int[size];
+        final boolean[] numbered = new boolean[size];
+        final int sink = size - 1;
+        int nextId = 0;
+
+        if (size > 0) {
+            numbered[0] = true;
+            numbered[sink] = true;
+            nextId++;
+        }
+        for (int i = 0; i < length; i++) {
+            final int originalId = nodeAt.applyAsInt(i);
+            if (!numbered[originalId]) {
+                numbered[originalId] = true;
+                originalIds[nextId] = originalId;
+                nextId++;
+            }
+        }
+        for (int originalId = 0; originalId < size; originalId++) {
+            if (!numbered[originalId]) {
+                originalIds[nextId] = originalId;
+                nextId++;
+            }
+        }
+        if (size > 1) {
+            originalIds[sink] = sink;
+        }
+
+        return new NodeRenumbering(originalIds);
+    }
+
+
+    /**
+     * Returns the number of nodes in the renumbering.
+     *
+     * @return the number of nodes in the renumbering
+     */
+    public int size() {
+        return originalIds.length;
+    }
+
+    /**
+     * Returns the original identifier of the node with the given identifier.
+     *
+     * @param id the node's identifier
+     * @return the node's original identifier
+     */
+    public int getOriginalId(final int id) {
+        return originalIds[id];
+    }
+
+    /**
+     * Returns the identifier of the node with the given original identifier.
+     *
+     * @param originalId the node's original identifier
+     * @return the node's identifier
+     */
+    public int getId(final int originalId) {
+        return ids[originalId];
+    }
+
+    /**
+     * Renumbers the nodes in the given {@link GraphStorage}.
+     * <p>
+     * The neighbours of each node stay in the same order.
+     *
+     * @param storage a {@link GraphStorage} that is numbered by original identifier
+     * @return a new {@link CsrGraphStorage} that is numbered by this renumbering
+     */
+    public CsrGraphStorage renumber(final GraphStorage storage) {
+        final int size = checkSize(storage.size());
+        final ByteOffsetArray byteOffsets = new ByteOffsetArray(size, storage.hasWideByteOffsets());
+        final int[] sequenceLengths = new int[size];
+        final int[] unscaledXPositions = new int[size];
+        final int[] outgoingStarts = new int[size + 1];
+        final int[] incomingStarts = new int[size + 1];
+
+        for (int id = 0; id < size; id++) {
+            final int originalId = originalIds[id];
+
+            byteOffsets.set(id, storage.getByteOffset(originalId));
+            sequenceLengths[id] = storage.getSequenceLength(originalId);
+            unscaledXPositions[id] = storage.getUnscaledXPosition(originalId);
+            outgoingStarts[id + 1] = outgoingStarts[id]
+                    + storage.getNeighbourCount(originalId, SequenceDirection.RIGHT);
+            incomingStarts[id + 1] = incomingStarts[id]
+                    + storage.getNeighbourCount(originalId, SequenceDirection.LEFT);
+        }
+
+        final int[] outgoingNeighbours = new int[outgoingStarts[size]];
+        final ByteOffsetArray outgoingByteOffsets =
+                new ByteOffsetArray(outgoingStarts[size], storage.hasWideByteOffsets());
+        final int[] incomingNeighbours = new int[incomingStarts[size]];
+        final ByteOffsetArray incomingByteOffsets =
+                new ByteOffsetArray(incomingStarts[size], storage.hasWideByteOffsets());
+
+        for (int id = 0; id < size; id++) {
+            renumberEdges(storage, id, SequenceDirection.RIGHT,
+                    outgoingStarts, outgoingNeighbours, outgoingByteOffsets);
+            renumberEdges(storage, id, SequenceDirection.LEFT,
+                    incomingStarts, incomingNeighbours, incomingByteOffsets);
+        }
+
+        return new CsrGraphStorage(byteOffsets, sequenceLengths, unscaledXPositions,
+                outgoingStarts, outgoingNeighbours, outgoingByteOffsets,
+                incomingStarts, incomingNeighbours, incomingByteOffsets);
+    }
+
+    /**
+     * Renumbers the nodes in the given {@link GraphStorage} in place.
+     * <p>
+     * The columns of {@link CsrGraphStorage}s and {@link OffHeapGraphStorage}s are permuted in place, so that
+     * renumbering a graph takes little memory besides the graph itself. Other kinds of storage are copied into a new
+     * {@link CsrGraphStorage} by {@link #renumber(GraphStorage)}.
+     *
+     * @param storage a {@link GraphStorage} that is numbered by original identifier, which is numbered by this
+     *                renumbering afterwards if it is renumbered in place
+     * @return the given {@link GraphStorage}, or a renumbered copy of it if it cannot be renumbered in place
+     */
+    public GraphStorage renumberInPlace(final GraphStorage storage) {
+        checkSize(storage.size());
+
+        if (storage instanceof CsrGraphStorage) {
+            ((CsrGraphStorage) storage).renumber(this);
+            return storage;
+        }
+        if (storage instanceof OffHeapGraphStorage) {
+            ((OffHeapGraphStorage) storage).renumber(this);
+            return storage;
+        }
+        return renumber(storage);
+    }
+
+    /**
+     * Renumbers the nodes in the given {@link NodePositionIndex}.
+     *
+     * @param nodePositions a {@link NodePositionIndex} that is numbered by original identifier
+     * @return a new {@link NodePositionIndex} that is numbered by this renumbering
+     */
+    public NodePositionIndex renumber(final NodePositionIndex nodePositions) {
+        final int[] indices = new int[originalIds.length];
+        Arrays.fill(indices, -1);
+        for (int index = 0; index < nodePositions.size(); index++) {
+            indices[ids[nodePositions.getNodeId(index)]] = index;
+        }
+
+        // Nodes are added in ascending order of identifier, so that the sort keeps nodes with equal positions ordered
+        final long[] positions = new long[nodePositions.size()];
+        final int[] nodeIds = new int[nodePositions.size()];
+        int count = 0;
+        for (int id = 0; id < indices.length; id++) {
+            if (indices[id] >= 0) {
+                positions[count] = nodePositions.getPosition(indices[id]);
+                nodeIds[count] = id;
+                count++;
+            }
+        }
+
+        return NodePositionIndex.fromUnsorted(positions, nodeIds, nodePositions.getMaxSpan());
+    }
+
+    /**
+     * Renumbers the nodes in the given {@link TopologicalOrder}.
+     *
+     * @param topologicalOrder a {@link TopologicalOrder} that is numbered by original identifier
+     * @return a new {@link TopologicalOrder} that is numbered by this renumbering
+     */
+    public TopologicalOrder renumber(final TopologicalOrder topologicalOrder) {
+        final int[] order = new int[topologicalOrder.size()];
+        for (int rank = 0; rank < order.length; rank++) {
+            order[rank] = ids[topologicalOrder.getNodeId(rank)];
+        }
+
+        final int[] ranks = new int[checkSize(topologicalOrder.getNodeCount())];
+        for (int id = 0; id < ranks.length; id++) {
+            ranks[id] = topologicalOrder.getRank(originalIds[id]);
+        }
+
+        return new TopologicalOrder(order, ranks);
+    }
+
+
+    /**
+     * Moves each entry of the node columns of a storage from the index of its original identifier to the index of its
+     * new identifier.
+     *
+     * @param swapper swaps two entries in each node column
+     */
+    void permuteNodes(final EntrySwapper swapper) {
+        permute(ids.length, originalId -> ids[originalId], swapper);
+    }
+
+    /**
+     * Moves the edges in one direction of a storage from the edges of their original node to those of its new node.
+     * <p>
+     * The edges of each node stay in the same order. Afterwards, the given start column contains the renumbered start
+     * of the edges of each node. The identifiers of the neighbours themselves are not renumbered.
+     *
+     * @param starts  for each original node, the index of its first edge, followed by the number of edges
+     * @param swapper swaps two entries in each edge column of the direction
+     */
+    void permuteEdges(final int[] starts, final EntrySwapper swapper) {
+        final int size = originalIds.length;
+        final int[] renumberedStarts = new int[size + 1];
+        for (int id = 0; id < size; id++) {
+            final int originalId = originalIds[id];
+            renumberedStarts[id + 1] = renumberedStarts[id] + starts[originalId + 1] - starts[originalId];
+        }
+
+        permute(starts[size], index -> {
+            final int originalId = findNode(starts, index);
+            return renumberedStarts[ids[originalId]] + index - starts[originalId];
+        }, swapper);
+
+        System.arraycopy(renumberedStarts, 0, starts, 0, size + 1);
+    }
+
+    /**
+     * Applies the given permutation to columns by following each of its cycles.
+     * <p>
+     * Only a single bit per entry is allocated to keep track of the entries that have been moved.
+     *
+     * @param count   the number of entries in the columns
+     * @param target  the index each entry should be moved to, given the entry's current index
+     * @param swapper swaps two entries in each column
+     */
+    private static void permute(final int count, final IntUnaryOperator target, final EntrySwapper swapper) {
+        final BitSet moved = new BitSet(count);
+        for (int start = moved.nextClearBit(0); start < count; start = moved.nextClearBit(start + 1)) {
+            moved.set(start);
+
+            // The entry at the start is always the one that was originally at the index last moved to
+            int next = target.applyAsInt(start);
+            while (next != start) {
+                swapper.swap(start, next);
+                moved.set(next);
+                next = target.applyAsInt(next);
+            }
+        }
+    }
+
+    /**
+     * Returns the node that the edge at the given index belongs to.
+     *
+     * @param starts for each node, the index of its first edge, followed by the number of edges
+     * @param index  the index of an edge
+     * @return the node that the edge at the given index belongs to
+     */
+    private static int findNode(final int[] starts, final int index) {
+        int low = 0;
+        int high = starts.length - 2;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (starts[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Checks that the given number of nodes equals the number of nodes in this renumbering.
+     *
+     * @param size a number of nodes
+     * @return the given number of nodes
+     */
+    private int checkSize(final int size) {
+        if (size != originalIds.length) {
+            throw new IllegalArgumentException("Cannot renumber " + size + " nodes with a renumbering of "
+                    + originalIds.length + " nodes.");
+        }
+        return size;
+    }
+
+    /**
+     * Copies the edges in the given direction of the node with the given identifier from the given storage, replacing
+     * the identifiers of their neighbours.
+     *
+     * @param storage     a {@link GraphStorage} that is numbered by original identifier
+     * @param id          the node's new identifier
+     * @param direction   the direction of the edges to copy
+     * @param starts      the start column of the direction, of which the entries up to {@code id + 1} are filled
+     * @param neighbours  the neighbour column of the direction
+     * @param byteOffsets the edge byte offset column of the direction
+     */
+    private void renumberEdges(final GraphStorage storage, final int id, final SequenceDirection direction,
+                               final int[] starts, final int[] neighbours, final ByteOffsetArray byteOffsets) {
+        final int originalId = originalIds[id];
+        for (int i = 0; i < starts[id + 1] - starts[id]; i++) {
+            neighbours[starts[id] + i] = ids[storage.getNeighbour(originalId, direction, i)];
+            byteOffsets.set(starts[id] + i, storage.getEdgeByteOffset(originalId, direction, i));
+        }
+    }
+
+
+    /**
+     * Swaps two entries in the columns of a storage.
+     */
+    @FunctionalInterface
+    interface EntrySwapper {
+        /**
+         * Swaps the entries at the given indices.
+         *
+         * @param index      the index of an entry
+         * @param otherIndex the index of another entry
+         */
+        void swap(int index, int otherIndex);
+    }
+}
@@ -0,0 +1,423 @@
+package org.dnacronym.hygene.graph;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.core.ByteOffsetArray;
+import org.dnacronym.hygene.core.UnsignedInteger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+
+/**
+ * A {@link GraphStorage} that stores all nodes and edges outside of the Java heap.
+ * <p>
+ * The layout is the same as that of {@link CsrGraphStorage}, but each column is kept in a direct or memory-mapped
+ * buffer instead of an array. This keeps the heap small for very large graphs, and means that the garbage collector
+ * does not have to scan the graph. A single column can hold at most {@value MAX_COLUMN_SIZE} values.
+ * <p>
+ * Byte offsets are stored as {@link UnsignedInteger}s. Storages of graphs from GFA files of 4 GB and more also have a
+ * column of high bytes per byte offset column, which hold the bits of the byte offsets above the lower 32 bits in the
+ * manner of a {@link ByteOffsetArray}.
+ */
+@SuppressWarnings("PMD.TooManyFields") // Each field is a column of the graph
+public final class OffHeapGraphStorage implements GraphStorage {
+    /**
+     * The maximum number of values in a single column, limited by the capacity of a direct {@link ByteBuffer}.
+     */
+    public static final int MAX_COLUMN_SIZE = Integer.MAX_VALUE / Integer.BYTES;
+
+    private final int size;
+    private final IntBuffer byteOffsets;
+    private final @Nullable ByteBuffer byteOffsetHighs;
+    private final IntBuffer sequenceLengths;
+    private final IntBuffer unscaledXPositions;
+
+    private final IntBuffer outgoingStarts;
+    private final IntBuffer outgoingNeighbours;
+    private final IntBuffer outgoingByteOffsets;
+    private final @Nullable ByteBuffer outgoingByteOffsetHighs;
+    private final IntBuffer incomingStarts;
+    private final IntBuffer incomingNeighbours;
+    private final IntBuffer incomingByteOffsets;
+    private final @Nullable ByteBuffer incomingByteOffsetHighs;
+
+
+    /**
+     * Constructs a new {@link OffHeapGraphStorage} backed by the given buffers.
+     * <p>
+     * The buffers are not copied, and may for instance be views on a memory-mapped file. Values are read and written
+     * by absolute index, so the positions of the buffers are ignored.
+     *
+     * @param byteOffsets         the byte offset of each node, as {@link UnsignedInteger}s
+     * @param sequenceLengths     the sequence length of each node
+     * @param unscaledXPositions  the unscaled x position of each node
+     * @param outgoingStarts      for each node, the index of its first outgoing edge, followed by the number of
+     *                            outgoing edges
+     * @param outgoingNeighbours  the node IDs the outgoing edges point to
+     * @param outgoingByteOffsets the byte offsets of the outgoing edges, as {@link UnsignedInteger}s
+     * @param incomingStarts      for each node, the index of its first incoming edge, followed by the number of
+     *                            incoming edges
+     * @param incomingNeighbours  the node IDs the incoming edges come from
+     * @param incomingByteOffsets the byte offsets of the incoming edges, as {@link UnsignedInteger}s
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList") // Each parameter is a column of the graph
+    public OffHeapGraphStorage(final IntBuffer byteOffsets, final IntBuffer sequenceLengths,
+                               final IntBuffer unscaledXPositions, final IntBuffer outgoingStarts,
+                               final IntBuffer outgoingNeighbours, final IntBuffer outgoingByteOffsets,
+                               final IntBuffer incomingStarts, final IntBuffer incomingNeighbours,
+                               final IntBuffer incomingByteOffsets) {
+        this(byteOffsets, sequenceLengths, unscaledXPositions,
+                outgoingStarts, outgoingNeighbours, outgoingByteOffsets,
+                incomingStarts, incomingNeighbours, incomingByteOffsets,
+                null, null, null);
+    }
+
+    /**
+     * Constructs a new {@link OffHeapGraphStorage} backed by the given buffers, of which the byte offsets may lie
+     * beyond 4 GB.
+     * <p>
+     * The high byte columns should either all be given, or all be {@code null}.
+     *
+     * @param byteOffsets             the lower 32 bits of the byte offset of each node, as {@link UnsignedInteger}s
+     * @param sequenceLengths         the sequence length of each node
+     * @param unscaledXPositions      the unscaled x position of each node
+     * @param outgoingStarts          for each node, the index of its first outgoing edge, followed by the number of
+     *                                outgoing edges
+     * @param outgoingNeighbours      the node IDs the outgoing edges point to
+     * @param outgoingByteOffsets     the lower 32 bits of the byte offsets of the outgoing edges, as
+     *                                {@link UnsignedInteger}s
+     * @param incomingStarts          for each node, the index of its first incoming edge, followed by the number of
+     *                                incoming edges
+     * @param incomingNeighbours      the node IDs the incoming edges come from
+     * @param incomingByteOffsets     the lower 32 bits of the byte offsets of the incoming edges, as
+     *                                {@link UnsignedInteger}s
+     * @param byteOffsetHighs         the high byte of the byte offset of each node, or {@code null}
+     * @param outgoingByteOffsetHighs the high byte of the byte offset of each outgoing edge, or {@code null}
+     * @param incomingByteOffsetHighs the high byte of the byte offset of each incoming edge, or {@code null}
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList") // Each parameter is a column of the graph
+    public OffHeapGraphStorage(final IntBuffer byteOffsets, final IntBuffer sequenceLengths,
+                               final IntBuffer unscaledXPositions, final IntBuffer outgoingStarts,
+                               final IntBuffer outgoingNeighbours, final IntBuffer outgoingByteOffsets,
+                               final IntBuffer incomingStarts, final IntBuffer incomingNeighbours,
+                               final IntBuffer incomingByteOffsets, final @Nullable ByteBuffer byteOffsetHighs,
+                               final @Nullable ByteBuffer outgoingByteOffsetHighs,
+                               final @Nullable ByteBuffer incomingByteOffsetHighs) {
+        if ((byteOffsetHighs == null) != (outgoingByteOffsetHighs == null)
+                || (byteOffsetHighs == null) != (incomingByteOffsetHighs == null)) {
+            throw new IllegalArgumentException("Either all or none of the high byte columns should be given.");
+        }
+
+        this.size = byteOffsets.capacity();
+        this.byteOffsets = byteOffsets;
+        this.byteOffsetHighs = byteOffsetHighs;
+        this.sequenceLengths = sequenceLengths;
+        this.unscaledXPositions = unscaledXPositions;
+
+        this.outgoingStarts = outgoingStarts;
+        this.outgoingNeighbours = outgoingNeighbours;
+        this.outgoingByteOffsets = outgoingByteOffsets;
+        this.outgoingByteOffsetHighs = outgoingByteOffsetHighs;
+        this.incomingStarts = incomingStarts;
+        this.incomingNeighbours = incomingNeighbours;
+        this.incomingByteOffsets = incomingByteOffsets;
+        this.incomingByteOffsetHighs = incomingByteOffsetHighs;
+    }
+
+    /**
+     * Constructs a new {@link OffHeapGraphStorage} and allocates its columns.
+     *
+     * @param size              the number of nodes
+     * @param outgoingEdgeCount the total number of outgoing edges
+     * @param incomingEdgeCount the total number of incoming edges
+     * @param wide              whether to allocate the high byte columns of the byte offsets
+     */
+    private OffHeapGraphStorage(final int size, final int outgoingEdgeCount, final int incomingEdgeCount,
+                                final boolean wide) {
+        this(allocate(size), allocate(size), allocate(size),
+                allocate(size + 1), allocate(outgoingEdgeCount), allocate(outgoingEdgeCount),
+                allocate(size + 1), allocate(incomingEdgeCount), allocate(incomingEdgeCount),
+                wide ? ByteBuffer.allocateDirect(size) : null,
+                wide ? ByteBuffer.allocateDirect(outgoingEdgeCount) : null,
+                wide ? ByteBuffer.allocateDirect(incomingEdgeCount) : null);
+    }
+
+
+    /**
+     * Creates a new {@link OffHeapGraphStorage} containing the same nodes and edges as the given {@link GraphStorage}.
+     *
+     * @param storage a {@link GraphStorage}
+     * @return a new {@link OffHeapGraphStorage}
+     * @throws IllegalArgumentException if the graph has too many nodes or edges to fit in a single column
+     */
+    public static OffHeapGraphStorage copyOf(final GraphStorage storage) {
+        final int size = storage.size();
+
+        long outgoingEdgeCount = 0;
+        long incomingEdgeCount = 0;
+        for (int id = 0; id < size; id++) {
+            outgoingEdgeCount += storage.getNeighbourCount(id, SequenceDirection.RIGHT);
+            incomingEdgeCount += storage.getNeighbourCount(id, SequenceDirection.LEFT);
+        }
+        if (size >= MAX_COLUMN_SIZE || outgoingEdgeCount > MAX_COLUMN_SIZE || incomingEdgeCount > MAX_COLUMN_SIZE) {
+            throw new IllegalArgumentException("Graph with " + size + " nodes and " + outgoingEdgeCount
+                    + " edges does not fit in off-heap storage.");
+        }
+
+        final OffHeapGraphStorage copy = new OffHeapGraphStorage(size, (int) outgoingEdgeCount,
+                (int) incomingEdgeCount, storage.hasWideByteOffsets());
+        for (int id = 0; id < size; id++) {
+            putByteOffset(copy.byteOffsets, copy.byteOffsetHighs, id, storage.getByteOffset(id));
+            copy.sequenceLengths.put(id, storage.getSequenceLength(id));
+            copy.unscaledXPositions.put(id, storage.getUnscaledXPosition(id));
+
+            copyEdges(storage, id, SequenceDirection.RIGHT, copy.outgoingStarts, copy.outgoingNeighbours,
+                    copy.outgoingByteOffsets, copy.outgoingByteOffsetHighs);
+            copyEdges(storage, id, SequenceDirection.LEFT, copy.incomingStarts, copy.incomingNeighbours,
+                    copy.incomingByteOffsets, copy.incomingByteOffsetHighs);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Allocates a direct buffer for the given number of integers in the platform's native byte order.
+     * <p>
+     * Columns that are filled in before an {@link OffHeapGraphStorage} is constructed should be allocated with this
+     * method.
+     *
+     * @param count the number of integers
+     * @return a direct {@link IntBuffer} with the given capacity
+     */
+    public static IntBuffer allocate(final int count) {
+        return ByteBuffer.allocateDirect(count * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    /**
+     * Copies the edges of a node in one direction, and stores where the edges of the next node start.
+     *
+     * @param storage         the {@link GraphStorage} to copy from
+     * @param id              the node's identifier
+     * @param direction       the direction of the edges to copy
+     * @param starts          the start column of the direction
+     * @param neighbours      the neighbour column of the direction
+     * @param byteOffsets     the edge byte offset column of the direction
+     * @param byteOffsetHighs the edge byte offset high byte column of the direction, or {@code null}
+     */
+    private static void copyEdges(final GraphStorage storage, final int id, final SequenceDirection direction,
+                                  final IntBuffer starts, final IntBuffer neighbours, final IntBuffer byteOffsets,
+                                  final @Nullable ByteBuffer byteOffsetHighs) {
+        final int start = starts.get(id);
+        final int count = storage.getNeighbourCount(id, direction);
+
+        for (int i = 0; i < count; i++) {
+            neighbours.put(start + i, storage.getNeighbour(id, direction, i));
+            putByteOffset(byteOffsets, byteOffsetHighs, start + i, storage.getEdgeByteOffset(id, direction, i));
+        }
+        starts.put(id + 1, start + count);
+    }
+
+    /**
+     * Returns the byte offset at the given index of a byte offset column.
+     *
+     * @param lows  the column with the lower 32 bits of the byte offsets, as {@link UnsignedInteger}s
+     * @param highs the column with the high bytes of the byte offsets, or {@code null}
+     * @param index the index of the byte offset
+     * @return the byte offset at the given index
+     */
+    private static long getByteOffset(final IntBuffer lows, final @Nullable ByteBuffer highs, final int index) {
+        if (highs == null) {
+            return UnsignedInteger.toLong(lows.get(index));
+        }
+        return ByteOffsetArray.toLong(lows.get(index), highs.get(index));
+    }
+
+    /**
+     * Stores a byte offset at the given index of a byte offset column.
+     *
+     * @param lows       the column with the lower 32 bits of the byte offsets, as {@link UnsignedInteger}s
+     * @param highs      the column with the high bytes of the byte offsets, or {@code null}
+     * @param index      the index of the byte offset
+     * @param byteOffset the byte offset to store
+     */
+    private static void putByteOffset(final IntBuffer lows, final @Nullable ByteBuffer highs, final int index,
+                                      final long byteOffset) {
+        if (highs == null) {
+            lows.put(index, UnsignedInteger.fromLong(byteOffset));
+            return;
+        }
+        lows.put(index, ByteOffsetArray.getLow(byteOffset));
+        highs.put(index, ByteOffsetArray.getHigh(byteOffset));
+    }
+
+    /**
+     * Renumbers the edges in one direction in place, and replaces the identifiers of their neighbours.
+     *
+     * @param renumbering     a {@link NodeRenumbering} of the nodes in the storage
+     * @param starts          the start column of the direction
+     * @param neighbours      the neighbour column of the direction
+     * @param byteOffsets     the edge byte offset column of the direction
+     * @param byteOffsetHighs the edge byte offset high byte column of the direction, or {@code null}
+     */
+    private static void renumberEdges(final NodeRenumbering renumbering, final IntBuffer starts,
+                                      final IntBuffer neighbours, final IntBuffer byteOffsets,
+                                      final @Nullable ByteBuffer byteOffsetHighs) {
+        final int[] startArray = new int[starts.capacity()];
+        for (int i = 0; i < startArray.length; i++) {
+            startArray[i] = starts.get(i);
+        }
+
+        renumbering.permuteEdges(startArray, (index, otherIndex) -> {
+            swap(neighbours, index, otherIndex);
+            swap(byteOffsets, index, otherIndex);
+            if (byteOffsetHighs != null) {
+                swap(byteOffsetHighs, index, otherIndex);
+            }
+        });
+
+        for (int i = 0; i < startArray.length; i++) {
+            starts.put(i, startArray[i]);
+        }
+        for (int i = 0; i < neighbours.capacity(); i++) {
+            neighbours.put(i, renumbering.getId(neighbours.get(i)));
+        }
+    }
+
+    /**
+     * Swaps the values at the given indices of the given column.
+     *
+     * @param column     a column
+     * @param index      an index in the column
+     * @param otherIndex another index in the column
+     */
+    private static void swap(final IntBuffer column, final int index, final int otherIndex) {
+        final int value = column.get(index);
+        column.put(index, column.get(otherIndex));
+        column.put(otherIndex, value);
+    }
+
+    /**
+     * Swaps the values at the given indices of the given column.
+     *
+     * @param column     a column
+     * @param index      an index in the column
+     * @param otherIndex another index in the column
+     */
+    private static void swap(final ByteBuffer column, final int index, final int otherIndex) {
+        final byte value = column.get(index);
+        column.put(index, column.get(otherIndex));
+        column.put(otherIndex, value);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getByteOffset(final int id) {
+        return getByteOffset(byteOffsets, byteOffsetHighs, id);
+    }
+
+    @Override
+    public boolean hasWideByteOffsets() {
+        return byteOffsetHighs != null;
+    }
+
+    @Override
+    public int getSequenceLength(final int id) {
+        return sequenceLengths.get(id);
+    }
+
+    @Override
+    public int getUnscaledXPosition(final int id) {
+        return unscaledXPositions.get(id);
+    }
+
+    @Override
+    public void setUnscaledXPosition(final int id, final int unscaledXPosition) {
+        unscaledXPositions.put(id, unscaledXPosition);
+    }
+
+    @Override
+    public int getNeighbourCount(final int id, final SequenceDirection direction) {
+        final IntBuffer starts = direction == SequenceDirection.RIGHT ? outgoingStarts : incomingStarts;
+        return starts.get(id + 1) - starts.get(id);
+    }
+
+    @Override
+    public int getNeighbour(final int id, final SequenceDirection direction, final int index) {
+        if (direction == SequenceDirection.RIGHT) {
+            return outgoingNeighbours.get(outgoingStarts.get(id) + index);
+        }
+        return incomingNeighbours.get(incomingStarts.get(id) + index);
+    }
+
+    @Override
+    public long getEdgeByteOffset(final int id, final SequenceDirection direction, final int index) {
+        if (direction == SequenceDirection.RIGHT) {
+            return getByteOffset(outgoingByteOffsets, outgoingByteOffsetHighs, outgoingStarts.get(id) + index);
+        }
+        return getByteOffset(incomingByteOffsets, incomingByteOffsetHighs, incomingStarts.get(id) + index);
+    }
+
+    @Override
+    public int[] getNodeArray(final int id) {
+        final int outgoingEdgeCount = getNeighbourCount(id, SequenceDirection.RIGHT);
+        final int incomingEdgeCount = getNeighbourCount(id, SequenceDirection.LEFT);
+        final int[] nodeArray = new int[Graph.NODE_EDGE_DATA_OFFSET
+                + (outgoingEdgeCount + incomingEdgeCount) * Graph.EDGE_DATA_SIZE];
+
+        nodeArray[Graph.NODE_BYTE_OFFSET_INDEX] = Graph.toNodeArrayByteOffset(getByteOffset(id));
+        nodeArray[Graph.NODE_SEQUENCE_LENGTH_INDEX] = sequenceLengths.get(id);
+        nodeArray[Graph.UNSCALED_X_POSITION_INDEX] = unscaledXPositions.get(id);
+        nodeArray[Graph.NODE_OUTGOING_EDGES_INDEX] = outgoingEdgeCount;
+
+        int index = Graph.NODE_EDGE_DATA_OFFSET;
+        for (int i = outgoingStarts.get(id); i < outgoingStarts.get(id + 1); i++) {
+            nodeArray[index] = outgoingNeighbours.get(i);
+            nodeArray[index + Graph.EDGE_BYTE_OFFSET_OFFSET] =
+                    Graph.toNodeArrayByteOffset(getByteOffset(outgoingByteOffsets, outgoingByteOffsetHighs, i));
+            index += Graph.EDGE_DATA_SIZE;
+        }
+        for (int i = incomingStarts.get(id); i < incomingStarts.get(id + 1); i++) {
+            nodeArray[index] = incomingNeighbours.get(i);
+            nodeArray[index + Graph.EDGE_BYTE_OFFSET_OFFSET] =
+                    Graph.toNodeArrayByteOffset(getByteOffset(incomingByteOffsets, incomingByteOffsetHighs, i));
+            index += Graph.EDGE_DATA_SIZE;
+        }
+
+        return nodeArray;
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return the number of edges in the graph
+     */
+    public int getEdgeCount() {
+        return outgoingNeighbours.capacity();
+    }
+
+    /**
+     * Renumbers the nodes in this storage in place.
+     *
+     * @param renumbering a {@link NodeRenumbering} of the nodes in this storage
+     * @see NodeRenumbering#renumberInPlace(GraphStorage)
+     */
+    void renumber(final NodeRenumbering renumbering) {
+        final @Nullable ByteBuffer highs = byteOffsetHighs;
+        renumbering.permuteNodes((index, otherIndex) -> {
+            swap(byteOffsets, index, otherIndex);
+            if (highs != null) {
+                swap(highs, index, otherIndex);
+            }
+            swap(sequenceLengths, index, otherIndex);
+            swap(unscaledXPositions, index, otherIndex);
+        });
+
+        renumberEdges(renumbering, outgoingStarts, outgoingNeighbours, outgoingByteOffsets, outgoingByteOffsetHighs);
+        renumberEdges(renumbering, incomingStarts, incomingNeighbours, incomingByteOffsets, incomingByteOffsetHighs);
+    }
+}
@@ -5,7 +5,9 @@ import com.google.common.collect.Multimap;
 import org.dnacronym.hygene.graph.edge.DummyEdge;
 import org.dnacronym.hygene.graph.edge.Edge;
 import org.dnacronym.hygene.graph.edge.SimpleEdge;
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
 import org.dnacronym.hygene.graph.node.GfaNode;
+import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.graph.node.Segment;
 
 import java.util.HashMap;
@@ -13,7 +15,6 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -21,6 +22,9 @@ import java.util.stream.Collectors;
 
 /**
  * Calculates genome paths and edge thickness.
+ * <p>
+ * The genomes of nodes and edges are {@link GenomeSet}s, so that the paths are computed with bitwise operations on
+ * words rather than with intersections of sets of strings.
  */
 public final class PathCalculator {
     /**
@@ -32,12 +36,12 @@ public final class PathCalculator {
         final Multimap<GfaNode, Edge> incomingEdges = buildEdgeMap(subgraph, SequenceDirection.LEFT);
         final Multimap<GfaNode, Edge> outgoingEdges = buildEdgeMap(subgraph, SequenceDirection.RIGHT);
 
-        final Map<GfaNode, Set<String>> genomeStore = new HashMap<>();
+        final Map<Node, GenomeSet> genomeStore = new HashMap<>();
 
         final List<GfaNode> topologicalOrder = computeTopologicalOrder(subgraph, genomeStore, incomingEdges,
                 outgoingEdges);
 
-        final Map<Edge, Set<String>> paths = topologicalPathGeneration(topologicalOrder, incomingEdges, genomeStore);
+        final Map<Edge, GenomeSet> paths = topologicalPathGeneration(topologicalOrder, incomingEdges, genomeStore);
 
         addPathsToEdges(paths);
     }
@@ -81,21 +85,19 @@ public final class PathCalculator {
      * @return a topologically sorted list of the {@link Segment}s in the given {@link Subgraph}
      */
     @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-    private List<GfaNode> computeTopologicalOrder(final Subgraph subgraph, final Map<GfaNode, Set<String>> genomeStore,
+    private List<GfaNode> computeTopologicalOrder(final Subgraph subgraph, final Map<Node, GenomeSet> genomeStore,
                                                   final Multimap<GfaNode, Edge> incomingEdges,
                                                   final Multimap<GfaNode, Edge> outgoingEdges) {
         final Queue<Edge> toVisit = new LinkedList<>();
 
         final GfaNode origin = new Segment(-1, -1, 0);
-        genomeStore.put(origin, new HashSet<>());
 
         final List<GfaNode> sourceConnectedNodes = getNodesWithNoIncomingEdges(subgraph);
 
-        sourceConnectedNodes.forEach(sourceConnectedNode -> {
-            toVisit.add(new SimpleEdge(origin, sourceConnectedNode));
-            Optional.ofNullable(genomeStore.get(origin))
-                    .ifPresent(originGenomes -> originGenomes.addAll(sourceConnectedNode.getMetadata().getGenomes()));
-        });
+        sourceConnectedNodes.forEach(sourceConnectedNode -> toVisit.add(new SimpleEdge(origin, sourceConnectedNode)));
+        genomeStore.put(origin, sourceConnectedNodes.stream()
+                .map(sourceConnectedNode -> sourceConnectedNode.getMetadata().getGenomes())
+                .reduce(GenomeSet.EMPTY, GenomeSet::or));
 
         final List<GfaNode> topologicalOrder = new LinkedList<>();
         final HashSet<Edge> visitedEdges = new HashSet<>();
@@ -113,7 +115,7 @@ public final class PathCalculator {
                             .allMatch(visitedEdges::contains))
                     .forEach(toVisit::add);
 
-            genomeStore.put(current, new HashSet<>(current.getMetadata().getGenomes()));
+            genomeStore.put(current, current.getMetadata().getGenomes());
         }
 
         return topologicalOrder;
@@ -141,26 +143,25 @@ public final class PathCalculator {
      * @param genomeStore      a map mapping each {@link Segment} to the genomes it is in
      * @return a mapping from {@link Edge}s to each of the genomes they're in
      */
-    private Map<Edge, Set<String>> topologicalPathGeneration(final List<GfaNode> topologicalOrder,
-                                                             final Multimap<GfaNode, Edge> incomingEdges,
-                                                             final Map<GfaNode, Set<String>> genomeStore) {
-        final Map<Edge, Set<String>> paths = new HashMap<>();
+    private Map<Edge, GenomeSet> topologicalPathGeneration(final List<GfaNode> topologicalOrder,
+                                                           final Multimap<GfaNode, Edge> incomingEdges,
+                                                           final Map<Node, GenomeSet> genomeStore) {
+        final Map<Edge, GenomeSet> paths = new HashMap<>();
 
         // Go over topological order and assign genomes
         topologicalOrder.forEach(node -> incomingEdges.get(node).forEach(e -> {
-            final Set<String> nodeGenomes = genomeStore.get(node);
-            final Set<String> originGenomes = genomeStore.get(e.getFrom());
+            final GenomeSet nodeGenomes = genomeStore.get(node);
+            final GenomeSet originGenomes = genomeStore.get(e.getFrom());
 
             if (originGenomes == null || nodeGenomes == null) {
                 throw new IllegalStateException("Missing genome data");
             }
 
-            final Set<String> intersection = new HashSet<>(originGenomes);
-            intersection.retainAll(nodeGenomes);
+            final GenomeSet intersection = originGenomes.and(nodeGenomes);
 
             paths.put(e, intersection);
 
-            originGenomes.removeAll(intersection);
+            genomeStore.put(e.getFrom(), originGenomes.andNot(intersection));
         }));
 
         return paths;
@@ -171,7 +172,7 @@ public final class PathCalculator {
      *
      * @param paths the paths
      */
-    private void addPathsToEdges(final Map<Edge, Set<String>> paths) {
+    private void addPathsToEdges(final Map<Edge, GenomeSet> paths) {
         paths.forEach(Edge::setGenomes);
     }
 }
@@ -36,7 +36,7 @@ public final class SearchQuery {
     public SearchQuery(final GfaFile gfaFile) {
         this.gfaFile = gfaFile;
         this.graph = gfaFile.getGraph();
-        this.numberOfNodesInGraph = graph.getNodeArrays().length;
+        this.numberOfNodesInGraph = graph.size();
     }
 
 
@@ -0,0 +1,132 @@
+package org.dnacronym.hygene.graph;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.Arrays;
+
+
+/**
+ * A topological order of the nodes in a {@link Graph}.
+ * <p>
+ * The order starts at the source. A node is only part of the order if all of its left neighbours are, so nodes in a
+ * cycle and the nodes to the right of them are left out. The order is stored as an array of node identifiers, next to
+ * the inverse array containing the rank of each node in the order, or {@value UNORDERED} if the node is not part of
+ * it. Walking the order visits each node after all of its left neighbours, without requiring a queue.
+ */
+public final class TopologicalOrder {
+    /**
+     * The rank of a node that is not part of the order.
+     */
+    public static final int UNORDERED = -1;
+
+    private final int[] order;
+    private final int[] ranks;
+
+
+    /**
+     * Constructs a new {@link TopologicalOrder}.
+     * <p>
+     * The arrays are not copied.
+     *
+     * @param order the identifiers of the nodes in the order
+     * @param ranks the rank of each node in the order, indexed by node identifier
+     */
+    @SuppressFBWarnings(
+            value = "EI_EXPOSE_REP2",
+            justification = "For performance reasons, we don't want to create a copy here"
+    )
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
+    public TopologicalOrder(final int[] order, final int[] ranks) {
+        if (order.length > ranks.length) {
+            throw new IllegalArgumentException("The order cannot contain more nodes than there are ranks.");
+        }
+
+        this.order = order;
+        this.ranks = ranks;
+    }
+
+
+    /**
+     * Computes the {@link TopologicalOrder} of the given {@link Graph}.
+     * <p>
+     * Nodes are ordered using Kahn's algorithm, starting at the source. The order array itself serves as the queue of
+     * nodes of which all left neighbours have been ordered.
+     *
+     * @param graph a {@link Graph}
+     * @return the {@link TopologicalOrder} of the given {@link Graph}
+     */
+    public static TopologicalOrder compute(final Graph graph) {
+        final int size = graph.size();
+        final int[] unorderedLeftNeighbours = new int[size];
+        for (int id = 0; id < size; id++) {
+            unorderedLeftNeighbours[id] = graph.getNeighbourCount(id, SequenceDirection.LEFT);
+        }
+
+        final int[] order = new int[size];
+        int orderSize = Math.min(size, 1);
+        for (int rank = 0; rank < orderSize; rank++) {
+            final int id = order[rank];
+            final int neighbourCount = graph.getNeighbourCount(id, SequenceDirection.RIGHT);
+
+            for (int i = 0; i < neighbourCount; i++) {
+                final int neighbour = graph.getNeighbour(id, SequenceDirection.RIGHT, i);
+
+                // The source is always first, even if it has left neighbours
+                if (neighbour != 0) {
+                    unorderedLeftNeighbours[neighbour]--;
+                    if (unorderedLeftNeighbours[neighbour] == 0) {
+                        order[orderSize] = neighbour;
+                        orderSize++;
+                    }
+                }
+            }
+        }
+
+        final int[] ranks = unorderedLeftNeighbours;
+        Arrays.fill(ranks, UNORDERED);
+        for (int rank = 0; rank < orderSize; rank++) {
+            ranks[order[rank]] = rank;
+        }
+
+        return new TopologicalOrder(Arrays.copyOf(order, orderSize), ranks);
+    }
+
+
+    /**
+     * Returns the number of nodes in the order.
+     *
+     * @return the number of nodes in the order
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Returns the number of nodes in the {@link Graph}, including the nodes that are not part of the order.
+     *
+     * @return the number of nodes in the {@link Graph}
+     */
+    public int getNodeCount() {
+        return ranks.length;
+    }
+
+    /**
+     * Returns the identifier of the node with the given rank.
+     *
+     * @param rank a rank in the order
+     * @return the identifier of the node with the given rank
+     */
+    public int getNodeId(final int rank) {
+        return order[rank];
+    }
+
+    /**
+     * Returns the rank of the node with the given identifier.
+     *
+     * @param id the node's identifier
+     * @return the rank of the node, or {@value UNORDERED} if the node is not part of the order
+     */
+    public int getRank(final int id) {
+        return ranks[id];
+    }
+}
@@ -0,0 +1,66 @@
+package org.dnacronym.hygene.graph;
+
+import java.util.Arrays;
+
+
+/**
+ * A set of node identifiers that can be emptied in constant time.
+ * <p>
+ * Instead of a flag, each node has a stamp. A node is in the set iff. its stamp equals the current epoch, so that
+ * emptying the set only requires the epoch to be incremented. This allows a single set to be reused by many
+ * traversals, each of which only touches the nodes it visits.
+ */
+final class VisitedSet {
+    private final int[] stamps;
+    private int epoch;
+
+
+    /**
+     * Constructs a new, empty {@link VisitedSet}.
+     *
+     * @param size the number of nodes, such that identifiers range from 0 up to but not including the size
+     */
+    VisitedSet(final int size) {
+        this.stamps = new int[size];
+        this.epoch = 1;
+    }
+
+
+    /**
+     * Returns {@code true} iff. the node with the given identifier is in the set.
+     *
+     * @param id the node's identifier
+     * @return {@code true} iff. the node with the given identifier is in the set
+     */
+    boolean contains(final int id) {
+        return stamps[id] == epoch;
+    }
+
+    /**
+     * Adds the node with the given identifier to the set.
+     *
+     * @param id the node's identifier
+     * @return {@code true} iff. the node was not yet in the set
+     */
+    boolean add(final int id) {
+        if (stamps[id] == epoch) {
+            return false;
+        }
+
+        stamps[id] = epoch;
+        return true;
+    }
+
+    /**
+     * Removes all nodes from the set.
+     * <p>
+     * The stamps are only reset once every {@link Integer#MAX_VALUE} calls, when the epoch would overflow.
+     */
+    void clear() {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            epoch = 0;
+        }
+        epoch++;
+    }
+}
@@ -2,11 +2,10 @@ package org.dnacronym.hygene.graph.edge;
 
 
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Node;
 
-import java.util.Set;
-
 
 /**
  * Class representing a dummy edge, to be used for graph layout.
@@ -43,12 +42,12 @@ public final class DummyEdge extends Edge {
     }
 
     @Override
-    public @Nullable Set<String> getGenomes() {
+    public @Nullable GenomeSet getGenomes() {
         return originalEdge.getGenomes();
     }
 
     @Override
-    public void setGenomes(@Nullable final Set<String> genomes) {
+    public void setGenomes(@Nullable final GenomeSet genomes) {
         originalEdge.setGenomes(genomes);
     }
 
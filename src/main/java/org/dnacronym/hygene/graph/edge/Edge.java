@@ -1,11 +1,11 @@
 package org.dnacronym.hygene.graph.edge;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Node;
 
 import java.util.Objects;
-import java.util.Set;
 import java.util.UUID;
 
 
@@ -16,7 +16,7 @@ public abstract class Edge {
     private final UUID uuid;
     private final Node from;
     private final Node to;
-    private @Nullable Set<String> genomes;
+    private @Nullable GenomeSet genomes;
 
 
     /**
@@ -71,7 +71,7 @@ public abstract class Edge {
      * @return the genome this {@link Edge} is in, or {@code null} if metadata has not been parsed yet
      */
     @SuppressWarnings("DesignForExtension")
-    public @Nullable Set<String> getGenomes() {
+    public @Nullable GenomeSet getGenomes() {
         return genomes;
     }
 
@@ -81,7 +81,7 @@ public abstract class Edge {
      * @param genomes the genomes
      */
     @SuppressWarnings("DesignForExtension")
-    public void setGenomes(@Nullable final Set<String> genomes) {
+    public void setGenomes(@Nullable final GenomeSet genomes) {
         this.genomes = genomes;
     }
 
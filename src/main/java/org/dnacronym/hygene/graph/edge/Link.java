@@ -10,7 +10,7 @@ import org.dnacronym.hygene.graph.node.GfaNode;
 public final class Link extends Edge {
     private final GfaNode from;
     private final GfaNode to;
-    private final int byteOffset;
+    private final long byteOffset;
 
 
     /**
@@ -20,7 +20,7 @@ public final class Link extends Edge {
      * @param to         the destination of the edge
      * @param byteOffset the byte offset of the corresponding link in the GFA file this edge was defined in
      */
-    public Link(final GfaNode from, final GfaNode to, final int byteOffset) {
+    public Link(final GfaNode from, final GfaNode to, final long byteOffset) {
         super(from, to);
 
         this.from = from;
@@ -44,7 +44,7 @@ public final class Link extends Edge {
      *
      * @return the byte offset
      */
-    public int getByteOffset() {
+    public long getByteOffset() {
         return byteOffset;
     }
 }
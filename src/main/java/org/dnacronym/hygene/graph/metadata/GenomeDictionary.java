@@ -0,0 +1,105 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * Interns genome names to dense integer ids, which index the bits of a {@link GenomeSet}.
+ * <p>
+ * Each distinct genome name, be it the name of a genome or its index in the genome mapping of a GFA file, is given the
+ * next free id the first time it is interned. Each GFA file has its own dictionary, so that the ids of a file stay
+ * dense and are released along with it. Ids are never reused within a dictionary, so that the sets of genomes created
+ * from it remain comparable.
+ * <p>
+ * This class is thread-safe. Looking up ids and names does not require any locking.
+ */
+public final class GenomeDictionary {
+    private final Map<String, Integer> ids;
+    private final List<String> genomes;
+
+
+    /**
+     * Constructs a new, empty {@link GenomeDictionary}.
+     */
+    public GenomeDictionary() {
+        ids = new ConcurrentHashMap<>();
+        genomes = new CopyOnWriteArrayList<>();
+    }
+
+
+    /**
+     * Creates a {@link GenomeSet} of the given genomes, interning them in this dictionary.
+     *
+     * @param genomes the names of genomes
+     * @return a {@link GenomeSet} of the given genomes
+     */
+    public GenomeSet createSet(final Collection<String> genomes) {
+        if (genomes instanceof GenomeSet && ((GenomeSet) genomes).getDictionary() == this) {
+            return (GenomeSet) genomes;
+        }
+
+        long[] words = new long[0];
+        for (final String genome : genomes) {
+            final int id = intern(genome);
+            if (id / Long.SIZE >= words.length) {
+                words = Arrays.copyOf(words, id / Long.SIZE + 1);
+            }
+            words[id / Long.SIZE] |= 1L << id;
+        }
+        return new GenomeSet(this, words);
+    }
+
+    /**
+     * Returns the id of the given genome, giving it a new id if it does not have one yet.
+     *
+     * @param genome the name of a genome
+     * @return the id of the given genome
+     */
+    public int intern(final String genome) {
+        final Integer id = ids.get(genome);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (this) {
+            return ids.computeIfAbsent(genome, newGenome -> {
+                genomes.add(newGenome);
+                return genomes.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Returns the id of the given genome, without giving it a new id.
+     *
+     * @param genome the name of a genome
+     * @return the id of the given genome, or {@code -1} if it has not been interned
+     */
+    public int getId(final String genome) {
+        return ids.getOrDefault(genome, -1);
+    }
+
+    /**
+     * Returns the name of the genome with the given id.
+     *
+     * @param id the id of an interned genome
+     * @return the name of the genome with the given id
+     */
+    public String getGenome(final int id) {
+        return genomes.get(id);
+    }
+
+    /**
+     * Returns the number of interned genomes.
+     *
+     * @return the number of interned genomes
+     */
+    public int size() {
+        return genomes.size();
+    }
+}
@@ -0,0 +1,235 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * An immutable set of genomes, stored as a bitset over the ids of a {@link GenomeDictionary}.
+ * <p>
+ * Each genome takes up a single bit, so that membership of even hundreds of genomes takes up only a few words per
+ * node. Intersections, unions, and differences of sets are computed a word at a time, rather than by hashing
+ * strings.
+ * <p>
+ * The set can be used as any other {@link java.util.Set} of genome names, iterating over the genomes in the order in
+ * which they were interned. Sets are created by {@link GenomeDictionary#createSet(Collection)}, and only sets of the
+ * same dictionary can be combined.
+ */
+public final class GenomeSet extends AbstractSet<String> {
+    /**
+     * The empty {@link GenomeSet}.
+     */
+    public static final GenomeSet EMPTY = new GenomeSet(null, new long[0]);
+
+    private static final int BITS_PER_WORD = Long.SIZE;
+    /**
+     * The estimated number of bytes taken by a {@link GenomeSet}, excluding its words.
+     */
+    private static final int OVERHEAD = 32;
+
+    private final @Nullable GenomeDictionary dictionary;
+    private final long[] words;
+    private final int size;
+
+
+    /**
+     * Constructs a new {@link GenomeSet}.
+     *
+     * @param dictionary the {@link GenomeDictionary} of which the ids are in the set, or {@code null} if the set is
+     *                   empty and does not belong to a dictionary
+     * @param words      the words of the bitset, which may have trailing zero words
+     */
+    GenomeSet(final @Nullable GenomeDictionary dictionary, final long[] words) {
+        this.dictionary = dictionary;
+
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        this.words = length == words.length ? words : Arrays.copyOf(words, length);
+
+        int cardinality = 0;
+        for (final long word : this.words) {
+            cardinality += Long.bitCount(word);
+        }
+        this.size = cardinality;
+    }
+
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(final @Nullable Object genome) {
+        return genome instanceof String && dictionary != null && containsId(dictionary.getId((String) genome));
+    }
+
+    /**
+     * Returns {@code true} iff. this set contains the genome with the given id.
+     *
+     * @param id the id of a genome in the {@link GenomeDictionary} of this set
+     * @return {@code true} iff. this set contains the genome with the given id
+     */
+    public boolean containsId(final int id) {
+        return id >= 0 && id / BITS_PER_WORD < words.length && (words[id / BITS_PER_WORD] & 1L << id) != 0;
+    }
+
+    /**
+     * Returns {@code true} iff. this set and the given set have at least one genome in common.
+     *
+     * @param other a {@link GenomeSet}
+     * @return {@code true} iff. this set and the given set have at least one genome in common
+     */
+    public boolean intersects(final GenomeSet other) {
+        combineDictionary(other);
+        final int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the intersection of this set and the given set.
+     *
+     * @param other a {@link GenomeSet}
+     * @return the genomes that are in both this set and the given set
+     */
+    public GenomeSet and(final GenomeSet other) {
+        final long[] result = new long[Math.min(words.length, other.words.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return new GenomeSet(combineDictionary(other), result);
+    }
+
+    /**
+     * Returns the union of this set and the given set.
+     *
+     * @param other a {@link GenomeSet}
+     * @return the genomes that are in this set, in the given set, or in both
+     */
+    public GenomeSet or(final GenomeSet other) {
+        final long[] result = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int i = 0; i < other.words.length; i++) {
+            result[i] |= other.words[i];
+        }
+        return new GenomeSet(combineDictionary(other), result);
+    }
+
+    /**
+     * Returns the difference of this set and the given set.
+     *
+     * @param other a {@link GenomeSet}
+     * @return the genomes that are in this set, but not in the given set
+     */
+    public GenomeSet andNot(final GenomeSet other) {
+        final long[] result = Arrays.copyOf(words, words.length);
+        final int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            result[i] &= ~other.words[i];
+        }
+        return new GenomeSet(combineDictionary(other), result);
+    }
+
+    /**
+     * Returns the {@link GenomeDictionary} of which the ids are in this set.
+     *
+     * @return the {@link GenomeDictionary} of which the ids are in this set, or {@code null} if this set is empty and
+     * does not belong to a dictionary
+     */
+    public @Nullable GenomeDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Estimates the number of bytes taken by this {@link GenomeSet}.
+     *
+     * @return the estimated number of bytes taken by this {@link GenomeSet}
+     */
+    public long estimateSize() {
+        return OVERHEAD + (long) Long.BYTES * words.length;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int next = nextId(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public String next() {
+                if (next < 0) {
+                    throw new NoSuchElementException("There are no more genomes in this set.");
+                }
+
+                if (dictionary == null) {
+                    throw new IllegalStateException("A non-empty genome set should belong to a dictionary.");
+                }
+
+                final String genome = dictionary.getGenome(next);
+                next = nextId(next + 1);
+                return genome;
+            }
+        };
+    }
+
+
+    /**
+     * Returns the {@link GenomeDictionary} of the combination of this set and the given set.
+     *
+     * @param other a {@link GenomeSet}
+     * @return the {@link GenomeDictionary} of the combination of this set and the given set
+     * @throws IllegalArgumentException if the sets belong to different dictionaries
+     */
+    private @Nullable GenomeDictionary combineDictionary(final GenomeSet other) {
+        if (dictionary == null) {
+            return other.dictionary;
+        }
+        if (other.dictionary != null && other.dictionary != dictionary) {
+            throw new IllegalArgumentException("Genome sets of different genome dictionaries cannot be combined.");
+        }
+        return dictionary;
+    }
+
+    /**
+     * Returns the first id at or after the given id that is in this set.
+     *
+     * @param from the id to start searching from
+     * @return the first id at or after the given id that is in this set, or {@code -1} if there is none
+     */
+    private int nextId(final int from) {
+        int index = from / BITS_PER_WORD;
+        if (index >= words.length) {
+            return -1;
+        }
+
+        long word = words[index] & -1L << from;
+        while (word == 0) {
+            index++;
+            if (index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+        return index * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+    }
+}
@@ -0,0 +1,160 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dnacronym.hygene.core.ThrottledExecutor;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.parser.MetadataParseException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Speculatively loads the metadata of the nodes that are about to come into view.
+ * <p>
+ * Whenever the view point moves, the prefetcher looks at the direction and the distance of the move. If the view was
+ * panned rather than moved to a different part of the graph, the region of one view width beyond the edge of the view
+ * in the direction of the pan is likely to come into view next. The metadata of the nodes in that region is then read
+ * on a low-priority thread and added to the {@link NodeMetadataCache}, so that it need not be read from disk once the
+ * region comes into view.
+ * <p>
+ * At most a fixed number of nodes is prefetched per move, and prefetching for a previous move is abandoned when the
+ * view moves again. Nothing is prefetched while the cache does not retrieve metadata because the view is too wide.
+ * <p>
+ * Prefetches are never interrupted, as an interrupt would close the channel that the GFA file is read with. Instead,
+ * the metadata is read in batches, and a prefetch returns before reading the next batch once the view has moved.
+ */
+public final class MetadataPrefetcher {
+    /**
+     * The default maximum number of nodes of which metadata is prefetched per move.
+     */
+    public static final int DEFAULT_NODE_BUDGET = 500;
+
+    private static final Logger LOGGER = LogManager.getLogger(MetadataPrefetcher.class);
+    /**
+     * The minimum number of milliseconds that must be between each prefetch operation.
+     */
+    private static final int PREFETCH_TIMEOUT = 250;
+    /**
+     * The number of nodes of which metadata is read at once, between which a prefetch checks whether it is outdated.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    private final Graph graph;
+    private final NodeMetadataCache cache;
+    private final int nodeBudget;
+    private final ThrottledExecutor prefetchExecutor;
+    /**
+     * The number of times the view moved, which tells a prefetch whether the move it was started for is the last one.
+     */
+    private final AtomicLong moveCount;
+
+    private long lastViewPoint = -1;
+
+
+    /**
+     * Constructs a new {@link MetadataPrefetcher}.
+     *
+     * @param graph the {@link Graph} of which the nodes are viewed
+     * @param cache the {@link NodeMetadataCache} to add the prefetched metadata to
+     */
+    public MetadataPrefetcher(final Graph graph, final NodeMetadataCache cache) {
+        this(graph, cache, DEFAULT_NODE_BUDGET);
+    }
+
+    /**
+     * Constructs a new {@link MetadataPrefetcher}.
+     *
+     * @param graph      the {@link Graph} of which the nodes are viewed
+     * @param cache      the {@link NodeMetadataCache} to add the prefetched metadata to
+     * @param nodeBudget the maximum number of nodes of which metadata is prefetched per move
+     */
+    public MetadataPrefetcher(final Graph graph, final NodeMetadataCache cache, final int nodeBudget) {
+        if (nodeBudget < 0) {
+            throw new IllegalArgumentException("The node budget must be a non-negative integer.");
+        }
+
+        this.graph = graph;
+        this.cache = cache;
+        this.nodeBudget = nodeBudget;
+        this.prefetchExecutor = new ThrottledExecutor(PREFETCH_TIMEOUT, new ThreadFactoryBuilder()
+                .setNameFormat("metadata-prefetcher-%d")
+                .setPriority(Thread.MIN_PRIORITY)
+                .build(), false);
+        this.moveCount = new AtomicLong();
+    }
+
+
+    /**
+     * Prefetches the metadata in the direction in which the view moved, if the view was panned.
+     *
+     * @param viewPoint  the new horizontal position of the centre of the view
+     * @param viewRadius the width of the view
+     */
+    public synchronized void viewChanged(final long viewPoint, final int viewRadius) {
+        final long velocity = lastViewPoint < 0 ? 0 : viewPoint - lastViewPoint;
+        lastViewPoint = viewPoint;
+        final long move = moveCount.incrementAndGet();
+
+        if (velocity == 0 || Math.abs(velocity) > viewRadius || nodeBudget == 0 || !cache.isRetrieving()) {
+            return;
+        }
+
+        final long viewEdge = velocity > 0 ? viewPoint + viewRadius / 2 : viewPoint - viewRadius / 2;
+        final long from = velocity > 0 ? viewEdge : viewEdge - viewRadius;
+        final long to = velocity > 0 ? viewEdge + viewRadius : viewEdge;
+
+        prefetchExecutor.run(() -> prefetch(Math.max(0, from), Math.max(0, to), move));
+    }
+
+    /**
+     * Returns the {@link ThrottledExecutor} used to prefetch metadata.
+     *
+     * @return the {@link ThrottledExecutor} used to prefetch metadata
+     */
+    ThrottledExecutor getPrefetchExecutor() {
+        return prefetchExecutor;
+    }
+
+
+    /**
+     * Adds the metadata of the nodes in the given range that are not yet in the cache to the cache.
+     *
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, inclusive
+     * @param move the number of the move for which the prefetch is done
+     */
+    private void prefetch(final long from, final long to, final long move) {
+        final int sinkId = graph.size() - 1;
+        final List<Integer> nodeIds = new ArrayList<>();
+        graph.visitNodesInRange(from, to, nodeId -> {
+            if (nodeIds.size() < nodeBudget && nodeId != 0 && nodeId != sinkId && !cache.contains(nodeId)) {
+                nodeIds.add(nodeId);
+            }
+        });
+        nodeIds.sort(Comparator.comparingLong(graph::getByteOffset));
+
+        for (int start = 0; start < nodeIds.size(); start += BATCH_SIZE) {
+            if (moveCount.get() != move) {
+                return;
+            }
+
+            final Map<Integer, Long> byteOffsets = new LinkedHashMap<>();
+            nodeIds.subList(start, Math.min(start + BATCH_SIZE, nodeIds.size()))
+                    .forEach(nodeId -> byteOffsets.put(nodeId, graph.getByteOffset(nodeId)));
+
+            try {
+                cache.addPrefetched(graph.getGfaFile().parseLazyNodeMetadata(byteOffsets));
+            } catch (final MetadataParseException e) {
+                LOGGER.warn("Node metadata could not be prefetched.", e);
+                return;
+            }
+        }
+    }
+}
@@ -1,19 +1,36 @@
 package org.dnacronym.hygene.graph.metadata;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 
 /**
  * Represents the metadata of a {@link org.dnacronym.hygene.graph.node.Node}.
+ * <p>
+ * The sequence is either held in memory as a {@link PackedSequence}, or resolved lazily from a
+ * {@link SequenceSource}. Lazily resolved metadata only holds the name and the genomes of the node and a short prefix
+ * of the sequence, and reads the rest of the sequence, or a window of it, only when it is asked for, so that nodes with
+ * long sequences do not take up memory when only their name, genomes, or the start of their sequence are used.
  */
 public final class NodeMetadata {
+    private static final String COMBINED_START = "[";
+    private static final String COMBINED_SEPARATOR = ", ";
+    private static final String COMBINED_END = "]";
+
     private final String name;
-    private final String sequence;
-    private final List<String> genomes;
+    /**
+     * The sequence if it is held in memory, and a prefix of it otherwise.
+     */
+    private final PackedSequence sequence;
+    private final @Nullable SequenceSource sequenceSource;
+    private final int sequenceLength;
+    private final GenomeSet genomes;
 
 
     /**
@@ -21,31 +38,107 @@ public final class NodeMetadata {
      *
      * @param name     the node ID in the GFA file
      * @param sequence the DNA sequence
-     * @param genomes  the list of genomes this node belongs to
+     * @param genomes  the genomes this node belongs to
+     */
+    public NodeMetadata(final String name, final String sequence, final GenomeSet genomes) {
+        this(name, new PackedSequence(sequence), genomes);
+    }
+
+    /**
+     * Constructs and initializes a {@link NodeMetadata} object with an already packed sequence.
+     *
+     * @param name     the node ID in the GFA file
+     * @param sequence the packed DNA sequence
+     * @param genomes  the genomes this node belongs to
      */
-    public NodeMetadata(final String name, final String sequence, final List<String> genomes) {
+    public NodeMetadata(final String name, final PackedSequence sequence, final GenomeSet genomes) {
         this.name = name;
         this.sequence = sequence;
+        this.sequenceSource = null;
+        this.sequenceLength = sequence.length();
+        this.genomes = genomes;
+    }
+
+    /**
+     * Constructs and initializes a {@link NodeMetadata} object of which the sequence is read on demand.
+     *
+     * @param name           the node ID in the GFA file
+     * @param sequenceLength the length of the DNA sequence
+     * @param sequenceSource the {@link SequenceSource} to read the DNA sequence from
+     * @param genomes        the genomes this node belongs to
+     */
+    public NodeMetadata(final String name, final int sequenceLength, final SequenceSource sequenceSource,
+                        final GenomeSet genomes) {
+        this(name, sequenceLength, new PackedSequence(""), sequenceSource, genomes);
+    }
+
+    /**
+     * Constructs and initializes a {@link NodeMetadata} object of which the sequence is read on demand, apart from the
+     * given prefix.
+     *
+     * @param name           the node ID in the GFA file
+     * @param sequenceLength the length of the DNA sequence
+     * @param prefix         the first bases of the DNA sequence, which are held in memory
+     * @param sequenceSource the {@link SequenceSource} to read the rest of the DNA sequence from
+     * @param genomes        the genomes this node belongs to
+     */
+    public NodeMetadata(final String name, final int sequenceLength, final PackedSequence prefix,
+                        final SequenceSource sequenceSource, final GenomeSet genomes) {
+        if (sequenceLength < 0 || prefix.length() > sequenceLength) {
+            throw new IllegalArgumentException("Sequence length " + sequenceLength + " should not be negative or"
+                    + " shorter than the prefix.");
+        }
+
+        this.name = name;
+        this.sequence = prefix;
+        this.sequenceSource = sequenceSource;
+        this.sequenceLength = sequenceLength;
         this.genomes = genomes;
     }
 
     /**
      * Combines the given sets of {@link NodeMetadata} into a single object.
+     * <p>
+     * The combined sequence lists the sequences of the given objects, as in {@code [ACT, G]}. If any of their
+     * sequences is resolved lazily, so is the combined sequence, and only the part that precedes the first lazily
+     * resolved sequence outside of its prefix is held in memory.
      *
      * @param nodeMetadata a collection of {@link NodeMetadata}
      */
     public NodeMetadata(final Collection<NodeMetadata> nodeMetadata) {
-        this.name = nodeMetadata.stream().map(NodeMetadata::getName).collect(Collectors.toList()).toString();
-        this.sequence = nodeMetadata.stream().map(NodeMetadata::getSequence).collect(Collectors.toList()).toString();
+        final List<NodeMetadata> parts = new ArrayList<>(nodeMetadata);
+        this.name = parts.stream().map(NodeMetadata::getName).collect(Collectors.toList()).toString();
+
+        final StringBuilder prefix = new StringBuilder(COMBINED_START);
+        long combinedLength = COMBINED_START.length() + COMBINED_END.length();
+        boolean loaded = true;
+        for (int i = 0; i < parts.size(); i++) {
+            final NodeMetadata part = parts.get(i);
+            combinedLength += part.sequenceLength + (i > 0 ? COMBINED_SEPARATOR.length() : 0);
+
+            if (loaded) {
+                prefix.append(i > 0 ? COMBINED_SEPARATOR : "").append(part.sequence);
+                loaded = part.isSequenceLoaded();
+            }
+        }
+        if (combinedLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The combined sequence of " + parts.size() + " nodes is too long.");
+        }
 
-        final Set<String> combinedGenomes = nodeMetadata.stream()
+        this.sequenceLength = (int) combinedLength;
+        if (loaded) {
+            this.sequence = new PackedSequence(prefix.append(COMBINED_END));
+            this.sequenceSource = null;
+        } else {
+            this.sequence = new PackedSequence(prefix);
+            this.sequenceSource = (offset, length) -> readCombinedSequence(parts, offset, length);
+        }
+
+        this.genomes = parts.stream()
                 .map(NodeMetadata::getGenomes)
-                .flatMap(List::stream)
-                .collect(Collectors.toSet());
-        this.genomes = new ArrayList<>(combinedGenomes);
+                .reduce(GenomeSet.EMPTY, GenomeSet::or);
     }
 
-
     /**
      * Gets the original node ID of the GFA file.
      *
@@ -57,11 +150,102 @@ public final class NodeMetadata {
 
     /**
      * Gets the DNA sequence of the node.
+     * <p>
+     * If the sequence is resolved lazily, it is read in full on every call. Callers that only show part of the
+     * sequence should use {@link #getSequence(int, int)} instead.
      *
      * @return the DNA sequence of the node
+     * @throws UncheckedIOException if the sequence is resolved lazily and could not be read
      */
     public String getSequence() {
-        return sequence;
+        if (sequenceSource == null) {
+            return sequence.toString();
+        }
+        return readSequence(0, sequenceLength);
+    }
+
+    /**
+     * Gets a window of the DNA sequence of the node.
+     * <p>
+     * The window is clipped to the end of the sequence, so the returned string may be shorter than the given length.
+     *
+     * @param offset the index of the first base in the window
+     * @param length the maximum number of bases in the window
+     * @return the bases of the DNA sequence in the given window
+     * @throws UncheckedIOException if the sequence is resolved lazily and could not be read
+     */
+    public String getSequence(final int offset, final int length) {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Offset " + offset + " and length " + length
+                    + " should not be negative.");
+        }
+
+        final int start = Math.min(offset, sequenceLength);
+        final int end = (int) Math.min((long) offset + length, sequenceLength);
+        if (end <= sequence.length()) {
+            return sequence.substring(start, end);
+        }
+        return readSequence(start, end - start);
+    }
+
+    /**
+     * Gets at most the given number of bases from the start of the DNA sequence of the node, without reading from its
+     * {@link SequenceSource}.
+     * <p>
+     * If the sequence is resolved lazily, only the bases in its prefix are returned, so the returned string may be
+     * shorter than both the given length and the sequence. This never blocks on I/O, so it can be used while drawing.
+     *
+     * @param length the maximum number of bases
+     * @return the bases at the start of the DNA sequence that are held in memory, up to the given length
+     */
+    public String getSequencePrefix(final int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length " + length + " should not be negative.");
+        }
+
+        return sequence.substring(0, Math.min(length, sequence.length()));
+    }
+
+    /**
+     * Gets the DNA sequence of the node as a {@link PackedSequence}.
+     * <p>
+     * If the sequence is resolved lazily, it is read in full and packed on every call.
+     *
+     * @return the DNA sequence of the node as a {@link PackedSequence}
+     * @throws UncheckedIOException if the sequence is resolved lazily and could not be read
+     */
+    public PackedSequence getPackedSequence() {
+        if (sequenceSource == null) {
+            return sequence;
+        }
+        return new PackedSequence(readSequence(0, sequenceLength));
+    }
+
+    /**
+     * Returns the length of the DNA sequence of the node.
+     *
+     * @return the length of the DNA sequence of the node
+     */
+    public int getSequenceLength() {
+        return sequenceLength;
+    }
+
+    /**
+     * Returns {@code true} iff. the sequence is held in memory rather than read on demand.
+     *
+     * @return {@code true} iff. the sequence is held in memory rather than read on demand
+     */
+    public boolean isSequenceLoaded() {
+        return sequenceSource == null;
+    }
+
+    /**
+     * Estimates the number of bytes taken by the part of the sequence that is held in memory.
+     *
+     * @return the estimated number of bytes taken by the part of the sequence that is held in memory
+     */
+    public long estimateSequenceSize() {
+        return sequence.estimateSize();
     }
 
     /**
@@ -69,7 +253,91 @@ public final class NodeMetadata {
      *
      * @return the genomes
      */
-    public List<String> getGenomes() {
+    public GenomeSet getGenomes() {
         return genomes;
     }
+
+
+    /**
+     * Reads the given window of the sequence from the {@link SequenceSource}.
+     *
+     * @param offset the index of the first base in the window
+     * @param length the number of bases in the window
+     * @return the bases of the DNA sequence in the given window
+     */
+    private String readSequence(final int offset, final int length) {
+        if (sequenceSource == null) {
+            throw new IllegalStateException("Node metadata has neither a sequence nor a sequence source.");
+        }
+
+        try {
+            return sequenceSource.read(offset, length);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("The sequence of node " + name + " could not be read.", e);
+        }
+    }
+
+    /**
+     * Reads the given window of the combined sequence of the given {@link NodeMetadata}.
+     *
+     * @param parts  the combined {@link NodeMetadata}
+     * @param offset the index of the first character in the window
+     * @param length the number of characters in the window
+     * @return the characters of the combined sequence in the given window
+     * @throws IOException if the sequence of one of the combined {@link NodeMetadata} could not be read
+     * @see #NodeMetadata(Collection)
+     */
+    private static String readCombinedSequence(final List<NodeMetadata> parts, final int offset, final int length)
+            throws IOException {
+        final StringBuilder window = new StringBuilder(length);
+        final long end = (long) offset + length;
+        long position = 0;
+
+        try {
+            for (int i = 0; i <= parts.size() && position < end; i++) {
+                final String delimiter;
+                if (i == 0) {
+                    delimiter = COMBINED_START;
+                } else if (i == parts.size()) {
+                    delimiter = COMBINED_END;
+                } else {
+                    delimiter = COMBINED_SEPARATOR;
+                }
+                appendOverlap(window, delimiter, position, offset, end);
+                position += delimiter.length();
+
+                if (i < parts.size()) {
+                    final NodeMetadata part = parts.get(i);
+                    final long from = Math.max(offset, position);
+                    final long to = Math.min(end, position + part.sequenceLength);
+                    if (from < to) {
+                        window.append(part.getSequence((int) (from - position), (int) (to - from)));
+                    }
+                    position += part.sequenceLength;
+                }
+            }
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return window.toString();
+    }
+
+    /**
+     * Appends the part of the given string that overlaps with the given window.
+     *
+     * @param window   the window to append to
+     * @param string   a string
+     * @param position the index of the string in the combined sequence
+     * @param offset   the index of the first character in the window
+     * @param end      the index after the last character in the window
+     */
+    private static void appendOverlap(final StringBuilder window, final String string, final long position,
+                                      final long offset, final long end) {
+        final long from = Math.max(offset, position);
+        final long to = Math.min(end, position + string.length());
+        if (from < to) {
+            window.append(string, (int) (from - position), (int) (to - position));
+        }
+    }
 }
@@ -1,5 +1,9 @@
 package org.dnacronym.hygene.graph.metadata;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Sets;
 import com.google.common.eventbus.Subscribe;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -18,17 +22,41 @@ import org.dnacronym.hygene.parser.MetadataParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 
 /**
  * Represents the cache of {@link org.dnacronym.hygene.graph.node.Node}s with metadata loaded.
+ * <p>
+ * The cache is bounded by an estimate of the number of bytes taken by the metadata in it. When the cache is full, the
+ * least recently used metadata is evicted. The cache is safe to read from other threads while metadata is being
+ * retrieved.
+ * <p>
+ * Metadata is retrieved lazily, so that the cache holds the names and genomes of the nodes, but only the shorter of
+ * their sequences. Those are packed at two bits per base. Longer sequences are read from the GFA file only when they,
+ * or a window of them, are shown.
+ * <p>
+ * Metadata can also be added speculatively by a {@link MetadataPrefetcher}, before the nodes are part of a query. The
+ * cache counts how much of the prefetched metadata is later used by a query before it is evicted.
+ * <p>
+ * Retrievals are never interrupted, as an interrupt would close the channel that the GFA file is read with. Instead, a
+ * retrieval for a layout that has since been replaced by another returns as soon as it notices, without reading the
+ * GFA file or notifying listeners.
  */
 public final class NodeMetadataCache {
+    /**
+     * The default maximum number of bytes of metadata in the cache.
+     */
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 64L * 1024 * 1024;
+
     private static final Logger LOGGER = LogManager.getLogger(NodeMetadataCache.class);
 
     /**
@@ -39,12 +67,39 @@ public final class NodeMetadataCache {
      * The minimum number of milliseconds that must be between each retrieval operation.
      */
     private static final int RETRIEVE_METADATA_TIMEOUT = 750;
+    /**
+     * The estimated number of bytes taken by an entry in the cache, excluding its strings.
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+    /**
+     * The estimated number of bytes taken by a string, excluding its characters.
+     */
+    private static final int STRING_OVERHEAD = 40;
 
     private final ThrottledExecutor retrievalExecutor;
     private final GfaFile gfaFile;
-    private final Map<Integer, NodeMetadata> cache;
     private final PathCalculator pathCalculator;
+    /**
+     * The ids of nodes of which the metadata was prefetched, but not yet used.
+     */
+    private final Set<Integer> prefetchedIds;
+    private final AtomicLong prefetchedCount;
+    private final AtomicLong usedPrefetchedCount;
+    /**
+     * The number of layouts that were done, which tells a retrieval whether the layout it was started for is the last.
+     */
+    private final AtomicLong layoutCount;
+    /**
+     * Held shared while metadata is added to the cache, and exclusively while the cache is replaced by one of another
+     * size, so that no metadata is added to a cache that is being replaced.
+     */
+    private final ReadWriteLock resizeLock;
 
+    private volatile Cache<Integer, NodeMetadata> cache;
+    /**
+     * The statistics of the caches that were replaced by {@link #setMaximumWeight(long)}.
+     */
+    private volatile CacheStats replacedStats;
     private int currentRadius;
 
 
@@ -54,10 +109,42 @@ public final class NodeMetadataCache {
      * @param gfaFile the {@link GfaFile} that provides the parsing functionality
      */
     public NodeMetadataCache(final GfaFile gfaFile) {
-        this.retrievalExecutor = new ThrottledExecutor(RETRIEVE_METADATA_TIMEOUT);
+        this(gfaFile, DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    /**
+     * Constructs and initializes {@link NodeMetadataCache}.
+     *
+     * @param gfaFile       the {@link GfaFile} that provides the parsing functionality
+     * @param maximumWeight the maximum number of bytes of metadata in the cache
+     */
+    public NodeMetadataCache(final GfaFile gfaFile, final long maximumWeight) {
+        this.retrievalExecutor = new ThrottledExecutor(RETRIEVE_METADATA_TIMEOUT, Executors.defaultThreadFactory(),
+                false);
         this.gfaFile = gfaFile;
-        this.cache = new HashMap<>();
         this.pathCalculator = new PathCalculator();
+        this.prefetchedIds = Sets.newConcurrentHashSet();
+        this.prefetchedCount = new AtomicLong();
+        this.usedPrefetchedCount = new AtomicLong();
+        this.layoutCount = new AtomicLong();
+        this.resizeLock = new ReentrantReadWriteLock();
+        this.cache = createCache(maximumWeight);
+        this.replacedStats = new CacheStats(0, 0, 0, 0, 0, 0);
+    }
+
+
+    /**
+     * Estimates the number of bytes taken by the given metadata.
+     *
+     * @param metadata a {@link NodeMetadata}
+     * @return the estimated number of bytes taken by the metadata
+     */
+    static int estimateWeight(final NodeMetadata metadata) {
+        final long weight = ENTRY_OVERHEAD
+                + STRING_OVERHEAD + 2L * metadata.getName().length()
+                + metadata.estimateSequenceSize()
+                + metadata.getGenomes().estimateSize();
+        return (int) Math.min(weight, Integer.MAX_VALUE);
     }
 
 
@@ -78,14 +165,15 @@ public final class NodeMetadataCache {
      */
     @Subscribe
     public void layoutDone(final LayoutDoneEvent event) {
-        if (currentRadius >= RADIUS_THRESHOLD) {
+        final long layout = layoutCount.incrementAndGet();
+        if (!isRetrieving()) {
             retrievalExecutor.stop();
             return;
         }
 
         retrievalExecutor.run(() -> {
-            retrieveMetadata(gfaFile, event.getSubgraph());
-            if (Thread.interrupted()) {
+            retrieveMetadata(gfaFile, event.getSubgraph(), layout);
+            if (layoutCount.get() != layout) {
                 return;
             }
             pathCalculator.computePaths(event.getSubgraph());
@@ -93,6 +181,103 @@ public final class NodeMetadataCache {
         });
     }
 
+    /**
+     * Sets the maximum number of bytes of metadata in the cache.
+     * <p>
+     * The metadata that is already in the cache is kept as far as it fits, and the statistics are kept. Metadata that
+     * is added while the cache is resized waits for the resize to complete.
+     *
+     * @param maximumWeight the maximum number of bytes of metadata in the cache
+     */
+    public void setMaximumWeight(final long maximumWeight) {
+        resizeLock.writeLock().lock();
+        try {
+            final Cache<Integer, NodeMetadata> newCache = createCache(maximumWeight);
+            newCache.putAll(cache.asMap());
+            replacedStats = replacedStats.plus(cache.stats());
+            cache = newCache;
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the hit, miss, and eviction counts of the cache.
+     *
+     * @return the hit, miss, and eviction counts of the cache
+     */
+    public CacheStats getStats() {
+        return replacedStats.plus(cache.stats());
+    }
+
+    /**
+     * Returns the estimated number of bytes of metadata in the cache.
+     *
+     * @return the estimated number of bytes of metadata in the cache
+     */
+    public long getWeight() {
+        return cache.asMap().values().stream().mapToLong(NodeMetadataCache::estimateWeight).sum();
+    }
+
+    /**
+     * Returns the number of nodes of which the metadata was added by a {@link MetadataPrefetcher}.
+     *
+     * @return the number of nodes of which the metadata was added by a {@link MetadataPrefetcher}
+     */
+    public long getPrefetchedCount() {
+        return prefetchedCount.get();
+    }
+
+    /**
+     * Returns the number of nodes of which the prefetched metadata was used by a query.
+     *
+     * @return the number of nodes of which the prefetched metadata was used by a query
+     */
+    public long getUsedPrefetchedCount() {
+        return usedPrefetchedCount.get();
+    }
+
+    /**
+     * Returns {@code true} iff. the radius of the current query is small enough for metadata to be retrieved.
+     *
+     * @return {@code true} iff. the radius of the current query is small enough for metadata to be retrieved
+     */
+    boolean isRetrieving() {
+        return currentRadius < RADIUS_THRESHOLD;
+    }
+
+    /**
+     * Returns {@code true} iff. the cache contains metadata for the node with the given id.
+     * <p>
+     * Unlike retrievals by a query, this does not count as a hit or a miss.
+     *
+     * @param id the id of a node
+     * @return {@code true} iff. the cache contains metadata for the node with the given id
+     */
+    boolean contains(final int id) {
+        return cache.asMap().containsKey(id);
+    }
+
+    /**
+     * Adds prefetched metadata to the cache.
+     *
+     * @param metadata a map from node ids to their prefetched metadata
+     */
+    void addPrefetched(final Map<Integer, NodeMetadata> metadata) {
+        resizeLock.readLock().lock();
+        try {
+            final Cache<Integer, NodeMetadata> currentCache = cache;
+            metadata.forEach((id, nodeMetadata) -> {
+                if (currentCache.asMap().putIfAbsent(id, nodeMetadata) == null) {
+                    prefetchedIds.add(id);
+                    prefetchedCount.incrementAndGet();
+                }
+            });
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+    }
+
     /**
      * Returns the {@link ThrottledExecutor} used to retrieve metadata.
      *
@@ -108,28 +293,41 @@ public final class NodeMetadataCache {
      *
      * @param gfaFile  the {@link GfaFile} that provides the parsing functionality
      * @param subgraph a {@link Subgraph} with metadata
+     * @param layout   the number of the layout for which metadata is retrieved
      */
-    private void retrieveMetadata(final GfaFile gfaFile, final Subgraph subgraph) {
+    private void retrieveMetadata(final GfaFile gfaFile, final Subgraph subgraph, final long layout) {
+        final Cache<Integer, NodeMetadata> currentCache = cache;
         final List<Segment> segmentsWithoutMetadata = new ArrayList<>();
 
         subgraph.getGfaNodes().stream()
                 .flatMap(gfaNode -> gfaNode.getSegments().stream())
                 .forEach(segment -> {
-                    final NodeMetadata metadata = cache.get(segment.getId());
+                    final NodeMetadata metadata = currentCache.getIfPresent(segment.getId());
                     if (metadata == null) {
                         segmentsWithoutMetadata.add(segment);
                     } else {
+                        if (prefetchedIds.remove(segment.getId())) {
+                            usedPrefetchedCount.incrementAndGet();
+                        }
                         segment.setMetadata(metadata);
                     }
                 });
+        if (layoutCount.get() != layout) {
+            return;
+        }
 
         try {
             final Map<Integer, Long> sortedSegmentsWithoutMetadata
                     = getSortedSegmentsWithoutMetadata(segmentsWithoutMetadata);
             final Map<Integer, NodeMetadata> metadata
-                    = gfaFile.parseNodeMetadata(sortedSegmentsWithoutMetadata);
+                    = gfaFile.parseLazyNodeMetadata(sortedSegmentsWithoutMetadata);
 
-            cache.putAll(metadata);
+            resizeLock.readLock().lock();
+            try {
+                cache.putAll(metadata);
+            } finally {
+                resizeLock.readLock().unlock();
+            }
 
             metadata.forEach((key, value) -> subgraph.getSegment(key)
                     .ifPresent(segment -> segment.setMetadata(value)));
@@ -140,6 +338,25 @@ public final class NodeMetadataCache {
         }
     }
 
+    /**
+     * Creates a new {@link Cache} that is bounded by the given number of bytes.
+     *
+     * @param maximumWeight the maximum number of bytes of metadata in the cache
+     * @return a new {@link Cache}
+     */
+    private Cache<Integer, NodeMetadata> createCache(final long maximumWeight) {
+        return CacheBuilder.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((final Integer id, final NodeMetadata metadata) -> estimateWeight(metadata))
+                .removalListener(notification -> {
+                    if (notification.wasEvicted()) {
+                        prefetchedIds.remove(notification.getKey());
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
     /**
      * Removes {@link Segment} that already have metadata, sorts them by ascending byte offset, and maps the
      * {@link Segment}s ids to their byte offsets.
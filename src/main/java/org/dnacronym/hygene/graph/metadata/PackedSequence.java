@@ -0,0 +1,280 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * A DNA sequence that is stored with two bits per base.
+ * <p>
+ * The bases {@code A}, {@code C}, {@code G}, and {@code T} are packed into {@code long}s, 32 bases per word. Any other
+ * character, such as {@code N} or one of the other IUPAC codes, is stored in a side table of exceptions, in which runs
+ * of the same character take up a single entry. Lowercase characters, such as those of soft-masked regions, are
+ * packed or stored as their uppercase equivalent, and the runs of lowercase characters are stored in a separate table.
+ * Since sequences consist almost entirely of the four bases, a packed sequence takes up about an eighth of the memory
+ * of the equivalent {@link String}.
+ * <p>
+ * If the tables of exceptions and lowercase runs would take up more memory than one byte per character, such as for
+ * sequences that consist mostly of IUPAC codes, the sequence is stored as plain ASCII bytes instead.
+ * <p>
+ * Single characters and substrings can be extracted at any position without unpacking the rest of the sequence.
+ */
+public final class PackedSequence implements CharSequence {
+    private static final int BASES_PER_WORD = 32;
+    private static final int BITS_PER_BASE = 2;
+    private static final int BASE_MASK = 0b11;
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+    private static final char LAST_ASCII_CHARACTER = 0x7F;
+    /**
+     * The estimated number of bytes taken by a {@link PackedSequence}, excluding its arrays.
+     */
+    private static final int OVERHEAD = 64;
+    /**
+     * The number of bytes taken by an entry in the side table of exceptions.
+     */
+    private static final int EXCEPTION_SIZE = 2 * Integer.BYTES + Character.BYTES;
+    /**
+     * The number of bytes taken by an entry in the table of lowercase runs.
+     */
+    private static final int LOWER_CASE_RUN_SIZE = 2 * Integer.BYTES;
+
+    private final int length;
+    private final boolean packed;
+    private final byte[] characters;
+    private final long[] words;
+    private final int[] exceptionStarts;
+    private final int[] exceptionEnds;
+    private final char[] exceptionCharacters;
+    private final int[] lowerCaseStarts;
+    private final int[] lowerCaseEnds;
+
+
+    /**
+     * Constructs a new {@link PackedSequence} by packing the given sequence.
+     *
+     * @param sequence the sequence to pack
+     */
+    public PackedSequence(final CharSequence sequence) {
+        this.length = sequence.length();
+
+        final long[] packedWords = new long[(length + BASES_PER_WORD - 1) / BASES_PER_WORD];
+        final Runs exceptions = new Runs();
+        final Runs lowerCase = new Runs();
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            final char character = sequence.charAt(i);
+            final char upperCase = Character.toUpperCase(character);
+            ascii &= character <= LAST_ASCII_CHARACTER;
+
+            if (upperCase != character) {
+                lowerCase.add(i, 'a');
+            }
+
+            final int code = encode(upperCase);
+            if (code >= 0) {
+                packedWords[i / BASES_PER_WORD] |= (long) code << (i % BASES_PER_WORD * BITS_PER_BASE);
+            } else {
+                exceptions.add(i, upperCase);
+            }
+        }
+
+        final long tableSize = (long) EXCEPTION_SIZE * exceptions.count + (long) LOWER_CASE_RUN_SIZE * lowerCase.count;
+        this.packed = !ascii || tableSize <= length;
+        if (packed) {
+            this.characters = new byte[0];
+            this.words = packedWords;
+            this.exceptionStarts = Arrays.copyOf(exceptions.starts, exceptions.count);
+            this.exceptionEnds = Arrays.copyOf(exceptions.ends, exceptions.count);
+            this.exceptionCharacters = Arrays.copyOf(exceptions.characters, exceptions.count);
+            this.lowerCaseStarts = Arrays.copyOf(lowerCase.starts, lowerCase.count);
+            this.lowerCaseEnds = Arrays.copyOf(lowerCase.ends, lowerCase.count);
+        } else {
+            this.characters = sequence.toString().getBytes(StandardCharsets.US_ASCII);
+            this.words = new long[0];
+            this.exceptionStarts = new int[0];
+            this.exceptionEnds = new int[0];
+            this.exceptionCharacters = new char[0];
+            this.lowerCaseStarts = new int[0];
+            this.lowerCaseEnds = new int[0];
+        }
+    }
+
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + length + ".");
+        }
+        if (!packed) {
+            return (char) characters[index];
+        }
+
+        final int exception = findRun(exceptionStarts, index);
+        final char character = exception >= 0 && index < exceptionEnds[exception]
+                ? exceptionCharacters[exception]
+                : decode(index);
+
+        final int lowerCaseRun = findRun(lowerCaseStarts, index);
+        return lowerCaseRun >= 0 && index < lowerCaseEnds[lowerCaseRun] ? Character.toLowerCase(character) : character;
+    }
+
+    /**
+     * Returns the substring between the given indices.
+     *
+     * @param start the index of the first character, inclusive
+     * @param end   the index of the last character, exclusive
+     * @return the substring between the given indices
+     */
+    public String substring(final int start, final int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") is out of bounds for length "
+                    + length + ".");
+        }
+        if (!packed) {
+            return new String(characters, start, end - start, StandardCharsets.US_ASCII);
+        }
+
+        final char[] substring = new char[end - start];
+        for (int i = start; i < end; i++) {
+            substring[i - start] = decode(i);
+        }
+
+        int exception = Math.max(0, findRun(exceptionStarts, start));
+        while (exception < exceptionStarts.length && exceptionStarts[exception] < end) {
+            final int from = Math.max(start, exceptionStarts[exception]);
+            final int to = Math.min(end, exceptionEnds[exception]);
+            if (from < to) {
+                Arrays.fill(substring, from - start, to - start, exceptionCharacters[exception]);
+            }
+            exception++;
+        }
+
+        int lowerCaseRun = Math.max(0, findRun(lowerCaseStarts, start));
+        while (lowerCaseRun < lowerCaseStarts.length && lowerCaseStarts[lowerCaseRun] < end) {
+            final int to = Math.min(end, lowerCaseEnds[lowerCaseRun]);
+            for (int i = Math.max(start, lowerCaseStarts[lowerCaseRun]); i < to; i++) {
+                substring[i - start] = Character.toLowerCase(substring[i - start]);
+            }
+            lowerCaseRun++;
+        }
+
+        return new String(substring);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        return substring(start, end);
+    }
+
+    /**
+     * Estimates the number of bytes taken by this {@link PackedSequence}.
+     *
+     * @return the estimated number of bytes taken by this {@link PackedSequence}
+     */
+    public long estimateSize() {
+        return OVERHEAD + characters.length + (long) Long.BYTES * words.length
+                + (long) EXCEPTION_SIZE * exceptionCharacters.length
+                + (long) LOWER_CASE_RUN_SIZE * lowerCaseStarts.length;
+    }
+
+    /**
+     * Returns {@code true} iff. the sequence is packed, rather than stored as plain bytes.
+     *
+     * @return {@code true} iff. the sequence is packed, rather than stored as plain bytes
+     */
+    boolean isPacked() {
+        return packed;
+    }
+
+    @Override
+    public String toString() {
+        return substring(0, length);
+    }
+
+
+    /**
+     * Returns the two-bit code of the given character.
+     *
+     * @param character an uppercase character
+     * @return the two-bit code of the given character, or {@code -1} if it is not one of the four bases
+     */
+    private static int encode(final char character) {
+        switch (character) {
+            case 'A':
+                return 0;
+            case 'C':
+                return 1;
+            case 'G':
+                return 2;
+            case 'T':
+                return 3;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Returns the base that is packed at the given index, ignoring exceptions and case.
+     *
+     * @param index the index of a base
+     * @return the base that is packed at the given index
+     */
+    private char decode(final int index) {
+        final long word = words[index / BASES_PER_WORD];
+        return BASES[(int) (word >>> (index % BASES_PER_WORD * BITS_PER_BASE)) & BASE_MASK];
+    }
+
+    /**
+     * Returns the last run that starts at or before the given index.
+     *
+     * @param starts the sorted indices at which the runs start
+     * @param index  the index of a character
+     * @return the last run that starts at or before the given index, or {@code -1} if there is none
+     */
+    private static int findRun(final int[] starts, final int index) {
+        final int position = Arrays.binarySearch(starts, index);
+        return position >= 0 ? position : -position - 2;
+    }
+
+
+    /**
+     * A growing table of runs of the same character, to which characters are added in order of index.
+     */
+    private static final class Runs {
+        private int count;
+        private int[] starts = new int[0];
+        private int[] ends = new int[0];
+        private char[] characters = new char[0];
+
+
+        /**
+         * Adds the given character at the given index, extending the last run if it directly precedes the index and
+         * has the same character.
+         *
+         * @param index     the index of the character, greater than that of all previously added characters
+         * @param character the character
+         */
+        void add(final int index, final char character) {
+            if (count > 0 && ends[count - 1] == index && characters[count - 1] == character) {
+                ends[count - 1]++;
+                return;
+            }
+
+            if (count == starts.length) {
+                final int capacity = Math.max(4, 2 * count);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                characters = Arrays.copyOf(characters, capacity);
+            }
+            starts[count] = index;
+            ends[count] = index + 1;
+            characters[count] = character;
+            count++;
+        }
+    }
+}
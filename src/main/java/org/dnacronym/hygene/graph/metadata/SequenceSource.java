@@ -0,0 +1,20 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import java.io.IOException;
+
+
+/**
+ * Provides a functional interface for reading (parts of) the DNA sequence of a node on demand.
+ */
+@FunctionalInterface
+public interface SequenceSource {
+    /**
+     * Reads the given window of the sequence.
+     *
+     * @param offset the index of the first base to read
+     * @param length the number of bases to read
+     * @return the bases in the given window of the sequence
+     * @throws IOException if the sequence could not be read
+     */
+    String read(int offset, int length) throws IOException;
+}
@@ -0,0 +1,299 @@
+package org.dnacronym.hygene.parser;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.core.ByteOffsetArray;
+import org.dnacronym.hygene.core.UnsignedInteger;
+import org.dnacronym.hygene.graph.CsrGraphStorage;
+import org.dnacronym.hygene.graph.GraphStorage;
+import org.dnacronym.hygene.graph.GraphStorageType;
+import org.dnacronym.hygene.graph.OffHeapGraphStorage;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+
+/**
+ * Builds the edges of a graph in a single count-then-fill pass into a {@link CsrGraphStorage} or an
+ * {@link OffHeapGraphStorage}.
+ * <p>
+ * First the number of outgoing and incoming edges of each node is counted, including the edges to the source and sink
+ * that nodes without neighbours on one side receive. The counts determine where the edges of each node start in the
+ * flat edge arrays, after which the edges are written into them. The edges of each node are in the same order as
+ * when appending them one at a time in the order in which they were read.
+ * <p>
+ * The edge byte offsets are wide iff. the node byte offsets are. When building off-heap storage, the edges are written
+ * directly into direct buffers, so that the edge columns never take up space on the Java heap. Only the node columns,
+ * which are much smaller, are copied out of the heap once all edges have been written.
+ */
+final class EdgeBuilder {
+    private final ByteOffsetArray byteOffsets;
+    private final int[] sequenceLengths;
+    private final LinkBuffer links;
+    private final int size;
+    private final int source;
+    private final int sink;
+    private final GraphStorageType storageType;
+
+    private final int[] outgoingStarts;
+    private final int[] incomingStarts;
+    private final IntBuffer outgoingNeighbours;
+    private final IntBuffer outgoingByteOffsets;
+    private final @Nullable ByteBuffer outgoingByteOffsetHighs;
+    private final IntBuffer incomingNeighbours;
+    private final IntBuffer incomingByteOffsets;
+    private final @Nullable ByteBuffer incomingByteOffsetHighs;
+    private final int[] outgoingCursors; // node ID => index of next free outgoing edge slot
+    private final int[] incomingCursors; // node ID => index of next free incoming edge slot
+
+
+    /**
+     * Constructs a new {@link EdgeBuilder} that builds a {@link CsrGraphStorage}, and counts the edges of each node.
+     *
+     * @param byteOffsets     the byte offset of each node, with the source as the first and the sink as the last node
+     * @param sequenceLengths the sequence length of each node
+     * @param links           the links between the nodes, with resolved node IDs, in file order
+     */
+    EdgeBuilder(final ByteOffsetArray byteOffsets, final int[] sequenceLengths, final LinkBuffer links) {
+        this(byteOffsets, sequenceLengths, links, GraphStorageType.HEAP);
+    }
+
+    /**
+     * Constructs a new {@link EdgeBuilder} and counts the edges of each node.
+     *
+     * @param byteOffsets     the byte offset of each node, with the source as the first and the sink as the last node
+     * @param sequenceLengths the sequence length of each node
+     * @param links           the links between the nodes, with resolved node IDs, in file order
+     * @param storageType     the kind of storage to build
+     * @throws IllegalArgumentException if the graph has too many edges to fit in off-heap storage
+     */
+    @SuppressWarnings("PMD.ArrayIsStoredDirectly") // Performance
+    EdgeBuilder(final ByteOffsetArray byteOffsets, final int[] sequenceLengths, final LinkBuffer links,
+                final GraphStorageType storageType) {
+        this.byteOffsets = byteOffsets;
+        this.sequenceLengths = sequenceLengths;
+        this.links = links;
+        this.size = byteOffsets.size();
+        this.source = 0;
+        this.sink = size - 1;
+        this.storageType = storageType;
+
+        this.outgoingStarts = new int[size + 1];
+        this.incomingStarts = new int[size + 1];
+        countEdges(links, sink, outgoingStarts, incomingStarts);
+        toStarts(outgoingStarts);
+        toStarts(incomingStarts);
+
+        if (storageType == GraphStorageType.OFF_HEAP && (size >= OffHeapGraphStorage.MAX_COLUMN_SIZE
+                || outgoingStarts[size] > OffHeapGraphStorage.MAX_COLUMN_SIZE
+                || incomingStarts[size] > OffHeapGraphStorage.MAX_COLUMN_SIZE)) {
+            throw new IllegalArgumentException("Graph with " + size + " nodes and " + outgoingStarts[size]
+                    + " edges does not fit in off-heap storage.");
+        }
+
+        this.outgoingNeighbours = allocateInts(outgoingStarts[size]);
+        this.outgoingByteOffsets = allocateInts(outgoingStarts[size]);
+        this.outgoingByteOffsetHighs = byteOffsets.isWide() ? allocateBytes(outgoingStarts[size]) : null;
+        this.incomingNeighbours = allocateInts(incomingStarts[size]);
+        this.incomingByteOffsets = allocateInts(incomingStarts[size]);
+        this.incomingByteOffsetHighs = byteOffsets.isWide() ? allocateBytes(incomingStarts[size]) : null;
+        this.outgoingCursors = Arrays.copyOf(outgoingStarts, size);
+        this.incomingCursors = Arrays.copyOf(incomingStarts, size);
+    }
+
+
+    /**
+     * Writes all edges and returns the resulting {@link GraphStorage}.
+     * <p>
+     * Nodes without incoming edges are connected to the source, and nodes without outgoing edges are connected to the
+     * sink. These edges are added after the edges from the file, in order of node ID.
+     *
+     * @return a {@link CsrGraphStorage} or an {@link OffHeapGraphStorage} containing all nodes and edges, depending on
+     * the storage type this builder was constructed with
+     */
+    GraphStorage build() {
+        for (int i = 0; i < links.size(); i++) {
+            addEdge(links.getFrom(i), links.getTo(i), links.getByteOffset(i));
+        }
+
+        for (int nodeId = source + 1; nodeId < sink; nodeId++) {
+            if (incomingCursors[nodeId] == incomingStarts[nodeId]) {
+                addEdge(source, nodeId);
+            }
+            if (outgoingCursors[nodeId] == outgoingStarts[nodeId]) {
+                addEdge(nodeId, sink);
+            }
+        }
+
+        final int[] unscaledXPositions = new int[size];
+        Arrays.fill(unscaledXPositions, -1);
+
+        if (storageType == GraphStorageType.OFF_HEAP) {
+            return buildOffHeap(unscaledXPositions);
+        }
+        return new CsrGraphStorage(byteOffsets, sequenceLengths, unscaledXPositions,
+                outgoingStarts, outgoingNeighbours.array(),
+                toByteOffsetArray(outgoingByteOffsets, outgoingByteOffsetHighs),
+                incomingStarts, incomingNeighbours.array(),
+                toByteOffsetArray(incomingByteOffsets, incomingByteOffsetHighs));
+    }
+
+
+    /**
+     * Counts the number of outgoing and incoming edges of each node, storing the count of node {@code i} at index
+     * {@code i + 1}.
+     *
+     * @param links          the links between the nodes
+     * @param sink           the ID of the sink, which is the last node
+     * @param outgoingCounts the array to store the outgoing edge counts in
+     * @param incomingCounts the array to store the incoming edge counts in
+     */
+    private static void countEdges(final LinkBuffer links, final int sink,
+                                   final int[] outgoingCounts, final int[] incomingCounts) {
+        final int source = 0;
+
+        for (int i = 0; i < links.size(); i++) {
+            outgoingCounts[links.getFrom(i) + 1]++;
+            incomingCounts[links.getTo(i) + 1]++;
+        }
+
+        for (int nodeId = source + 1; nodeId < sink; nodeId++) {
+            if (incomingCounts[nodeId + 1] == 0) {
+                outgoingCounts[source + 1]++;
+                incomingCounts[nodeId + 1]++;
+            }
+            if (outgoingCounts[nodeId + 1] == 0) {
+                outgoingCounts[nodeId + 1]++;
+                incomingCounts[sink + 1]++;
+            }
+        }
+    }
+
+    /**
+     * Replaces the counts in the given array by their prefix sums, so that each index holds the start of the edges of
+     * the corresponding node.
+     *
+     * @param counts the edge count of node {@code i} at index {@code i + 1}
+     */
+    private static void toStarts(final int[] counts) {
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+    }
+
+    /**
+     * Writes an edge into the next free outgoing slot of its start node and the next free incoming slot of its end
+     * node.
+     *
+     * @param fromId     node ID of edge start node
+     * @param toId       node ID of edge end node
+     * @param byteOffset the byte offset of the edge
+     */
+    private void addEdge(final int fromId, final int toId, final long byteOffset) {
+        putByteOffset(outgoingByteOffsets, outgoingByteOffsetHighs, outgoingCursors[fromId], byteOffset);
+        putByteOffset(incomingByteOffsets, incomingByteOffsetHighs, incomingCursors[toId], byteOffset);
+        addEdge(fromId, toId);
+    }
+
+    /**
+     * Writes an edge that does not occur in the file, and thus has no byte offset, into the next free outgoing slot of
+     * its start node and the next free incoming slot of its end node.
+     *
+     * @param fromId node ID of edge start node
+     * @param toId   node ID of edge end node
+     */
+    private void addEdge(final int fromId, final int toId) {
+        outgoingNeighbours.put(outgoingCursors[fromId], toId);
+        outgoingCursors[fromId]++;
+
+        incomingNeighbours.put(incomingCursors[toId], fromId);
+        incomingCursors[toId]++;
+    }
+
+    /**
+     * Copies the node columns into direct buffers, and returns an {@link OffHeapGraphStorage} of them and the edge
+     * columns.
+     *
+     * @param unscaledXPositions the unscaled x position of each node
+     * @return an {@link OffHeapGraphStorage} containing all nodes and edges
+     */
+    private OffHeapGraphStorage buildOffHeap(final int[] unscaledXPositions) {
+        final IntBuffer offHeapByteOffsets = OffHeapGraphStorage.allocate(size);
+        final ByteBuffer offHeapByteOffsetHighs = byteOffsets.isWide() ? ByteBuffer.allocateDirect(size) : null;
+        for (int id = 0; id < size; id++) {
+            putByteOffset(offHeapByteOffsets, offHeapByteOffsetHighs, id, byteOffsets.get(id));
+        }
+
+        return new OffHeapGraphStorage(offHeapByteOffsets, toBuffer(sequenceLengths), toBuffer(unscaledXPositions),
+                toBuffer(outgoingStarts), outgoingNeighbours, outgoingByteOffsets,
+                toBuffer(incomingStarts), incomingNeighbours, incomingByteOffsets,
+                offHeapByteOffsetHighs, outgoingByteOffsetHighs, incomingByteOffsetHighs);
+    }
+
+    /**
+     * Allocates a column of integers in the kind of storage this builder builds.
+     *
+     * @param count the number of integers
+     * @return a direct {@link IntBuffer} when building off-heap storage, and a heap {@link IntBuffer} otherwise
+     */
+    private IntBuffer allocateInts(final int count) {
+        if (storageType == GraphStorageType.OFF_HEAP) {
+            return OffHeapGraphStorage.allocate(count);
+        }
+        return IntBuffer.wrap(new int[count]);
+    }
+
+    /**
+     * Allocates a column of bytes in the kind of storage this builder builds.
+     *
+     * @param count the number of bytes
+     * @return a direct {@link ByteBuffer} when building off-heap storage, and a heap {@link ByteBuffer} otherwise
+     */
+    private ByteBuffer allocateBytes(final int count) {
+        if (storageType == GraphStorageType.OFF_HEAP) {
+            return ByteBuffer.allocateDirect(count);
+        }
+        return ByteBuffer.wrap(new byte[count]);
+    }
+
+    /**
+     * Copies the given array into a direct buffer.
+     *
+     * @param values an array of integers
+     * @return a direct {@link IntBuffer} with the same contents
+     */
+    private static IntBuffer toBuffer(final int[] values) {
+        final IntBuffer buffer = OffHeapGraphStorage.allocate(values.length);
+        buffer.put(values);
+        return buffer;
+    }
+
+    /**
+     * Wraps the arrays of the given heap buffers in a {@link ByteOffsetArray}.
+     *
+     * @param lows  the heap buffer with the lower 32 bits of the byte offsets
+     * @param highs the heap buffer with the high bytes of the byte offsets, or {@code null}
+     * @return a {@link ByteOffsetArray} backed by the arrays of the given buffers
+     */
+    private static ByteOffsetArray toByteOffsetArray(final IntBuffer lows, final @Nullable ByteBuffer highs) {
+        return new ByteOffsetArray(lows.array(), highs == null ? null : highs.array());
+    }
+
+    /**
+     * Stores a byte offset at the given index of a byte offset column.
+     *
+     * @param lows       the column with the lower 32 bits of the byte offsets, as {@link UnsignedInteger}s
+     * @param highs      the column with the high bytes of the byte offsets, or {@code null}
+     * @param index      the index of the byte offset
+     * @param byteOffset the byte offset to store
+     */
+    private static void putByteOffset(final IntBuffer lows, final @Nullable ByteBuffer highs, final int index,
+                                      final long byteOffset) {
+        if (highs == null) {
+            lows.put(index, UnsignedInteger.fromLong(byteOffset));
+            return;
+        }
+        lows.put(index, ByteOffsetArray.getLow(byteOffset));
+        highs.put(index, ByteOffsetArray.getHigh(byteOffset));
+    }
+}
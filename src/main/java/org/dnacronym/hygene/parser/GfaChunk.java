@@ -0,0 +1,462 @@
+package org.dnacronym.hygene.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * The records read from a newline-aligned byte range of a GFA file.
+ * <p>
+ * Chunks are read independently of each other, so node names cannot be resolved to internal node IDs yet. Segments
+ * are therefore stored in the order in which they were read, and links refer to a chunk-local list of node names.
+ * Names are copied from the file into a {@link NameArena} without decoding them, so that reading a chunk does not
+ * create a {@link String} per name.
+ */
+@SuppressWarnings("PMD.TooManyMethods") // No reasonable refactor possible
+final class GfaChunk {
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INITIAL_ARENA_CAPACITY = 16 * 1024;
+    private static final byte NEWLINE = '\n';
+
+    private final long start;
+    private final long end;
+
+    private final NameArena segmentNames;
+    private long[] segmentByteOffsets;
+    private int[] segmentSequenceLengths;
+
+    private final NameArena linkNodeNames;
+    private int[] nameSlots; // open addressing table of indices in linkNodeNames plus one, or 0 if empty
+    private int[] nameHashes; // index in linkNodeNames => hash code of the name's bytes
+    private final LinkBuffer links;
+
+    private final List<String> headers;
+    private final List<Long> headerByteOffsets;
+
+
+    /**
+     * Constructs a new, empty {@link GfaChunk} for the given byte range.
+     *
+     * @param start the byte offset of the first line in the chunk
+     * @param end   the byte offset directly after the last line in the chunk
+     */
+    GfaChunk(final long start, final long end) {
+        this.start = start;
+        this.end = end;
+
+        this.segmentNames = new NameArena();
+        this.segmentByteOffsets = new long[INITIAL_CAPACITY];
+        this.segmentSequenceLengths = new int[INITIAL_CAPACITY];
+
+        this.linkNodeNames = new NameArena();
+        this.nameSlots = new int[INITIAL_CAPACITY * 2];
+        this.nameHashes = new int[INITIAL_CAPACITY];
+        this.links = new LinkBuffer();
+
+        this.headers = new ArrayList<>();
+        this.headerByteOffsets = new ArrayList<>();
+    }
+
+
+    /**
+     * Splits the file behind the given channel into at most {@code chunkCount} chunks that each start at the beginning
+     * of a line.
+     *
+     * @param channel    the channel of the GFA file
+     * @param chunkCount the preferred number of chunks
+     * @return the chunks, in file order
+     * @throws IOException if the file could not be read
+     */
+    static List<GfaChunk> split(final FileChannel channel, final int chunkCount) throws IOException {
+        final long size = channel.size();
+        final List<GfaChunk> chunks = new ArrayList<>(chunkCount);
+
+        long chunkStart = 0;
+        for (int i = 1; i <= chunkCount && chunkStart < size; i++) {
+            final long chunkEnd = i == chunkCount
+                    ? size
+                    : findLineStart(channel, Math.max(chunkStart, size * i / chunkCount));
+            if (chunkEnd > chunkStart) {
+                chunks.add(new GfaChunk(chunkStart, chunkEnd));
+                chunkStart = chunkEnd;
+            }
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Returns the byte offset of the first line that starts at or after the given position.
+     *
+     * @param channel  the channel of the GFA file
+     * @param position a byte offset in the file
+     * @return the byte offset of the first line that starts at or after the given position, or the file size if
+     * there is no such line
+     * @throws IOException if the file could not be read
+     */
+    private static long findLineStart(final FileChannel channel, final long position) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        long bufferPosition = position - 1;
+        while (channel.read(buffer, bufferPosition) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                if (buffer.get() == NEWLINE) {
+                    return bufferPosition + buffer.position();
+                }
+            }
+            bufferPosition += buffer.limit();
+            buffer.clear();
+        }
+
+        return channel.size();
+    }
+
+
+    /**
+     * Reads and parses all lines in this chunk.
+     *
+     * @param channel the channel of the GFA file
+     * @return this {@link GfaChunk}
+     * @throws IOException       if the file could not be read
+     * @throws GfaParseException if a line is not GFA-compliant
+     */
+    GfaChunk read(final FileChannel channel) throws IOException, GfaParseException {
+        final GfaTokenizer tokenizer = new GfaTokenizer(channel, start, end);
+        while (tokenizer.nextLine()) {
+            parseLine(tokenizer);
+        }
+        return this;
+    }
+
+    /**
+     * Parses the current line of the tokenizer and stores the record it contains.
+     *
+     * @param tokenizer a {@link GfaTokenizer} positioned at the line to parse
+     * @throws GfaParseException if the line is not GFA-compliant
+     */
+    private void parseLine(final GfaTokenizer tokenizer) throws GfaParseException {
+        if (!tokenizer.lineContainsTab()) {
+            return;
+        }
+
+        switch (tokenizer.getRecordType()) {
+            case 'H':
+                headers.add(tokenizer.getLineString());
+                headerByteOffsets.add(tokenizer.getLineByteOffset());
+                break;
+
+            case 'C':
+            case 'P':
+                break;
+
+            case 'S':
+                parseSegment(tokenizer);
+                break;
+
+            case 'L':
+                parseLink(tokenizer);
+                break;
+
+            default:
+                tokenizer.nextField();
+                throw new GfaParseException("Unknown record type `" + tokenizer.getFieldString().charAt(0)
+                        + "` at position " + tokenizer.getLineByteOffset());
+        }
+    }
+
+    /**
+     * Parses a segment line and stores its name, byte offset and sequence length.
+     * <p>
+     * Neither the name nor the sequence is decoded, as only the bytes of the name and the length of the sequence are
+     * needed.
+     *
+     * @param tokenizer a {@link GfaTokenizer} positioned at the line to parse
+     * @throws GfaParseException if the line does not have enough tokens
+     */
+    private void parseSegment(final GfaTokenizer tokenizer) throws GfaParseException {
+        final long byteOffset = tokenizer.getLineByteOffset();
+
+        tokenizer.nextField();
+        if (!tokenizer.nextField()) {
+            throw new GfaParseException("Not enough parameters for segment at position " + byteOffset);
+        }
+        final int index = segmentNames.add(tokenizer);
+        if (!tokenizer.nextField()) {
+            throw new GfaParseException("Not enough parameters for segment at position " + byteOffset);
+        }
+
+        if (index == segmentByteOffsets.length) {
+            segmentByteOffsets = Arrays.copyOf(segmentByteOffsets, index * 2);
+            segmentSequenceLengths = Arrays.copyOf(segmentSequenceLengths, index * 2);
+        }
+
+        segmentByteOffsets[index] = byteOffset;
+        segmentSequenceLengths[index] = tokenizer.getFieldLength();
+    }
+
+    /**
+     * Parses a link line and stores it with references to the chunk-local list of node names.
+     *
+     * @param tokenizer a {@link GfaTokenizer} positioned at the line to parse
+     * @throws GfaParseException if the line does not have enough tokens
+     */
+    private void parseLink(final GfaTokenizer tokenizer) throws GfaParseException {
+        final long byteOffset = tokenizer.getLineByteOffset();
+
+        tokenizer.nextField();
+        if (!tokenizer.nextField()) {
+            throw new GfaParseException("Not enough parameters for link at position " + byteOffset);
+        }
+        final int fromIndex = getLinkNodeIndex(tokenizer);
+        if (!tokenizer.nextField() || !tokenizer.nextField()) {
+            throw new GfaParseException("Not enough parameters for link at position " + byteOffset);
+        }
+        final int toIndex = getLinkNodeIndex(tokenizer);
+
+        links.add(fromIndex, toIndex, byteOffset);
+    }
+
+    /**
+     * Returns the index of the node name in the current field of the tokenizer in the chunk-local list of node names,
+     * adding it if necessary.
+     * <p>
+     * Names are looked up by hashing and comparing the raw bytes, so that the bytes of a name are only copied into the
+     * arena the first time the name is encountered in this chunk.
+     *
+     * @param tokenizer a {@link GfaTokenizer} positioned at the field containing the node name
+     * @return the index of the node name in the chunk-local list of node names
+     */
+    private int getLinkNodeIndex(final GfaTokenizer tokenizer) {
+        final int hash = tokenizer.fieldHashCode();
+
+        int slot = spread(hash) & (nameSlots.length - 1);
+        while (nameSlots[slot] != 0) {
+            final int index = nameSlots[slot] - 1;
+            if (nameHashes[index] == hash && linkNodeNames.fieldEquals(index, tokenizer)) {
+                return index;
+            }
+            slot = (slot + 1) & (nameSlots.length - 1);
+        }
+
+        final int index = linkNodeNames.add(tokenizer);
+        if (index == nameHashes.length) {
+            nameHashes = Arrays.copyOf(nameHashes, index * 2);
+        }
+        nameHashes[index] = hash;
+        nameSlots[slot] = index + 1;
+
+        if (linkNodeNames.size() * 2 > nameSlots.length) {
+            rehashNameSlots();
+        }
+
+        return index;
+    }
+
+    /**
+     * Doubles the size of the name table and reinserts all names.
+     */
+    private void rehashNameSlots() {
+        nameSlots = new int[nameSlots.length * 2];
+        for (int index = 0; index < linkNodeNames.size(); index++) {
+            int slot = spread(nameHashes[index]) & (nameSlots.length - 1);
+            while (nameSlots[slot] != 0) {
+                slot = (slot + 1) & (nameSlots.length - 1);
+            }
+            nameSlots[slot] = index + 1;
+        }
+    }
+
+    /**
+     * Spreads the higher bits of a hash code to the lower bits, because names tend to differ only in their last
+     * characters.
+     *
+     * @param hash a hash code
+     * @return the spread hash code
+     */
+    private static int spread(final int hash) {
+        final int spread = hash * 0x9E3779B9;
+        return spread ^ (spread >>> 16);
+    }
+
+
+    /**
+     * Returns the number of bytes in this chunk.
+     *
+     * @return the number of bytes in this chunk
+     */
+    long getSize() {
+        return end - start;
+    }
+
+    /**
+     * Returns the names of the segments in this chunk, in file order.
+     *
+     * @return the names of the segments in this chunk
+     */
+    NameArena getSegmentNames() {
+        return segmentNames;
+    }
+
+    /**
+     * Returns the byte offset of the segment with the given chunk-local index.
+     *
+     * @param index the index of the segment within this chunk
+     * @return the byte offset of the segment
+     */
+    long getSegmentByteOffset(final int index) {
+        return segmentByteOffsets[index];
+    }
+
+    /**
+     * Returns the sequence length of the segment with the given chunk-local index.
+     *
+     * @param index the index of the segment within this chunk
+     * @return the sequence length of the segment
+     */
+    int getSegmentSequenceLength(final int index) {
+        return segmentSequenceLengths[index];
+    }
+
+    /**
+     * Returns the names of the nodes referred to by the links in this chunk.
+     *
+     * @return the names of the nodes referred to by the links in this chunk
+     */
+    NameArena getLinkNodeNames() {
+        return linkNodeNames;
+    }
+
+    /**
+     * Returns the links in this chunk, in file order, as indices into {@link #getLinkNodeNames()}.
+     *
+     * @return the links in this chunk
+     */
+    LinkBuffer getLinks() {
+        return links;
+    }
+
+    /**
+     * Returns the header lines in this chunk, in file order.
+     *
+     * @return the header lines in this chunk
+     */
+    List<String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Returns the byte offsets of the header lines in this chunk, in file order.
+     *
+     * @return the byte offsets of the header lines in this chunk
+     */
+    List<Long> getHeaderByteOffsets() {
+        return headerByteOffsets;
+    }
+
+
+    /**
+     * A growing list of names, which are stored back to back as UTF-8 encoded bytes in a single arena.
+     */
+    static final class NameArena {
+        private byte[] bytes = new byte[INITIAL_ARENA_CAPACITY];
+        private int[] starts = new int[INITIAL_CAPACITY + 1]; // index => start of the name, followed by the end
+        private int count;
+
+
+        /**
+         * Copies the current field of the tokenizer into the arena as a new name.
+         *
+         * @param tokenizer a {@link GfaTokenizer} positioned at the field containing the name
+         * @return the index of the new name
+         */
+        int add(final GfaTokenizer tokenizer) {
+            if (count + 1 == starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+            }
+
+            final int start = starts[count];
+            final int length = tokenizer.getFieldLength();
+            if ((long) start + length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("The node names in a chunk do not fit in a single arena.");
+            }
+            if (start + length > bytes.length) {
+                final long capacity = Math.max(2L * bytes.length, start + length);
+                bytes = Arrays.copyOf(bytes, (int) Math.min(Integer.MAX_VALUE, capacity));
+            }
+
+            tokenizer.copyField(bytes, start);
+            count++;
+            starts[count] = start + length;
+            return count - 1;
+        }
+
+        /**
+         * Returns the number of names in the arena.
+         *
+         * @return the number of names in the arena
+         */
+        int size() {
+            return count;
+        }
+
+        /**
+         * Returns the arena in which the names are stored.
+         *
+         * @return the arena in which the names are stored
+         */
+        byte[] getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Returns the index in the arena of the first byte of the given name.
+         *
+         * @param index the index of a name
+         * @return the index in the arena of the first byte of the name
+         */
+        int getStart(final int index) {
+            return starts[index];
+        }
+
+        /**
+         * Returns the number of bytes in the given name.
+         *
+         * @param index the index of a name
+         * @return the number of bytes in the name
+         */
+        int getLength(final int index) {
+            return starts[index + 1] - starts[index];
+        }
+
+        /**
+         * Returns whether the given name is equal to the current field of the tokenizer.
+         *
+         * @param index     the index of a name
+         * @param tokenizer a {@link GfaTokenizer} positioned at a field
+         * @return {@code true} iff the name is equal to the current field of the tokenizer
+         */
+        boolean fieldEquals(final int index, final GfaTokenizer tokenizer) {
+            return tokenizer.fieldEquals(bytes, getStart(index), getLength(index));
+        }
+
+        /**
+         * Decodes the given name, such as for use in an error message.
+         *
+         * @param index the index of a name
+         * @return the decoded name
+         */
+        String getString(final int index) {
+            return new String(bytes, getStart(index), getLength(index), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -4,9 +4,16 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.GraphStorageType;
+import org.dnacronym.hygene.graph.NodeOrdering;
+import org.dnacronym.hygene.graph.NodeRenumbering;
+import org.dnacronym.hygene.graph.TopologicalOrder;
 import org.dnacronym.hygene.graph.layout.Fafosp;
 import org.dnacronym.hygene.graph.metadata.EdgeMetadata;
+import org.dnacronym.hygene.graph.metadata.GenomeDictionary;
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
 import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.dnacronym.hygene.parser.factories.GfaParserFactory;
 import org.dnacronym.hygene.parser.factories.MetadataParserFactory;
@@ -15,18 +22,20 @@ import org.dnacronym.hygene.persistence.GraphLoader;
 import org.dnacronym.hygene.persistence.UnexpectedDatabaseException;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.RandomAccessFile;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -36,31 +45,66 @@ import java.util.Map;
 public final class GfaFile {
     private static final Logger LOGGER = LogManager.getLogger(GfaFile.class);
     private static final int PROGRESS_TOTAL = 100;
-    private static final String RANDOM_ACCESS_FILE_MODE = "r";
 
     private final String fileName;
+    private final GraphStorageType storageType;
+    private final NodeOrdering nodeOrdering;
     private final GfaParser gfaParser;
     private final MetadataParser metadataParser;
     /**
      * Maps genome names to their respective indices.
      */
     private Map<String, String> genomeMapping;
+    private final GenomeDictionary genomeDictionary;
+    private final Map<String, GenomeSet> genomeAliases;
+    private @Nullable NodeNameDictionary nodeNames;
     private @MonotonicNonNull Graph graph;
-    private @MonotonicNonNull RandomAccessFile randomAccessFile;
+    private @MonotonicNonNull GfaLineReader lineReader;
 
 
     /**
-     * Constructs a new {@link GfaFile}.
+     * Constructs a new {@link GfaFile} of which the graph is stored on the Java heap.
      *
      * @param fileName the name of the GFA file
      */
     public GfaFile(final String fileName) {
+        this(fileName, GraphStorageType.HEAP);
+    }
+
+    /**
+     * Constructs a new {@link GfaFile}.
+     * <p>
+     * The storage type only applies when the file is parsed. Graphs restored from the cache are always backed by the
+     * memory-mapped cache file.
+     *
+     * @param fileName    the name of the GFA file
+     * @param storageType the kind of storage to load the graph into when parsing the file
+     */
+    public GfaFile(final String fileName, final GraphStorageType storageType) {
+        this(fileName, storageType, NodeOrdering.FILE);
+    }
+
+    /**
+     * Constructs a new {@link GfaFile}.
+     * <p>
+     * The storage type and node ordering only apply when the file is parsed. Graphs restored from the cache are always
+     * backed by the memory-mapped cache file, and keep the node ordering they were cached with.
+     *
+     * @param fileName     the name of the GFA file
+     * @param storageType  the kind of storage to load the graph into when parsing the file
+     * @param nodeOrdering the order in which to number the nodes when parsing the file
+     */
+    public GfaFile(final String fileName, final GraphStorageType storageType, final NodeOrdering nodeOrdering) {
         this.fileName = fileName;
+        this.storageType = storageType;
+        this.nodeOrdering = nodeOrdering;
 
         gfaParser = GfaParserFactory.createInstance();
         metadataParser = MetadataParserFactory.createInstance();
 
         genomeMapping = new HashMap<>();
+        genomeDictionary = new GenomeDictionary();
+        genomeAliases = new ConcurrentHashMap<>();
     }
 
 
@@ -77,22 +121,34 @@ public final class GfaFile {
 
             if (graphLoader.hasGraph()) {
                 genomeMapping = fileDatabase.getFileGenomeMapping().getMappings();
+                genomeAliases.clear();
                 graph = new Graph(graphLoader.restoreGraph(progressUpdater, fileName), this);
-                graph.setNodePositions(new Fafosp(graph).horizontal());
+                graph.setNodePositions(graphLoader.restoreNodePositions(fileName));
+                graph.setTopologicalOrder(graphLoader.restoreTopologicalOrder(fileName));
+                graph.setNodeRenumbering(graphLoader.restoreNodeRenumbering(fileName));
             } else {
                 LOGGER.info("Start parsing");
                 graph = gfaParser.parse(this, progressUpdater);
                 LOGGER.info("Finished parsing");
 
+                LOGGER.info("Start topological sort");
+                graph.setTopologicalOrder(TopologicalOrder.compute(graph));
+
                 LOGGER.info("Start fafosp x");
-                graph.setNodePositions(new Fafosp(graph).horizontal());
+                graph.setNodePositions(new Fafosp(graph).horizontalParallel());
+
+                if (nodeOrdering != NodeOrdering.FILE) {
+                    LOGGER.info("Start renumbering nodes");
+                    graph = renumber(graph);
+                }
 
                 LOGGER.info("GfaFile parse finished");
 
                 progressUpdater.updateProgress(PROGRESS_TOTAL - 1, "Caching data for faster load next time...");
 
                 LOGGER.info("Start dumping the graph to the database");
-                graphLoader.dumpGraph(graph.getNodeArrays(), fileName);
+                graphLoader.dumpGraph(graph.getStorage(), graph.getNodePositions(), graph.getTopologicalOrder(),
+                        graph.getNodeRenumbering(), fileName);
                 if (genomeMapping != null) {
                     fileDatabase.getFileGenomeMapping().addMapping(genomeMapping);
                 }
@@ -108,6 +164,28 @@ public final class GfaFile {
         return graph;
     }
 
+    /**
+     * Renumbers the nodes in the given {@link Graph} in the order this file was configured with.
+     * <p>
+     * The storage of the graph is renumbered in place rather than copied, so the given {@link Graph} can no longer be
+     * used afterwards.
+     *
+     * @param original a {@link Graph} of which the nodes are numbered in file order, and of which the topological order
+     *                 and node positions have been set
+     * @return a renumbered {@link Graph} that reuses the storage of the given {@link Graph}
+     */
+    private Graph renumber(final Graph original) {
+        final NodeRenumbering nodeRenumbering = nodeOrdering == NodeOrdering.TOPOLOGICAL
+                ? NodeRenumbering.fromTopologicalOrder(original.getTopologicalOrder())
+                : NodeRenumbering.fromNodePositions(original.getNodePositions(), original.size());
+
+        final Graph renumbered = new Graph(nodeRenumbering.renumberInPlace(original.getStorage()), this);
+        renumbered.setTopologicalOrder(nodeRenumbering.renumber(original.getTopologicalOrder()));
+        renumbered.setNodePositions(nodeRenumbering.renumber(original.getNodePositions()));
+        renumbered.setNodeRenumbering(nodeRenumbering);
+        return renumbered;
+    }
+
     /**
      * Parses a node's metadata to a {@link NodeMetadata} object.
      *
@@ -132,6 +210,19 @@ public final class GfaFile {
         return metadataParser.parseNodeMetadata(this, byteOffsets);
     }
 
+    /**
+     * Parses a node's metadata to a {@link NodeMetadata} object of which the sequence is read on demand.
+     *
+     * @param byteOffsets the byte offsets where the nodes should be located, sorted from lowest to highest,
+     *                    results will be given the same key as provided in this map
+     * @return a {@link NodeMetadata} object
+     * @throws MetadataParseException if the node metadata cannot be parsed
+     */
+    public Map<Integer, NodeMetadata> parseLazyNodeMetadata(final Map<Integer, Long> byteOffsets)
+            throws MetadataParseException {
+        return metadataParser.parseLazyNodeMetadata(this, byteOffsets);
+    }
+
     /**
      * Parses an edge's metadata to a {@link EdgeMetadata} object.
      *
@@ -143,6 +234,26 @@ public final class GfaFile {
         return metadataParser.parseEdgeMetadata(this, byteOffset);
     }
 
+    /**
+     * Returns the kind of storage the graph is loaded into when the file is parsed.
+     * <p>
+     * The {@link GfaParser} builds the graph directly into this kind of storage.
+     *
+     * @return the kind of storage the graph is loaded into
+     */
+    public GraphStorageType getStorageType() {
+        return storageType;
+    }
+
+    /**
+     * Returns the order in which the nodes are numbered when the file is parsed.
+     *
+     * @return the order in which the nodes are numbered when the file is parsed
+     */
+    public NodeOrdering getNodeOrdering() {
+        return nodeOrdering;
+    }
+
     /**
      * Get the name of the GFA file.
      *
@@ -175,20 +286,27 @@ public final class GfaFile {
     }
 
     /**
-     * Iterates over all genomes, and checks for each one in the genome mapping if they are present if they are numeric.
-     * If none are numeric, it simply checks if the passed genome is present in the list.
+     * Returns the {@link GenomeDictionary} in which the genomes of the nodes in this file are interned.
+     *
+     * @return the {@link GenomeDictionary} in which the genomes of the nodes in this file are interned
+     */
+    public GenomeDictionary getGenomeDictionary() {
+        return genomeDictionary;
+    }
+
+    /**
+     * Checks if the given genomes contain the given genome, either by its name or by a numeric index that the genome
+     * mapping maps to it.
+     * <p>
+     * The names and indices of each genome are cached as a {@link GenomeSet}, so that the check is a single
+     * intersection of bitsets.
      *
      * @param genomes genomes
      * @param genome  genome
      * @return true iff it is found
      */
-    public boolean containsGenomeMapping(final List<String> genomes, final String genome) {
-        for (final String criteria : genomes) {
-            if (StringUtils.isNumeric(criteria) && genome.equals(genomeMapping.get(criteria))) {
-                return true;
-            }
-        }
-        return genomes.contains(genome);
+    public boolean containsGenomeMapping(final GenomeSet genomes, final String genome) {
+        return genomes.intersects(genomeAliases.computeIfAbsent(genome, this::computeGenomeAliases));
     }
 
     /**
@@ -198,6 +316,29 @@ public final class GfaFile {
      */
     public void setGenomeMapping(final Map<String, String> genomeMapping) {
         this.genomeMapping = genomeMapping;
+        genomeAliases.clear();
+    }
+
+    /**
+     * Returns the dictionary of segment names.
+     * <p>
+     * The dictionary maps names to original node IDs, which can be converted with
+     * {@link Graph#getNodeIdByOriginalId(int)} if the nodes have been renumbered. It is only available if the file has
+     * been parsed rather than restored from the cache.
+     *
+     * @return the dictionary of segment names, or {@code null} if the graph was restored from the cache
+     */
+    public @Nullable NodeNameDictionary getNodeNames() {
+        return nodeNames;
+    }
+
+    /**
+     * Sets the dictionary of segment names.
+     *
+     * @param nodeNames the dictionary mapping segment names to original node IDs
+     */
+    void setNodeNames(final NodeNameDictionary nodeNames) {
+        this.nodeNames = nodeNames;
     }
 
     /**
@@ -229,19 +370,46 @@ public final class GfaFile {
     }
 
     /**
-     * Returns a random access file for the GFA file.
+     * Returns the size of the GFA file in bytes.
+     *
+     * @return the size of the GFA file in bytes, or 0 if the file does not exist
+     */
+    public long getFileSize() {
+        return new File(fileName).length();
+    }
+
+    /**
+     * Returns a {@link GfaLineReader} for the GFA file.
      *
-     * @return a random access file for the GFA file
-     * @throws MetadataParseException if file could not be found
+     * @return a {@link GfaLineReader} for the GFA file
+     * @throws MetadataParseException if file could not be opened
      */
-    public RandomAccessFile getRandomAccessFile() throws MetadataParseException {
+    public synchronized GfaLineReader getLineReader() throws MetadataParseException {
         try {
-            if (randomAccessFile == null) {
-                randomAccessFile = new RandomAccessFile(fileName, RANDOM_ACCESS_FILE_MODE);
+            if (lineReader == null) {
+                lineReader = new GfaLineReader(Paths.get(fileName));
             }
-            return randomAccessFile;
-        } catch (final FileNotFoundException e) {
-            throw new MetadataParseException("File '" + fileName + "' could not be found. ", e);
+            return lineReader;
+        } catch (final IOException e) {
+            throw new MetadataParseException("File '" + fileName + "' could not be opened. ", e);
         }
     }
+
+
+    /**
+     * Computes the names by which the given genome can be referred to in the genomes of a node.
+     *
+     * @param genome the name of a genome
+     * @return the name of the genome and the numeric indices that the genome mapping maps to it
+     */
+    private GenomeSet computeGenomeAliases(final String genome) {
+        final Set<String> aliases = new HashSet<>();
+        aliases.add(genome);
+        genomeMapping.forEach((index, name) -> {
+            if (StringUtils.isNumeric(index) && genome.equals(name)) {
+                aliases.add(index);
+            }
+        });
+        return genomeDictionary.createSet(aliases);
+    }
 }
@@ -0,0 +1,459 @@
+package org.dnacronym.hygene.parser;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+
+/**
+ * Reads lines at arbitrary byte offsets in a GFA file.
+ * <p>
+ * Unlike {@link java.io.RandomAccessFile#readLine()}, which issues a system call for every byte, this reader reads
+ * the file in large blocks into a reusable buffer with positional {@link FileChannel} reads. Lines that lie in the
+ * block that was read last, such as those of nodes that are close to each other in the file, are read without any
+ * system calls at all. Lines that are longer than a block are collected over multiple reads.
+ * <p>
+ * Batches of lines are read with {@link #readLines(long[])}, which splits the offsets into runs of nearby offsets.
+ * Each run is read with a single positional read that covers all of its lines, and the runs are read in parallel.
+ * Batches can also be handed to a {@link LineParser} as raw bytes, so that long lines of which only a few fields are
+ * needed do not have to be decoded in full.
+ * <p>
+ * Windows of long lines, such as parts of a sequence, are read with {@link #read(long, int)} without reading the rest
+ * of the line.
+ * <p>
+ * This class is thread-safe. Single lines are read one at a time, but batches are read concurrently.
+ * <p>
+ * A {@link FileChannel} is closed when a thread that reads from it is interrupted. The read of that thread then fails
+ * with a {@link ClosedByInterruptException}, but reads of other threads, and later reads of the interrupted thread,
+ * reopen the file and continue as if nothing happened. Only {@link #close()} closes the reader for good.
+ */
+public final class GfaLineReader implements Closeable {
+    /**
+     * The default number of bytes that are read at once.
+     */
+    static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    /**
+     * The maximum number of blocks between the first and the last offset of a run.
+     */
+    private static final int MAX_RUN_BLOCKS = 16;
+
+    private final Path path;
+    private final Object channelLock;
+    private volatile FileChannel channel;
+    private boolean closed;
+    private final byte[] block;
+    private final ByteBuffer blockBuffer;
+    private long blockStart;
+    private int blockLength;
+    private byte[] line;
+
+
+    /**
+     * Constructs a new {@link GfaLineReader}.
+     *
+     * @param path the path of the GFA file
+     * @throws IOException if the file could not be opened
+     */
+    public GfaLineReader(final Path path) throws IOException {
+        this(path, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs a new {@link GfaLineReader} that reads blocks of the given size.
+     *
+     * @param path      the path of the GFA file
+     * @param blockSize the number of bytes that are read at once
+     * @throws IOException if the file could not be opened
+     */
+    GfaLineReader(final Path path, final int blockSize) throws IOException {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size " + blockSize + " should be positive.");
+        }
+
+        this.path = path;
+        this.channelLock = new Object();
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.block = new byte[blockSize];
+        this.blockBuffer = ByteBuffer.wrap(block);
+        this.line = new byte[blockSize];
+    }
+
+
+    /**
+     * Reads the line that starts at the given byte offset.
+     * <p>
+     * The line is terminated by a line feed, or by the end of the file. The line feed and any carriage return before
+     * it are not part of the returned line.
+     *
+     * @param byteOffset the byte offset at which the line starts
+     * @return the line that starts at the given byte offset, or {@code null} if the offset is at or beyond the end of
+     * the file
+     * @throws IOException if the file could not be read
+     */
+    public synchronized @Nullable String readLine(final long byteOffset) throws IOException {
+        if (byteOffset < 0) {
+            throw new IllegalArgumentException("Byte offset " + byteOffset + " should not be negative.");
+        }
+        if (!fillBlock(byteOffset)) {
+            return null;
+        }
+
+        final int start = (int) (byteOffset - blockStart);
+        final int end = findLineFeed(block, start, blockLength);
+        if (end < blockLength) {
+            return decode(block, start, trimCarriageReturn(block, start, end));
+        }
+
+        // The line continues beyond the current block
+        int length = 0;
+        long position = byteOffset;
+        int from = start;
+        int to = end;
+        while (true) {
+            line = ensureCapacity(line, length + to - from);
+            System.arraycopy(block, from, line, length, to - from);
+            length += to - from;
+            position += to - from;
+
+            if (to < blockLength || !fillBlock(position)) {
+                return decode(line, 0, trimCarriageReturn(line, 0, length));
+            }
+            from = 0;
+            to = findLineFeed(block, 0, blockLength);
+        }
+    }
+
+    /**
+     * Reads the lines that start at the given byte offsets.
+     * <p>
+     * The offsets are split into runs in which consecutive offsets are at most a block apart. Each run is read with a
+     * single read that covers all of its lines, so that overlapping or adjacent lines are read only once, and the
+     * runs are read in parallel.
+     *
+     * @param byteOffsets the byte offsets at which the lines start, preferably sorted from lowest to highest
+     * @return the lines that start at the given byte offsets, in the same order as the offsets, of which an element
+     * is {@code null} if its offset is at or beyond the end of the file
+     * @throws IOException if the file could not be read
+     * @see #readLine(long)
+     */
+    public @Nullable String[] readLines(final long[] byteOffsets) throws IOException {
+        return readLines(byteOffsets, GfaLineReader::decode).toArray(new String[byteOffsets.length]);
+    }
+
+    /**
+     * Reads the lines that start at the given byte offsets like {@link #readLines(long[])}, but hands their raw bytes
+     * to the given {@link LineParser} instead of decoding them.
+     * <p>
+     * The parser is called from multiple threads at once, as the runs are read in parallel.
+     *
+     * @param byteOffsets the byte offsets at which the lines start, preferably sorted from lowest to highest
+     * @param parser      the {@link LineParser} to parse each line with
+     * @param <T>         the type of the parsed lines
+     * @return the parsed lines that start at the given byte offsets, in the same order as the offsets, of which an
+     * element is {@code null} if its offset is at or beyond the end of the file
+     * @throws IOException if the file could not be read
+     */
+    public <T> List<@Nullable T> readLines(final long[] byteOffsets, final LineParser<T> parser) throws IOException {
+        for (final long byteOffset : byteOffsets) {
+            if (byteOffset < 0) {
+                throw new IllegalArgumentException("Byte offset " + byteOffset + " should not be negative.");
+            }
+        }
+
+        final int[] order = IntStream.range(0, byteOffsets.length).boxed()
+                .sorted(Comparator.comparingLong(index -> byteOffsets[index]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        final List<int[]> runs = splitIntoRuns(byteOffsets, order);
+        final List<@Nullable T> lines = new ArrayList<>(Collections.nCopies(byteOffsets.length, null));
+
+        try {
+            IntStream.range(0, runs.size()).parallel().forEach(run -> {
+                try {
+                    readRun(byteOffsets, order, runs.get(run), parser, lines);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return lines;
+    }
+
+    /**
+     * Reads the given number of bytes at the given byte offset, without looking for line feeds.
+     * <p>
+     * This is used to read a window of a long sequence without reading the rest of its line.
+     *
+     * @param byteOffset the byte offset of the first byte to read
+     * @param length     the number of bytes to read
+     * @return the decoded bytes
+     * @throws IOException if the file could not be read, or if it ends before the given number of bytes was read
+     */
+    public String read(final long byteOffset, final int length) throws IOException {
+        if (byteOffset < 0 || length < 0) {
+            throw new IllegalArgumentException("Byte offset " + byteOffset + " and length " + length
+                    + " should not be negative.");
+        }
+
+        final byte[] bytes = new byte[length];
+        if (readFully(bytes, 0, byteOffset) < length) {
+            throw new EOFException("Could not read " + length + " bytes at byte offset " + byteOffset + ".");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (channelLock) {
+            closed = true;
+            channel.close();
+        }
+    }
+
+
+    /**
+     * Makes sure that the block contains the byte at the given position, reading a new block from that position if it
+     * does not.
+     *
+     * @param position a byte offset in the file
+     * @return {@code true} iff. the block contains the byte at the given position, which is {@code false} at the end
+     * of the file
+     * @throws IOException if the file could not be read
+     */
+    private boolean fillBlock(final long position) throws IOException {
+        if (position >= blockStart && position < blockStart + blockLength) {
+            return true;
+        }
+
+        // Invalidate the block first, in case the read below fails halfway
+        blockLength = 0;
+        blockBuffer.clear();
+        while (blockBuffer.hasRemaining()) {
+            if (read(blockBuffer, position + blockBuffer.position()) < 0) {
+                break;
+            }
+        }
+        blockStart = position;
+        blockLength = blockBuffer.position();
+        return blockLength > 0;
+    }
+
+    /**
+     * Splits the given offsets into runs of offsets that are close to each other.
+     *
+     * @param byteOffsets an array of byte offsets
+     * @param order       the indices of the byte offsets, sorted by byte offset
+     * @return the runs, each as the start and end (exclusive) of a range in the order
+     */
+    private List<int[]> splitIntoRuns(final long[] byteOffsets, final int[] order) {
+        final List<int[]> runs = new ArrayList<>();
+        final long maxRunSize = (long) MAX_RUN_BLOCKS * block.length;
+
+        int runStart = 0;
+        for (int i = 1; i <= order.length; i++) {
+            if (i == order.length
+                    || byteOffsets[order[i]] - byteOffsets[order[i - 1]] > block.length
+                    || byteOffsets[order[i]] - byteOffsets[order[runStart]] > maxRunSize) {
+                runs.add(new int[] {runStart, i});
+                runStart = i;
+            }
+        }
+
+        return runs;
+    }
+
+    /**
+     * Reads the lines of the given run with a single read, extending it if the last line does not fit.
+     *
+     * @param byteOffsets an array of byte offsets
+     * @param order       the indices of the byte offsets, sorted by byte offset
+     * @param run         the start and end (exclusive) of the run in the order
+     * @param parser      the {@link LineParser} to parse each line with
+     * @param lines       the list to store the parsed lines in, indexed like the byte offsets
+     * @param <T>         the type of the parsed lines
+     * @throws IOException if the file could not be read
+     */
+    private <T> void readRun(final long[] byteOffsets, final int[] order, final int[] run, final LineParser<T> parser,
+                             final List<@Nullable T> lines) throws IOException {
+        final long start = byteOffsets[order[run[0]]];
+        final long end = byteOffsets[order[run[1] - 1]];
+
+        byte[] region = new byte[(int) (end - start) + block.length];
+        int length = readFully(region, 0, start);
+        boolean endOfFile = length < region.length;
+
+        for (int i = run[0]; i < run[1]; i++) {
+            final int lineStart = (int) (byteOffsets[order[i]] - start);
+            int lineEnd = findLineFeed(region, lineStart, length);
+            while (lineEnd == length && !endOfFile) {
+                region = ensureCapacity(region, length + block.length);
+                final int read = readFully(region, length, start + length);
+                endOfFile = length + read < region.length;
+                lineEnd = findLineFeed(region, length, length + read);
+                length += read;
+            }
+
+            if (lineStart < length) {
+                lines.set(order[i], parser.parse(region, lineStart, trimCarriageReturn(region, lineStart, lineEnd)));
+            }
+        }
+    }
+
+    /**
+     * Reads bytes from the given position into the given array until it is full or the end of the file is reached.
+     *
+     * @param bytes    the array to read into
+     * @param offset   the index in the array to read into
+     * @param position the byte offset in the file to read from
+     * @return the number of bytes read
+     * @throws IOException if the file could not be read
+     */
+    private int readFully(final byte[] bytes, final int offset, final long position) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, bytes.length - offset);
+        while (buffer.hasRemaining()) {
+            if (read(buffer, position + buffer.position() - offset) < 0) {
+                break;
+            }
+        }
+        return buffer.position() - offset;
+    }
+
+    /**
+     * Reads bytes from the given position into the given buffer, reopening the file if the channel was closed by an
+     * interrupt.
+     * <p>
+     * If the current thread was interrupted, the {@link ClosedByInterruptException} is rethrown, as the thread should
+     * stop reading. If the channel was closed by the interrupt of another thread, it is reopened and the read is
+     * retried.
+     *
+     * @param buffer   the buffer to read into
+     * @param position the byte offset in the file to read from
+     * @return the number of bytes read, or {@code -1} if the position is at or beyond the end of the file
+     * @throws IOException if the file could not be read, or if this reader has been closed
+     */
+    private int read(final ByteBuffer buffer, final long position) throws IOException {
+        while (true) {
+            final FileChannel current = channel;
+            try {
+                return current.read(buffer, position);
+            } catch (final ClosedByInterruptException e) {
+                throw e;
+            } catch (final ClosedChannelException e) {
+                reopen(current);
+            }
+        }
+    }
+
+    /**
+     * Replaces the given closed channel by a newly opened one, unless it has been replaced already.
+     *
+     * @param closedChannel the channel that was found to be closed
+     * @throws IOException if the file could not be opened, or if this reader has been closed
+     */
+    private void reopen(final FileChannel closedChannel) throws IOException {
+        synchronized (channelLock) {
+            if (closed) {
+                throw new ClosedChannelException();
+            }
+            if (channel == closedChannel) {
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the first line feed in the given range of bytes.
+     *
+     * @param bytes an array of bytes
+     * @param from  the index to start searching from
+     * @param to    the index to stop searching at
+     * @return the index of the first line feed, or {@code to} if there is none
+     */
+    private static int findLineFeed(final byte[] bytes, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Returns the end of the given range of bytes without a trailing carriage return.
+     *
+     * @param bytes an array of bytes
+     * @param start the index of the first byte
+     * @param end   the index after the last byte
+     * @return the index after the last byte that is not a trailing carriage return
+     */
+    private static int trimCarriageReturn(final byte[] bytes, final int start, final int end) {
+        return end > start && bytes[end - 1] == '\r' ? end - 1 : end;
+    }
+
+    /**
+     * Decodes the given range of bytes as UTF-8.
+     *
+     * @param bytes an array of bytes
+     * @param start the index of the first byte
+     * @param end   the index after the last byte
+     * @return the decoded line
+     */
+    private static String decode(final byte[] bytes, final int start, final int end) {
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the given array, or a larger copy of it if it cannot hold the given number of bytes.
+     *
+     * @param bytes    an array of bytes
+     * @param capacity the number of bytes the array should be able to hold
+     * @return an array that can hold at least the given number of bytes
+     */
+    private static byte[] ensureCapacity(final byte[] bytes, final int capacity) {
+        if (capacity <= bytes.length) {
+            return bytes;
+        }
+        return Arrays.copyOf(bytes, Math.max(capacity, 2 * bytes.length));
+    }
+
+
+    /**
+     * Parses a line of a GFA file from its raw bytes.
+     *
+     * @param <T> the type of the parsed line
+     */
+    @FunctionalInterface
+    public interface LineParser<T> {
+        /**
+         * Parses the line in the given range of bytes.
+         * <p>
+         * The range does not include the line feed and any carriage return before it. The array holds more than just
+         * this line, so parsers should copy out the parts they need rather than hold on to the array.
+         *
+         * @param bytes an array of bytes containing the line
+         * @param start the index of the first byte of the line
+         * @param end   the index after the last byte of the line
+         * @return the parsed line
+         */
+        T parse(byte[] bytes, int start, int end);
+    }
+}
@@ -0,0 +1,22 @@
+package org.dnacronym.hygene.parser;
+
+
+/**
+ * The strategies with which a {@link GfaParser} can read a GFA file.
+ */
+public enum GfaParseMode {
+    /**
+     * Reads the file twice: once to allocate the internal node IDs, and once to parse the nodes and edges.
+     */
+    TWO_PASS,
+    /**
+     * Reads the file once, assigning internal node IDs as segments are encountered and resolving links that refer to
+     * segments further down the file at the end.
+     */
+    SINGLE_PASS,
+    /**
+     * Splits the file into newline-aligned byte ranges that are read concurrently, after which the segments are
+     * assigned internal node IDs in file order and the links are resolved.
+     */
+    PARALLEL
+}
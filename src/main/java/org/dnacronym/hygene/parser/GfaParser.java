@@ -3,21 +3,27 @@ package org.dnacronym.hygene.parser;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.biojava.nbio.core.sequence.io.BufferedReaderBytesRead;
-import org.checkerframework.checker.nullness.qual.EnsuresNonNull;
-import org.dnacronym.hygene.core.UnsignedInteger;
+import org.dnacronym.hygene.core.ByteOffsetArray;
 import org.dnacronym.hygene.graph.Graph;
-import org.dnacronym.hygene.graph.SequenceDirection;
+import org.dnacronym.hygene.graph.GraphStorage;
+import org.dnacronym.hygene.graph.GraphStorageType;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
@@ -29,8 +35,16 @@ import java.util.stream.IntStream;
  */
 @SuppressWarnings("PMD.TooManyMethods") // No reasonable refactor possible
 public final class GfaParser {
+    /**
+     * The {@link GfaParseMode} that is used if no mode is given.
+     */
+    public static final GfaParseMode DEFAULT_MODE = GfaParseMode.PARALLEL;
+
     private static final Logger LOGGER = LogManager.getLogger(GfaParser.class);
     private static final int PROGRESS_UPDATE_INTERVAL = 1000;
+    private static final int INITIAL_NODE_CAPACITY = 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final long MIN_CHUNK_SIZE = 4L * 1024 * 1024;
     private static final int PROGRESS_ALLOCATE_HEURISTIC = 1750000;
     private static final long PROGRESS_ALLOCATE_TOTAL = 20;
     private static final long PROGRESS_PARSE_LINE_TOTAL = 80;
@@ -38,19 +52,52 @@ public final class GfaParser {
     private static final String SINK_NAME = "<sink>";
     private static final String HEADER_GENOME_NAMES_PREFIX = "H\tORI:Z:";
 
-    private final Map<String, Integer> nodeIds; // node id string => nodeArrays index (internal node id)
+    private final GfaParseMode mode;
+    private final int chunkCount;
+    private final NodeNameDictionary nodeIds; // node id string => internal node id
+    private final NodeNameDictionary provisionalNodeIds; // node id string => index in provisionalNodeNames
+    private final List<String> provisionalNodeNames; // names of nodes referred to before their segment is read
     private final AtomicInteger nodeVectorPosition = new AtomicInteger(0);
-    private int[][] nodeArrays;
+    private final LinkBuffer linkBuffer;
+    private ByteOffsetArray nodeByteOffsets; // internal node id => byte offset
+    private int[] nodeSequenceLengths; // internal node id => sequence length
     private int lineCount;
+    private long fileSize;
     private Map<String, String> genomeMapping;
 
 
     /**
-     * Constructs and initializes a new instance of {@link GfaParser}.
+     * Constructs and initializes a new instance of {@link GfaParser} that parses in the {@link #DEFAULT_MODE}.
      */
     public GfaParser() {
-        this.nodeIds = new ConcurrentHashMap<>();
-        this.nodeArrays = new int[0][];
+        this(DEFAULT_MODE);
+    }
+
+    /**
+     * Constructs and initializes a new instance of {@link GfaParser}.
+     *
+     * @param mode the {@link GfaParseMode} to parse with
+     */
+    public GfaParser(final GfaParseMode mode) {
+        this(mode, 0);
+    }
+
+    /**
+     * Constructs and initializes a new instance of {@link GfaParser}.
+     *
+     * @param mode       the {@link GfaParseMode} to parse with
+     * @param chunkCount the number of chunks to split the file into when parsing in parallel, or 0 to base this on
+     *                   the file size and the number of available threads
+     */
+    GfaParser(final GfaParseMode mode, final int chunkCount) {
+        this.mode = mode;
+        this.chunkCount = chunkCount;
+        this.nodeIds = new NodeNameDictionary();
+        this.provisionalNodeIds = new NodeNameDictionary();
+        this.provisionalNodeNames = new ArrayList<>();
+        this.linkBuffer = new LinkBuffer();
+        this.nodeByteOffsets = new ByteOffsetArray(0, false);
+        this.nodeSequenceLengths = new int[0];
         this.genomeMapping = new HashMap<>();
     }
 
@@ -63,32 +110,296 @@ public final class GfaParser {
      * @return a {@link Graph}
      * @throws GfaParseException if the given {@link String} is not GFA-compliant
      */
-    @EnsuresNonNull("nodeArrays")
     public Graph parse(final GfaFile gfaFile, final ProgressUpdater progressUpdater) throws GfaParseException {
         try {
-            LOGGER.info("Start allocating nodes");
-            final BufferedReader nodeAllocationReader = gfaFile.readFile();
-            allocateNodes(nodeAllocationReader, progressUpdater);
-            LOGGER.info("Finished allocating nodes");
-
-            nodeArrays = new int[nodeIds.size()][];
-            Arrays.setAll(nodeArrays, i -> Graph.createEmptyNodeArray());
-
-            genomeMapping = new HashMap<>();
-
-            LOGGER.info("Start parsing lines");
-            parseLines(gfaFile.getInputStream(), progressUpdater);
-            LOGGER.info("Finished parsing lines");
+            switch (mode) {
+                case PARALLEL:
+                    parseParallel(gfaFile, progressUpdater);
+                    break;
+                case SINGLE_PASS:
+                    parseSinglePass(gfaFile, progressUpdater);
+                    break;
+                default:
+                    parseTwoPass(gfaFile, progressUpdater);
+                    break;
+            }
         } catch (final IOException e) {
             throw new GfaParseException("An error while reading the GFA file.", e);
         }
 
-        final Graph graph = new Graph(nodeArrays, gfaFile);
+        if (nodeByteOffsets.size() == 2) {
+            throw new GfaParseException("The GFA file should contain at least one segment.");
+        }
+
+        LOGGER.info("Start building edges");
+        final GraphStorageType storageType = gfaFile.getStorageType() == GraphStorageType.OFF_HEAP
+                ? GraphStorageType.OFF_HEAP
+                : GraphStorageType.HEAP;
+        final GraphStorage storage = new EdgeBuilder(nodeByteOffsets, nodeSequenceLengths, linkBuffer, storageType)
+                .build();
+        releaseBuffers();
+        LOGGER.info("Finished building edges");
+
         gfaFile.setGenomeMapping(genomeMapping);
+        gfaFile.setNodeNames(nodeIds);
+
+        return new Graph(storage, gfaFile);
+    }
+
+    /**
+     * Releases the buffers in which the nodes and links were collected, so that they do not outlive the parse.
+     * <p>
+     * The parser is kept alive by its {@link GfaFile} for the rest of the session, whereas the buffers are only needed
+     * to build the {@link GraphStorage}.
+     */
+    private void releaseBuffers() {
+        nodeByteOffsets = new ByteOffsetArray(0, false);
+        nodeSequenceLengths = new int[0];
+        linkBuffer.clear();
+    }
+
+    /**
+     * Parses the GFA file by first allocating all node IDs and then parsing the nodes and edges.
+     *
+     * @param gfaFile         an instance of {@link GfaFile}
+     * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
+     * @throws IOException       if the GFA file could not be read
+     * @throws GfaParseException if the GFA file could not be parsed
+     */
+    private void parseTwoPass(final GfaFile gfaFile, final ProgressUpdater progressUpdater)
+            throws IOException, GfaParseException {
+        LOGGER.info("Start allocating nodes");
+        final BufferedReader nodeAllocationReader = gfaFile.readFile();
+        allocateNodes(nodeAllocationReader, progressUpdater);
+        LOGGER.info("Finished allocating nodes");
+
+        nodeByteOffsets = new ByteOffsetArray(nodeVectorPosition.get(),
+                ByteOffsetArray.isWide(gfaFile.getFileSize()));
+        nodeSequenceLengths = new int[nodeVectorPosition.get()];
+
+        genomeMapping = new HashMap<>();
+
+        LOGGER.info("Start parsing lines");
+        parseLines(gfaFile.getInputStream(), progressUpdater);
+        LOGGER.info("Finished parsing lines");
+    }
+
+    /**
+     * Parses the GFA file by reading it only once.
+     * <p>
+     * Segments receive their internal node ID as soon as they are read, so that the IDs are the same as those
+     * assigned by {@link #allocateNodes(BufferedReader, ProgressUpdater)}. Links are buffered, because they may refer
+     * to segments further down the file, and are resolved once all segments are known.
+     *
+     * @param gfaFile         an instance of {@link GfaFile}
+     * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
+     * @throws IOException       if the GFA file could not be read
+     * @throws GfaParseException if the GFA file could not be parsed
+     */
+    private void parseSinglePass(final GfaFile gfaFile, final ProgressUpdater progressUpdater)
+            throws IOException, GfaParseException {
+        fileSize = gfaFile.getFileSize();
+        nodeByteOffsets = new ByteOffsetArray(INITIAL_NODE_CAPACITY, ByteOffsetArray.isWide(fileSize));
+        nodeSequenceLengths = new int[INITIAL_NODE_CAPACITY];
+        allocateNode(SOURCE_NAME);
+
+        genomeMapping = new HashMap<>();
+
+        LOGGER.info("Start parsing lines in a single pass");
+        parseLines(gfaFile.getInputStream(), progressUpdater);
+        LOGGER.info("Finished parsing lines in a single pass");
+
+        allocateNode(SINK_NAME);
+        nodeByteOffsets = nodeByteOffsets.copyOf(nodeVectorPosition.get());
+        nodeSequenceLengths = Arrays.copyOf(nodeSequenceLengths, nodeVectorPosition.get());
+
+        LOGGER.info("Start resolving buffered links");
+        resolveBufferedLinks();
+        LOGGER.info("Finished resolving buffered links");
+    }
+
+    /**
+     * Parses the GFA file by splitting it into newline-aligned byte ranges that are read concurrently.
+     * <p>
+     * Each {@link GfaChunk} is read on the common {@link ForkJoinPool}. Afterwards, segments are assigned internal node
+     * IDs in file order using the number of segments in the preceding chunks, so that the IDs are the same as those
+     * assigned by {@link #allocateNodes(BufferedReader, ProgressUpdater)}. Links are then resolved and buffered in
+     * file order.
+     *
+     * @param gfaFile         an instance of {@link GfaFile}
+     * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
+     * @throws IOException       if the GFA file could not be read
+     * @throws GfaParseException if the GFA file could not be parsed
+     */
+    private void parseParallel(final GfaFile gfaFile, final ProgressUpdater progressUpdater)
+            throws IOException, GfaParseException {
+        final List<GfaChunk> chunks;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(gfaFile.getFileName()), StandardOpenOption.READ)) {
+            fileSize = channel.size();
+            chunks = GfaChunk.split(channel, computeChunkCount());
+            LOGGER.info("Start parsing lines in " + chunks.size() + " chunks");
+
+            final List<ForkJoinTask<GfaChunk>> tasks = new ArrayList<>(chunks.size());
+            for (final GfaChunk chunk : chunks) {
+                tasks.add(ForkJoinPool.commonPool().submit(() -> chunk.read(channel)));
+            }
+
+            long bytesRead = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                joinChunk(tasks.get(i));
+                bytesRead += chunks.get(i).getSize();
+                progressUpdater.updateProgress(computeParseProgress(0, bytesRead), "Parsing nodes and edges...");
+            }
+            LOGGER.info("Finished parsing lines in " + chunks.size() + " chunks");
+        }
+
+        genomeMapping = new HashMap<>();
+        for (final GfaChunk chunk : chunks) {
+            for (int i = 0; i < chunk.getHeaders().size(); i++) {
+                parseHeader(chunk.getHeaders().get(i), chunk.getHeaderByteOffsets().get(i));
+            }
+        }
+
+        LOGGER.info("Start merging chunks");
+        mergeChunkSegments(chunks);
+        mergeChunkLinks(chunks);
+        LOGGER.info("Finished merging chunks");
+    }
+
+    /**
+     * Computes the number of chunks to split the file into when parsing in parallel.
+     *
+     * @return the number of chunks to split the file into
+     */
+    private int computeChunkCount() {
+        if (chunkCount > 0) {
+            return chunkCount;
+        }
+        return (int) Math.max(1, Math.min(fileSize / MIN_CHUNK_SIZE,
+                (long) ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD));
+    }
+
+    /**
+     * Waits for a chunk to be read and rethrows any exception that occurred while reading it.
+     *
+     * @param task the task reading the chunk
+     * @throws IOException       if the GFA file could not be read
+     * @throws GfaParseException if the chunk could not be parsed
+     */
+    private void joinChunk(final ForkJoinTask<GfaChunk> task) throws IOException, GfaParseException {
+        try {
+            task.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GfaParseException("Interrupted while parsing the GFA file.", e);
+        } catch (final ExecutionException e) {
+            // Checked exceptions thrown by a submitted callable are wrapped in a RuntimeException by the pool
+            Throwable cause = e.getCause();
+            while (cause instanceof RuntimeException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof GfaParseException) {
+                throw (GfaParseException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new GfaParseException("An error occurred while parsing the GFA file.", e);
+        }
+    }
+
+    /**
+     * Assigns internal node IDs to the segments in the given chunks and stores their byte offsets and sequence
+     * lengths.
+     *
+     * @param chunks the chunks that have been read, in file order
+     */
+    private void mergeChunkSegments(final List<GfaChunk> chunks) {
+        final int[] firstNodeIds = new int[chunks.size()];
+        int segmentCount = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            firstNodeIds[i] = 1 + segmentCount;
+            segmentCount += chunks.get(i).getSegmentNames().size();
+        }
+
+        nodeByteOffsets = new ByteOffsetArray(segmentCount + 2, ByteOffsetArray.isWide(fileSize));
+        nodeSequenceLengths = new int[segmentCount + 2];
+        allocateNode(SOURCE_NAME);
+
+        // The dictionary is not thread-safe, so only the node data is stored in parallel
+        for (int chunkIndex = 0; chunkIndex < chunks.size(); chunkIndex++) {
+            final GfaChunk.NameArena segmentNames = chunks.get(chunkIndex).getSegmentNames();
+            for (int i = 0; i < segmentNames.size(); i++) {
+                nodeIds.put(segmentNames.getBytes(), segmentNames.getStart(i), segmentNames.getLength(i),
+                        firstNodeIds[chunkIndex] + i);
+            }
+        }
+
+        IntStream.range(0, chunks.size()).parallel().forEach(chunkIndex -> {
+            final GfaChunk chunk = chunks.get(chunkIndex);
 
-        addEdgesToSentinelNodes(graph);
+            for (int i = 0; i < chunk.getSegmentNames().size(); i++) {
+                final int nodeId = firstNodeIds[chunkIndex] + i;
 
-        return graph;
+                nodeByteOffsets.set(nodeId, chunk.getSegmentByteOffset(i));
+                nodeSequenceLengths[nodeId] = chunk.getSegmentSequenceLength(i);
+            }
+        });
+        nodeVectorPosition.addAndGet(segmentCount);
+
+        allocateNode(SINK_NAME);
+    }
+
+    /**
+     * Resolves the node names referred to by the links in the given chunks and adds the links to the link buffer in
+     * file order.
+     *
+     * @param chunks the chunks that have been read, in file order
+     * @throws GfaParseException if a link refers to a segment that does not exist
+     */
+    private void mergeChunkLinks(final List<GfaChunk> chunks) throws GfaParseException {
+        final int[][] resolvedNodeIds = new int[chunks.size()][];
+        IntStream.range(0, chunks.size()).parallel().forEach(chunkIndex -> {
+            final GfaChunk.NameArena linkNodeNames = chunks.get(chunkIndex).getLinkNodeNames();
+            resolvedNodeIds[chunkIndex] = new int[linkNodeNames.size()];
+            for (int i = 0; i < linkNodeNames.size(); i++) {
+                resolvedNodeIds[chunkIndex][i] = nodeIds.get(linkNodeNames.getBytes(), linkNodeNames.getStart(i),
+                        linkNodeNames.getLength(i));
+            }
+        });
+
+        for (int chunkIndex = 0; chunkIndex < chunks.size(); chunkIndex++) {
+            final GfaChunk chunk = chunks.get(chunkIndex);
+            final LinkBuffer links = chunk.getLinks();
+
+            for (int i = 0; i < links.size(); i++) {
+                linkBuffer.add(
+                        resolveChunkNodeId(chunk, resolvedNodeIds[chunkIndex], links.getFrom(i)),
+                        resolveChunkNodeId(chunk, resolvedNodeIds[chunkIndex], links.getTo(i)),
+                        links.getByteOffset(i)
+                );
+            }
+        }
+    }
+
+    /**
+     * Returns the internal node ID of a node referred to by a link in a chunk.
+     *
+     * @param chunk           the chunk containing the link
+     * @param resolvedNodeIds the internal node IDs of the chunk's link node names, or
+     *                        {@link NodeNameDictionary#ABSENT} if a name does not exist
+     * @param index           the index of the node name in the chunk's link node names
+     * @return the internal node ID of the node
+     * @throws GfaParseException if the node name does not exist
+     */
+    private int resolveChunkNodeId(final GfaChunk chunk, final int[] resolvedNodeIds, final int index)
+            throws GfaParseException {
+        if (resolvedNodeIds[index] == NodeNameDictionary.ABSENT) {
+            throw new GfaParseException("Link has reference to non existing node "
+                    + chunk.getLinkNodeNames().getString(index));
+        }
+        return resolvedNodeIds[index];
     }
 
     /**
@@ -132,6 +443,70 @@ public final class GfaParser {
         nodeVectorPosition.incrementAndGet();
     }
 
+    /**
+     * Adds a node ID for the given node name, growing the arrays of node data if necessary.
+     *
+     * @param nodeName the name of the node as specified in the GFA file
+     * @return the internal ID of the node
+     */
+    private int allocateNode(final String nodeName) {
+        final int nodeId = nodeVectorPosition.get();
+        addNodeId(nodeName);
+
+        if (nodeId >= nodeByteOffsets.size()) {
+            nodeByteOffsets = nodeByteOffsets.copyOf(nodeByteOffsets.size() * 2);
+            nodeSequenceLengths = Arrays.copyOf(nodeSequenceLengths, nodeSequenceLengths.length * 2);
+        }
+
+        return nodeId;
+    }
+
+    /**
+     * Gets the node ID belonging to a node name, or a negative provisional ID if no segment with that name has been
+     * read yet.
+     *
+     * @param nodeName name of the node as specified in the GFA file
+     * @return the node ID belonging to the node name, or a negative provisional ID
+     */
+    private int getOrProvisionNodeId(final String nodeName) {
+        final int nodeId = nodeIds.get(nodeName);
+        if (nodeId != NodeNameDictionary.ABSENT) {
+            return nodeId;
+        }
+
+        final int provisionalIndex = provisionalNodeIds.get(nodeName);
+        if (provisionalIndex != NodeNameDictionary.ABSENT) {
+            return -(provisionalIndex + 1);
+        }
+
+        provisionalNodeIds.put(nodeName, provisionalNodeNames.size());
+        provisionalNodeNames.add(nodeName);
+        return -provisionalNodeNames.size();
+    }
+
+    /**
+     * Resolves the provisional node IDs in the buffered links.
+     *
+     * @throws GfaParseException if a link refers to a segment that does not exist
+     */
+    private void resolveBufferedLinks() throws GfaParseException {
+        final int[] resolvedNodeIds = new int[provisionalNodeNames.size()];
+        for (int i = 0; i < resolvedNodeIds.length; i++) {
+            resolvedNodeIds[i] = getNodeId(provisionalNodeNames.get(i));
+        }
+
+        for (int i = 0; i < linkBuffer.size(); i++) {
+            final int fromId = linkBuffer.getFrom(i);
+            final int toId = linkBuffer.getTo(i);
+            if (fromId < 0) {
+                linkBuffer.setFrom(i, resolvedNodeIds[-fromId - 1]);
+            }
+            if (toId < 0) {
+                linkBuffer.setTo(i, resolvedNodeIds[-toId - 1]);
+            }
+        }
+    }
+
     /**
      * Parses lines of a GFA file to nodes and edges.
      *
@@ -151,10 +526,8 @@ public final class GfaParser {
 
             while ((line = lineParsingReader.readLine()) != null) {
                 if (iteration % PROGRESS_UPDATE_INTERVAL == 0) {
-                    progressUpdater.updateProgress(
-                            (int) (PROGRESS_ALLOCATE_TOTAL + PROGRESS_PARSE_LINE_TOTAL * iteration / lineCount),
-                            "Parsing nodes and edges..."
-                    );
+                    progressUpdater.updateProgress(computeParseProgress(iteration, byteOffset),
+                            "Parsing nodes and edges...");
                 }
                 parseLine(line, byteOffset);
 
@@ -164,6 +537,25 @@ public final class GfaParser {
         }
     }
 
+    /**
+     * Computes the progress percentage of parsing the lines of the GFA file.
+     * <p>
+     * When not parsing in two passes the number of lines is not known upfront, so the number of bytes read is used
+     * instead.
+     *
+     * @param iteration  the number of lines parsed so far
+     * @param byteOffset the number of bytes read so far
+     * @return the progress percentage
+     */
+    private int computeParseProgress(final int iteration, final long byteOffset) {
+        if (mode != GfaParseMode.TWO_PASS) {
+            return fileSize <= 0
+                    ? 0
+                    : (int) ((PROGRESS_ALLOCATE_TOTAL + PROGRESS_PARSE_LINE_TOTAL) * byteOffset / fileSize);
+        }
+        return (int) (PROGRESS_ALLOCATE_TOTAL + PROGRESS_PARSE_LINE_TOTAL * iteration / lineCount);
+    }
+
     /**
      * Parses a line of a GFA-compliant {@link String} and adds it to the node vectors.
      *
@@ -252,10 +644,10 @@ public final class GfaParser {
                     ? line.substring(nameEnd + 1)
                     : line.substring(nameEnd + 1, sequenceEnd);
 
-            final int nodeId = getNodeId(name);
+            final int nodeId = mode == GfaParseMode.SINGLE_PASS ? allocateNode(name) : getNodeId(name);
 
-            nodeArrays[nodeId][Graph.NODE_BYTE_OFFSET_INDEX] = UnsignedInteger.fromLong(byteOffset);
-            nodeArrays[nodeId][Graph.NODE_SEQUENCE_LENGTH_INDEX] = sequence.length();
+            nodeByteOffsets.set(nodeId, byteOffset);
+            nodeSequenceLengths[nodeId] = sequence.length();
 
         } catch (final StringIndexOutOfBoundsException e) {
             throw new GfaParseException("Not enough parameters for segment at position " + byteOffset, e);
@@ -281,11 +673,11 @@ public final class GfaParser {
                     ? line.substring(toStart)
                     : line.substring(toStart, toEnd);
 
-            final int fromId = getNodeId(from);
-            final int toId = getNodeId(to);
-
-            addIncomingEdge(fromId, toId, byteOffset);
-            addOutgoingEdge(fromId, toId, byteOffset);
+            if (mode == GfaParseMode.SINGLE_PASS) {
+                linkBuffer.add(getOrProvisionNodeId(from), getOrProvisionNodeId(to), byteOffset);
+            } else {
+                linkBuffer.add(getNodeId(from), getNodeId(to), byteOffset);
+            }
         } catch (final StringIndexOutOfBoundsException e) {
             throw new GfaParseException("Not enough parameters for link at position " + byteOffset, e);
         }
@@ -309,89 +701,6 @@ public final class GfaParser {
         }
     }
 
-    /**
-     * Adds an incoming edge to the node vector.
-     *
-     * @param fromId     node ID of edge start node
-     * @param toId       node ID of edge end node
-     * @param byteOffset the byte offset of the current line
-     */
-    private void addIncomingEdge(final int fromId, final int toId, final long byteOffset) {
-        nodeArrays[toId] = Arrays.copyOf(nodeArrays[toId], nodeArrays[toId].length + Graph.EDGE_DATA_SIZE);
-
-        nodeArrays[toId][nodeArrays[toId].length - 2] = fromId;
-        nodeArrays[toId][nodeArrays[toId].length - 1] = UnsignedInteger.fromLong(byteOffset);
-    }
-
-    /**
-     * Adds an outgoing edge to the node vector.
-     *
-     * @param fromId     node ID of edge start node
-     * @param toId       node ID of edge end node
-     * @param byteOffset the byte offset of the current line
-     */
-    private void addOutgoingEdge(final int fromId, final int toId, final long byteOffset) {
-        final int lastOutgoingEdgePosition = Graph.NODE_EDGE_DATA_OFFSET
-                + nodeArrays[fromId][Graph.NODE_OUTGOING_EDGES_INDEX] * Graph.EDGE_DATA_SIZE;
-
-        nodeArrays[fromId] = insertAtPosition(
-                nodeArrays[fromId],
-                lastOutgoingEdgePosition,
-                toId,
-                UnsignedInteger.fromLong(byteOffset)
-        );
-        nodeArrays[fromId][Graph.NODE_OUTGOING_EDGES_INDEX]++;
-    }
-
-    /**
-     * Inserts one or more elements at a certain position in a given array.
-     *
-     * @param array    array in which new elements need to be added
-     * @param position insertion position
-     * @param inserts  the values that need to be inserted
-     * @return array with the elements inserted
-     */
-    private int[] insertAtPosition(final int[] array, final int position, final int... inserts) {
-        final int[] result = new int[array.length + inserts.length];
-
-        System.arraycopy(array, 0, result, 0, position);
-
-        for (int i = 0; i < inserts.length; i++) {
-            result[position + i] = inserts[i];
-        }
-
-        System.arraycopy(array, position, result, position + inserts.length, array.length - position);
-
-        return result;
-    }
-
-    /**
-     * Add edges for nodes without incoming or outgoing edges to the source or sink.
-     *
-     * @param graph the graph data structure including the source and sink
-     * @throws GfaParseException if the graph has an invalid number of nodes
-     */
-    private void addEdgesToSentinelNodes(final Graph graph) throws GfaParseException {
-        if (nodeArrays.length == 2) {
-            throw new GfaParseException("The GFA file should contain at least one segment.");
-        }
-
-        final int source = getNodeId(SOURCE_NAME);
-        final int sink = getNodeId(SINK_NAME);
-
-        IntStream.range(1, nodeArrays.length - 1).forEach(nodeId -> {
-            if (graph.getNeighbourCount(nodeId, SequenceDirection.LEFT) == 0) {
-                addIncomingEdge(source, nodeId, 0); // WAS -1, BUT CANNOT IN UINT
-                addOutgoingEdge(source, nodeId, 0); // WAS -1, BUT CANNOT IN UINT
-            }
-
-            if (graph.getNeighbourCount(nodeId, SequenceDirection.RIGHT) == 0) {
-                addIncomingEdge(nodeId, sink, 0); // WAS -1, BUT CANNOT IN UINT
-                addOutgoingEdge(nodeId, sink, 0); // WAS -1, BUT CANNOT IN UINT
-            }
-        });
-    }
-
     /**
      * Gets node id belonging to a node name.
      *
@@ -400,8 +709,10 @@ public final class GfaParser {
      * @throws GfaParseException if the node name does not exist
      */
     private int getNodeId(final String nodeName) throws GfaParseException {
-        return Optional.ofNullable(nodeIds.get(nodeName)).orElseThrow(
-                () -> new GfaParseException("Link has reference to non existing node " + nodeName)
-        );
+        final int nodeId = nodeIds.get(nodeName);
+        if (nodeId == NodeNameDictionary.ABSENT) {
+            throw new GfaParseException("Link has reference to non existing node " + nodeName);
+        }
+        return nodeId;
     }
 }
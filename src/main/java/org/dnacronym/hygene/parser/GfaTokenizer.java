@@ -0,0 +1,356 @@
+package org.dnacronym.hygene.parser;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Splits a memory-mapped GFA file into lines and tab-separated fields without decoding them into {@link String}s.
+ * <p>
+ * The file is mapped in windows, because a single {@link MappedByteBuffer} cannot exceed 2 GB. A window always starts
+ * at the beginning of a line and is moved forward once the next line does not fit in it anymore. Line terminators
+ * ({@code \n} and {@code \r\n}) are not part of the lines.
+ * <p>
+ * Usage is as follows:
+ * <pre>{@code
+ * while (tokenizer.nextLine()) {
+ *     while (tokenizer.nextField()) {
+ *         // Inspect the current field
+ *     }
+ * }
+ * }</pre>
+ */
+@SuppressWarnings("PMD.TooManyMethods") // No reasonable refactor possible
+public final class GfaTokenizer {
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+    private static final byte TAB = '\t';
+    private static final byte NEWLINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final int HASH_MULTIPLIER = 31;
+
+    private final FileChannel channel;
+    private final long end;
+    private int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLimit;
+
+    private int lineStart;
+    private int lineEnd;
+    private int nextLineStart;
+    private int fieldStart;
+    private int fieldEnd;
+
+
+    /**
+     * Constructs a new {@link GfaTokenizer} for the entire file behind the given channel.
+     *
+     * @param channel the channel of the GFA file
+     * @throws IOException if the size of the file could not be determined
+     */
+    public GfaTokenizer(final FileChannel channel) throws IOException {
+        this(channel, 0, channel.size());
+    }
+
+    /**
+     * Constructs a new {@link GfaTokenizer} for the given byte range of the file behind the given channel.
+     *
+     * @param channel the channel of the GFA file
+     * @param start   the byte offset of the first line to read, which should be the start of a line
+     * @param end     the byte offset directly after the last line to read
+     * @throws IOException if the file could not be mapped
+     */
+    public GfaTokenizer(final FileChannel channel, final long start, final long end) throws IOException {
+        this(channel, start, end, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs a new {@link GfaTokenizer} for the given byte range of the file behind the given channel.
+     *
+     * @param channel    the channel of the GFA file
+     * @param start      the byte offset of the first line to read, which should be the start of a line
+     * @param end        the byte offset directly after the last line to read
+     * @param windowSize the preferred number of bytes to map at once, which is increased if a line is longer
+     * @throws IOException if the file could not be mapped
+     */
+    GfaTokenizer(final FileChannel channel, final long start, final long end, final int windowSize)
+            throws IOException {
+        this.channel = channel;
+        this.end = end;
+        this.windowSize = windowSize;
+
+        this.windowStart = start;
+        this.windowLimit = (int) Math.min(windowSize, end - start);
+        this.window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowLimit);
+    }
+
+
+    /**
+     * Moves to the next line.
+     *
+     * @return {@code true} iff there is a next line
+     * @throws IOException if the file could not be mapped, or if a line does not fit in the largest possible window
+     */
+    public boolean nextLine() throws IOException {
+        if (windowStart + nextLineStart >= end) {
+            return false;
+        }
+
+        int newline = indexOf(NEWLINE, nextLineStart, windowLimit);
+        while (newline < 0 && windowStart + windowLimit < end) {
+            if (nextLineStart == 0) {
+                if (windowSize == MAX_WINDOW_SIZE) {
+                    throw new IOException("Line at position " + windowStart + " does not fit in a single window.");
+                }
+                windowSize = (int) Math.min(MAX_WINDOW_SIZE, (long) windowSize * 2);
+            }
+            map(windowStart + nextLineStart);
+            newline = indexOf(NEWLINE, 0, windowLimit);
+        }
+
+        lineStart = nextLineStart;
+        lineEnd = newline < 0 ? windowLimit : newline;
+        nextLineStart = newline < 0 ? windowLimit : newline + 1;
+        if (lineEnd > lineStart && window.get(lineEnd - 1) == CARRIAGE_RETURN) {
+            lineEnd--;
+        }
+
+        fieldStart = -1;
+        fieldEnd = lineStart - 1;
+        return true;
+    }
+
+    /**
+     * Moves to the next tab-separated field in the current line.
+     * <p>
+     * The first call after {@link #nextLine()} moves to the first field, which contains the record type.
+     *
+     * @return {@code true} iff there is a next field in the current line
+     */
+    public boolean nextField() {
+        if (fieldEnd >= lineEnd) {
+            return false;
+        }
+
+        fieldStart = fieldEnd + 1;
+        final int tab = indexOf(TAB, fieldStart, lineEnd);
+        fieldEnd = tab < 0 ? lineEnd : tab;
+        return true;
+    }
+
+    /**
+     * Returns the byte offset of the current line in the file.
+     *
+     * @return the byte offset of the current line in the file
+     */
+    public long getLineByteOffset() {
+        return windowStart + lineStart;
+    }
+
+    /**
+     * Returns the number of bytes in the current line, excluding the line terminator.
+     *
+     * @return the number of bytes in the current line
+     */
+    public int getLineLength() {
+        return lineEnd - lineStart;
+    }
+
+    /**
+     * Returns whether the current line contains a tab.
+     *
+     * @return {@code true} iff the current line contains a tab
+     */
+    public boolean lineContainsTab() {
+        return indexOf(TAB, lineStart, lineEnd) >= 0;
+    }
+
+    /**
+     * Returns the first byte of the current line, which identifies the record type.
+     *
+     * @return the first byte of the current line, or 0 if the line is empty
+     */
+    public byte getRecordType() {
+        return lineEnd > lineStart ? window.get(lineStart) : 0;
+    }
+
+    /**
+     * Returns the current line as a {@link String}.
+     *
+     * @return the current line as a {@link String}
+     */
+    public String getLineString() {
+        return decode(lineStart, lineEnd);
+    }
+
+    /**
+     * Returns the number of bytes in the current field.
+     *
+     * @return the number of bytes in the current field
+     */
+    public int getFieldLength() {
+        return fieldEnd - fieldStart;
+    }
+
+    /**
+     * Returns the byte at the given index in the current field.
+     *
+     * @param index an index in the current field
+     * @return the byte at the given index in the current field
+     */
+    public byte getFieldByte(final int index) {
+        return window.get(fieldStart + index);
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given byte in the current field at or after the given index.
+     *
+     * @param needle    the byte to look for
+     * @param fromIndex the index in the current field to start looking at
+     * @return the index of the first occurrence of the byte in the current field, or -1 if there is none
+     */
+    public int fieldIndexOf(final byte needle, final int fromIndex) {
+        final int index = indexOf(needle, fieldStart + fromIndex, fieldEnd);
+        return index < 0 ? -1 : index - fieldStart;
+    }
+
+    /**
+     * Returns whether the current field starts with the given bytes.
+     *
+     * @param prefix a sequence of bytes
+     * @return {@code true} iff the current field starts with the given bytes
+     */
+    public boolean fieldStartsWith(final byte[] prefix) {
+        return prefix.length <= getFieldLength() && fieldRegionEquals(0, prefix.length, prefix);
+    }
+
+    /**
+     * Returns whether the given region of the current field is equal to the given bytes.
+     *
+     * @param index  the index in the current field at which the region starts
+     * @param length the length of the region
+     * @param bytes  a sequence of bytes
+     * @return {@code true} iff the region is equal to the given bytes
+     */
+    public boolean fieldRegionEquals(final int index, final int length, final byte[] bytes) {
+        if (length != bytes.length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (window.get(fieldStart + index + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the current field is equal to the given range of bytes.
+     *
+     * @param bytes  an array of bytes
+     * @param offset the index of the first byte of the range
+     * @param length the number of bytes in the range
+     * @return {@code true} iff the current field is equal to the given range of bytes
+     */
+    public boolean fieldEquals(final byte[] bytes, final int offset, final int length) {
+        if (length != getFieldLength()) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (window.get(fieldStart + i) != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the bytes of the current field into the given array.
+     *
+     * @param destination the array to copy the bytes into
+     * @param offset      the index in the array at which to store the first byte
+     */
+    public void copyField(final byte[] destination, final int offset) {
+        final int length = getFieldLength();
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = window.get(fieldStart + i);
+        }
+    }
+
+    /**
+     * Returns a hash code of the bytes in the current field.
+     * <p>
+     * For fields that only contain ASCII characters, this is equal to the {@link String#hashCode()} of the decoded
+     * field.
+     *
+     * @return a hash code of the bytes in the current field
+     */
+    public int fieldHashCode() {
+        int hash = 0;
+        for (int i = fieldStart; i < fieldEnd; i++) {
+            hash = HASH_MULTIPLIER * hash + window.get(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the current field as a {@link String}.
+     *
+     * @return the current field as a {@link String}
+     */
+    public String getFieldString() {
+        return decode(fieldStart, fieldEnd);
+    }
+
+
+    /**
+     * Maps a new window that starts at the given byte offset.
+     *
+     * @param position the byte offset in the file at which the window should start
+     * @throws IOException if the file could not be mapped
+     */
+    private void map(final long position) throws IOException {
+        windowLimit = (int) Math.min(windowSize, end - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowLimit);
+        nextLineStart -= (int) (position - windowStart);
+        windowStart = position;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given byte in the given range of the current window.
+     *
+     * @param needle the byte to look for
+     * @param from   the index to start looking at, inclusive
+     * @param to     the index to stop looking at, exclusive
+     * @return the index of the first occurrence of the given byte in the given range, or -1 if there is none
+     */
+    private int indexOf(final byte needle, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            if (window.get(i) == needle) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes the given range of the current window as UTF-8.
+     *
+     * @param from the index of the first byte, inclusive
+     * @param to   the index of the last byte, exclusive
+     * @return the decoded range
+     */
+    private String decode(final int from, final int to) {
+        final byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = window.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
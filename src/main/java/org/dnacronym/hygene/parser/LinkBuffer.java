@@ -0,0 +1,120 @@
+package org.dnacronym.hygene.parser;
+
+import java.util.Arrays;
+
+
+/**
+ * A growable, primitive buffer of links that have been read but not yet added to the node arrays.
+ * <p>
+ * Each link is stored as a {@code from} node ID, a {@code to} node ID and the byte offset of its line. Node IDs may be
+ * provisional (i.e. negative) while the segment they refer to has not been read yet.
+ */
+final class LinkBuffer {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int[] from;
+    private int[] to;
+    private long[] byteOffsets;
+    private int size;
+
+
+    /**
+     * Constructs a new, empty {@link LinkBuffer}.
+     */
+    LinkBuffer() {
+        this.from = new int[INITIAL_CAPACITY];
+        this.to = new int[INITIAL_CAPACITY];
+        this.byteOffsets = new long[INITIAL_CAPACITY];
+    }
+
+
+    /**
+     * Appends a link to the buffer.
+     *
+     * @param fromId     the (possibly provisional) ID of the node the link starts at
+     * @param toId       the (possibly provisional) ID of the node the link ends at
+     * @param byteOffset the byte offset of the link's line
+     */
+    void add(final int fromId, final int toId, final long byteOffset) {
+        if (size == from.length) {
+            final int capacity = from.length * 2;
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            byteOffsets = Arrays.copyOf(byteOffsets, capacity);
+        }
+
+        from[size] = fromId;
+        to[size] = toId;
+        byteOffsets[size] = byteOffset;
+        size++;
+    }
+
+    /**
+     * Removes all links from the buffer, and shrinks it back to its initial capacity.
+     */
+    void clear() {
+        from = new int[INITIAL_CAPACITY];
+        to = new int[INITIAL_CAPACITY];
+        byteOffsets = new long[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Returns the number of links in the buffer.
+     *
+     * @return the number of links in the buffer
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ID of the node the link at the given index starts at.
+     *
+     * @param index the index of the link
+     * @return the ID of the node the link at the given index starts at
+     */
+    int getFrom(final int index) {
+        return from[index];
+    }
+
+    /**
+     * Returns the ID of the node the link at the given index ends at.
+     *
+     * @param index the index of the link
+     * @return the ID of the node the link at the given index ends at
+     */
+    int getTo(final int index) {
+        return to[index];
+    }
+
+    /**
+     * Returns the byte offset of the link at the given index.
+     *
+     * @param index the index of the link
+     * @return the byte offset of the link at the given index
+     */
+    long getByteOffset(final int index) {
+        return byteOffsets[index];
+    }
+
+    /**
+     * Sets the ID of the node the link at the given index starts at.
+     *
+     * @param index  the index of the link
+     * @param fromId the ID of the node the link starts at
+     */
+    void setFrom(final int index, final int fromId) {
+        from[index] = fromId;
+    }
+
+    /**
+     * Sets the ID of the node the link at the given index ends at.
+     *
+     * @param index the index of the link
+     * @param toId  the ID of the node the link ends at
+     */
+    void setTo(final int index, final int toId) {
+        to[index] = toId;
+    }
+}
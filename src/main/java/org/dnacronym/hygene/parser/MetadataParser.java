@@ -1,11 +1,16 @@
 package org.dnacronym.hygene.parser;
 
 import com.google.common.collect.ImmutableMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.dnacronym.hygene.graph.metadata.EdgeMetadata;
+import org.dnacronym.hygene.graph.metadata.GenomeDictionary;
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
 import org.dnacronym.hygene.graph.metadata.NodeMetadata;
+import org.dnacronym.hygene.graph.metadata.PackedSequence;
+import org.dnacronym.hygene.graph.metadata.SequenceSource;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -23,6 +28,15 @@ import java.util.concurrent.RejectedExecutionException;
  */
 public final class MetadataParser {
     public static final String GENOME_LIST_HEADER_PREFIX = "ORI:Z:";
+    /**
+     * The length above which sequences of lazily parsed metadata are read on demand rather than packed in memory.
+     */
+    public static final int LAZY_SEQUENCE_LENGTH = 4096;
+    /**
+     * The number of bases at the start of sequences that are read on demand that are still packed in memory, which
+     * is enough to draw them without reading from the file.
+     */
+    public static final int LAZY_SEQUENCE_PREFIX_LENGTH = 1024;
 
 
     /**
@@ -43,6 +57,9 @@ public final class MetadataParser {
 
     /**
      * Parses the metadata of multiple nodes with limited file IO by reading the file only once.
+     * <p>
+     * The lines of the nodes are read as a batch, in which nearby lines are read together and distant lines are read
+     * in parallel.
      *
      * @param gfa         a reference to the current {@link GfaFile}
      * @param byteOffsets the byte offsets where the nodes should be located, sorted from lowest to highest, results
@@ -50,43 +67,29 @@ public final class MetadataParser {
      * @return a map in the {@code provided key => node metadata} format
      * @throws MetadataParseException if the GFA file or given line is invalid
      */
-    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // The whole purpose of the loop is to instantiate objects
     public Map<Integer, NodeMetadata> parseNodeMetadata(final GfaFile gfa, final Map<Integer, Long> byteOffsets)
             throws MetadataParseException {
+        return parseNodeMetadata(gfa, byteOffsets, false);
+    }
 
-        final Map<Integer, NodeMetadata> result = new HashMap<>(byteOffsets.size());
-
-        final RandomAccessFile gfaRandomAccessFile = gfa.getRandomAccessFile();
-
-        for (final Map.Entry<Integer, Long> entry : byteOffsets.entrySet()) {
-            if (Thread.interrupted()) {
-                throw new RejectedExecutionException("Node metadata retrieval was interrupted.");
-            }
-
-            final long byteOffset = entry.getValue();
-
-            final String line = getLine(gfaRandomAccessFile, byteOffset);
-
-            validateLine(line, "S", byteOffset);
-
-            final StringTokenizer st = initializeStringTokenizer(line, byteOffset);
-
-            try {
-                st.nextToken();
-                final String name = st.nextToken();
-                final String sequence = st.nextToken();
-                st.nextToken(); // Ignore asterisk
-                final List<String> genomes = parseGenomes(st.nextToken(), byteOffset);
-
-                result.put(entry.getKey(), new NodeMetadata(name, sequence, genomes));
-            } catch (final NoSuchElementException e) {
-                throw new MetadataParseException(
-                        "Not enough parameters for segment at position " + byteOffset + ".", e
-                );
-            }
-        }
-
-        return result;
+    /**
+     * Parses the metadata of multiple nodes like {@link #parseNodeMetadata(GfaFile, Map)}, but without holding on to
+     * their sequences.
+     * <p>
+     * The names and genomes of the nodes are parsed right away, but sequences longer than
+     * {@value #LAZY_SEQUENCE_LENGTH} bases are read from the GFA file only when they, or a window of them, are asked
+     * for. Only their first {@value #LAZY_SEQUENCE_PREFIX_LENGTH} bases are packed in memory, like shorter sequences
+     * are in full.
+     *
+     * @param gfa         a reference to the current {@link GfaFile}
+     * @param byteOffsets the byte offsets where the nodes should be located, sorted from lowest to highest, results
+     *                    will be given the same key as provided in this map
+     * @return a map in the {@code provided key => node metadata} format
+     * @throws MetadataParseException if the GFA file or given line is invalid
+     */
+    public Map<Integer, NodeMetadata> parseLazyNodeMetadata(final GfaFile gfa, final Map<Integer, Long> byteOffsets)
+            throws MetadataParseException {
+        return parseNodeMetadata(gfa, byteOffsets, true);
     }
 
     /**
@@ -98,7 +101,7 @@ public final class MetadataParser {
      * @throws MetadataParseException if the GFA file or given line is invalid
      */
     public EdgeMetadata parseEdgeMetadata(final GfaFile gfa, final long byteOffset) throws MetadataParseException {
-        final String line = getLine(gfa.getRandomAccessFile(), byteOffset);
+        final String line = getLine(gfa.getLineReader(), byteOffset);
 
         validateLine(line, "L", byteOffset);
 
@@ -118,29 +121,116 @@ public final class MetadataParser {
         }
     }
 
+    /**
+     * Parses the metadata of multiple nodes, either with or without holding on to their sequences.
+     *
+     * @param gfa         a reference to the current {@link GfaFile}
+     * @param byteOffsets the byte offsets where the nodes should be located, results will be given the same key as
+     *                    provided in this map
+     * @param lazy        whether the sequences should be read on demand rather than right away
+     * @return a map in the {@code provided key => node metadata} format
+     * @throws MetadataParseException if the GFA file or given line is invalid
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // The whole purpose of the loop is to instantiate objects
+    private Map<Integer, NodeMetadata> parseNodeMetadata(final GfaFile gfa, final Map<Integer, Long> byteOffsets,
+                                                         final boolean lazy) throws MetadataParseException {
+        final Map<Integer, NodeMetadata> result = new HashMap<>(byteOffsets.size());
+
+        final GfaLineReader reader = gfa.getLineReader();
+        final long[] offsets = byteOffsets.values().stream().mapToLong(Long::longValue).toArray();
+        final List<SegmentFields> segments = getSegments(reader, offsets, lazy);
+
+        int index = 0;
+        for (final Map.Entry<Integer, Long> entry : byteOffsets.entrySet()) {
+            if (Thread.interrupted()) {
+                throw new RejectedExecutionException("Node metadata retrieval was interrupted.");
+            }
+
+            final long byteOffset = entry.getValue();
+
+            final SegmentFields segment = segments.get(index);
+            index++;
+
+            if (!segment.isSegment()) {
+                throw new MetadataParseException("Expected line at position " + byteOffset + " to start with S");
+            }
+            if (!segment.isComplete()) {
+                throw new MetadataParseException("Not enough parameters for segment at position " + byteOffset + ".");
+            }
+
+            final GenomeSet genomes = parseGenomes(gfa.getGenomeDictionary(), segment.getGenomeField(), byteOffset);
+            if (segment.isSequenceComplete()) {
+                result.put(entry.getKey(), new NodeMetadata(segment.getName(), segment.getSequence(), genomes));
+            } else {
+                final long sequenceOffset = byteOffset + segment.getSequenceStart();
+                final SequenceSource source = (offset, length) -> reader.read(sequenceOffset + offset, length);
+                final PackedSequence prefix = new PackedSequence(segment.getSequence());
+                result.put(entry.getKey(),
+                        new NodeMetadata(segment.getName(), segment.getSequenceLength(), prefix, source, genomes));
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Finds a specific line within the string representation of a GFA file.
      *
-     * @param gfa        string containing the contents of the GFA file
+     * @param gfa        a {@link GfaLineReader} for the GFA file
      * @param byteOffset the byte offset where the node or edge should be located
      * @return the line of the file belonging to the node or edge
      * @throws MetadataParseException if the byte offset is out of bounds
      */
-    private String getLine(final RandomAccessFile gfa, final long byteOffset) throws MetadataParseException {
+    private String getLine(final GfaLineReader gfa, final long byteOffset) throws MetadataParseException {
         if (byteOffset < 0) {
             throw new MetadataParseException("Byte offset " + byteOffset + " is not a valid byte offset.");
         }
 
         try {
-            gfa.seek(byteOffset);
-
-            return Optional.ofNullable(gfa.readLine())
+            return Optional.ofNullable(gfa.readLine(byteOffset))
                     .orElseThrow(() -> new MetadataParseException("Line was null and could not be read."));
         } catch (final IOException e) {
             throw new MetadataParseException("Line could not be read.", e);
         }
     }
 
+    /**
+     * Finds the fields of the segments at the given byte offsets within the GFA file.
+     * <p>
+     * The fields are found in the raw bytes of the lines, so that only the parts of the lines that are used are
+     * decoded.
+     *
+     * @param gfa         a {@link GfaLineReader} for the GFA file
+     * @param byteOffsets the byte offsets where the nodes should be located
+     * @param lazy        whether long sequences should be read on demand, in which case only their prefix is decoded
+     * @return the fields of the segments, in the same order as the offsets
+     * @throws MetadataParseException if a byte offset is out of bounds
+     */
+    private List<SegmentFields> getSegments(final GfaLineReader gfa, final long[] byteOffsets, final boolean lazy)
+            throws MetadataParseException {
+        for (final long byteOffset : byteOffsets) {
+            if (byteOffset < 0) {
+                throw new MetadataParseException("Byte offset " + byteOffset + " is not a valid byte offset.");
+            }
+        }
+
+        final List<@Nullable SegmentFields> segments;
+        try {
+            segments = gfa.readLines(byteOffsets, (bytes, start, end) -> new SegmentFields(bytes, start, end, lazy));
+        } catch (final IOException e) {
+            throw new MetadataParseException("Line could not be read.", e);
+        }
+
+        final List<SegmentFields> result = new ArrayList<>(segments.size());
+        for (final SegmentFields segment : segments) {
+            if (segment == null) {
+                throw new MetadataParseException("Line was null and could not be read.");
+            }
+            result.add(segment);
+        }
+        return result;
+    }
+
     /**
      * Validates if the given line starts with the expected prefix.
      *
@@ -178,14 +268,17 @@ public final class MetadataParser {
     /**
      * Returns all genomes of the node on the given {@code byteOffset}.
      * <p>
-     * It does this by reading the appropriate genome header field of that line.
+     * It does this by reading the appropriate genome header field of that line. The genomes are interned in the given
+     * {@link GenomeDictionary}.
      *
+     * @param dictionary  the {@link GenomeDictionary} of the GFA file
      * @param headerField the header field (including the prefix) to parse
      * @param byteOffset  the byte offset of the current line
-     * @return the list of genomes in that file
+     * @return the set of genomes in that file
      * @throws MetadataParseException if the GFA file or given line is invalid
      */
-    private List<String> parseGenomes(final String headerField, final long byteOffset) throws MetadataParseException {
+    private GenomeSet parseGenomes(final GenomeDictionary dictionary, final String headerField,
+                                   final long byteOffset) throws MetadataParseException {
         if (!headerField.startsWith(GENOME_LIST_HEADER_PREFIX)) {
             throw new MetadataParseException("Expected genome header at position " + byteOffset + ".");
         }
@@ -200,6 +293,169 @@ public final class MetadataParser {
             genomes.add(nextGenome);
         }
 
-        return genomes;
+        return dictionary.createSet(genomes);
+    }
+
+
+    /**
+     * The fields of a segment line that make up its {@link NodeMetadata}, found in the raw bytes of the line.
+     * <p>
+     * Only the name, the genome field, and the sequence are decoded. If the sequence is to be read on demand, only its
+     * prefix is decoded, and the rest of it is left in the file.
+     */
+    private static final class SegmentFields {
+        private static final int FIELD_COUNT = 5;
+        private static final int NAME_FIELD = 1;
+        private static final int SEQUENCE_FIELD = 2;
+        private static final int GENOME_FIELD = 4;
+
+        private final boolean segment;
+        private final boolean complete;
+        private final String name;
+        private final String sequence;
+        private final boolean sequenceComplete;
+        private final int sequenceStart;
+        private final int sequenceLength;
+        private final String genomeField;
+
+
+        /**
+         * Finds the fields of the segment line in the given range of bytes.
+         * <p>
+         * Fields are separated by one or more tabs.
+         *
+         * @param bytes an array of bytes containing the line
+         * @param start the index of the first byte of the line
+         * @param end   the index after the last byte of the line
+         * @param lazy  whether a sequence of more than {@value MetadataParser#LAZY_SEQUENCE_LENGTH} bases should
+         *              be read on demand
+         */
+        SegmentFields(final byte[] bytes, final int start, final int end, final boolean lazy) {
+            final int[] fieldStarts = new int[FIELD_COUNT];
+            final int[] fieldEnds = new int[FIELD_COUNT];
+            int fieldCount = 0;
+            int index = start;
+            while (fieldCount < FIELD_COUNT) {
+                while (index < end && bytes[index] == '\t') {
+                    index++;
+                }
+                if (index == end) {
+                    break;
+                }
+
+                fieldStarts[fieldCount] = index;
+                while (index < end && bytes[index] != '\t') {
+                    index++;
+                }
+                fieldEnds[fieldCount] = index;
+                fieldCount++;
+            }
+
+            this.segment = end > start && bytes[start] == 'S';
+            this.complete = fieldCount == FIELD_COUNT;
+            if (!complete) {
+                this.name = "";
+                this.sequence = "";
+                this.sequenceComplete = true;
+                this.sequenceStart = 0;
+                this.sequenceLength = 0;
+                this.genomeField = "";
+                return;
+            }
+
+            this.sequenceStart = fieldStarts[SEQUENCE_FIELD] - start;
+            this.sequenceLength = fieldEnds[SEQUENCE_FIELD] - fieldStarts[SEQUENCE_FIELD];
+            this.sequenceComplete = !lazy || sequenceLength <= LAZY_SEQUENCE_LENGTH;
+
+            final int decodedLength = sequenceComplete ? sequenceLength : LAZY_SEQUENCE_PREFIX_LENGTH;
+            this.name = decode(bytes, fieldStarts[NAME_FIELD], fieldEnds[NAME_FIELD]);
+            this.sequence = decode(bytes, fieldStarts[SEQUENCE_FIELD], fieldStarts[SEQUENCE_FIELD] + decodedLength);
+            this.genomeField = decode(bytes, fieldStarts[GENOME_FIELD], fieldEnds[GENOME_FIELD]);
+        }
+
+
+        /**
+         * Decodes the given range of bytes as UTF-8.
+         *
+         * @param bytes an array of bytes
+         * @param start the index of the first byte
+         * @param end   the index after the last byte
+         * @return the decoded string
+         */
+        private static String decode(final byte[] bytes, final int start, final int end) {
+            return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns {@code true} iff. the line starts with the segment record type.
+         *
+         * @return {@code true} iff. the line starts with the segment record type
+         */
+        boolean isSegment() {
+            return segment;
+        }
+
+        /**
+         * Returns {@code true} iff. the line has all fields up to and including the genome field.
+         *
+         * @return {@code true} iff. the line has all fields up to and including the genome field
+         */
+        boolean isComplete() {
+            return complete;
+        }
+
+        /**
+         * Returns the name of the segment.
+         *
+         * @return the name of the segment
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the sequence of the segment, or only its prefix if it is to be read on demand.
+         *
+         * @return the sequence of the segment, or only its prefix if it is to be read on demand
+         */
+        String getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Returns {@code true} iff. the whole sequence was decoded, rather than only its prefix.
+         *
+         * @return {@code true} iff. the whole sequence was decoded
+         */
+        boolean isSequenceComplete() {
+            return sequenceComplete;
+        }
+
+        /**
+         * Returns the number of bytes between the start of the line and the start of the sequence.
+         *
+         * @return the number of bytes between the start of the line and the start of the sequence
+         */
+        int getSequenceStart() {
+            return sequenceStart;
+        }
+
+        /**
+         * Returns the length of the sequence in bases.
+         *
+         * @return the length of the sequence in bases
+         */
+        int getSequenceLength() {
+            return sequenceLength;
+        }
+
+        /**
+         * Returns the genome field, including its prefix.
+         *
+         * @return the genome field, including its prefix
+         */
+        String getGenomeField() {
+            return genomeField;
+        }
     }
 }
@@ -0,0 +1,517 @@
+package org.dnacronym.hygene.parser;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * Maps the names of segments in a GFA file to their internal node IDs.
+ * <p>
+ * Rather than storing a {@link String} and a boxed {@link Integer} per node, the names are stored back to back in a
+ * single byte arena, and are found through an open-addressing hash table of entry indices. Names that are canonical
+ * non-negative decimal numbers, which is what most GFA files use, are not stored at all: their value directly indexes
+ * an array of node IDs, so that they need no hashing. To keep that array proportional to the number of names, numbers
+ * that are much larger than the number of numeric names seen so far are hashed like other names.
+ * <p>
+ * Names can be given either as {@link String}s or as ranges of UTF-8 encoded bytes, so that a parser can add and look
+ * up names without decoding them.
+ * <p>
+ * This class is not thread-safe, but concurrent lookups are safe once no more names are being added.
+ */
+@SuppressWarnings({"PMD.TooManyFields", "PMD.TooManyMethods"}) // Table columns, and both string and byte names
+public final class NodeNameDictionary {
+    /**
+     * The value returned by {@link #get(String)} for names that are not in the dictionary.
+     */
+    public static final int ABSENT = -1;
+
+    private static final int INITIAL_TABLE_CAPACITY = 1024;
+    private static final int INITIAL_ARENA_CAPACITY = 16 * 1024;
+    private static final int MAX_NUMERIC_NAME_LENGTH = 10;
+    private static final int NUMERIC_SLACK = 1024;
+    private static final int FNV_OFFSET_BASIS = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private int[] numericIds; // numeric name => node ID, or ABSENT
+    private int numericCount;
+    private boolean hashedNumericNames;
+
+    private int[] table; // slot => entry index + 1, or 0 if the slot is empty
+    private int[] entryHashes;
+    private int[] entryIds;
+    private int[] entryStarts; // entry index => start of the name in the arena, followed by the end of the arena
+    private int entryCount;
+    private byte[] arena;
+
+
+    /**
+     * Constructs a new, empty {@link NodeNameDictionary}.
+     */
+    public NodeNameDictionary() {
+        this.numericIds = new int[0];
+        this.table = new int[INITIAL_TABLE_CAPACITY];
+        this.entryHashes = new int[INITIAL_TABLE_CAPACITY / 2];
+        this.entryIds = new int[INITIAL_TABLE_CAPACITY / 2];
+        this.entryStarts = new int[INITIAL_TABLE_CAPACITY / 2 + 1];
+        this.arena = new byte[INITIAL_ARENA_CAPACITY];
+    }
+
+
+    /**
+     * Adds a name to the dictionary, replacing the node ID of the name if it is already present.
+     *
+     * @param name   the name of a segment
+     * @param nodeId the non-negative internal ID of the node
+     */
+    public void put(final String name, final int nodeId) {
+        final byte @Nullable [] encoded = encodeIfNotAscii(name);
+        if (encoded != null) {
+            put(encoded, 0, encoded.length, nodeId);
+            return;
+        }
+
+        checkNodeId(nodeId);
+        final int number = parseNumber(name);
+        if (number >= 0 && !isHashed(name) && putNumeric(number, nodeId)) {
+            return;
+        }
+
+        final int hash = hash(name);
+        final int slot = findSlot(name, hash);
+        if (table[slot] != 0) {
+            entryIds[table[slot] - 1] = nodeId;
+            return;
+        }
+
+        final int start = addEntry(slot, hash, nodeId, name.length());
+        for (int i = 0; i < name.length(); i++) {
+            arena[start + i] = (byte) name.charAt(i);
+        }
+    }
+
+    /**
+     * Adds a name, given as a range of UTF-8 encoded bytes, to the dictionary, replacing the node ID of the name if it
+     * is already present.
+     * <p>
+     * This allows names to be added straight from the bytes of a GFA file, without decoding them into
+     * {@link String}s.
+     *
+     * @param bytes  an array containing the UTF-8 encoding of the name of a segment
+     * @param offset the index of the first byte of the name
+     * @param length the number of bytes in the name
+     * @param nodeId the non-negative internal ID of the node
+     */
+    public void put(final byte[] bytes, final int offset, final int length, final int nodeId) {
+        checkNodeId(nodeId);
+        final int number = parseNumber(bytes, offset, length);
+        if (number >= 0 && !isHashed(bytes, offset, length) && putNumeric(number, nodeId)) {
+            return;
+        }
+
+        final int hash = hash(bytes, offset, length);
+        final int slot = findSlot(bytes, offset, length, hash);
+        if (table[slot] != 0) {
+            entryIds[table[slot] - 1] = nodeId;
+            return;
+        }
+
+        final int start = addEntry(slot, hash, nodeId, length);
+        System.arraycopy(bytes, offset, arena, start, length);
+    }
+
+    /**
+     * Returns the node ID of the given name.
+     *
+     * @param name the name of a segment
+     * @return the internal ID of the node, or {@link #ABSENT} if the name is not in the dictionary
+     */
+    public int get(final String name) {
+        final byte @Nullable [] encoded = encodeIfNotAscii(name);
+        if (encoded != null) {
+            return get(encoded, 0, encoded.length);
+        }
+
+        final int number = parseNumber(name);
+        if (number >= 0) {
+            final int nodeId = getNumeric(number);
+            if (nodeId != ABSENT || !hashedNumericNames) {
+                return nodeId;
+            }
+        }
+
+        return getEntryId(findSlot(name, hash(name)));
+    }
+
+    /**
+     * Returns the node ID of the name given as a range of UTF-8 encoded bytes.
+     *
+     * @param bytes  an array containing the UTF-8 encoding of the name of a segment
+     * @param offset the index of the first byte of the name
+     * @param length the number of bytes in the name
+     * @return the internal ID of the node, or {@link #ABSENT} if the name is not in the dictionary
+     */
+    public int get(final byte[] bytes, final int offset, final int length) {
+        final int number = parseNumber(bytes, offset, length);
+        if (number >= 0) {
+            final int nodeId = getNumeric(number);
+            if (nodeId != ABSENT || !hashedNumericNames) {
+                return nodeId;
+            }
+        }
+
+        return getEntryId(findSlot(bytes, offset, length, hash(bytes, offset, length)));
+    }
+
+    /**
+     * Returns the number of names in the dictionary.
+     *
+     * @return the number of names in the dictionary
+     */
+    public int size() {
+        return numericCount + entryCount;
+    }
+
+
+    /**
+     * Returns the value of the given name if it is a canonical non-negative decimal number that fits in an
+     * {@code int}, that is, if it has no sign and no leading zeroes.
+     *
+     * @param name the name of a segment
+     * @return the value of the name, or -1 if it is not such a number
+     */
+    static int parseNumber(final String name) {
+        final int length = name.length();
+        if (length == 0 || length > MAX_NUMERIC_NAME_LENGTH || length > 1 && name.charAt(0) == '0') {
+            return -1;
+        }
+
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+
+    /**
+     * Returns the value of the name given as a range of bytes if it is a canonical non-negative decimal number that
+     * fits in an {@code int}.
+     *
+     * @param bytes  an array containing the UTF-8 encoding of the name of a segment
+     * @param offset the index of the first byte of the name
+     * @param length the number of bytes in the name
+     * @return the value of the name, or -1 if it is not such a number
+     * @see #parseNumber(String)
+     */
+    static int parseNumber(final byte[] bytes, final int offset, final int length) {
+        if (length == 0 || length > MAX_NUMERIC_NAME_LENGTH || length > 1 && bytes[offset] == '0') {
+            return -1;
+        }
+
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            final byte b = bytes[i];
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+
+    /**
+     * Checks that the given node ID is non-negative.
+     *
+     * @param nodeId the internal ID of a node
+     */
+    private static void checkNodeId(final int nodeId) {
+        if (nodeId < 0) {
+            throw new IllegalArgumentException("Node ID " + nodeId + " should not be negative.");
+        }
+    }
+
+    /**
+     * Stores the node ID of a numeric name in the array of numeric names, if the number fits in it.
+     * <p>
+     * Numbers that do not fit are hashed instead, after which numeric names are also looked up in the hash table.
+     *
+     * @param number the value of a numeric name
+     * @param nodeId the internal ID of the node
+     * @return {@code true} iff. the node ID was stored in the array of numeric names
+     */
+    private boolean putNumeric(final int number, final int nodeId) {
+        if (!fitsNumericIds(number)) {
+            hashedNumericNames = true;
+            return false;
+        }
+
+        if (numericIds[number] == ABSENT) {
+            numericCount++;
+        }
+        numericIds[number] = nodeId;
+        return true;
+    }
+
+    /**
+     * Returns the node ID stored for the given number in the array of numeric names.
+     *
+     * @param number the value of a numeric name
+     * @return the node ID stored for the given number, or {@link #ABSENT} if there is none
+     */
+    private int getNumeric(final int number) {
+        return number < numericIds.length ? numericIds[number] : ABSENT;
+    }
+
+    /**
+     * Returns {@code true} iff. the given numeric name is in the hash table, because it was too large for the array of
+     * numeric names when it was added.
+     * <p>
+     * Such a name stays in the hash table even if the array grows, so that it is not counted twice.
+     *
+     * @param name a numeric name
+     * @return {@code true} iff. the given numeric name is in the hash table
+     */
+    private boolean isHashed(final String name) {
+        return hashedNumericNames && table[findSlot(name, hash(name))] != 0;
+    }
+
+    /**
+     * Returns {@code true} iff. the numeric name given as a range of bytes is in the hash table.
+     *
+     * @param bytes  an array containing the name
+     * @param offset the index of the first byte of the name
+     * @param length the number of bytes in the name
+     * @return {@code true} iff. the numeric name is in the hash table
+     * @see #isHashed(String)
+     */
+    private boolean isHashed(final byte[] bytes, final int offset, final int length) {
+        return hashedNumericNames && table[findSlot(bytes, offset, length, hash(bytes, offset, length))] != 0;
+    }
+
+    /**
+     * Returns the node ID of the entry in the given slot.
+     *
+     * @param slot a slot of the hash table
+     * @return the node ID of the entry in the given slot, or {@link #ABSENT} if the slot is empty
+     */
+    private int getEntryId(final int slot) {
+        return table[slot] == 0 ? ABSENT : entryIds[table[slot] - 1];
+    }
+
+    /**
+     * Returns {@code true} iff. the given number can be stored in the array of numeric names, growing the array if
+     * the number is not too large compared to the number of numeric names.
+     *
+     * @param number the value of a numeric name
+     * @return {@code true} iff. the given number can be stored in the array of numeric names
+     */
+    private boolean fitsNumericIds(final int number) {
+        if (number < numericIds.length) {
+            return true;
+        }
+
+        final long limit = 2L * numericCount + NUMERIC_SLACK;
+        if (number >= limit) {
+            return false;
+        }
+
+        final int oldLength = numericIds.length;
+        numericIds = Arrays.copyOf(numericIds, (int) Math.min(limit, Integer.MAX_VALUE));
+        Arrays.fill(numericIds, oldLength, numericIds.length, ABSENT);
+        return true;
+    }
+
+    /**
+     * Returns the UTF-8 encoding of the given name if it contains non-ASCII characters.
+     * <p>
+     * ASCII names are hashed and compared to the arena character by character, so that they need not be encoded.
+     *
+     * @param name the name of a segment
+     * @return the UTF-8 encoding of the name, or {@code null} if the name consists of ASCII characters only
+     */
+    private static byte @Nullable [] encodeIfNotAscii(final String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80) {
+                return name.getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Computes the FNV-1a hash of the given ASCII name.
+     *
+     * @param name the name of a segment, consisting of ASCII characters only
+     * @return the hash of the name
+     */
+    private static int hash(final String name) {
+        int hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < name.length(); i++) {
+            hash = (hash ^ name.charAt(i)) * FNV_PRIME;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Computes the FNV-1a hash of the given range of bytes, which equals the hash of the equivalent ASCII name.
+     *
+     * @param bytes  an array containing the UTF-8 encoding of the name of a segment
+     * @param offset the index of the first byte of the name
+     * @param length the number of bytes in the name
+     * @return the hash of the name
+     */
+    private static int hash(final byte[] bytes, final int offset, final int length) {
+        int hash = FNV_OFFSET_BASIS;
+        for (int i = offset; i < offset + length; i++) {
+            hash = (hash ^ (bytes[i] & 0xFF)) * FNV_PRIME;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Finds the slot of the given ASCII name, or the empty slot where it should be inserted.
+     *
+     * @param name the name of a segment, consisting of ASCII characters only
+     * @param hash the hash of the name
+     * @return the slot of the name, or an empty slot
+     */
+    private int findSlot(final String name, final int hash) {
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            final int entry = table[slot] - 1;
+            if (entryHashes[entry] == hash && nameEquals(entry, name)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Finds the slot of the name given as a range of bytes, or the empty slot where it should be inserted.
+     *
+     * @param bytes  an array containing the UTF-8 encoding of the name of a segment
+     * @param offset the index of the first byte of the name
+     * @param length the number of bytes in the name
+     * @param hash   the hash of the name
+     * @return the slot of the name, or an empty slot
+     */
+    private int findSlot(final byte[] bytes, final int offset, final int length, final int hash) {
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            final int entry = table[slot] - 1;
+            if (entryHashes[entry] == hash && nameEquals(entry, bytes, offset, length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns {@code true} iff. the name of the given entry equals the given ASCII name.
+     *
+     * @param entry the index of an entry
+     * @param name  the name of a segment, consisting of ASCII characters only
+     * @return {@code true} iff. the name of the given entry equals the given name
+     */
+    private boolean nameEquals(final int entry, final String name) {
+        final int start = entryStarts[entry];
+        final int length = entryStarts[entry + 1] - start;
+        if (length != name.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (arena[start + i] != (byte) name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} iff. the name of the given entry equals the name given as a range of bytes.
+     *
+     * @param entry  the index of an entry
+     * @param bytes  an array containing the UTF-8 encoding of the name of a segment
+     * @param offset the index of the first byte of the name
+     * @param length the number of bytes in the name
+     * @return {@code true} iff. the name of the given entry equals the given name
+     */
+    private boolean nameEquals(final int entry, final byte[] bytes, final int offset, final int length) {
+        final int start = entryStarts[entry];
+        if (length != entryStarts[entry + 1] - start) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (arena[start + i] != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends a new entry in the given slot and reserves room for its name in the arena.
+     *
+     * @param slot   the empty slot in which the entry is inserted
+     * @param hash   the hash of the name
+     * @param nodeId the internal ID of the node
+     * @param length the number of bytes in the name
+     * @return the index in the arena at which the caller should copy the name
+     */
+    private int addEntry(final int slot, final int hash, final int nodeId, final int length) {
+        if (entryCount + 1 >= entryStarts.length) {
+            entryHashes = Arrays.copyOf(entryHashes, entryHashes.length * 2);
+            entryIds = Arrays.copyOf(entryIds, entryIds.length * 2);
+            entryStarts = Arrays.copyOf(entryStarts, entryHashes.length + 1);
+        }
+
+        final int start = entryStarts[entryCount];
+        if ((long) start + length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The node names do not fit in the dictionary.");
+        }
+        if (start + length > arena.length) {
+            final long capacity = Math.max(2L * arena.length, start + length);
+            arena = Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE, capacity));
+        }
+
+        entryHashes[entryCount] = hash;
+        entryIds[entryCount] = nodeId;
+        entryCount++;
+        entryStarts[entryCount] = start + length;
+
+        table[slot] = entryCount;
+        if (entryCount * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return start;
+    }
+
+    /**
+     * Rebuilds the hash table with the given capacity.
+     *
+     * @param capacity the new capacity, which should be a power of two
+     */
+    private void rehash(final int capacity) {
+        table = new int[capacity];
+        final int mask = capacity - 1;
+
+        for (int entry = 0; entry < entryCount; entry++) {
+            int slot = entryHashes[entry] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = entry + 1;
+        }
+    }
+}
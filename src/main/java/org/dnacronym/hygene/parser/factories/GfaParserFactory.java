@@ -28,7 +28,8 @@ public final class GfaParserFactory {
     }
 
     /**
-     * Returns a new instance of {@link GfaParser} if no preferred instance is set.
+     * Returns a new instance of {@link GfaParser} that parses in the {@link GfaParser#DEFAULT_MODE} if no preferred
+     * instance is set.
      *
      * @return an instance of {@link GfaParser}
      */
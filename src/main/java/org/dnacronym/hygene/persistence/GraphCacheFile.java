@@ -0,0 +1,637 @@
+package org.dnacronym.hygene.persistence;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.core.ByteOffsetArray;
+import org.dnacronym.hygene.core.UnsignedInteger;
+import org.dnacronym.hygene.graph.CsrGraphStorage;
+import org.dnacronym.hygene.graph.GraphStorage;
+import org.dnacronym.hygene.graph.NodePositionIndex;
+import org.dnacronym.hygene.graph.NodeRenumbering;
+import org.dnacronym.hygene.graph.OffHeapGraphStorage;
+import org.dnacronym.hygene.graph.SequenceDirection;
+import org.dnacronym.hygene.graph.TopologicalOrder;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Represents a binary file containing a cached graph.
+ * <p>
+ * The file starts with a magic number, the major and minor format version and the length of the header in bytes,
+ * followed by the header itself, which contains the number of nodes, the number of edges, the number of node positions,
+ * the largest span of a positioned node, the number of nodes in the topological order, the number of renumbered nodes
+ * and whether the byte offsets have high bytes. Readers reject files of another major version and skip any header
+ * fields they do not know, so that fields can be added in a new minor version without breaking older readers. The
+ * header is followed by the columns of a {@link CsrGraphStorage}, one after the other, in the order of its constructor,
+ * by the columns of a {@link NodePositionIndex}: the node IDs, followed by the {@code long} positions, by the columns
+ * of a {@link TopologicalOrder}: the node IDs in order, followed by the rank of each node, and by the original ID of
+ * each node if the nodes have been renumbered by a {@link NodeRenumbering}. All values are little-endian {@code int}s
+ * unless stated otherwise, and byte offsets are stored as {@link UnsignedInteger}s. For GFA files of 4 GB and more, the
+ * file ends with the high bytes of the node byte offsets, the outgoing edge byte offsets and the incoming edge byte
+ * offsets, in the manner of a {@link ByteOffsetArray}.
+ * <p>
+ * As the columns are stored at a fixed width, the file can be mapped into memory and used as is.
+ */
+public final class GraphCacheFile {
+    /**
+     * The first four bytes of each cache file, which read "HYGC" in ASCII.
+     */
+    static final int MAGIC_NUMBER = 0x43475948;
+    /**
+     * The major version of the format, which should be incremented on each incompatible change to it.
+     */
+    static final int MAJOR_VERSION = 7;
+    /**
+     * The minor version of the format, which should be incremented when header fields or trailing columns are added.
+     */
+    static final int MINOR_VERSION = 0;
+    /**
+     * The version of the format as stored in the file, with the major version in the upper and the minor version in
+     * the lower 16 bits.
+     */
+    static final int VERSION = MAJOR_VERSION << 16 | MINOR_VERSION;
+
+    private static final int PREAMBLE_LENGTH = 3 * Integer.BYTES;
+    private static final int HEADER_FIELD_COUNT = 7;
+    private static final int GRAPH_COLUMN_COUNT = 9;
+    private static final int UNSCALED_X_POSITION_COLUMN = 2;
+    private static final int POSITION_ID_COLUMN = 9;
+    private static final int POSITION_COLUMN = 10;
+    private static final int MAX_SPAN_FIELD = 11;
+    private static final int ORDER_COLUMN = 12;
+    private static final int RANK_COLUMN = 13;
+    private static final int ORIGINAL_ID_COLUMN = 14;
+    private static final int BYTE_OFFSET_HIGH_COLUMN = 15;
+    private static final int OUTGOING_BYTE_OFFSET_HIGH_COLUMN = 16;
+    private static final int INCOMING_BYTE_OFFSET_HIGH_COLUMN = 17;
+    private static final int BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final int HEADER_BUFFER_SIZE = 64;
+    private static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+
+    private final File file;
+
+
+    /**
+     * Constructs and initializes a {@link GraphCacheFile} object.
+     *
+     * @param file the cache file
+     */
+    public GraphCacheFile(final File file) {
+        this.file = file;
+    }
+
+
+    /**
+     * Maps the cached graph into memory without reading it.
+     * <p>
+     * The file is only opened for reading, so that caches on read-only media can be mapped as well. Each column is
+     * mapped read-only, so that pages are only loaded from disk once they are accessed, except for the x positions,
+     * which are copied into direct memory as they are changed by the layout and must not be written back to the file.
+     * The mapping remains valid after the cache file is replaced by
+     * {@link #write(GraphStorage, NodePositionIndex, TopologicalOrder, NodeRenumbering)}.
+     *
+     * @return the cached graph, backed by the mapped file
+     * @throws IOException if the cache file cannot be mapped, or if it is not a cache file of the current major version
+     */
+    public OffHeapGraphStorage map() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.limit(0);
+
+            final int[] columnLengths = readHeader(channel, buffer);
+            final long columnsOffset = channel.position() - buffer.remaining();
+            long position = columnsOffset;
+
+            checkFileLength(channel, columnsOffset, columnLengths);
+
+            final IntBuffer[] columns = new IntBuffer[GRAPH_COLUMN_COUNT];
+            for (int i = 0; i < GRAPH_COLUMN_COUNT; i++) {
+                final long columnSize = (long) columnLengths[i] * Integer.BYTES;
+                columns[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, columnSize)
+                        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                position += columnSize;
+            }
+            final IntBuffer unscaledXPositions = OffHeapGraphStorage.allocate(
+                    columnLengths[UNSCALED_X_POSITION_COLUMN]);
+            unscaledXPositions.put(columns[UNSCALED_X_POSITION_COLUMN]).rewind();
+            columns[UNSCALED_X_POSITION_COLUMN] = unscaledXPositions;
+
+            @Nullable ByteBuffer byteOffsetHighs = null;
+            @Nullable ByteBuffer outgoingByteOffsetHighs = null;
+            @Nullable ByteBuffer incomingByteOffsetHighs = null;
+            if (columnLengths[BYTE_OFFSET_HIGH_COLUMN] > 0) {
+                position = getByteOffsetHighColumnsOffset(columnsOffset, columnLengths);
+                byteOffsetHighs = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        columnLengths[BYTE_OFFSET_HIGH_COLUMN]);
+                position += columnLengths[BYTE_OFFSET_HIGH_COLUMN];
+                outgoingByteOffsetHighs = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        columnLengths[OUTGOING_BYTE_OFFSET_HIGH_COLUMN]);
+                position += columnLengths[OUTGOING_BYTE_OFFSET_HIGH_COLUMN];
+                incomingByteOffsetHighs = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        columnLengths[INCOMING_BYTE_OFFSET_HIGH_COLUMN]);
+            }
+
+            return new OffHeapGraphStorage(columns[0], columns[1], columns[2], columns[3], columns[4], columns[5],
+                    columns[6], columns[7], columns[8], byteOffsetHighs, outgoingByteOffsetHighs,
+                    incomingByteOffsetHighs);
+        }
+    }
+
+    /**
+     * Reads the cached node positions.
+     *
+     * @return the cached {@link NodePositionIndex}
+     * @throws IOException if the cache file cannot be read, or if it is not a cache file of the current major version
+     */
+    public NodePositionIndex readNodePositions() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.limit(0);
+
+            final int[] columnLengths = readHeader(channel, buffer);
+            final int maxSpan = columnLengths[MAX_SPAN_FIELD];
+            channel.position(getPositionColumnsOffset(channel.position() - buffer.remaining(), columnLengths));
+            buffer.limit(0);
+
+            final int[] ids = new int[columnLengths[POSITION_ID_COLUMN]];
+            readColumn(channel, buffer, ids);
+            final long[] positions = new long[columnLengths[POSITION_COLUMN]];
+            readColumn(channel, buffer, positions);
+
+            return new NodePositionIndex(positions, ids, maxSpan);
+        }
+    }
+
+    /**
+     * Reads the cached topological order.
+     *
+     * @return the cached {@link TopologicalOrder}
+     * @throws IOException if the cache file cannot be read, or if it is not a cache file of the current major version
+     */
+    public TopologicalOrder readTopologicalOrder() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.limit(0);
+
+            final int[] columnLengths = readHeader(channel, buffer);
+            channel.position(getOrderColumnsOffset(channel.position() - buffer.remaining(), columnLengths));
+            buffer.limit(0);
+
+            final int[] order = new int[columnLengths[ORDER_COLUMN]];
+            readColumn(channel, buffer, order);
+            final int[] ranks = new int[columnLengths[RANK_COLUMN]];
+            readColumn(channel, buffer, ranks);
+
+            return new TopologicalOrder(order, ranks);
+        }
+    }
+
+    /**
+     * Reads the cached renumbering of the nodes.
+     *
+     * @return the cached {@link NodeRenumbering}, or {@code null} if the nodes have not been renumbered
+     * @throws IOException if the cache file cannot be read, or if it is not a cache file of the current major version
+     */
+    public @Nullable NodeRenumbering readNodeRenumbering() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.limit(0);
+
+            final int[] columnLengths = readHeader(channel, buffer);
+            if (columnLengths[ORIGINAL_ID_COLUMN] == 0) {
+                return null;
+            }
+            channel.position(getOriginalIdColumnOffset(channel.position() - buffer.remaining(), columnLengths));
+            buffer.limit(0);
+
+            final int[] originalIds = new int[columnLengths[ORIGINAL_ID_COLUMN]];
+            readColumn(channel, buffer, originalIds);
+
+            return new NodeRenumbering(originalIds);
+        }
+    }
+
+    /**
+     * Writes the given graph, node positions, topological order and renumbering to the cache file, replacing it.
+     * <p>
+     * The graph is first written to a temporary file that then takes the place of the cache file, so that earlier
+     * mappings of the cache file are not affected.
+     *
+     * @param storage          the graph to write
+     * @param nodePositions    the {@link NodePositionIndex} of the graph
+     * @param topologicalOrder the {@link TopologicalOrder} of the graph
+     * @param nodeRenumbering  the {@link NodeRenumbering} of the graph, or {@code null} if the nodes have not been
+     *                         renumbered
+     * @throws IOException if we cannot write to the cache file
+     */
+    public void write(final GraphStorage storage, final NodePositionIndex nodePositions,
+                      final TopologicalOrder topologicalOrder, final @Nullable NodeRenumbering nodeRenumbering)
+            throws IOException {
+        final Path temporaryPath = Paths.get(file.getPath() + TEMPORARY_FILE_EXTENSION);
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            final int size = storage.size();
+
+            int edgeCount = 0;
+            for (int id = 0; id < size; id++) {
+                edgeCount += storage.getNeighbourCount(id, SequenceDirection.RIGHT);
+            }
+
+            writeInt(channel, buffer, MAGIC_NUMBER);
+            writeInt(channel, buffer, VERSION);
+            writeInt(channel, buffer, HEADER_FIELD_COUNT * Integer.BYTES);
+            writeInt(channel, buffer, size);
+            writeInt(channel, buffer, edgeCount);
+            writeInt(channel, buffer, nodePositions.size());
+            writeInt(channel, buffer, nodePositions.getMaxSpan());
+            writeInt(channel, buffer, topologicalOrder.size());
+            writeInt(channel, buffer, nodeRenumbering == null ? 0 : nodeRenumbering.size());
+            writeInt(channel, buffer, storage.hasWideByteOffsets() ? 1 : 0);
+
+            for (int id = 0; id < size; id++) {
+                writeInt(channel, buffer, ByteOffsetArray.getLow(storage.getByteOffset(id)));
+            }
+            for (int id = 0; id < size; id++) {
+                writeInt(channel, buffer, storage.getSequenceLength(id));
+            }
+            for (int id = 0; id < size; id++) {
+                writeInt(channel, buffer, storage.getUnscaledXPosition(id));
+            }
+            writeEdges(channel, buffer, storage, SequenceDirection.RIGHT);
+            writeEdges(channel, buffer, storage, SequenceDirection.LEFT);
+
+            for (int i = 0; i < nodePositions.size(); i++) {
+                writeInt(channel, buffer, nodePositions.getNodeId(i));
+            }
+            for (int i = 0; i < nodePositions.size(); i++) {
+                writeLong(channel, buffer, nodePositions.getPosition(i));
+            }
+
+            for (int rank = 0; rank < topologicalOrder.size(); rank++) {
+                writeInt(channel, buffer, topologicalOrder.getNodeId(rank));
+            }
+            for (int id = 0; id < size; id++) {
+                writeInt(channel, buffer, topologicalOrder.getRank(id));
+            }
+
+            if (nodeRenumbering != null) {
+                for (int id = 0; id < nodeRenumbering.size(); id++) {
+                    writeInt(channel, buffer, nodeRenumbering.getOriginalId(id));
+                }
+            }
+
+            if (storage.hasWideByteOffsets()) {
+                for (int id = 0; id < size; id++) {
+                    writeByte(channel, buffer, ByteOffsetArray.getHigh(storage.getByteOffset(id)));
+                }
+                writeEdgeByteOffsetHighs(channel, buffer, storage, SequenceDirection.RIGHT);
+                writeEdgeByteOffsetHighs(channel, buffer, storage, SequenceDirection.LEFT);
+            }
+
+            flush(channel, buffer);
+        }
+
+        Files.move(temporaryPath, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Gets absolute path of cache file.
+     *
+     * @return absolute path of cache file
+     */
+    public String getAbsolutePath() {
+        return file.getAbsolutePath();
+    }
+
+
+    /**
+     * Reads and verifies the header of the cache file, and positions the channel directly after it.
+     * <p>
+     * Files of the same major version can be read regardless of their minor version, as the header fields that are not
+     * known are skipped.
+     *
+     * @param channel the channel to read from, positioned at the start of the file
+     * @param buffer  an empty buffer to read the header with, which is empty again after reading the header
+     * @return the number of values in each of the graph and node position columns, in order, followed by the largest
+     * span of a positioned node, by the number of values in each of the topological order columns and by the number of
+     * original node IDs and by the number of values in each of the byte offset high byte columns
+     * @throws IOException if the cache file cannot be read, or if it is not a cache file of the current major version
+     */
+    private int[] readHeader(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        if (readInt(channel, buffer) != MAGIC_NUMBER) {
+            throw new IOException("File " + file.getName() + " is not a graph cache file.");
+        }
+        final int version = readInt(channel, buffer);
+        if (version >>> Short.SIZE != MAJOR_VERSION) {
+            throw new IOException("Graph cache file has major version " + (version >>> Short.SIZE) + ", expected "
+                    + MAJOR_VERSION + ".");
+        }
+        final int headerLength = readInt(channel, buffer);
+        if (headerLength < HEADER_FIELD_COUNT * Integer.BYTES) {
+            throw new IOException("Graph cache file has a header of " + headerLength + " bytes, expected at least "
+                    + HEADER_FIELD_COUNT * Integer.BYTES + ".");
+        }
+        final int nodeCount = readInt(channel, buffer);
+        final int edgeCount = readInt(channel, buffer);
+        final int positionCount = readInt(channel, buffer);
+        final int maxSpan = readInt(channel, buffer);
+        final int orderCount = readInt(channel, buffer);
+        final int originalIdCount = readInt(channel, buffer);
+        final boolean wide = readInt(channel, buffer) != 0;
+
+        // Skip the header fields of newer minor versions
+        channel.position(PREAMBLE_LENGTH + (long) headerLength);
+        buffer.limit(0);
+
+        return new int[] {
+                nodeCount, nodeCount, nodeCount,
+                nodeCount + 1, edgeCount, edgeCount,
+                nodeCount + 1, edgeCount, edgeCount,
+                positionCount, positionCount,
+                maxSpan,
+                orderCount, nodeCount,
+                originalIdCount,
+                wide ? nodeCount : 0, wide ? edgeCount : 0, wide ? edgeCount : 0
+        };
+    }
+
+    /**
+     * Returns the byte offset of the node position columns.
+     *
+     * @param columnsOffset the byte offset of the first column, directly after the header
+     * @param columnLengths the number of values in each of the columns, as returned by the header
+     * @return the byte offset of the node position columns
+     */
+    private static long getPositionColumnsOffset(final long columnsOffset, final int[] columnLengths) {
+        long offset = columnsOffset;
+        for (int i = 0; i < GRAPH_COLUMN_COUNT; i++) {
+            offset += (long) columnLengths[i] * Integer.BYTES;
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the byte offset of the topological order columns.
+     *
+     * @param columnsOffset the byte offset of the first column, directly after the header
+     * @param columnLengths the number of values in each of the columns, as returned by the header
+     * @return the byte offset of the topological order columns
+     */
+    private static long getOrderColumnsOffset(final long columnsOffset, final int[] columnLengths) {
+        return getPositionColumnsOffset(columnsOffset, columnLengths)
+                + (long) columnLengths[POSITION_ID_COLUMN] * Integer.BYTES
+                + (long) columnLengths[POSITION_COLUMN] * Long.BYTES;
+    }
+
+    /**
+     * Returns the byte offset of the original node ID column.
+     *
+     * @param columnsOffset the byte offset of the first column, directly after the header
+     * @param columnLengths the number of values in each of the columns, as returned by the header
+     * @return the byte offset of the original node ID column
+     */
+    private static long getOriginalIdColumnOffset(final long columnsOffset, final int[] columnLengths) {
+        return getOrderColumnsOffset(columnsOffset, columnLengths)
+                + (long) columnLengths[ORDER_COLUMN] * Integer.BYTES
+                + (long) columnLengths[RANK_COLUMN] * Integer.BYTES;
+    }
+
+    /**
+     * Returns the byte offset of the byte offset high byte columns.
+     *
+     * @param columnsOffset the byte offset of the first column, directly after the header
+     * @param columnLengths the number of values in each of the columns, as returned by the header
+     * @return the byte offset of the byte offset high byte columns
+     */
+    private static long getByteOffsetHighColumnsOffset(final long columnsOffset, final int[] columnLengths) {
+        return getOriginalIdColumnOffset(columnsOffset, columnLengths)
+                + (long) columnLengths[ORIGINAL_ID_COLUMN] * Integer.BYTES;
+    }
+
+    /**
+     * Checks that the cache file is long enough to contain all columns described by its header.
+     *
+     * @param channel       the channel of the cache file
+     * @param columnsOffset the byte offset of the first column, directly after the header
+     * @param columnLengths the number of values in each of the columns, as returned by the header
+     * @throws IOException if the cache file is shorter than its header describes
+     */
+    private static void checkFileLength(final FileChannel channel, final long columnsOffset,
+                                        final int[] columnLengths) throws IOException {
+        final long fileLength = getByteOffsetHighColumnsOffset(columnsOffset, columnLengths)
+                + columnLengths[BYTE_OFFSET_HIGH_COLUMN]
+                + columnLengths[OUTGOING_BYTE_OFFSET_HIGH_COLUMN]
+                + (long) columnLengths[INCOMING_BYTE_OFFSET_HIGH_COLUMN];
+        if (channel.size() < fileLength) {
+            throw new EOFException("Graph cache file ended prematurely.");
+        }
+    }
+
+    /**
+     * Writes the start, neighbour and byte offset columns of the edges in the given direction.
+     *
+     * @param channel   the channel to write to
+     * @param buffer    the buffer in which values are collected before writing them
+     * @param storage   the graph to write
+     * @param direction the direction of the edges to write
+     * @throws IOException if we cannot write to the cache file
+     */
+    private static void writeEdges(final FileChannel channel, final ByteBuffer buffer, final GraphStorage storage,
+                                   final SequenceDirection direction) throws IOException {
+        final int size = storage.size();
+
+        int start = 0;
+        for (int id = 0; id < size; id++) {
+            writeInt(channel, buffer, start);
+            start += storage.getNeighbourCount(id, direction);
+        }
+        writeInt(channel, buffer, start);
+
+        for (int id = 0; id < size; id++) {
+            for (int i = 0; i < storage.getNeighbourCount(id, direction); i++) {
+                writeInt(channel, buffer, storage.getNeighbour(id, direction, i));
+            }
+        }
+        for (int id = 0; id < size; id++) {
+            for (int i = 0; i < storage.getNeighbourCount(id, direction); i++) {
+                writeInt(channel, buffer, ByteOffsetArray.getLow(storage.getEdgeByteOffset(id, direction, i)));
+            }
+        }
+    }
+
+    /**
+     * Writes the high byte column of the edge byte offsets in the given direction.
+     *
+     * @param channel   the channel to write to
+     * @param buffer    the buffer in which values are collected before writing them
+     * @param storage   the graph to write
+     * @param direction the direction of the edges to write
+     * @throws IOException if we cannot write to the cache file
+     */
+    private static void writeEdgeByteOffsetHighs(final FileChannel channel, final ByteBuffer buffer,
+                                                 final GraphStorage storage, final SequenceDirection direction)
+            throws IOException {
+        for (int id = 0; id < storage.size(); id++) {
+            for (int i = 0; i < storage.getNeighbourCount(id, direction); i++) {
+                writeByte(channel, buffer, ByteOffsetArray.getHigh(storage.getEdgeByteOffset(id, direction, i)));
+            }
+        }
+    }
+
+    /**
+     * Adds a {@code byte} value to the buffer, writing the buffer to the channel first if it is full.
+     *
+     * @param channel the channel to write to
+     * @param buffer  the buffer in which values are collected before writing them
+     * @param value   the value to write
+     * @throws IOException if we cannot write to the cache file
+     */
+    private static void writeByte(final FileChannel channel, final ByteBuffer buffer, final byte value)
+            throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush(channel, buffer);
+        }
+        buffer.put(value);
+    }
+
+    /**
+     * Adds a value to the buffer, writing the buffer to the channel first if it is full.
+     *
+     * @param channel the channel to write to
+     * @param buffer  the buffer in which values are collected before writing them
+     * @param value   the value to write
+     * @throws IOException if we cannot write to the cache file
+     */
+    private static void writeInt(final FileChannel channel, final ByteBuffer buffer, final int value)
+            throws IOException {
+        if (buffer.remaining() < Integer.BYTES) {
+            flush(channel, buffer);
+        }
+        buffer.putInt(value);
+    }
+
+    /**
+     * Adds a {@code long} value to the buffer, writing the buffer to the channel first if it is full.
+     *
+     * @param channel the channel to write to
+     * @param buffer  the buffer in which values are collected before writing them
+     * @param value   the value to write
+     * @throws IOException if we cannot write to the cache file
+     */
+    private static void writeLong(final FileChannel channel, final ByteBuffer buffer, final long value)
+            throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            flush(channel, buffer);
+        }
+        buffer.putLong(value);
+    }
+
+    /**
+     * Writes the contents of the buffer to the channel and clears the buffer.
+     *
+     * @param channel the channel to write to
+     * @param buffer  the buffer in which values are collected before writing them
+     * @throws IOException if we cannot write to the cache file
+     */
+    private static void flush(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads a single value, refilling the buffer from the channel if necessary.
+     *
+     * @param channel the channel to read from
+     * @param buffer  the buffer containing the bytes read but not yet consumed
+     * @return the value read
+     * @throws IOException if the cache file cannot be read or ends prematurely
+     */
+    private static int readInt(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        fill(channel, buffer, Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    /**
+     * Reads a column of values by transferring them from the buffer in bulk, refilling the buffer as necessary.
+     *
+     * @param channel the channel to read from
+     * @param buffer  the buffer containing the bytes read but not yet consumed
+     * @param column  the array to read the values into, of which the length is the number of values to read
+     * @throws IOException if the cache file cannot be read or ends prematurely
+     */
+    private static void readColumn(final FileChannel channel, final ByteBuffer buffer, final int[] column)
+            throws IOException {
+        int index = 0;
+        while (index < column.length) {
+            fill(channel, buffer, Integer.BYTES);
+
+            final IntBuffer values = buffer.asIntBuffer();
+            final int count = Math.min(values.remaining(), column.length - index);
+            values.get(column, index, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            index += count;
+        }
+    }
+
+    /**
+     * Reads a column of {@code long} values by transferring them from the buffer in bulk, refilling the buffer as
+     * necessary.
+     *
+     * @param channel the channel to read from
+     * @param buffer  the buffer containing the bytes read but not yet consumed
+     * @param column  the array to read the values into, of which the length is the number of values to read
+     * @throws IOException if the cache file cannot be read or ends prematurely
+     */
+    private static void readColumn(final FileChannel channel, final ByteBuffer buffer, final long[] column)
+            throws IOException {
+        int index = 0;
+        while (index < column.length) {
+            fill(channel, buffer, Long.BYTES);
+
+            final LongBuffer values = buffer.asLongBuffer();
+            final int count = Math.min(values.remaining(), column.length - index);
+            values.get(column, index, count);
+            buffer.position(buffer.position() + count * Long.BYTES);
+            index += count;
+        }
+    }
+
+    /**
+     * Ensures that the buffer contains at least the given number of bytes, reading more bytes from the channel if it
+     * does not.
+     *
+     * @param channel the channel to read from
+     * @param buffer  the buffer containing the bytes read but not yet consumed
+     * @param bytes   the number of bytes the buffer should contain
+     * @throws IOException if the cache file cannot be read or ends prematurely
+     */
+    private static void fill(final FileChannel channel, final ByteBuffer buffer, final int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Graph cache file ended prematurely.");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -3,6 +3,12 @@ package org.dnacronym.hygene.persistence;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.graph.GraphStorage;
+import org.dnacronym.hygene.graph.NodePositionIndex;
+import org.dnacronym.hygene.graph.NodeRenumbering;
+import org.dnacronym.hygene.graph.OffHeapGraphStorage;
+import org.dnacronym.hygene.graph.TopologicalOrder;
 import org.dnacronym.hygene.parser.ProgressUpdater;
 
 import java.io.File;
@@ -25,6 +31,7 @@ public final class GraphLoader {
     private static final String KEY_COLUMN_VALUE = "0";
     private static final String NODE_COUNT_COLUMN_NAME = "node_count";
     private static final String DUMP_COLUMN_NAME = "dump";
+    private static final String CACHE_FILE_EXTENSION = ".hygenecache";
 
     private final FileDatabaseDriver fileDatabaseDriver;
 
@@ -76,12 +83,19 @@ public final class GraphLoader {
     }
 
     /**
-     * Dumps the given graph into the specified file.
+     * Dumps the given graph, the positions of its nodes, its topological order and the renumbering of its nodes into
+     * the specified file.
      *
-     * @param graph    the graph to dump
-     * @param fileName the destination filename
+     * @param graph            the graph to dump
+     * @param nodePositions    the {@link NodePositionIndex} of the graph
+     * @param topologicalOrder the {@link TopologicalOrder} of the graph
+     * @param nodeRenumbering  the {@link NodeRenumbering} of the graph, or {@code null} if the nodes have not been
+     *                         renumbered
+     * @param fileName         the destination filename
      */
-    public void dumpGraph(final int[][] graph, final String fileName) {
+    public void dumpGraph(final GraphStorage graph, final NodePositionIndex nodePositions,
+                          final TopologicalOrder topologicalOrder, final @Nullable NodeRenumbering nodeRenumbering,
+                          final String fileName) {
         LOGGER.info("Dumping graph to storage.");
 
         if (hasGraph()) {
@@ -90,12 +104,12 @@ public final class GraphLoader {
 
         try {
             LOGGER.info("Write internal data structure to temporary file.");
-            final GraphArrayFile cache = new GraphArrayFile(new File(fileName + ".hygenecache"));
-            cache.write(graph);
+            final GraphCacheFile cache = new GraphCacheFile(new File(fileName + CACHE_FILE_EXTENSION));
+            cache.write(graph, nodePositions, topologicalOrder, nodeRenumbering);
 
             LOGGER.info("Load temporary file into the database.");
             fileDatabaseDriver.raw("INSERT INTO " + TABLE_NAME + " VALUES(" + KEY_COLUMN_VALUE + ","
-                    + graph.length + ",\"Coming soon\")");
+                    + graph.size() + ",\"Coming soon\")");
         } catch (final SQLException | IOException e) {
             throw new UnexpectedDatabaseException("Failed to dump graph into database.", e);
         }
@@ -105,29 +119,90 @@ public final class GraphLoader {
 
     /**
      * Restores the graph dump in the specified file into a graph.
+     * <p>
+     * The cache file is mapped into memory rather than read, so parts of the graph are only loaded from disk once
+     * they are accessed.
      *
      * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
      * @param fileName        the target filename
-     * @return a graph
-     * @throws IOException if we cannot read from the cache file
+     * @return a graph backed by the mapped cache file
+     * @throws IOException if we cannot map the cache file, or if it does not match the graph dump
      */
-    public int[][] restoreGraph(final ProgressUpdater progressUpdater, final String fileName) throws IOException {
+    public OffHeapGraphStorage restoreGraph(final ProgressUpdater progressUpdater, final String fileName)
+            throws IOException {
         LOGGER.info("Restoring graph from storage.");
 
         if (!hasGraph()) {
             throw new IllegalStateException("There is no graph present in the database to be restored.");
         }
 
-        final GraphArrayFile cache = new GraphArrayFile(new File(fileName + ".hygenecache"));
+        final GraphCacheFile cache = new GraphCacheFile(new File(fileName + CACHE_FILE_EXTENSION));
 
         try {
             final int nodeCount = Integer.parseInt(fileDatabaseDriver.getSingleValue(TABLE_NAME, KEY_COLUMN_NAME,
                     KEY_COLUMN_VALUE, NODE_COUNT_COLUMN_NAME));
 
-            LOGGER.info("Load temporary file into memory and parse to internal data structure.");
-            return cache.read(nodeCount, progressUpdater);
+            LOGGER.info("Map temporary file into memory.");
+            progressUpdater.updateProgress(0, "Restoring graph from cache...");
+            final OffHeapGraphStorage graph = cache.map();
+            if (graph.size() != nodeCount) {
+                throw new IOException("Graph cache file contains " + graph.size() + " nodes, expected "
+                        + nodeCount + ".");
+            }
+            return graph;
         } catch (final SQLException e) {
             throw new UnexpectedDatabaseException("Failed to retrieve graph dump.", e);
         }
     }
+
+    /**
+     * Restores the node positions in the graph dump in the specified file.
+     *
+     * @param fileName the target filename
+     * @return the {@link NodePositionIndex} of the graph
+     * @throws IOException if we cannot read from the cache file
+     */
+    public NodePositionIndex restoreNodePositions(final String fileName) throws IOException {
+        LOGGER.info("Restoring node positions from storage.");
+
+        if (!hasGraph()) {
+            throw new IllegalStateException("There is no graph present in the database to be restored.");
+        }
+
+        return new GraphCacheFile(new File(fileName + CACHE_FILE_EXTENSION)).readNodePositions();
+    }
+
+    /**
+     * Restores the topological order in the graph dump in the specified file.
+     *
+     * @param fileName the target filename
+     * @return the {@link TopologicalOrder} of the graph
+     * @throws IOException if we cannot read from the cache file
+     */
+    public TopologicalOrder restoreTopologicalOrder(final String fileName) throws IOException {
+        LOGGER.info("Restoring topological order from storage.");
+
+        if (!hasGraph()) {
+            throw new IllegalStateException("There is no graph present in the database to be restored.");
+        }
+
+        return new GraphCacheFile(new File(fileName + CACHE_FILE_EXTENSION)).readTopologicalOrder();
+    }
+
+    /**
+     * Restores the renumbering of the nodes in the graph dump in the specified file.
+     *
+     * @param fileName the target filename
+     * @return the {@link NodeRenumbering} of the graph, or {@code null} if the nodes have not been renumbered
+     * @throws IOException if we cannot read from the cache file
+     */
+    public @Nullable NodeRenumbering restoreNodeRenumbering(final String fileName) throws IOException {
+        LOGGER.info("Restoring node renumbering from storage.");
+
+        if (!hasGraph()) {
+            throw new IllegalStateException("There is no graph present in the database to be restored.");
+        }
+
+        return new GraphCacheFile(new File(fileName + CACHE_FILE_EXTENSION)).readNodeRenumbering();
+    }
 }
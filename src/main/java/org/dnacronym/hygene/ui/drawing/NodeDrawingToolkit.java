@@ -151,6 +151,18 @@ public abstract class NodeDrawingToolkit extends DrawingToolkit {
      */
     public abstract void drawSequence(double nodeX, double nodeY, double nodeWidth, String sequence);
 
+    /**
+     * Returns the maximum number of bases of a sequence that is needed to draw a node of the given width.
+     * <p>
+     * Only a window of this length at the start of the sequence has to be passed to
+     * {@link #draw(double, double, double, Color, String)} and {@link #drawSequence(double, double, double, String)},
+     * so that long sequences need not be read in full.
+     *
+     * @param nodeWidth the width of the node
+     * @return the maximum number of bases of a sequence that is needed to draw the node
+     */
+    public abstract int computeSequenceWindowLength(double nodeWidth);
+
 
     /**
      * Returns the node height.
@@ -148,4 +148,15 @@ public final class SegmentDrawingToolkit extends NodeDrawingToolkit {
 
         getGraphicsContext().fillText(sequenceToDraw, fontX, fontY);
     }
+
+    /**
+     * Returns the number of characters that fit in the node, plus one to tell whether the sequence has to be cut off.
+     *
+     * @param segmentWidth the width of the node
+     * @return the maximum number of bases of a sequence that is needed to draw the node
+     */
+    @Override
+    public int computeSequenceWindowLength(final double segmentWidth) {
+        return (int) (segmentWidth / getCharWidth()) + 1;
+    }
 }
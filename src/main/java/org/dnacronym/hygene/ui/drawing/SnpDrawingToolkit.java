@@ -16,6 +16,11 @@ import java.util.stream.Collectors;
  * Toolkit used to draw SNPs; single-nucleotide polymorphisms.
  */
 public final class SnpDrawingToolkit extends NodeDrawingToolkit {
+    /**
+     * The length of the combined sequence of a SNP, such as {@code [A, C]}.
+     */
+    private static final int SEQUENCE_WINDOW_LENGTH = 6;
+
     private final EdgeDrawingToolkit edgeDrawingToolkit;
 
     @Override
@@ -197,6 +202,18 @@ public final class SnpDrawingToolkit extends NodeDrawingToolkit {
                 snpX + snpWidth / 2 - getCharWidth() / 2, snpY + getSnpHeight() / 2 - 5);
     }
 
+    /**
+     * Returns the length of the combined sequence of a SNP, such as {@code [A, C]}, since both sides of a SNP consist
+     * of a single base.
+     *
+     * @param snpWidth the width of the node
+     * @return {@value SEQUENCE_WINDOW_LENGTH}
+     */
+    @Override
+    public int computeSequenceWindowLength(final double snpWidth) {
+        return SEQUENCE_WINDOW_LENGTH;
+    }
+
 
     private double[] getRhombusX(final double left, final double width) {
         final double center = left + width / 2;
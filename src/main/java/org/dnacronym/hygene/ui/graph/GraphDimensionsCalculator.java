@@ -25,6 +25,7 @@ import org.dnacronym.hygene.graph.CenterPointQuery;
 import org.dnacronym.hygene.graph.Graph;
 import org.dnacronym.hygene.graph.Subgraph;
 import org.dnacronym.hygene.graph.layout.FafospLayerer;
+import org.dnacronym.hygene.graph.metadata.NodeMetadataCache;
 import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.graph.node.Segment;
 
@@ -64,6 +65,10 @@ public final class GraphDimensionsCalculator {
     private final IntegerProperty nodeCountProperty;
     private final DoubleProperty laneHeightProperty;
     private final IntegerProperty laneCountProperty;
+    /**
+     * The maximum number of bytes of node metadata that is cached.
+     */
+    private final LongProperty metadataCacheSizeProperty;
 
     /**
      * The {@link Graph} used to get the unscaled coordinates of nodes.
@@ -124,7 +129,7 @@ public final class GraphDimensionsCalculator {
                 viewPointProperty.set(0);
                 return;
             }
-            final int sentinelId = getGraphProperty().get().getNodeArrays().length - 1;
+            final int sentinelId = getGraphProperty().get().size() - 1;
             final long sentinelEndPosition = getGraphProperty().get().getRealEndXPosition(sentinelId);
             if (newValue.longValue() > sentinelEndPosition) {
                 viewPointProperty.set(sentinelEndPosition);
@@ -132,6 +137,7 @@ public final class GraphDimensionsCalculator {
             }
 
             centerNodeIdProperty.set(getGraphProperty().get().getNodeAtPosition(newValue.longValue()));
+            centerPointQuery.getMetadataPrefetcher().viewChanged(newValue.longValue(), getViewRadiusProperty().get());
             calculate(subgraph);
         });
         viewRadiusProperty = new SimpleIntegerProperty(1);
@@ -145,6 +151,14 @@ public final class GraphDimensionsCalculator {
         laneHeightProperty = new SimpleDoubleProperty(1);
         laneCountProperty = new SimpleIntegerProperty(1);
 
+        metadataCacheSizeProperty = new SimpleLongProperty(NodeMetadataCache.DEFAULT_MAXIMUM_WEIGHT);
+        metadataCacheSizeProperty.addListener((observable, oldValue, newValue) -> {
+            if (centerPointQuery == null) {
+                return;
+            }
+            centerPointQuery.getNodeMetadataCache().setMaximumWeight(newValue.longValue());
+        });
+
         graphProperty = new SimpleObjectProperty<>();
         graphStore.getGfaFileProperty().addListener((observable, oldValue, newValue) -> setGraph(newValue.getGraph()));
 
@@ -242,10 +256,11 @@ public final class GraphDimensionsCalculator {
     void setGraph(final Graph graph) {
         graphProperty.set(graph);
         centerPointQuery = new CenterPointQuery(graph);
+        centerPointQuery.getNodeMetadataCache().setMaximumWeight(metadataCacheSizeProperty.get());
 
-        nodeCountProperty.set(graph.getNodeArrays().length);
+        nodeCountProperty.set(graph.size());
         centerNodeIdProperty.set(1);
-        final int sinkId = graph.getNodeArrays().length - 1;
+        final int sinkId = graph.size() - 1;
         final long sentinelPosition = graph.getRealEndXPosition(sinkId);
         viewPointProperty.set(sentinelPosition / 2);
         viewRadiusProperty.set(DEFAULT_RADIUS * FafospLayerer.LAYER_WIDTH);
@@ -434,6 +449,15 @@ public final class GraphDimensionsCalculator {
         return viewRadiusProperty;
     }
 
+    /**
+     * Returns the property of the maximum number of bytes of node metadata that is cached.
+     *
+     * @return the property of the maximum number of bytes of node metadata that is cached
+     */
+    public LongProperty getMetadataCacheSizeProperty() {
+        return metadataCacheSizeProperty;
+    }
+
     /**
      * Returns the center-point query.
      *
@@ -6,16 +6,13 @@ import javafx.scene.canvas.Canvas;
 import javafx.scene.control.ScrollBar;
 import javafx.scene.layout.Pane;
 import org.dnacronym.hygene.graph.Graph;
-import org.dnacronym.hygene.graph.GraphIterator;
-import org.dnacronym.hygene.graph.SequenceDirection;
+import org.dnacronym.hygene.graph.NodePositionIndex;
 import org.dnacronym.hygene.ui.drawing.HeatMapDrawing;
 
 import javax.inject.Inject;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.ResourceBundle;
 
 
@@ -42,7 +39,7 @@ public final class GraphSliderController implements Initializable {
     @Override
     public void initialize(final URL location, final ResourceBundle resources) {
         graphDimensionsCalculator.getGraphProperty().addListener((observable, oldValue, newValue) -> {
-            final int sentinelId = newValue.getNodeArrays().length - 1;
+            final int sentinelId = newValue.size() - 1;
             graphScrollBar.setMin(1);
             graphScrollBar.setMax(newValue.getRealEndXPosition(sentinelId - 1));
         });
@@ -66,26 +63,38 @@ public final class GraphSliderController implements Initializable {
 
     /**
      * Generate a list of buckets of size {@value BUCKET_COUNT}.
+     * <p>
+     * The positioned nodes are read from the graph's {@link NodePositionIndex} in order, rather than found by
+     * traversing the graph.
      *
      * @param graph the graph which to generate the buckets for
      * @return the list of buckets representing node densities in the graph
      */
     private List<Integer> generateBuckets(final Graph graph) {
-        final Map<Integer, Integer> buckets = new HashMap<>(BUCKET_COUNT);
-
-        final int sinkId = graph.getNodeArrays().length - 1;
+        final int sinkId = graph.size() - 1;
         final long graphWidth = (long) graph.getUnscaledXPosition(sinkId) * 1000 + graph.getLength(sinkId);
         final long bucketSize = Math.round((double) graphWidth / BUCKET_COUNT);
 
-        new GraphIterator(graph).visitAll(SequenceDirection.RIGHT, nodeId -> {
+        final int[] buckets = new int[Math.toIntExact(graphWidth / bucketSize) + 1];
+        final int lastBucket = buckets.length - 1;
+
+        final NodePositionIndex nodePositions = graph.getNodePositions();
+        for (int i = 0; i < nodePositions.size(); i++) {
+            final int nodeId = nodePositions.getNodeId(i);
             final int left = Math.toIntExact(graph.getRealStartXPosition(nodeId) / bucketSize);
             final int right = Math.toIntExact(graph.getRealEndXPosition(nodeId) / bucketSize);
 
-            for (int pos = left; pos <= right; pos++) {
-                buckets.put(pos, buckets.containsKey(pos) ? buckets.get(pos) + 1 : 1);
+            for (int pos = Math.min(left, lastBucket); pos <= Math.min(right, lastBucket); pos++) {
+                buckets[pos]++;
             }
-        });
+        }
 
-        return new ArrayList<>(buckets.values());
+        final List<Integer> bucketList = new ArrayList<>(BUCKET_COUNT);
+        for (final int bucket : buckets) {
+            if (bucket > 0) {
+                bucketList.add(bucket);
+            }
+        }
+        return bucketList;
     }
 }
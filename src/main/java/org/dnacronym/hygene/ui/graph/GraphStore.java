@@ -3,6 +3,8 @@ package org.dnacronym.hygene.ui.graph;
 import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import org.dnacronym.hygene.graph.GraphStorageType;
+import org.dnacronym.hygene.graph.NodeOrdering;
 import org.dnacronym.hygene.parser.GfaFile;
 import org.dnacronym.hygene.parser.GfaParseException;
 import org.dnacronym.hygene.parser.GffFile;
@@ -28,6 +30,8 @@ public final class GraphStore {
 
     private final ObjectProperty<GfaFile> gfaFileProperty;
     private final ObjectProperty<GffFile> gffFileProperty;
+    private final ObjectProperty<GraphStorageType> storageTypeProperty;
+    private final ObjectProperty<NodeOrdering> nodeOrderingProperty;
 
 
     /**
@@ -36,6 +40,8 @@ public final class GraphStore {
     public GraphStore() {
         gfaFileProperty = new SimpleObjectProperty<>();
         gffFileProperty = new SimpleObjectProperty<>();
+        storageTypeProperty = new SimpleObjectProperty<>(GraphStorageType.HEAP);
+        nodeOrderingProperty = new SimpleObjectProperty<>(NodeOrdering.FILE);
 
         getGfaFileProperty().addListener((observable, oldValue, newValue) -> gffFileProperty.set(null));
     }
@@ -43,6 +49,10 @@ public final class GraphStore {
 
     /**
      * Loads a sequence graph into memory.
+     * <p>
+     * If the graph is parsed rather than restored from the cache, it is loaded into the kind of storage in the
+     * {@link #getStorageTypeProperty()}, and its nodes are numbered in the order in the
+     * {@link #getNodeOrderingProperty()}.
      *
      * @param file            {@link File} to load. This should be a {@value GFA_FILE_EXTENSION} file
      * @param progressUpdater a {@link ProgressUpdater} to notify interested parties on progress updates
@@ -51,7 +61,8 @@ public final class GraphStore {
      */
     public void loadGfaFile(final File file, final ProgressUpdater progressUpdater) throws IOException {
         try {
-            final GfaFile gfaFile = new GfaFile(file.getAbsolutePath());
+            final GfaFile gfaFile = new GfaFile(file.getAbsolutePath(), storageTypeProperty.get(),
+                    nodeOrderingProperty.get());
             gfaFile.parse(progressUpdater);
 
             Platform.runLater(() -> gfaFileProperty.set(gfaFile));
@@ -90,6 +101,24 @@ public final class GraphStore {
         return gfaFileProperty;
     }
 
+    /**
+     * Gets the {@link ObjectProperty} that stores the kind of storage newly parsed graphs are loaded into.
+     *
+     * @return the {@link ObjectProperty} that stores the kind of storage newly parsed graphs are loaded into
+     */
+    public ObjectProperty<GraphStorageType> getStorageTypeProperty() {
+        return storageTypeProperty;
+    }
+
+    /**
+     * Gets the {@link ObjectProperty} that stores the order in which the nodes of newly parsed graphs are numbered.
+     *
+     * @return the {@link ObjectProperty} that stores the order in which the nodes of newly parsed graphs are numbered
+     */
+    public ObjectProperty<NodeOrdering> getNodeOrderingProperty() {
+        return nodeOrderingProperty;
+    }
+
     /**
      * Gets the {@link ObjectProperty} that stores the {@link GffFile}.
      *
@@ -1,6 +1,5 @@
 package org.dnacronym.hygene.ui.graph;
 
-import com.google.common.collect.Sets;
 import com.google.common.eventbus.Subscribe;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
@@ -24,10 +23,12 @@ import org.dnacronym.hygene.event.SnapshotButtonWasPressed;
 import org.dnacronym.hygene.graph.Graph;
 import org.dnacronym.hygene.graph.annotation.Annotation;
 import org.dnacronym.hygene.graph.edge.Edge;
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
 import org.dnacronym.hygene.graph.node.AggregateSegment;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.graph.node.Segment;
+import org.dnacronym.hygene.parser.GfaFile;
 import org.dnacronym.hygene.ui.bookmark.BookmarkStore;
 import org.dnacronym.hygene.ui.drawing.EdgeDrawingToolkit;
 import org.dnacronym.hygene.ui.drawing.HighlightType;
@@ -43,7 +44,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 
@@ -87,6 +87,7 @@ public final class GraphVisualizer {
 
     private final ObservableList<GenomePath> genomePaths;
     private final ObservableMap<String, Color> selectedGenomePaths;
+    private GenomeSet selectedGenomes;
 
     private final ObjectProperty<Color> edgeColorProperty;
 
@@ -142,7 +143,12 @@ public final class GraphVisualizer {
 
         genomePaths = FXCollections.observableArrayList(new HashSet<>());
         selectedGenomePaths = FXCollections.observableHashMap();
-        selectedGenomePaths.addListener((MapChangeListener<String, Color>) change -> draw());
+        selectedGenomes = GenomeSet.EMPTY;
+        selectedGenomePaths.addListener((MapChangeListener<String, Color>) change -> {
+            updateSelectedGenomes();
+            draw();
+        });
+        graphStore.getGfaFileProperty().addListener((observable, oldValue, newValue) -> updateSelectedGenomes());
 
         edgeColorProperty = new SimpleObjectProperty<>(DEFAULT_EDGE_COLOR);
         nodeHeightProperty = new SimpleDoubleProperty(DEFAULT_NODE_HEIGHT);
@@ -218,11 +224,13 @@ public final class GraphVisualizer {
         final double nodeY = graphDimensionsCalculator.computeYPosition(node);
         final GfaNode gfaNode = (GfaNode) node;
 
-        if (node.hasMetadata()) {
-            nodeDrawingToolkit.draw(nodeX, nodeY, nodeWidth, node.getColor(), node.getMetadata().getSequence());
-        } else {
-            nodeDrawingToolkit.draw(nodeX, nodeY, nodeWidth, node.getColor(), "");
-        }
+        // Text beyond the width of the canvas is never visible, so no more bases than fit in it are needed
+        final int sequenceWindowLength = nodeDrawingToolkit.computeSequenceWindowLength(
+                Math.min(nodeWidth, canvas.getWidth()));
+        final String sequenceWindow = node.hasMetadata()
+                ? node.getMetadata().getSequencePrefix(sequenceWindowLength)
+                : "";
+        nodeDrawingToolkit.draw(nodeX, nodeY, nodeWidth, node.getColor(), sequenceWindow);
 
         if (node instanceof AggregateSegment) {
             final List<Color> topColors = computeNodeColors(gfaNode.getSegments().get(0));
@@ -249,8 +257,7 @@ public final class GraphVisualizer {
 
         if (gfaNode.hasMetadata()
                 && graphDimensionsCalculator.getRadiusProperty().get() < MAX_SEQUENCE_DRAWING_RADIUS) {
-            final String sequence = gfaNode.getMetadata().getSequence();
-            nodeDrawingToolkit.drawSequence(nodeX, nodeY, nodeWidth, sequence);
+            nodeDrawingToolkit.drawSequence(nodeX, nodeY, nodeWidth, sequenceWindow);
         }
 
         gfaNode.getSegments().forEach(segment -> {
@@ -280,10 +287,8 @@ public final class GraphVisualizer {
                     && segment.getMetadata().getGenomes() != null
                     && !segment.getMetadata().getGenomes().isEmpty()
                     && graphDimensionsCalculator.getRadiusProperty().get() < MAX_PATH_THICKNESS_DRAWING_RADIUS) {
-                for (final String genome : segment.getMetadata().getGenomes()) {
-                    if (selectedGenomePaths.containsKey(genome)) {
-                        nodeColors.add(selectedGenomePaths.get(genome));
-                    }
+                for (final String genome : segment.getMetadata().getGenomes().and(selectedGenomes)) {
+                    nodeColors.add(selectedGenomePaths.get(genome));
                 }
             }
         }
@@ -291,6 +296,16 @@ public final class GraphVisualizer {
         return nodeColors;
     }
 
+    /**
+     * Updates the {@link GenomeSet} of selected genomes, using the genome dictionary of the current {@link GfaFile}.
+     */
+    private void updateSelectedGenomes() {
+        final GfaFile gfaFile = graphStore.getGfaFileProperty().get();
+        selectedGenomes = gfaFile == null
+                ? GenomeSet.EMPTY
+                : gfaFile.getGenomeDictionary().createSet(selectedGenomePaths.keySet());
+    }
+
     /**
      * Creates the correct toolkit for the given node.
      *
@@ -368,8 +383,7 @@ public final class GraphVisualizer {
             edgeColors = Collections.singletonList(HighlightType.HIGHLIGHTED.getColor());
         } else if (edge.getGenomes() != null
                 && graphDimensionsCalculator.getRadiusProperty().get() < MAX_PATH_THICKNESS_DRAWING_RADIUS) {
-            final Set<String> selectedGenomesInEdge
-                    = Sets.intersection(edge.getGenomes(), selectedGenomePaths.keySet());
+            final GenomeSet selectedGenomesInEdge = edge.getGenomes().and(selectedGenomes);
 
             if (selectedGenomesInEdge.isEmpty()) {
                 edgeColors = Collections.singletonList(getEdgeColor());
@@ -104,7 +104,7 @@ public class NodeTooltip {
      * Draws the tip text.
      */
     private void drawTip() {
-        if (!node.hasMetadata() || node.getMetadata().getSequence().length() <= MAX_SEQUENCE_LENGTH) {
+        if (!node.hasMetadata() || node.getMetadata().getSequenceLength() <= MAX_SEQUENCE_LENGTH) {
             return;
         }
 
@@ -127,7 +127,8 @@ public class NodeTooltip {
         }
 
         final Segment segment = node.getSegments().get(0);
-        final String sequence = limitStringAt(segment.getMetadata().getSequence(), MAX_SEQUENCE_LENGTH);
+        final String sequence = limitStringAt(
+                segment.getMetadata().getSequence(0, MAX_SEQUENCE_LENGTH + 1), MAX_SEQUENCE_LENGTH);
 
         graphicsContext.setFill(Color.BLACK);
         graphicsContext.fillText(
@@ -170,11 +171,8 @@ public class NodeTooltip {
         );
         offset += LINE_HEIGHT;
 
-        final int genomeCount = node.getMetadata().getGenomes().size() > MAX_GENOME_COUNT
-                ? MAX_GENOME_COUNT
-                : node.getMetadata().getGenomes().size();
-        node.getMetadata().getGenomes()
-                .subList(0, genomeCount)
+        node.getMetadata().getGenomes().stream()
+                .limit(MAX_GENOME_COUNT)
                 .forEach(genome -> {
                     final FilteredList<GenomePath> possiblePaths = graphVisualizer.getGenomePathsProperty()
                             .filtered(genomePath -> genomePath.getName().equals(genome)
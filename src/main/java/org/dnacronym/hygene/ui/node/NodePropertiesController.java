@@ -24,6 +24,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.dnacronym.hygene.graph.Graph;
 import org.dnacronym.hygene.graph.annotation.Annotation;
+import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Segment;
 import org.dnacronym.hygene.ui.graph.GraphAnnotation;
@@ -43,6 +44,11 @@ import java.util.stream.Collectors;
 @SuppressWarnings("PMD.ExcessiveImports") // not going to fix this
 public final class NodePropertiesController implements Initializable {
     private static final Logger LOGGER = LogManager.getLogger(NodePropertiesController.class);
+    /**
+     * The maximum number of bases shown in the sequence preview.
+     */
+    private static final int SEQUENCE_PREVIEW_LENGTH = 100;
+    private static final String SEQUENCE_PREVIEW_ELLIPSIS = "...";
 
     @Inject
     private GraphVisualizer graphVisualizer;
@@ -156,6 +162,23 @@ public final class NodePropertiesController implements Initializable {
         };
     }
 
+    /**
+     * Returns the start of the sequence of the given {@link NodeMetadata}, for display in the sequence preview.
+     * <p>
+     * Only the bases that are held in memory are shown, so that the sequence is not read from the GFA file. If the
+     * preview is shorter than the sequence, it ends in an ellipsis.
+     *
+     * @param metadata the {@link NodeMetadata} whose sequence to preview
+     * @return the start of the sequence of the given {@link NodeMetadata}
+     */
+    static String getSequencePreview(final NodeMetadata metadata) {
+        final String preview = metadata.getSequencePrefix(SEQUENCE_PREVIEW_LENGTH);
+        if (preview.length() < metadata.getSequenceLength()) {
+            return preview + SEQUENCE_PREVIEW_ELLIPSIS;
+        }
+        return preview;
+    }
+
     /**
      * Updates the fields that describe the properties of the {@link GfaNode}.
      * <p>
@@ -171,7 +194,7 @@ public final class NodePropertiesController implements Initializable {
 
         if (node.hasMetadata()) {
             nodeId.setText(node.getMetadata().getName());
-            sequencePreview.setText(String.valueOf(node.getMetadata().getSequence()));
+            sequencePreview.setText(getSequencePreview(node.getMetadata()));
         } else {
             LOGGER.error("Node " + node.getSegmentIds().toString() + " does not have metadata.");
         }
@@ -10,6 +10,7 @@ import javafx.scene.control.TextFormatter;
 import javafx.scene.control.TitledPane;
 import javafx.scene.layout.GridPane;
 import javafx.util.converter.IntegerStringConverter;
+import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Segment;
 import org.dnacronym.hygene.ui.graph.GraphStore;
@@ -25,6 +26,10 @@ import java.util.ResourceBundle;
  */
 public final class SequenceController implements Initializable {
     private static final int CANVAS_PADDING = 10;
+    /**
+     * The maximum number of bases shown in the text area at a time.
+     */
+    private static final int TEXT_AREA_WINDOW = 10_000;
 
     @Inject
     private SequenceVisualizer sequenceVisualizer;
@@ -46,6 +51,8 @@ public final class SequenceController implements Initializable {
     @FXML
     private TextArea sequenceTextArea;
 
+    private int textAreaOffset;
+
 
     @Override
     public void initialize(final URL location, final ResourceBundle resources) {
@@ -54,9 +61,7 @@ public final class SequenceController implements Initializable {
         setOffset.setTextFormatter(new TextFormatter<>(new IntegerStringConverter()));
         sequenceVisualizer.getOffsetProperty().addListener((observable, oldValue, newValue) -> {
             setOffset.setText(String.valueOf(newValue));
-
-            sequenceTextArea.positionCaret(newValue.intValue());
-            sequenceTextArea.selectPositionCaret(newValue.intValue() + 1);
+            updateTextArea(newValue.intValue());
         });
 
         graphVisualizer.getSelectedSegmentProperty()
@@ -98,12 +103,36 @@ public final class SequenceController implements Initializable {
         setOffset.setPromptText("0 - " + (segment.getSequenceLength() - 1));
 
         if (segment.hasMetadata()) {
-            final String sequence = segment.getMetadata().getSequence();
-            sequenceVisualizer.getSequenceProperty().set(sequence);
-            sequenceTextArea.setText(sequence);
+            sequenceTextArea.clear();
+            sequenceVisualizer.getSequenceProperty().set(segment.getMetadata());
+            updateTextArea(sequenceVisualizer.getOffsetProperty().get());
         }
     }
 
+    /**
+     * Selects the base at the given offset in the text area.
+     * <p>
+     * The text area only shows a window of the sequence, so that long sequences are never read in full. If the base
+     * lies outside of the window, the window is moved to be centered on it.
+     *
+     * @param offset the offset of the base in the sequence
+     */
+    private void updateTextArea(final int offset) {
+        final NodeMetadata metadata = sequenceVisualizer.getSequenceProperty().get();
+        if (metadata == null) {
+            sequenceTextArea.clear();
+            return;
+        }
+
+        if (offset < textAreaOffset || offset >= textAreaOffset + sequenceTextArea.getLength()) {
+            textAreaOffset = Math.max(0, offset - TEXT_AREA_WINDOW / 2);
+            sequenceTextArea.setText(metadata.getSequence(textAreaOffset, TEXT_AREA_WINDOW));
+        }
+
+        sequenceTextArea.positionCaret(offset - textAreaOffset);
+        sequenceTextArea.selectPositionCaret(offset - textAreaOffset + 1);
+    }
+
     /**
      * When the user wants to move by only a single amount.
      *
@@ -166,14 +195,15 @@ public final class SequenceController implements Initializable {
     /**
      * When the user wants to set the offset to the selected base in the text area.
      * <p>
-     * The offset is based on the caret position.
+     * The offset is based on the caret position and the offset of the window shown in the text area.
      *
      * @param actionEvent the {@link ActionEvent}
      * @see TextArea#caretPosition
      */
     @FXML
     void getTextAreaOffsetAction(final ActionEvent actionEvent) {
-        sequenceVisualizer.setOffset(sequenceTextArea.getCaretPosition() - sequenceTextArea.getSelectedText().length());
+        sequenceVisualizer.setOffset(textAreaOffset + sequenceTextArea.getCaretPosition()
+                - sequenceTextArea.getSelectedText().length());
 
         actionEvent.consume();
     }
@@ -198,7 +228,7 @@ public final class SequenceController implements Initializable {
     @FXML
     void goToEndAction(final ActionEvent actionEvent) {
         if (sequenceVisualizer.getSequenceProperty().get() != null) {
-            sequenceVisualizer.setOffset(sequenceVisualizer.getSequenceProperty().get().length() - 1);
+            sequenceVisualizer.setOffset(sequenceVisualizer.getSequenceProperty().get().getSequenceLength() - 1);
         }
 
         actionEvent.consume();
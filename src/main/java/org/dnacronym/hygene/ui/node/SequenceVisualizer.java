@@ -2,15 +2,17 @@ package org.dnacronym.hygene.ui.node;
 
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.dnacronym.hygene.graph.node.Node;
 import org.dnacronym.hygene.ui.graph.RTree;
 
@@ -19,6 +21,9 @@ import java.util.Optional;
 
 /**
  * Visualizer which shows a nice representation of the selected node.
+ * <p>
+ * Only the bases that are on screen are read from the node's {@link NodeMetadata}, together with some bases on either
+ * side of them so that small moves of the offset do not have to read the sequence again.
  */
 public final class SequenceVisualizer {
     private static final double SQUARE_WIDTH = 35;
@@ -33,7 +38,7 @@ public final class SequenceVisualizer {
     private Canvas canvas;
     private GraphicsContext graphicsContext;
 
-    private final StringProperty sequenceProperty;
+    private final ObjectProperty<NodeMetadata> sequenceProperty;
     private final IntegerProperty offsetProperty;
     private final BooleanProperty visibleProperty;
     private final IntegerProperty onScreenBasesProperty;
@@ -41,17 +46,21 @@ public final class SequenceVisualizer {
     private RTree rTree;
     private final IntegerProperty hoveredBaseIdProperty;
 
+    private @Nullable String window;
+    private int windowOffset;
+
 
     /**
      * Create instance of {@link SequenceVisualizer}.
      */
     public SequenceVisualizer() {
-        sequenceProperty = new SimpleStringProperty();
+        sequenceProperty = new SimpleObjectProperty<>();
         offsetProperty = new SimpleIntegerProperty();
         onScreenBasesProperty = new SimpleIntegerProperty();
         hoveredBaseIdProperty = new SimpleIntegerProperty(-1);
 
         sequenceProperty.addListener((observable, oldValue, newValue) -> {
+            window = null;
             if (offsetProperty.get() == 0) {
                 draw(); // force redraw if offset remains unchanged.
             }
@@ -132,7 +141,7 @@ public final class SequenceVisualizer {
      * @param amount amount to increment the offset by
      */
     void incrementOffset(final int amount) {
-        offsetProperty.set(Math.min(offsetProperty.get() + amount, sequenceProperty.get().length() - 1));
+        offsetProperty.set(Math.min(offsetProperty.get() + amount, sequenceProperty.get().getSequenceLength() - 1));
         draw();
     }
 
@@ -150,7 +159,7 @@ public final class SequenceVisualizer {
             return;
         }
 
-        offsetProperty.set(Math.max(0, Math.min(offset, sequenceProperty.get().length() - 1)));
+        offsetProperty.set(Math.max(0, Math.min(offset, sequenceProperty.get().getSequenceLength() - 1)));
     }
 
     /**
@@ -182,29 +191,53 @@ public final class SequenceVisualizer {
                 SQUARE_HEIGHT * 2 + VERTICAL_GAP * 2 + CENTER_OUTLINE_WIDTH,
                 ARC_SIZE, ARC_SIZE);
 
-        int onscreen = 0;
-        graphicsContext.setLineWidth(2);
-        for (int i = offsetProperty.get(); i < sequenceProperty.get().length(); i++, onscreen++) {
-            final double topRightX = canvas.getWidth() / 2 - SQUARE_WIDTH
-                    + (i - offsetProperty.get()) * (SQUARE_WIDTH + HORIZONTAL_GAP);
-            if (topRightX + SQUARE_WIDTH > canvas.getWidth()) {
-                break;
-            }
+        final int offset = offsetProperty.get();
+        final int sequenceLength = sequenceProperty.get().getSequenceLength();
 
-            drawBase(topRightX, i);
+        int windowEnd = offset;
+        while (windowEnd < sequenceLength && getBaseX(windowEnd) + SQUARE_WIDTH <= canvas.getWidth()) {
+            windowEnd++;
+        }
+        int windowStart = offset;
+        while (windowStart > 0 && getBaseX(windowStart - 1) >= HORIZONTAL_GAP) {
+            windowStart--;
         }
 
-        for (int i = offsetProperty.get() - 1; i >= 0; i--, onscreen++) {
-            final double topRightX = canvas.getWidth() / 2 - SQUARE_WIDTH
-                    + (i - offsetProperty.get()) * (SQUARE_WIDTH + HORIZONTAL_GAP);
-            if (topRightX < HORIZONTAL_GAP) {
-                break;
-            }
-
-            drawBase(topRightX, i);
+        final String bases = getWindow(windowStart, windowEnd);
+        graphicsContext.setLineWidth(2);
+        for (int i = windowStart; i < windowEnd; i++) {
+            drawBase(getBaseX(i), i, bases.charAt(i - windowStart));
         }
 
-        onScreenBasesProperty.set(onscreen);
+        onScreenBasesProperty.set(windowEnd - windowStart);
+    }
+
+    /**
+     * Returns the top right x position of the base with the given offset in the sequence on the canvas.
+     *
+     * @param i the base offset in the sequence
+     * @return the top right x position of the base on the canvas
+     */
+    private double getBaseX(final int i) {
+        return canvas.getWidth() / 2 - SQUARE_WIDTH + (i - offsetProperty.get()) * (SQUARE_WIDTH + HORIZONTAL_GAP);
+    }
+
+    /**
+     * Returns the bases of the current sequence between the given offsets.
+     * <p>
+     * If the bases are not in the window that was read last, a new window is read that spans the given range and as
+     * many bases on either side of it.
+     *
+     * @param start the offset of the first base, inclusive
+     * @param end   the offset of the last base, exclusive
+     * @return the bases of the current sequence between the given offsets
+     */
+    private String getWindow(final int start, final int end) {
+        if (window == null || start < windowOffset || end > windowOffset + window.length()) {
+            windowOffset = Math.max(0, start - (end - start));
+            window = sequenceProperty.get().getSequence(windowOffset, (end - start) * 3);
+        }
+        return window.substring(start - windowOffset, end - windowOffset);
     }
 
     /**
@@ -212,12 +245,11 @@ public final class SequenceVisualizer {
      *
      * @param topRightX the top right x position of the base on the canvas
      * @param i         the base offset in the sequence
+     * @param base      the base
      */
-    private void drawBase(final double topRightX, final int i) {
-        final String base = String.valueOf(sequenceProperty.get().charAt(i));
-
-        drawSquare(base, topRightX, VERTICAL_GAP,
-                i == hoveredBaseIdProperty.get() ? Color.PURPLE : Node.baseToColor(base.charAt(0)), Color.BLACK);
+    private void drawBase(final double topRightX, final int i, final char base) {
+        drawSquare(String.valueOf(base), topRightX, VERTICAL_GAP,
+                i == hoveredBaseIdProperty.get() ? Color.PURPLE : Node.baseToColor(base), Color.BLACK);
         drawSquare(String.valueOf(i), topRightX, VERTICAL_GAP * 2 + SQUARE_HEIGHT,
                 i == hoveredBaseIdProperty.get() ? Color.PURPLE : Color.rgb(0, 170, 135), Color.BLACK);
 
@@ -234,11 +266,14 @@ public final class SequenceVisualizer {
     }
 
     /**
-     * Returns the {@link StringProperty} which decides the sequence.
+     * Returns the {@link ObjectProperty} which decides the sequence.
+     * <p>
+     * The sequence is held as the {@link NodeMetadata} of the node, from which only the bases that are on screen are
+     * read.
      *
-     * @return the {@link StringProperty} which decides the sequence
+     * @return the {@link ObjectProperty} which decides the sequence
      */
-    public StringProperty getSequenceProperty() {
+    public ObjectProperty<NodeMetadata> getSequenceProperty() {
         return sequenceProperty;
     }
 
@@ -4,8 +4,17 @@ import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.TextField;
+import javafx.scene.control.TextFormatter;
+import javafx.scene.input.KeyEvent;
+import javafx.util.converter.NumberStringConverter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.dnacronym.hygene.graph.GraphStorageType;
+import org.dnacronym.hygene.graph.NodeOrdering;
+import org.dnacronym.hygene.ui.graph.GraphDimensionsCalculator;
+import org.dnacronym.hygene.ui.graph.GraphStore;
 import org.dnacronym.hygene.ui.graph.GraphVisualizer;
 
 import javax.inject.Inject;
@@ -18,19 +27,39 @@ import java.util.ResourceBundle;
  */
 public final class AdvancedSettingsViewController implements Initializable {
     private static final Logger LOGGER = LogManager.getLogger(AdvancedSettingsViewController.class);
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024;
 
     @Inject
     private Settings settings;
     @Inject
     private GraphVisualizer graphVisualizer;
+    @Inject
+    private GraphDimensionsCalculator graphDimensionsCalculator;
+    @Inject
+    private GraphStore graphStore;
 
     @FXML
     private CheckBox displayLaneBorders;
+    @FXML
+    private TextField metadataCacheSize;
+    @FXML
+    private CheckBox storeGraphOffHeap;
+    @FXML
+    private ChoiceBox<NodeOrdering> nodeOrdering;
 
 
     @Override
     public void initialize(final URL location, final ResourceBundle resources) {
         displayLaneBorders.setSelected(graphVisualizer.getDisplayBordersProperty().get());
+
+        metadataCacheSize.setTextFormatter(new TextFormatter<>(new NumberStringConverter()));
+        metadataCacheSize.setText(String.valueOf(
+                graphDimensionsCalculator.getMetadataCacheSizeProperty().get() / BYTES_PER_MEGABYTE));
+
+        storeGraphOffHeap.setSelected(graphStore.getStorageTypeProperty().get() == GraphStorageType.OFF_HEAP);
+
+        nodeOrdering.getItems().addAll(NodeOrdering.values());
+        nodeOrdering.setValue(graphStore.getNodeOrderingProperty().get());
     }
 
     /**
@@ -46,4 +75,48 @@ public final class AdvancedSettingsViewController implements Initializable {
             LOGGER.info("Displaying lane borders has now been " + (newValue ? "enabled." : "disabled."));
         });
     }
+
+    /**
+     * When user finished editing the metadata cache size {@link TextField}.
+     *
+     * @param keyEvent the {@link KeyEvent}
+     */
+    @FXML
+    void setMetadataCacheSize(final KeyEvent keyEvent) {
+        settings.addRunnable(() -> {
+            final TextField source = (TextField) keyEvent.getSource();
+            final long newValue = Long.parseLong(source.getText().replaceAll("[^\\d]", ""));
+            graphDimensionsCalculator.getMetadataCacheSizeProperty().set(newValue * BYTES_PER_MEGABYTE);
+            LOGGER.info("The metadata cache size has been set to " + newValue + " MB.");
+        });
+    }
+
+    /**
+     * When user interacts with the store graph outside of the heap {@link CheckBox}.
+     *
+     * @param actionEvent the {@link ActionEvent}
+     */
+    @FXML
+    void storeGraphOffHeapClicked(final ActionEvent actionEvent) {
+        settings.addRunnable(() -> {
+            final boolean newValue = ((CheckBox) actionEvent.getSource()).isSelected();
+            graphStore.getStorageTypeProperty().set(newValue ? GraphStorageType.OFF_HEAP : GraphStorageType.HEAP);
+            LOGGER.info("Storing newly parsed graphs outside of the heap has now been "
+                    + (newValue ? "enabled." : "disabled."));
+        });
+    }
+
+    /**
+     * When user changes the order in which nodes are numbered in the {@link ChoiceBox}.
+     *
+     * @param actionEvent the {@link ActionEvent}
+     */
+    @FXML
+    void nodeOrderingChanged(final ActionEvent actionEvent) {
+        settings.addRunnable(() -> {
+            final NodeOrdering newValue = (NodeOrdering) ((ChoiceBox<?>) actionEvent.getSource()).getValue();
+            graphStore.getNodeOrderingProperty().set(newValue);
+            LOGGER.info("The nodes of newly parsed graphs are now numbered in " + newValue + " order.");
+        });
+    }
 }
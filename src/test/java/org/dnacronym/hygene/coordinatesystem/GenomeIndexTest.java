@@ -1,12 +1,17 @@
 package org.dnacronym.hygene.coordinatesystem;
 
+import org.dnacronym.hygene.graph.GraphStorageType;
+import org.dnacronym.hygene.graph.NodeOrdering;
 import org.dnacronym.hygene.parser.GfaFile;
 import org.dnacronym.hygene.parser.GfaParseException;
 import org.dnacronym.hygene.parser.ProgressUpdater;
+import org.dnacronym.hygene.persistence.FileDatabaseDriver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.sql.SQLException;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -18,6 +23,7 @@ import static org.mockito.Mockito.mock;
  */
 class GenomeIndexTest {
     private static final String TEST_GFA_FILE_NAME = "src/test/resources/gfa/dynamic-index.gfa";
+    private static final String UNORDERED_GFA_FILE_NAME = "src/test/resources/gfa/unordered.gfa";
 
     private GenomeIndex genomeIndex;
     private GfaFile gfaFile;
@@ -64,6 +70,35 @@ class GenomeIndexTest {
         assertThat(genomeIndex.getNodeByBase(6)).isEqualTo(6);
     }
 
+    @Test
+    void testUnknownGenome() throws IOException {
+        genomeIndex = new GenomeIndex(gfaFile, "unknown.fasta");
+        genomeIndex.buildIndex(mock(ProgressUpdater.class));
+
+        assertThat(genomeIndex.getNodeByBase(1)).isEqualTo(-1);
+    }
+
+    /**
+     * Tests that segments are mapped to their nodes when the nodes have been renumbered.
+     */
+    @Test
+    void testRenumberedNodes() throws IOException, GfaParseException {
+        try {
+            final GfaFile unorderedGfaFile =
+                    new GfaFile(UNORDERED_GFA_FILE_NAME, GraphStorageType.HEAP, NodeOrdering.TOPOLOGICAL);
+            unorderedGfaFile.parse(mock(ProgressUpdater.class));
+            genomeIndex = new GenomeIndex(unorderedGfaFile, "g1.fasta");
+            genomeIndex.buildIndex(mock(ProgressUpdater.class));
+
+            assertThat(genomeIndex.getNodeByBase(2)).isEqualTo(1);
+            assertThat(genomeIndex.getNodeByBase(3)).isEqualTo(2);
+            assertThat(genomeIndex.getNodeByBase(7)).isEqualTo(3);
+        } finally {
+            Files.deleteIfExists(Paths.get(UNORDERED_GFA_FILE_NAME + FileDatabaseDriver.DB_FILE_EXTENSION));
+            Files.deleteIfExists(Paths.get(UNORDERED_GFA_FILE_NAME + ".hygenecache"));
+        }
+    }
+
     @Test
     void testGetNodeByBaseNoResults() {
         genomeIndex = new GenomeIndex(gfaFile, "g3.fasta");
@@ -0,0 +1,98 @@
+package org.dnacronym.hygene.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link ByteOffsetArray}.
+ */
+final class ByteOffsetArrayTest {
+    @Test
+    void testIsWide() {
+        assertThat(ByteOffsetArray.isWide(UnsignedInteger.MAX_VALUE)).isFalse();
+        assertThat(ByteOffsetArray.isWide(UnsignedInteger.MAX_VALUE + 1)).isTrue();
+    }
+
+    @Test
+    void testNarrowSetAndGet() {
+        final ByteOffsetArray array = new ByteOffsetArray(2, false);
+
+        array.set(1, 3_000_000_000L);
+
+        assertThat(array.isWide()).isFalse();
+        assertThat(array.size()).isEqualTo(2);
+        assertThat(array.get(1)).isEqualTo(3_000_000_000L);
+    }
+
+    @Test
+    void testNarrowSetTooLarge() {
+        final ByteOffsetArray array = new ByteOffsetArray(1, false);
+
+        final Throwable e = catchThrowable(() -> array.set(0, 5_000_000_000L));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testWideSetAndGet() {
+        final ByteOffsetArray array = new ByteOffsetArray(3, true);
+
+        array.set(0, 42);
+        array.set(1, 5_000_000_000L);
+        array.set(2, ByteOffsetArray.MAX_VALUE);
+
+        assertThat(array.isWide()).isTrue();
+        assertThat(array.get(0)).isEqualTo(42);
+        assertThat(array.get(1)).isEqualTo(5_000_000_000L);
+        assertThat(array.get(2)).isEqualTo(ByteOffsetArray.MAX_VALUE);
+    }
+
+    @Test
+    void testWideSetTooLarge() {
+        final ByteOffsetArray array = new ByteOffsetArray(1, true);
+
+        final Throwable e = catchThrowable(() -> array.set(0, ByteOffsetArray.MAX_VALUE + 1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testWideSetNegative() {
+        final ByteOffsetArray array = new ByteOffsetArray(1, true);
+
+        final Throwable e = catchThrowable(() -> array.set(0, -1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testPartsRoundTrip() {
+        final long offset = 0x12_3456_789AL;
+
+        assertThat(ByteOffsetArray.toLong(ByteOffsetArray.getLow(offset), ByteOffsetArray.getHigh(offset)))
+                .isEqualTo(offset);
+    }
+
+    @Test
+    void testCopyOf() {
+        final ByteOffsetArray array = new ByteOffsetArray(2, true);
+        array.set(1, 5_000_000_000L);
+
+        final ByteOffsetArray copy = array.copyOf(4);
+        array.set(1, 7);
+
+        assertThat(copy.size()).isEqualTo(4);
+        assertThat(copy.isWide()).isTrue();
+        assertThat(copy.get(1)).isEqualTo(5_000_000_000L);
+    }
+
+    @Test
+    void testConstructorDifferentLengths() {
+        final Throwable e = catchThrowable(() -> new ByteOffsetArray(new int[2], new byte[3]));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,111 @@
+package org.dnacronym.hygene.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link IntQueue}.
+ */
+final class IntQueueTest {
+    private IntQueue queue;
+
+
+    @BeforeEach
+    void beforeEach() {
+        queue = new IntQueue(2);
+    }
+
+
+    @Test
+    void testInitiallyEmpty() {
+        assertThat(queue.isEmpty()).isTrue();
+        assertThat(queue.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testNegativeCapacity() {
+        final Throwable e = catchThrowable(() -> new IntQueue(-1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testZeroCapacity() {
+        final IntQueue emptyQueue = new IntQueue(0);
+        emptyQueue.add(5);
+
+        assertThat(emptyQueue.remove()).isEqualTo(5);
+    }
+
+    @Test
+    void testAddRemove() {
+        queue.add(7);
+
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.remove()).isEqualTo(7);
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testRemoveEmpty() {
+        final Throwable e = catchThrowable(() -> queue.remove());
+
+        assertThat(e).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void testFirstInFirstOut() {
+        queue.add(3);
+        queue.add(1);
+
+        assertThat(queue.remove()).isEqualTo(3);
+        assertThat(queue.remove()).isEqualTo(1);
+    }
+
+    @Test
+    void testGrow() {
+        for (int i = 0; i < 100; i++) {
+            queue.add(i);
+        }
+
+        assertThat(queue.size()).isEqualTo(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(queue.remove()).isEqualTo(i);
+        }
+    }
+
+    /**
+     * Tests that the order of elements is kept when the queue grows while its elements wrap around the buffer.
+     */
+    @Test
+    void testGrowWrappedAround() {
+        queue.add(0);
+        queue.add(1);
+        queue.remove();
+        queue.add(2);
+        queue.add(3);
+        queue.add(4);
+
+        assertThat(queue.remove()).isEqualTo(1);
+        assertThat(queue.remove()).isEqualTo(2);
+        assertThat(queue.remove()).isEqualTo(3);
+        assertThat(queue.remove()).isEqualTo(4);
+    }
+
+    @Test
+    void testClear() {
+        queue.add(1);
+        queue.add(2);
+        queue.clear();
+
+        assertThat(queue.isEmpty()).isTrue();
+        queue.add(3);
+        assertThat(queue.remove()).isEqualTo(3);
+    }
+}
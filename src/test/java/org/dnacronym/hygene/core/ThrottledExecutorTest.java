@@ -3,6 +3,9 @@ package org.dnacronym.hygene.core;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 
@@ -137,6 +140,26 @@ class ThrottledExecutorTest {
     }
 
 
+    /**
+     * Tests that a running action is left to finish by an executor that does not interrupt its actions.
+     */
+    @Test
+    void testNotInterrupting() throws InterruptedException {
+        final ThrottledExecutor cooperativeExecutor = new ThrottledExecutor(0, Executors.defaultThreadFactory(), false);
+        final CountDownLatch started = new CountDownLatch(1);
+
+        cooperativeExecutor.run(() -> {
+            started.countDown();
+            incrementAfterDelay.run();
+        });
+        started.await();
+        cooperativeExecutor.run(() -> number[0] += 10);
+        cooperativeExecutor.block();
+
+        assertThat(number[0]).isEqualTo(11);
+    }
+
+
     /**
      * Tests that nothing happens when {@link ThrottledExecutor#stop()} is called but {@link
      * ThrottledExecutor#run(Runnable)} is never called.
@@ -0,0 +1,134 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.core.ByteOffsetArray;
+import org.dnacronym.hygene.core.UnsignedInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link CsrGraphStorage}.
+ */
+final class CsrGraphStorageTest {
+    private int[][] nodeArrays;
+    private CsrGraphStorage storage;
+
+
+    @BeforeEach
+    void beforeEach() {
+        nodeArrays = new int[][] {
+                NodeBuilder.start().withOutgoingEdge(1, 0).withOutgoingEdge(2, 0).toArray(),
+                NodeBuilder.start().withByteOffset(10).withSequenceLength(3).withUnscaledXPosition(7)
+                        .withOutgoingEdge(3, UnsignedInteger.fromLong(30)).withIncomingEdge(0, 0).toArray(),
+                NodeBuilder.start().withByteOffset(20).withSequenceLength(5)
+                        .withOutgoingEdge(3, UnsignedInteger.fromLong(40)).withIncomingEdge(0, 0).toArray(),
+                NodeBuilder.start().withIncomingEdge(1, UnsignedInteger.fromLong(30))
+                        .withIncomingEdge(2, UnsignedInteger.fromLong(40)).toArray()
+        };
+        storage = CsrGraphStorage.fromNodeArrays(nodeArrays);
+    }
+
+
+    @Test
+    void testSize() {
+        assertThat(storage.size()).isEqualTo(4);
+    }
+
+    @Test
+    void testEdgeCount() {
+        assertThat(storage.getEdgeCount()).isEqualTo(4);
+    }
+
+    @Test
+    void testNodeData() {
+        assertThat(storage.getByteOffset(2)).isEqualTo(20);
+        assertThat(storage.getSequenceLength(2)).isEqualTo(5);
+        assertThat(storage.getUnscaledXPosition(1)).isEqualTo(7);
+    }
+
+    @Test
+    void testSetUnscaledXPosition() {
+        storage.setUnscaledXPosition(2, 12);
+
+        assertThat(storage.getUnscaledXPosition(2)).isEqualTo(12);
+    }
+
+    @Test
+    void testNeighbourCounts() {
+        assertThat(storage.getNeighbourCount(0, SequenceDirection.RIGHT)).isEqualTo(2);
+        assertThat(storage.getNeighbourCount(0, SequenceDirection.LEFT)).isEqualTo(0);
+        assertThat(storage.getNeighbourCount(3, SequenceDirection.RIGHT)).isEqualTo(0);
+        assertThat(storage.getNeighbourCount(3, SequenceDirection.LEFT)).isEqualTo(2);
+    }
+
+    @Test
+    void testNeighbours() {
+        assertThat(storage.getNeighbour(0, SequenceDirection.RIGHT, 1)).isEqualTo(2);
+        assertThat(storage.getNeighbour(3, SequenceDirection.LEFT, 0)).isEqualTo(1);
+        assertThat(storage.getNeighbour(3, SequenceDirection.LEFT, 1)).isEqualTo(2);
+    }
+
+    @Test
+    void testEdgeByteOffsets() {
+        assertThat(storage.getEdgeByteOffset(1, SequenceDirection.RIGHT, 0)).isEqualTo(30);
+        assertThat(storage.getEdgeByteOffset(3, SequenceDirection.LEFT, 1)).isEqualTo(40);
+    }
+
+    @Test
+    void testGetNodeArrayRoundTrip() {
+        for (int id = 0; id < nodeArrays.length; id++) {
+            assertThat(storage.getNodeArray(id)).isEqualTo(nodeArrays[id]);
+        }
+    }
+
+    @Test
+    void testNarrowByteOffsets() {
+        assertThat(storage.hasWideByteOffsets()).isFalse();
+    }
+
+    @Test
+    void testWideByteOffsets() {
+        final CsrGraphStorage wideStorage = createWideStorage();
+
+        assertThat(wideStorage.hasWideByteOffsets()).isTrue();
+        assertThat(wideStorage.getByteOffset(1)).isEqualTo(5_000_000_000L);
+        assertThat(wideStorage.getEdgeByteOffset(0, SequenceDirection.RIGHT, 0)).isEqualTo(6_000_000_000L);
+        assertThat(wideStorage.getEdgeByteOffset(1, SequenceDirection.LEFT, 0)).isEqualTo(6_000_000_000L);
+    }
+
+    @Test
+    void testGetNodeArrayWideByteOffset() {
+        final Throwable e = catchThrowable(() -> createWideStorage().getNodeArray(1));
+
+        assertThat(e).isInstanceOf(UnsupportedOperationException.class).hasMessageContaining("5000000000");
+    }
+
+    @Test
+    void testGetNodeArrayWideEdgeByteOffset() {
+        final Throwable e = catchThrowable(() -> createWideStorage().getNodeArray(0));
+
+        assertThat(e).isInstanceOf(UnsupportedOperationException.class).hasMessageContaining("6000000000");
+    }
+
+
+    /**
+     * Creates a storage of two nodes with an edge between them, of which the node and edge byte offsets lie beyond
+     * 4 GB.
+     *
+     * @return a {@link CsrGraphStorage} with wide byte offsets
+     */
+    static CsrGraphStorage createWideStorage() {
+        final ByteOffsetArray byteOffsets = new ByteOffsetArray(2, true);
+        byteOffsets.set(1, 5_000_000_000L);
+        final ByteOffsetArray outgoingByteOffsets = new ByteOffsetArray(1, true);
+        outgoingByteOffsets.set(0, 6_000_000_000L);
+        final ByteOffsetArray incomingByteOffsets = outgoingByteOffsets.copyOf(1);
+
+        return new CsrGraphStorage(byteOffsets, new int[] {0, 7}, new int[] {-1, -1},
+                new int[] {0, 1, 1}, new int[] {1}, outgoingByteOffsets,
+                new int[] {0, 0, 1}, new int[] {0}, incomingByteOffsets);
+    }
+}
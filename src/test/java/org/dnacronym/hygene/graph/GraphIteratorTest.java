@@ -423,4 +423,134 @@ final class GraphIteratorTest extends GraphTestBase {
 
         assertThat(depths).containsExactly(0, 1, 1, 2, 3);
     }
+
+
+    /*
+     * Primitive variants
+     */
+
+    @Test
+    void testVisitDirectNeighbourIdsEither() {
+        createGraph(1);
+        addOutgoingEdges(new int[][] {{0, 1}, {0, 2}});
+        addIncomingEdges(new int[][] {{3, 0}});
+
+        final List<Integer> neighbours = new ArrayList<>();
+        new GraphIterator(getGraph()).visitDirectNeighbourIds(0, neighbours::add);
+
+        assertThat(neighbours).containsExactlyInAnyOrder(1, 2, 3);
+    }
+
+    @Test
+    void testVisitDirectNeighbourIdsWhileCatchAction() {
+        createGraph(1);
+        addOutgoingEdges(new int[][] {{0, 30}, {0, 70}, {0, 57}});
+
+        final int[] exitNeighbour = {-1};
+        new GraphIterator(getGraph()).visitDirectNeighbourIdsWhile(0, SequenceDirection.RIGHT,
+                neighbour -> neighbour != 70,
+                neighbour -> exitNeighbour[0] = neighbour,
+                ignored -> {
+                }
+        );
+
+        assertThat(exitNeighbour[0]).isEqualTo(70);
+    }
+
+    @Test
+    void testVisitIndirectNeighbourIdsWithoutDuplicates() {
+        createGraph(7);
+        addEdges(new int[][] {{0, 2}, {1, 2}, {2, 3}, {2, 4}, {3, 5}, {4, 5}, {2, 5}});
+
+        final List<Integer> neighbours = new ArrayList<>();
+        new GraphIterator(getGraph()).visitIndirectNeighbourIds(2, SequenceDirection.RIGHT, neighbours::add);
+
+        assertThat(neighbours).containsExactlyInAnyOrder(2, 3, 4, 5);
+    }
+
+    /**
+     * Tests that the queue of a traversal keeps its order when it has to grow.
+     */
+    @Test
+    void testVisitAllIdsBreadthFirst() {
+        final int width = 40;
+        createGraph(width + 2);
+        for (int i = 1; i <= width; i++) {
+            addEdges(new int[][] {{0, i}, {i, width + 1}});
+        }
+
+        final List<Integer> nodes = new ArrayList<>();
+        new GraphIterator(getGraph()).visitAllIds(SequenceDirection.RIGHT, nodes::add);
+
+        assertThat(nodes).hasSize(width + 2);
+        assertThat(nodes.get(0)).isEqualTo(0);
+        assertThat(nodes.get(width + 1)).isEqualTo(width + 1);
+    }
+
+    @Test
+    void testVisitAllIdsWithinRangeDepthZigzag() {
+        createGraph(7);
+        addEdges(new int[][] {{0, 2}, {1, 2}, {2, 3}, {2, 4}, {3, 6}, {4, 6}, {5, 6}});
+
+        final int[] depths = new int[7];
+        new GraphIterator(getGraph()).visitAllIdsWithinRange(SequenceDirection.RIGHT, 99,
+                (depth, node) -> depths[node] = depth);
+
+        assertThat(depths).containsExactly(0, 2, 1, 2, 2, 4, 3);
+    }
+
+
+    /*
+     * Reuse of visited nodes
+     */
+
+    @Test
+    void testVisitIndirectNeighbourIdsRepeated() {
+        createGraph(7);
+        addEdges(new int[][] {{0, 2}, {1, 2}, {2, 3}, {2, 4}, {3, 5}, {4, 5}, {2, 5}});
+        final GraphIterator iterator = new GraphIterator(getGraph());
+
+        final List<Integer> first = new ArrayList<>();
+        iterator.visitIndirectNeighbourIds(2, SequenceDirection.RIGHT, first::add);
+        final List<Integer> second = new ArrayList<>();
+        iterator.visitIndirectNeighbourIds(2, SequenceDirection.RIGHT, second::add);
+
+        assertThat(first).containsExactlyInAnyOrder(2, 3, 4, 5);
+        assertThat(second).containsExactlyElementsOf(first);
+    }
+
+    @Test
+    void testVisitIndirectNeighbourIdsWithinRangeRepeated() {
+        createGraph(8);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {1, 3}, {1, 4}, {2, 5}, {2, 6}, {3, 7}, {4, 7}, {5, 7}, {6, 7}});
+        final GraphIterator iterator = new GraphIterator(getGraph());
+
+        final List<Integer> first = new ArrayList<>();
+        iterator.visitIndirectNeighbourIdsWithinRange(6, 1, (depth, node) -> first.add(node));
+        final List<Integer> second = new ArrayList<>();
+        iterator.visitIndirectNeighbourIdsWithinRange(6, 2, (depth, node) -> second.add(node));
+
+        assertThat(first).containsExactlyInAnyOrder(2, 6, 7);
+        assertThat(second).containsExactlyInAnyOrder(0, 2, 3, 4, 5, 6, 7);
+    }
+
+    /**
+     * Tests that a traversal started from within another traversal does not interfere with it.
+     */
+    @Test
+    void testVisitIndirectNeighbourIdsNested() {
+        createGraph(4);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {1, 3}, {2, 3}});
+        final GraphIterator iterator = new GraphIterator(getGraph());
+
+        final List<Integer> outer = new ArrayList<>();
+        final List<Integer> inner = new ArrayList<>();
+        iterator.visitIndirectNeighbourIds(0, SequenceDirection.RIGHT, node -> {
+            outer.add(node);
+            iterator.visitIndirectNeighbourIds(node, SequenceDirection.RIGHT, inner::add);
+        });
+
+        assertThat(outer).containsExactlyInAnyOrder(0, 1, 2, 3);
+        assertThat(inner).containsExactlyInAnyOrder(0, 1, 2, 3, 1, 3, 2, 3, 3);
+    }
 }
@@ -0,0 +1,113 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link NodePositionIndex}.
+ */
+final class NodePositionIndexTest {
+    private NodePositionIndex index;
+
+
+    @BeforeEach
+    void beforeEach() {
+        index = NodePositionIndex.fromUnsorted(
+                new long[] {2000, 1000, 4000, 2000, 3000},
+                new int[] {1, 2, 3, 4, 5},
+                1500);
+    }
+
+
+    @Test
+    void testSortsByPositionThenId() {
+        assertThat(index.size()).isEqualTo(5);
+        assertThat(index.getPosition(0)).isEqualTo(1000);
+        assertThat(index.getNodeId(0)).isEqualTo(2);
+        assertThat(index.getNodeId(1)).isEqualTo(1);
+        assertThat(index.getNodeId(2)).isEqualTo(4);
+        assertThat(index.getNodeId(4)).isEqualTo(3);
+    }
+
+    @Test
+    void testSortLarge() {
+        final int size = 10_000;
+        final long[] positions = new long[size];
+        final int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = (i * 7919L) % 101;
+            ids[i] = i;
+        }
+
+        final NodePositionIndex largeIndex = NodePositionIndex.fromUnsorted(positions, ids, 0);
+
+        for (int i = 1; i < size; i++) {
+            assertThat(largeIndex.getPosition(i)).isGreaterThanOrEqualTo(largeIndex.getPosition(i - 1));
+            if (largeIndex.getPosition(i) == largeIndex.getPosition(i - 1)) {
+                assertThat(largeIndex.getNodeId(i)).isGreaterThan(largeIndex.getNodeId(i - 1));
+            }
+        }
+    }
+
+    @Test
+    void testGetNodeAtPosition() {
+        assertThat(index.getNodeAtPosition(1000)).isEqualTo(2);
+        assertThat(index.getNodeAtPosition(1999)).isEqualTo(2);
+        assertThat(index.getNodeAtPosition(2500)).isEqualTo(4);
+        assertThat(index.getNodeAtPosition(10_000)).isEqualTo(3);
+    }
+
+    @Test
+    void testGetNodeAtPositionBeforeFirst() {
+        assertThat(index.getNodeAtPosition(0)).isEqualTo(2);
+    }
+
+    @Test
+    void testGetNodeAtPositionEmpty() {
+        final NodePositionIndex emptyIndex = new NodePositionIndex(new long[0], new int[0], 0);
+
+        final Throwable e = catchThrowable(() -> emptyIndex.getNodeAtPosition(0));
+
+        assertThat(e).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testBounds() {
+        assertThat(index.getLowerBound(2000)).isEqualTo(1);
+        assertThat(index.getUpperBound(2000)).isEqualTo(3);
+        assertThat(index.getLowerBound(0)).isEqualTo(0);
+        assertThat(index.getUpperBound(5000)).isEqualTo(5);
+    }
+
+    @Test
+    void testVisitNodesInRange() {
+        final List<Integer> nodes = new ArrayList<>();
+
+        index.visitNodesInRange(2600, 3100, id -> id == 4 ? 1500 : 500, nodes::add);
+
+        assertThat(nodes).containsExactly(4, 5);
+    }
+
+    @Test
+    void testVisitNodesInRangeNone() {
+        final List<Integer> nodes = new ArrayList<>();
+
+        index.visitNodesInRange(5000, 6000, id -> 500, nodes::add);
+
+        assertThat(nodes).isEmpty();
+    }
+
+    @Test
+    void testDifferentLengths() {
+        final Throwable e = catchThrowable(() -> new NodePositionIndex(new long[1], new int[2], 0));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+}
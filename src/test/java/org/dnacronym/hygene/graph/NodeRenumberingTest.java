@@ -0,0 +1,220 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.core.UnsignedInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link NodeRenumbering}.
+ */
+final class NodeRenumberingTest extends GraphTestBase {
+    @Test
+    void testConstructorNotAPermutation() {
+        final Throwable e = catchThrowable(() -> new NodeRenumbering(new int[] {0, 1, 1}));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testConstructorOutOfRange() {
+        final Throwable e = catchThrowable(() -> new NodeRenumbering(new int[] {0, 3, 1}));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testGetIdIsInverse() {
+        final NodeRenumbering renumbering = new NodeRenumbering(new int[] {0, 3, 1, 2, 4});
+
+        for (int id = 0; id < renumbering.size(); id++) {
+            assertThat(renumbering.getId(renumbering.getOriginalId(id))).isEqualTo(id);
+        }
+    }
+
+    @Test
+    void testFromTopologicalOrder() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 3}, {3, 2}, {2, 1}, {1, 4}});
+
+        final NodeRenumbering renumbering = NodeRenumbering.fromTopologicalOrder(
+                TopologicalOrder.compute(getGraph()));
+
+        assertThat(renumbering.getOriginalId(0)).isEqualTo(0);
+        assertThat(renumbering.getOriginalId(1)).isEqualTo(3);
+        assertThat(renumbering.getOriginalId(2)).isEqualTo(2);
+        assertThat(renumbering.getOriginalId(3)).isEqualTo(1);
+        assertThat(renumbering.getOriginalId(4)).isEqualTo(4);
+    }
+
+    /**
+     * Tests that nodes outside of the order come after the ordered nodes, and that the sink keeps its identifier.
+     */
+    @Test
+    void testFromTopologicalOrderWithCycle() {
+        createGraph(6);
+        addEdges(new int[][] {{0, 2}, {2, 1}, {1, 2}, {0, 4}, {4, 3}, {1, 5}, {3, 5}});
+
+        final NodeRenumbering renumbering = NodeRenumbering.fromTopologicalOrder(
+                TopologicalOrder.compute(getGraph()));
+
+        assertThat(renumbering.getOriginalId(1)).isEqualTo(4);
+        assertThat(renumbering.getOriginalId(2)).isEqualTo(3);
+        assertThat(renumbering.getOriginalId(3)).isEqualTo(1);
+        assertThat(renumbering.getOriginalId(4)).isEqualTo(2);
+        assertThat(renumbering.getOriginalId(5)).isEqualTo(5);
+    }
+
+    @Test
+    void testFromNodePositions() {
+        final NodePositionIndex nodePositions = new NodePositionIndex(
+                new long[] {10, 20, 20, 30}, new int[] {2, 1, 3, 4}, 5);
+
+        final NodeRenumbering renumbering = NodeRenumbering.fromNodePositions(nodePositions, 5);
+
+        assertThat(renumbering.getOriginalId(1)).isEqualTo(2);
+        assertThat(renumbering.getOriginalId(2)).isEqualTo(1);
+        assertThat(renumbering.getOriginalId(3)).isEqualTo(3);
+        assertThat(renumbering.getOriginalId(4)).isEqualTo(4);
+    }
+
+    @Test
+    void testFromNodePositionsEmpty() {
+        final NodeRenumbering renumbering = NodeRenumbering.fromNodePositions(
+                new NodePositionIndex(new long[0], new int[0], 0), 0);
+
+        assertThat(renumbering.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testRenumberStorage() {
+        final int[][] nodeArrays = new int[][] {
+                NodeBuilder.start().withOutgoingEdge(2, UnsignedInteger.fromLong(10)).toArray(),
+                NodeBuilder.start().withByteOffset(50).withSequenceLength(3).withUnscaledXPosition(9)
+                        .withIncomingEdge(2, UnsignedInteger.fromLong(20))
+                        .withOutgoingEdge(3, UnsignedInteger.fromLong(30)).toArray(),
+                NodeBuilder.start().withByteOffset(40).withSequenceLength(7)
+                        .withIncomingEdge(0, UnsignedInteger.fromLong(10))
+                        .withOutgoingEdge(1, UnsignedInteger.fromLong(20)).toArray(),
+                NodeBuilder.start().withIncomingEdge(1, UnsignedInteger.fromLong(30)).toArray()
+        };
+        final NodeRenumbering renumbering = new NodeRenumbering(new int[] {0, 2, 1, 3});
+
+        final CsrGraphStorage storage = renumbering.renumber(CsrGraphStorage.fromNodeArrays(nodeArrays));
+
+        assertThat(storage.getByteOffset(1)).isEqualTo(40);
+        assertThat(storage.getSequenceLength(1)).isEqualTo(7);
+        assertThat(storage.getByteOffset(2)).isEqualTo(50);
+        assertThat(storage.getUnscaledXPosition(2)).isEqualTo(9);
+        assertThat(storage.getNeighbour(0, SequenceDirection.RIGHT, 0)).isEqualTo(1);
+        assertThat(storage.getNeighbour(1, SequenceDirection.RIGHT, 0)).isEqualTo(2);
+        assertThat(storage.getEdgeByteOffset(1, SequenceDirection.RIGHT, 0)).isEqualTo(20);
+        assertThat(storage.getNeighbour(2, SequenceDirection.LEFT, 0)).isEqualTo(1);
+        assertThat(storage.getNeighbour(3, SequenceDirection.LEFT, 0)).isEqualTo(2);
+        assertThat(storage.getEdgeByteOffset(3, SequenceDirection.LEFT, 0)).isEqualTo(30);
+    }
+
+    @Test
+    void testRenumberStorageInPlace() {
+        final CsrGraphStorage storage = CsrGraphStorage.fromNodeArrays(new int[][] {
+                NodeBuilder.start().withOutgoingEdge(2, UnsignedInteger.fromLong(10)).toArray(),
+                NodeBuilder.start().withByteOffset(50).withIncomingEdge(2, UnsignedInteger.fromLong(20)).toArray(),
+                NodeBuilder.start().withByteOffset(40).withIncomingEdge(0, UnsignedInteger.fromLong(10))
+                        .withOutgoingEdge(1, UnsignedInteger.fromLong(20)).toArray()
+        });
+        final NodeRenumbering renumbering = new NodeRenumbering(new int[] {0, 2, 1});
+
+        final GraphStorage renumbered = renumbering.renumberInPlace(storage);
+
+        assertThat(renumbered).isSameAs(storage);
+        assertThat(storage.getByteOffset(1)).isEqualTo(40);
+        assertThat(storage.getNeighbour(0, SequenceDirection.RIGHT, 0)).isEqualTo(1);
+        assertThat(storage.getNeighbour(1, SequenceDirection.RIGHT, 0)).isEqualTo(2);
+        assertThat(storage.getEdgeByteOffset(2, SequenceDirection.LEFT, 0)).isEqualTo(20);
+    }
+
+    /**
+     * Tests that renumbering heap and off-heap storage in place gives the same result as copying it, for a
+     * renumbering with several cycles.
+     */
+    @Test
+    void testRenumberInPlaceEqualsCopy() {
+        final int size = 50;
+        final int[][] nodeArrays = new int[size][];
+        for (int id = 0; id < size; id++) {
+            final NodeBuilder node = NodeBuilder.start().withByteOffset(id * 10L).withSequenceLength(id);
+            for (final int from : new int[] {id - 7, id - 1}) {
+                if (from >= 0) {
+                    node.withIncomingEdge(from, from * size + id);
+                }
+            }
+            for (final int to : new int[] {id + 1, id + 7}) {
+                if (to < size) {
+                    node.withOutgoingEdge(to, id * size + to);
+                }
+            }
+            nodeArrays[id] = node.toArray();
+        }
+        final int[] originalIds = new int[size];
+        for (int id = 0; id < size; id++) {
+            originalIds[id] = id * 17 % size;
+        }
+        final NodeRenumbering renumbering = new NodeRenumbering(originalIds);
+
+        final CsrGraphStorage copy = renumbering.renumber(CsrGraphStorage.fromNodeArrays(nodeArrays));
+        final GraphStorage heap = renumbering.renumberInPlace(CsrGraphStorage.fromNodeArrays(nodeArrays));
+        final GraphStorage offHeap = renumbering.renumberInPlace(
+                OffHeapGraphStorage.copyOf(CsrGraphStorage.fromNodeArrays(nodeArrays)));
+
+        assertThat(offHeap).isInstanceOf(OffHeapGraphStorage.class);
+        for (int id = 0; id < size; id++) {
+            assertThat(heap.getNodeArray(id)).containsExactly(copy.getNodeArray(id));
+            assertThat(offHeap.getNodeArray(id)).containsExactly(copy.getNodeArray(id));
+        }
+    }
+
+    @Test
+    void testRenumberStorageWrongSize() {
+        final NodeRenumbering renumbering = new NodeRenumbering(new int[] {0, 1});
+
+        final Throwable e = catchThrowable(() -> renumbering.renumber(CsrGraphStorage.fromNodeArrays(new int[][] {})));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Tests that nodes with equal positions are ordered by their new identifiers.
+     */
+    @Test
+    void testRenumberNodePositions() {
+        final NodePositionIndex nodePositions = new NodePositionIndex(
+                new long[] {10, 20, 20}, new int[] {3, 1, 2}, 5);
+        final NodeRenumbering renumbering = new NodeRenumbering(new int[] {0, 2, 1, 3});
+
+        final NodePositionIndex renumbered = renumbering.renumber(nodePositions);
+
+        assertThat(renumbered.size()).isEqualTo(3);
+        assertThat(renumbered.getMaxSpan()).isEqualTo(5);
+        assertThat(renumbered.getNodeId(0)).isEqualTo(3);
+        assertThat(renumbered.getNodeId(1)).isEqualTo(1);
+        assertThat(renumbered.getNodeId(2)).isEqualTo(2);
+        assertThat(renumbered.getPosition(2)).isEqualTo(20);
+    }
+
+    @Test
+    void testRenumberTopologicalOrder() {
+        createGraph(4);
+        addEdges(new int[][] {{0, 2}, {2, 1}, {1, 3}});
+        final TopologicalOrder topologicalOrder = TopologicalOrder.compute(getGraph());
+        final NodeRenumbering renumbering = NodeRenumbering.fromTopologicalOrder(topologicalOrder);
+
+        final TopologicalOrder renumbered = renumbering.renumber(topologicalOrder);
+
+        for (int rank = 0; rank < renumbered.size(); rank++) {
+            assertThat(renumbered.getNodeId(rank)).isEqualTo(rank);
+            assertThat(renumbered.getRank(rank)).isEqualTo(rank);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.dnacronym.hygene.graph;
+
+import org.dnacronym.hygene.core.UnsignedInteger;
+import org.dnacronym.hygene.parser.GfaFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+
+
+/**
+ * Unit tests for {@link OffHeapGraphStorage}.
+ */
+final class OffHeapGraphStorageTest {
+    private int[][] nodeArrays;
+    private OffHeapGraphStorage storage;
+
+
+    @BeforeEach
+    void beforeEach() {
+        nodeArrays = new int[][] {
+                NodeBuilder.start().withOutgoingEdge(1, 0).withOutgoingEdge(2, 0).toArray(),
+                NodeBuilder.start().withByteOffset(10).withSequenceLength(3).withUnscaledXPosition(7)
+                        .withOutgoingEdge(3, UnsignedInteger.fromLong(30)).withIncomingEdge(0, 0).toArray(),
+                NodeBuilder.start().withByteOffset(3_000_000_000L).withSequenceLength(5)
+                        .withOutgoingEdge(3, UnsignedInteger.fromLong(40)).withIncomingEdge(0, 0).toArray(),
+                NodeBuilder.start().withIncomingEdge(1, UnsignedInteger.fromLong(30))
+                        .withIncomingEdge(2, UnsignedInteger.fromLong(40)).toArray()
+        };
+        storage = OffHeapGraphStorage.copyOf(CsrGraphStorage.fromNodeArrays(nodeArrays));
+    }
+
+
+    @Test
+    void testSize() {
+        assertThat(storage.size()).isEqualTo(4);
+    }
+
+    @Test
+    void testEdgeCount() {
+        assertThat(storage.getEdgeCount()).isEqualTo(4);
+    }
+
+    @Test
+    void testNodeData() {
+        assertThat(storage.getByteOffset(1)).isEqualTo(10);
+        assertThat(storage.getByteOffset(2)).isEqualTo(3_000_000_000L);
+        assertThat(storage.getSequenceLength(2)).isEqualTo(5);
+        assertThat(storage.getUnscaledXPosition(1)).isEqualTo(7);
+    }
+
+    @Test
+    void testSetUnscaledXPosition() {
+        storage.setUnscaledXPosition(2, 12);
+
+        assertThat(storage.getUnscaledXPosition(2)).isEqualTo(12);
+    }
+
+    @Test
+    void testNeighbours() {
+        assertThat(storage.getNeighbourCount(0, SequenceDirection.RIGHT)).isEqualTo(2);
+        assertThat(storage.getNeighbourCount(0, SequenceDirection.LEFT)).isEqualTo(0);
+        assertThat(storage.getNeighbour(0, SequenceDirection.RIGHT, 1)).isEqualTo(2);
+        assertThat(storage.getNeighbour(3, SequenceDirection.LEFT, 1)).isEqualTo(2);
+    }
+
+    @Test
+    void testEdgeByteOffsets() {
+        assertThat(storage.getEdgeByteOffset(1, SequenceDirection.RIGHT, 0)).isEqualTo(30);
+        assertThat(storage.getEdgeByteOffset(3, SequenceDirection.LEFT, 1)).isEqualTo(40);
+    }
+
+    @Test
+    void testGetNodeArrayRoundTrip() {
+        for (int id = 0; id < nodeArrays.length; id++) {
+            assertThat(storage.getNodeArray(id)).isEqualTo(nodeArrays[id]);
+        }
+    }
+
+    @Test
+    void testIteratorReadsThroughStorage() {
+        final Graph graph = new Graph(storage, mock(GfaFile.class));
+        final List<Integer> visited = new ArrayList<>();
+
+        new GraphIterator(graph).visitAll(SequenceDirection.RIGHT, visited::add);
+
+        assertThat(visited).containsExactly(0, 1, 2, 3);
+    }
+
+    @Test
+    void testCopyOfWideByteOffsets() {
+        final OffHeapGraphStorage wideStorage = OffHeapGraphStorage.copyOf(CsrGraphStorageTest.createWideStorage());
+
+        assertThat(storage.hasWideByteOffsets()).isFalse();
+        assertThat(wideStorage.hasWideByteOffsets()).isTrue();
+        assertThat(wideStorage.getByteOffset(1)).isEqualTo(5_000_000_000L);
+        assertThat(wideStorage.getSequenceLength(1)).isEqualTo(7);
+        assertThat(wideStorage.getEdgeByteOffset(0, SequenceDirection.RIGHT, 0)).isEqualTo(6_000_000_000L);
+        assertThat(wideStorage.getEdgeByteOffset(1, SequenceDirection.LEFT, 0)).isEqualTo(6_000_000_000L);
+    }
+
+    @Test
+    void testGetNodeArrayWideByteOffset() {
+        final OffHeapGraphStorage wideStorage = OffHeapGraphStorage.copyOf(CsrGraphStorageTest.createWideStorage());
+
+        final Throwable e = catchThrowable(() -> wideStorage.getNodeArray(1));
+
+        assertThat(e).isInstanceOf(UnsupportedOperationException.class).hasMessageContaining("5000000000");
+    }
+}
@@ -3,6 +3,7 @@ package org.dnacronym.hygene.graph;
 import org.dnacronym.hygene.graph.edge.DummyEdge;
 import org.dnacronym.hygene.graph.edge.Edge;
 import org.dnacronym.hygene.graph.edge.Link;
+import org.dnacronym.hygene.graph.metadata.GenomeDictionary;
 import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.dnacronym.hygene.graph.node.DummyNode;
 import org.dnacronym.hygene.graph.node.Node;
@@ -27,10 +28,13 @@ class PathCalculatorTest {
 
     private PathCalculator pathCalculator;
 
+    private GenomeDictionary genomeDictionary;
+
 
     @BeforeEach
     void setUp() {
         subgraph = new Subgraph();
+        genomeDictionary = new GenomeDictionary();
 
         pathCalculator = new PathCalculator();
     }
@@ -49,10 +53,10 @@ class PathCalculatorTest {
         final Link e24 = connectNodes(segment2, segment4);
         final Link e34 = connectNodes(segment3, segment4);
 
-        segment1.setMetadata(new NodeMetadata("-", "-", Arrays.asList("a", "b", "c", "d")));
-        segment2.setMetadata(new NodeMetadata("-", "-", Arrays.asList("b")));
-        segment3.setMetadata(new NodeMetadata("-", "-", Arrays.asList("c", "d")));
-        segment4.setMetadata(new NodeMetadata("-", "-", Arrays.asList("a", "b", "c", "d")));
+        segment1.setMetadata(new NodeMetadata("-", "-", genomeDictionary.createSet(Arrays.asList("a", "b", "c", "d"))));
+        segment2.setMetadata(new NodeMetadata("-", "-", genomeDictionary.createSet(Arrays.asList("b"))));
+        segment3.setMetadata(new NodeMetadata("-", "-", genomeDictionary.createSet(Arrays.asList("c", "d"))));
+        segment4.setMetadata(new NodeMetadata("-", "-", genomeDictionary.createSet(Arrays.asList("a", "b", "c", "d"))));
 
         subgraph.addAll(Arrays.asList(segment1, segment2, segment3, segment4));
 
@@ -94,10 +98,10 @@ class PathCalculatorTest {
         final Edge d2s4 = connectNodes(dummy2, segment4, originals3s4);
 
 
-        segment1.setMetadata(new NodeMetadata("-", "-", Arrays.asList("a", "b", "c", "d")));
-        segment2.setMetadata(new NodeMetadata("-", "-", Arrays.asList("b")));
-        segment3.setMetadata(new NodeMetadata("-", "-", Arrays.asList("c", "d")));
-        segment4.setMetadata(new NodeMetadata("-", "-", Arrays.asList("a", "b", "c", "d")));
+        segment1.setMetadata(new NodeMetadata("-", "-", genomeDictionary.createSet(Arrays.asList("a", "b", "c", "d"))));
+        segment2.setMetadata(new NodeMetadata("-", "-", genomeDictionary.createSet(Arrays.asList("b"))));
+        segment3.setMetadata(new NodeMetadata("-", "-", genomeDictionary.createSet(Arrays.asList("c", "d"))));
+        segment4.setMetadata(new NodeMetadata("-", "-", genomeDictionary.createSet(Arrays.asList("a", "b", "c", "d"))));
 
         subgraph.addAll(Arrays.asList(segment1, segment2, segment3, segment4, dummy1, dummy2));
 
@@ -138,9 +142,9 @@ class PathCalculatorTest {
         final DummyEdge d2s3 = connectNodes(dummy2, segment3, originals2s3);
 
 
-        segment1.setMetadata(new NodeMetadata("1", "-", Arrays.asList("a", "b", "c")));
-        segment2.setMetadata(new NodeMetadata("2", "-", Arrays.asList("b", "c")));
-        segment3.setMetadata(new NodeMetadata("3", "-", Arrays.asList("a", "b", "c")));
+        segment1.setMetadata(new NodeMetadata("1", "-", genomeDictionary.createSet(Arrays.asList("a", "b", "c"))));
+        segment2.setMetadata(new NodeMetadata("2", "-", genomeDictionary.createSet(Arrays.asList("b", "c"))));
+        segment3.setMetadata(new NodeMetadata("3", "-", genomeDictionary.createSet(Arrays.asList("a", "b", "c"))));
 
         subgraph.addAll(Arrays.asList(segment1, segment2, segment3, dummy1, dummy2));
 
@@ -176,9 +180,9 @@ class PathCalculatorTest {
         final Link s1s2 = connectNodes(segment1, segment2);
         final Link s2s3 = connectNodes(segment2, segment3);
 
-        segment1.setMetadata(new NodeMetadata("1", "-", Arrays.asList("a", "b", "c")));
-        segment2.setMetadata(new NodeMetadata("2", "-", Arrays.asList("b", "c")));
-        segment3.setMetadata(new NodeMetadata("2", "-", Arrays.asList("a", "b", "c")));
+        segment1.setMetadata(new NodeMetadata("1", "-", genomeDictionary.createSet(Arrays.asList("a", "b", "c"))));
+        segment2.setMetadata(new NodeMetadata("2", "-", genomeDictionary.createSet(Arrays.asList("b", "c"))));
+        segment3.setMetadata(new NodeMetadata("2", "-", genomeDictionary.createSet(Arrays.asList("a", "b", "c"))));
 
         subgraph.addAll(Arrays.asList(segment1, segment2, segment3, dummy1, dummy2));
 
@@ -0,0 +1,84 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link TopologicalOrder}.
+ */
+final class TopologicalOrderTest extends GraphTestBase {
+    @Test
+    void testConstructorTooManyNodes() {
+        final Throwable e = catchThrowable(() -> new TopologicalOrder(new int[2], new int[1]));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testComputeEmpty() {
+        final TopologicalOrder order = TopologicalOrder.compute(new Graph(new int[][] {}, null));
+
+        assertThat(order.size()).isEqualTo(0);
+        assertThat(order.getNodeCount()).isEqualTo(0);
+    }
+
+    @Test
+    void testComputeChain() {
+        createGraph(4);
+        addEdges(new int[][] {{0, 2}, {2, 1}, {1, 3}});
+
+        final TopologicalOrder order = TopologicalOrder.compute(getGraph());
+
+        assertThat(order.size()).isEqualTo(4);
+        assertThat(order.getNodeId(0)).isEqualTo(0);
+        assertThat(order.getNodeId(1)).isEqualTo(2);
+        assertThat(order.getNodeId(2)).isEqualTo(1);
+        assertThat(order.getNodeId(3)).isEqualTo(3);
+    }
+
+    @Test
+    void testComputeDiamond() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {1, 3}, {2, 3}, {1, 2}, {3, 4}});
+
+        final TopologicalOrder order = TopologicalOrder.compute(getGraph());
+
+        assertThat(order.size()).isEqualTo(5);
+        assertThat(order.getRank(1)).isLessThan(order.getRank(2));
+        assertThat(order.getRank(2)).isLessThan(order.getRank(3));
+        assertThat(order.getRank(3)).isLessThan(order.getRank(4));
+    }
+
+    @Test
+    void testComputeRanksAreInverse() {
+        createGraph(6);
+        addEdges(new int[][] {{0, 1}, {0, 2}, {2, 3}, {1, 4}, {3, 4}, {4, 5}});
+
+        final TopologicalOrder order = TopologicalOrder.compute(getGraph());
+
+        for (int rank = 0; rank < order.size(); rank++) {
+            assertThat(order.getRank(order.getNodeId(rank))).isEqualTo(rank);
+        }
+    }
+
+    /**
+     * Tests that nodes in a cycle, and the nodes to the right of them, are not part of the order.
+     */
+    @Test
+    void testComputeCycle() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 2}, {3, 4}});
+
+        final TopologicalOrder order = TopologicalOrder.compute(getGraph());
+
+        assertThat(order.size()).isEqualTo(2);
+        assertThat(order.getNodeCount()).isEqualTo(5);
+        assertThat(order.getRank(1)).isEqualTo(1);
+        assertThat(order.getRank(2)).isEqualTo(TopologicalOrder.UNORDERED);
+        assertThat(order.getRank(3)).isEqualTo(TopologicalOrder.UNORDERED);
+        assertThat(order.getRank(4)).isEqualTo(TopologicalOrder.UNORDERED);
+    }
+}
@@ -0,0 +1,54 @@
+package org.dnacronym.hygene.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link VisitedSet}.
+ */
+final class VisitedSetTest {
+    private VisitedSet visitedSet;
+
+
+    @BeforeEach
+    void beforeEach() {
+        visitedSet = new VisitedSet(5);
+    }
+
+
+    @Test
+    void testInitiallyEmpty() {
+        for (int id = 0; id < 5; id++) {
+            assertThat(visitedSet.contains(id)).isFalse();
+        }
+    }
+
+    @Test
+    void testAdd() {
+        assertThat(visitedSet.add(3)).isTrue();
+
+        assertThat(visitedSet.contains(3)).isTrue();
+        assertThat(visitedSet.contains(2)).isFalse();
+    }
+
+    @Test
+    void testAddTwice() {
+        visitedSet.add(3);
+
+        assertThat(visitedSet.add(3)).isFalse();
+    }
+
+    @Test
+    void testClear() {
+        visitedSet.add(1);
+        visitedSet.add(4);
+        visitedSet.clear();
+
+        assertThat(visitedSet.contains(1)).isFalse();
+        assertThat(visitedSet.contains(4)).isFalse();
+        assertThat(visitedSet.add(1)).isTrue();
+    }
+}
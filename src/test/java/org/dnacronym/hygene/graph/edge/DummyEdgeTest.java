@@ -2,6 +2,8 @@ package org.dnacronym.hygene.graph.edge;
 
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
+import org.dnacronym.hygene.graph.metadata.GenomeDictionary;
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
 import org.dnacronym.hygene.graph.node.DummyNode;
 import org.dnacronym.hygene.graph.node.GfaNode;
 import org.dnacronym.hygene.graph.node.Node;
@@ -9,8 +11,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -45,14 +45,14 @@ final class DummyEdgeTest extends EdgeTest {
 
     @Test
     void testGetImportance() {
-        Set<String> originalGenomes = new HashSet<>(Arrays.asList("a", "b", "c"));
+        GenomeSet originalGenomes = new GenomeDictionary().createSet(Arrays.asList("a", "b", "c"));
         originalEdge.setGenomes(originalGenomes);
         assertThat(dummyEdge.getImportance()).isEqualTo(3);
     }
 
     @Test
     void testInGenome() {
-        Set<String> originalGenomes = new HashSet<>(Arrays.asList("a", "b"));
+        GenomeSet originalGenomes = new GenomeDictionary().createSet(Arrays.asList("a", "b"));
         originalEdge.setGenomes(originalGenomes);
         assertThat(dummyEdge.inGenome("a")).isTrue();
     }
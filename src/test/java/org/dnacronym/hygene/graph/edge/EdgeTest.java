@@ -1,12 +1,12 @@
 package org.dnacronym.hygene.graph.edge;
 
+import org.dnacronym.hygene.graph.metadata.GenomeDictionary;
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
 import org.dnacronym.hygene.graph.node.Node;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -19,14 +19,14 @@ abstract class EdgeTest {
     private Edge edge;
     private Node from;
     private Node to;
-    private Set<String> genomes;
+    private GenomeSet genomes;
 
 
     @BeforeEach
     void setUp() {
         from = mock(Node.class);
         to = mock(Node.class);
-        genomes = new HashSet<>(Arrays.asList("a", "b", "c"));
+        genomes = new GenomeDictionary().createSet(Arrays.asList("a", "b", "c"));
     }
 
 
@@ -60,7 +60,7 @@ abstract class EdgeTest {
 
     @Test
     void testGetImportantEmptyCase() {
-        edge.setGenomes(new HashSet<>());
+        edge.setGenomes(GenomeSet.EMPTY);
         assertThat(edge.getImportance()).isEqualTo(1);
     }
 
@@ -0,0 +1,126 @@
+package org.dnacronym.hygene.graph.layout;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dnacronym.hygene.core.ByteOffsetArray;
+import org.dnacronym.hygene.graph.CsrGraphStorage;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.NodePositionIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Benchmarks {@link Fafosp#horizontalParallel()} against {@link Fafosp#horizontal()}.
+ * <p>
+ * This benchmark is excluded from the default test run. Run it with {@code gradle junitPlatformTest -Pbenchmark}.
+ */
+@Tag("benchmark")
+final class FafospBenchmarkTest {
+    private static final Logger LOGGER = LogManager.getLogger(FafospBenchmarkTest.class);
+    private static final int NODE_COUNT = 10_000_000;
+    private static final int BUBBLE_WIDTH = 4;
+    private static final int RUNS = 3;
+
+
+    @Test
+    void testBubbleChain() {
+        final Graph graph = new Graph(createBubbleChain(), null);
+        final Fafosp fafosp = new Fafosp(graph);
+
+        long sequentialTime = Long.MAX_VALUE;
+        long parallelTime = Long.MAX_VALUE;
+        NodePositionIndex sequentialPositions = null;
+        NodePositionIndex parallelPositions = null;
+
+        for (int run = 0; run < RUNS; run++) {
+            final long sequentialStart = System.nanoTime();
+            sequentialPositions = fafosp.horizontal();
+            sequentialTime = Math.min(sequentialTime, System.nanoTime() - sequentialStart);
+
+            final long parallelStart = System.nanoTime();
+            parallelPositions = fafosp.horizontalParallel();
+            parallelTime = Math.min(parallelTime, System.nanoTime() - parallelStart);
+        }
+
+        LOGGER.info("Sequential FAFOSP took " + sequentialTime / 1_000_000 + " ms, parallel FAFOSP took "
+                + parallelTime / 1_000_000 + " ms for " + NODE_COUNT + " nodes");
+
+        assertThat(parallelPositions.size()).isEqualTo(sequentialPositions.size()).isEqualTo(NODE_COUNT - 1);
+        for (int i = 0; i < sequentialPositions.size(); i++) {
+            assertThat(parallelPositions.getNodeId(i)).isEqualTo(sequentialPositions.getNodeId(i));
+            assertThat(parallelPositions.getPosition(i)).isEqualTo(sequentialPositions.getPosition(i));
+        }
+    }
+
+
+    /**
+     * Creates a chain of bubbles, resembling a genome graph, in which each bubble consists of a node followed by
+     * {@value BUBBLE_WIDTH} alternative nodes that all lead to the first node of the next bubble.
+     *
+     * @return the storage of a chain of bubbles
+     */
+    private CsrGraphStorage createBubbleChain() {
+        final int sink = NODE_COUNT - 1;
+        final int bubbleSize = BUBBLE_WIDTH + 1;
+        final int[] froms = new int[2 * NODE_COUNT];
+        final int[] tos = new int[2 * NODE_COUNT];
+        int edgeCount = 0;
+
+        froms[edgeCount] = 0;
+        tos[edgeCount++] = 1;
+        for (int id = 1; id < sink; id++) {
+            if ((id - 1) % bubbleSize == 0) {
+                for (int alternative = id + 1; alternative <= Math.min(id + BUBBLE_WIDTH, sink); alternative++) {
+                    froms[edgeCount] = id;
+                    tos[edgeCount++] = alternative;
+                }
+            } else {
+                froms[edgeCount] = id;
+                tos[edgeCount++] = Math.min(id + bubbleSize - (id - 1) % bubbleSize, sink);
+            }
+        }
+
+        final int[] sequenceLengths = new int[NODE_COUNT];
+        for (int id = 0; id < NODE_COUNT; id++) {
+            sequenceLengths[id] = (int) (id * 7919L % 3000);
+        }
+
+        final int[] outgoingStarts = new int[NODE_COUNT + 1];
+        final int[] outgoingNeighbours = new int[edgeCount];
+        fillColumn(froms, tos, edgeCount, outgoingStarts, outgoingNeighbours);
+        final int[] incomingStarts = new int[NODE_COUNT + 1];
+        final int[] incomingNeighbours = new int[edgeCount];
+        fillColumn(tos, froms, edgeCount, incomingStarts, incomingNeighbours);
+
+        return new CsrGraphStorage(new ByteOffsetArray(NODE_COUNT, false), sequenceLengths, new int[NODE_COUNT],
+                outgoingStarts, outgoingNeighbours, new ByteOffsetArray(edgeCount, false),
+                incomingStarts, incomingNeighbours, new ByteOffsetArray(edgeCount, false));
+    }
+
+    /**
+     * Sorts the given edges by the node they belong to into a start and a neighbour column.
+     *
+     * @param owners     the node each edge belongs to
+     * @param neighbours the neighbour each edge leads to
+     * @param edgeCount  the number of edges
+     * @param starts     the start column to fill, of length node count plus one
+     * @param column     the neighbour column to fill, of length edge count
+     */
+    private void fillColumn(final int[] owners, final int[] neighbours, final int edgeCount, final int[] starts,
+                            final int[] column) {
+        for (int i = 0; i < edgeCount; i++) {
+            starts[owners[i] + 1]++;
+        }
+        for (int id = 0; id < NODE_COUNT; id++) {
+            starts[id + 1] += starts[id];
+        }
+
+        final int[] fill = new int[NODE_COUNT];
+        for (int i = 0; i < edgeCount; i++) {
+            column[starts[owners[i]] + fill[owners[i]]++] = neighbours[i];
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package org.dnacronym.hygene.graph.layout;
 
 import org.dnacronym.hygene.graph.GraphTestBase;
+import org.dnacronym.hygene.graph.NodePositionIndex;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 
@@ -116,4 +122,94 @@ final class FafospTest extends GraphTestBase {
         assertThat(getGraph().getUnscaledXPosition(0)).isEqualTo(0);
         assertThat(getGraph().getUnscaledXPosition(1)).isEqualTo(2147485);
     }
+
+
+    /*
+     * horizontalParallel
+     */
+
+    @Test
+    void testParallelDiamondShape() {
+        createGraph(6);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {1, 3}, {2, 4}, {3, 4}, {4, 5}});
+        setSequenceLengths(new int[][] {{1, 700}, {2, 500}, {3, 1400}, {4, 1200}});
+
+        new Fafosp(getGraph()).horizontalParallel();
+
+        assertThat(getGraph().getUnscaledXPosition(1)).isEqualTo(2);
+        assertThat(getGraph().getUnscaledXPosition(2)).isEqualTo(4);
+        assertThat(getGraph().getUnscaledXPosition(3)).isEqualTo(4);
+        assertThat(getGraph().getUnscaledXPosition(4)).isEqualTo(7);
+    }
+
+    @Test
+    void testParallelInsertionBubble() {
+        createGraph(5);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {1, 3}, {2, 4}, {3, 2}});
+        setSequenceLengths(new int[][] {{1, 300}, {2, 500}, {3, 700}});
+
+        new Fafosp(getGraph()).horizontalParallel();
+
+        assertThat(getGraph().getUnscaledXPosition(1)).isEqualTo(2);
+        assertThat(getGraph().getUnscaledXPosition(2)).isEqualTo(6);
+        assertThat(getGraph().getUnscaledXPosition(3)).isEqualTo(4);
+    }
+
+    /**
+     * Tests that nodes in a cycle, and the nodes to the right of them, are not positioned.
+     */
+    @Test
+    void testParallelCycle() {
+        createGraph(6);
+        addEdges(new int[][] {{0, 1}, {1, 2}, {2, 3}, {3, 2}, {3, 4}, {1, 5}, {4, 5}});
+
+        final NodePositionIndex positions = new Fafosp(getGraph()).horizontalParallel();
+
+        assertThat(positions.size()).isEqualTo(1);
+        assertThat(positions.getNodeId(0)).isEqualTo(1);
+    }
+
+    /**
+     * Tests that the parallel implementation gives the same positions as the sequential one for a graph that is
+     * large enough to have nodes positioned by different threads.
+     */
+    @Test
+    void testParallelMatchesSequential() {
+        final int size = 3000;
+        final Random random = new Random(42);
+        createGraph(size);
+
+        final List<int[]> edges = new ArrayList<>();
+        for (int id = 1; id < size; id++) {
+            final int leftNeighbourCount = 1 + random.nextInt(3);
+            for (int i = 0; i < leftNeighbourCount; i++) {
+                edges.add(new int[] {Math.max(0, id - 1 - random.nextInt(20)), id});
+            }
+        }
+        // A cycle leaves a part of the graph unpositioned
+        edges.add(new int[] {size / 2, size / 2 + 1});
+        edges.add(new int[] {size / 2 + 1, size / 2});
+        addEdges(edges.toArray(new int[edges.size()][]));
+
+        final int[][] sequenceLengths = new int[size][];
+        for (int id = 0; id < size; id++) {
+            sequenceLengths[id] = new int[] {id, random.nextInt(5000)};
+        }
+        setSequenceLengths(sequenceLengths);
+
+        final NodePositionIndex expected = new Fafosp(getGraph()).horizontal();
+        final int[] expectedXPositions = new int[size];
+        Arrays.setAll(expectedXPositions, getGraph()::getUnscaledXPosition);
+
+        final NodePositionIndex actual = new Fafosp(getGraph()).horizontalParallel();
+        final int[] actualXPositions = new int[size];
+        Arrays.setAll(actualXPositions, getGraph()::getUnscaledXPosition);
+
+        assertThat(actualXPositions).containsExactly(expectedXPositions);
+        assertThat(actual.size()).isEqualTo(expected.size()).isLessThan(size - 1);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.getNodeId(i)).isEqualTo(expected.getNodeId(i));
+            assertThat(actual.getPosition(i)).isEqualTo(expected.getPosition(i));
+        }
+    }
 }
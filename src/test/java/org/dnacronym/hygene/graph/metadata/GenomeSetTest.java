@@ -0,0 +1,214 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link GenomeSet}.
+ */
+final class GenomeSetTest {
+    private GenomeDictionary dictionary;
+
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new GenomeDictionary();
+    }
+
+
+    @Test
+    void testCreateSetContainsGenomes() {
+        final GenomeSet genomes = dictionary.createSet(Arrays.asList("set-a", "set-b"));
+
+        assertThat(genomes).containsExactlyInAnyOrder("set-a", "set-b");
+        assertThat(genomes.contains("set-c")).isFalse();
+    }
+
+    @Test
+    void testCreateSetIgnoresDuplicates() {
+        final GenomeSet genomes = dictionary.createSet(Arrays.asList("set-a", "set-a", "set-b"));
+
+        assertThat(genomes).hasSize(2);
+    }
+
+    @Test
+    void testCreateSetOfOwnSetReturnsSameInstance() {
+        final GenomeSet genomes = dictionary.createSet(Collections.singletonList("set-a"));
+
+        assertThat(dictionary.createSet(genomes)).isSameAs(genomes);
+    }
+
+    @Test
+    void testCreateSetOfOtherSetReturnsNewInstance() {
+        final GenomeSet genomes = new GenomeDictionary().createSet(Collections.singletonList("set-a"));
+
+        final GenomeSet copy = dictionary.createSet(genomes);
+
+        assertThat(copy).isNotSameAs(genomes).containsExactly("set-a");
+        assertThat(copy.getDictionary()).isSameAs(dictionary);
+    }
+
+    /**
+     * Tests that each dictionary assigns its own ids, starting from zero.
+     */
+    @Test
+    void testSeparateDictionariesAssignOwnIds() {
+        final GenomeDictionary other = new GenomeDictionary();
+        dictionary.createSet(Arrays.asList("set-a", "set-b"));
+
+        other.createSet(Collections.singletonList("set-b"));
+
+        assertThat(dictionary.getId("set-b")).isEqualTo(1);
+        assertThat(other.getId("set-b")).isEqualTo(0);
+        assertThat(other.getId("set-a")).isEqualTo(-1);
+    }
+
+    @Test
+    void testEmpty() {
+        assertThat(GenomeSet.EMPTY).isEmpty();
+        assertThat(dictionary.createSet(Collections.emptyList())).isEmpty();
+    }
+
+    @Test
+    void testContainsNonString() {
+        assertThat(dictionary.createSet(Collections.singletonList("1")).contains(1)).isFalse();
+    }
+
+    @Test
+    void testContainsId() {
+        final GenomeSet genomes = dictionary.createSet(Collections.singletonList("set-a"));
+
+        assertThat(genomes.containsId(dictionary.getId("set-a"))).isTrue();
+        assertThat(genomes.containsId(-1)).isFalse();
+    }
+
+    @Test
+    void testIntersects() {
+        final GenomeSet left = dictionary.createSet(Arrays.asList("set-a", "set-b"));
+
+        assertThat(left.intersects(dictionary.createSet(Arrays.asList("set-b", "set-c")))).isTrue();
+        assertThat(left.intersects(dictionary.createSet(Collections.singletonList("set-c")))).isFalse();
+    }
+
+    @Test
+    void testAnd() {
+        final GenomeSet left = dictionary.createSet(Arrays.asList("set-a", "set-b"));
+        final GenomeSet right = dictionary.createSet(Arrays.asList("set-b", "set-c"));
+
+        assertThat(left.and(right)).containsExactly("set-b");
+    }
+
+    @Test
+    void testOr() {
+        final GenomeSet left = dictionary.createSet(Arrays.asList("set-a", "set-b"));
+        final GenomeSet right = dictionary.createSet(Arrays.asList("set-b", "set-c"));
+
+        assertThat(left.or(right)).containsExactlyInAnyOrder("set-a", "set-b", "set-c");
+    }
+
+    @Test
+    void testAndNot() {
+        final GenomeSet left = dictionary.createSet(Arrays.asList("set-a", "set-b"));
+        final GenomeSet right = dictionary.createSet(Arrays.asList("set-b", "set-c"));
+
+        assertThat(left.andNot(right)).containsExactly("set-a");
+    }
+
+    @Test
+    void testCombineWithEmpty() {
+        final GenomeSet genomes = dictionary.createSet(Collections.singletonList("set-a"));
+
+        assertThat(GenomeSet.EMPTY.or(genomes)).containsExactly("set-a");
+        assertThat(GenomeSet.EMPTY.or(genomes).getDictionary()).isSameAs(dictionary);
+        assertThat(genomes.intersects(GenomeSet.EMPTY)).isFalse();
+    }
+
+    @Test
+    void testCombineDifferentDictionaries() {
+        final GenomeSet left = dictionary.createSet(Collections.singletonList("set-a"));
+        final GenomeSet right = new GenomeDictionary().createSet(Collections.singletonList("set-a"));
+
+        final Throwable e = catchThrowable(() -> left.or(right));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testIntersectsDifferentDictionaries() {
+        final GenomeSet left = dictionary.createSet(Collections.singletonList("set-a"));
+        final GenomeSet right = new GenomeDictionary().createSet(Collections.singletonList("set-a"));
+
+        final Throwable e = catchThrowable(() -> left.intersects(right));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Tests that operations on sets spanning several words agree with those on ordinary sets.
+     */
+    @Test
+    void testManyGenomes() {
+        final List<String> all = new ArrayList<>();
+        final List<String> even = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            all.add("set-many-" + i);
+            if (i % 2 == 0) {
+                even.add("set-many-" + i);
+            }
+        }
+        final GenomeSet evens = dictionary.createSet(even);
+        final GenomeSet firstHalf = dictionary.createSet(all.subList(0, 100));
+
+        assertThat(evens).hasSize(100);
+        assertThat(evens.and(firstHalf)).hasSize(50);
+        assertThat(evens.or(firstHalf)).hasSize(150);
+        assertThat(firstHalf.andNot(evens)).hasSize(50).allMatch(genome -> !evens.contains(genome));
+    }
+
+    @Test
+    void testEqualsOrdinarySet() {
+        final GenomeSet genomes = dictionary.createSet(Arrays.asList("set-a", "set-b"));
+
+        assertThat(genomes).isEqualTo(new HashSet<>(Arrays.asList("set-b", "set-a")));
+        assertThat(genomes.hashCode()).isEqualTo(new HashSet<>(Arrays.asList("set-a", "set-b")).hashCode());
+    }
+
+    @Test
+    void testIteratorPastEnd() {
+        final GenomeSet genomes = dictionary.createSet(Collections.singletonList("set-a"));
+        final Iterator<String> iterator = genomes.iterator();
+        iterator.next();
+
+        final Throwable e = catchThrowable(iterator::next);
+
+        assertThat(e).isInstanceOf(NoSuchElementException.class);
+    }
+
+    /**
+     * Tests that the size of a set depends on the highest id in it, rather than on the number of genomes in it.
+     */
+    @Test
+    void testEstimateSize() {
+        final List<String> genomes = new ArrayList<>();
+        for (int i = 0; i < 128; i++) {
+            genomes.add("set-size-" + i);
+        }
+        final GenomeSet all = dictionary.createSet(genomes);
+        final GenomeSet last = dictionary.createSet(Collections.singletonList("set-size-127"));
+
+        assertThat(all.estimateSize()).isGreaterThan(GenomeSet.EMPTY.estimateSize());
+        assertThat(all.estimateSize()).isEqualTo(last.estimateSize());
+    }
+}
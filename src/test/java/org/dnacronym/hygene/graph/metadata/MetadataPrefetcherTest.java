@@ -0,0 +1,134 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import org.dnacronym.hygene.event.LayoutDoneEvent;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.Subgraph;
+import org.dnacronym.hygene.graph.node.Segment;
+import org.dnacronym.hygene.parser.GfaFile;
+import org.dnacronym.hygene.parser.GfaParseException;
+import org.dnacronym.hygene.parser.ProgressUpdater;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link MetadataPrefetcher}.
+ */
+final class MetadataPrefetcherTest {
+    private static final String TEST_GRAPH_FILE = "src/test/resources/gfa/simple.gfa";
+    private static final int VIEW_RADIUS = 1000;
+
+    private Graph graph;
+    private NodeMetadataCache cache;
+    private MetadataPrefetcher prefetcher;
+
+
+    @BeforeEach
+    void beforeEach() throws GfaParseException {
+        final GfaFile gfaFile = new GfaFile(TEST_GRAPH_FILE);
+        graph = gfaFile.parse(ProgressUpdater.DUMMY);
+        cache = new NodeMetadataCache(gfaFile);
+        prefetcher = new MetadataPrefetcher(graph, cache);
+    }
+
+
+    @Test
+    void testConstructorNegativeBudget() {
+        final Throwable e = catchThrowable(() -> new MetadataPrefetcher(graph, cache, -1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testFirstViewDoesNotPrefetch() {
+        prefetcher.viewChanged(viewPointLeftOf(2), VIEW_RADIUS);
+        prefetcher.getPrefetchExecutor().block();
+
+        assertThat(cache.getPrefetchedCount()).isEqualTo(0);
+    }
+
+    @Test
+    void testPanRight() {
+        prefetcher.viewChanged(viewPointLeftOf(2) - 10, VIEW_RADIUS);
+        prefetcher.viewChanged(viewPointLeftOf(2), VIEW_RADIUS);
+        prefetcher.getPrefetchExecutor().block();
+
+        assertThat(cache.contains(2)).isTrue();
+        assertThat(cache.contains(1)).isFalse();
+        assertThat(cache.getPrefetchedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testPanLeft() {
+        prefetcher.viewChanged(viewPointRightOf(1) + 10, VIEW_RADIUS);
+        prefetcher.viewChanged(viewPointRightOf(1), VIEW_RADIUS);
+        prefetcher.getPrefetchExecutor().block();
+
+        assertThat(cache.contains(1)).isTrue();
+        assertThat(cache.contains(2)).isFalse();
+    }
+
+    /**
+     * Tests that nothing is prefetched if the view moved more than its width, since that is not a pan.
+     */
+    @Test
+    void testJumpDoesNotPrefetch() {
+        prefetcher.viewChanged(viewPointLeftOf(2) - 2 * VIEW_RADIUS, VIEW_RADIUS);
+        prefetcher.viewChanged(viewPointLeftOf(2), VIEW_RADIUS);
+        prefetcher.getPrefetchExecutor().block();
+
+        assertThat(cache.getPrefetchedCount()).isEqualTo(0);
+    }
+
+    @Test
+    void testZeroBudget() {
+        prefetcher = new MetadataPrefetcher(graph, cache, 0);
+
+        prefetcher.viewChanged(viewPointLeftOf(2) - 10, VIEW_RADIUS);
+        prefetcher.viewChanged(viewPointLeftOf(2), VIEW_RADIUS);
+        prefetcher.getPrefetchExecutor().block();
+
+        assertThat(cache.getPrefetchedCount()).isEqualTo(0);
+    }
+
+    @Test
+    void testPrefetchedMetadataIsUsed() {
+        prefetcher.viewChanged(viewPointLeftOf(2) - 10, VIEW_RADIUS);
+        prefetcher.viewChanged(viewPointLeftOf(2), VIEW_RADIUS);
+        prefetcher.getPrefetchExecutor().block();
+
+        final Subgraph subgraph = new Subgraph();
+        final Segment segment = new Segment(2, graph.getByteOffset(2), graph.getSequenceLength(2));
+        subgraph.add(segment);
+        cache.layoutDone(new LayoutDoneEvent(subgraph));
+        cache.getRetrievalExecutor().block();
+
+        assertThat(segment.hasMetadata()).isTrue();
+        assertThat(cache.getUsedPrefetchedCount()).isEqualTo(1);
+        assertThat(cache.getStats().missCount()).isEqualTo(0);
+    }
+
+
+    /**
+     * Returns the view point at which the right edge of the view lies just left of the given node.
+     *
+     * @param nodeId the id of a node
+     * @return the view point at which the right edge of the view lies just left of the given node
+     */
+    private long viewPointLeftOf(final int nodeId) {
+        return graph.getRealStartXPosition(nodeId) - 1 - VIEW_RADIUS / 2;
+    }
+
+    /**
+     * Returns the view point at which the left edge of the view lies just right of the given node.
+     *
+     * @param nodeId the id of a node
+     * @return the view point at which the left edge of the view lies just right of the given node
+     */
+    private long viewPointRightOf(final int nodeId) {
+        return graph.getRealEndXPosition(nodeId) + 1 + VIEW_RADIUS / 2;
+    }
+}
@@ -1,5 +1,6 @@
 package org.dnacronym.hygene.graph.metadata;
 
+import com.google.common.base.Strings;
 import org.dnacronym.hygene.core.HygeneEventBus;
 import org.dnacronym.hygene.event.CenterPointQueryChangeEvent;
 import org.dnacronym.hygene.event.LayoutDoneEvent;
@@ -21,8 +22,10 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
@@ -72,7 +75,7 @@ final class NodeMetadataCacheTest {
         cache.layoutDone(new LayoutDoneEvent(subgraph));
         cache.getRetrievalExecutor().block();
 
-        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture());
+        verify(parser).parseLazyNodeMetadata(eq(gfaFile), captor.capture());
         assertThat(captor.getValue()).isEmpty();
     }
 
@@ -85,7 +88,7 @@ final class NodeMetadataCacheTest {
         cache.layoutDone(new LayoutDoneEvent(subgraph));
         cache.getRetrievalExecutor().block();
 
-        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture());
+        verify(parser).parseLazyNodeMetadata(eq(gfaFile), captor.capture());
         assertThat(captor.getValue().keySet()).containsExactly(2);
         assertThat(captor.getValue().values()).containsExactly(69L);
     }
@@ -101,11 +104,29 @@ final class NodeMetadataCacheTest {
         cache.layoutDone(new LayoutDoneEvent(subgraph));
         cache.getRetrievalExecutor().block();
 
-        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture());
+        verify(parser).parseLazyNodeMetadata(eq(gfaFile), captor.capture());
         assertThat(captor.getValue().keySet()).containsExactly(1, 2);
         assertThat(captor.getValue().values()).containsExactly(40L, 69L);
     }
 
+    /**
+     * Tests that metadata is retrieved for the last layout, even if the retrieval for an earlier layout is running.
+     */
+    @Test
+    void testSuccessiveLayouts() {
+        final Subgraph first = new Subgraph();
+        first.add(new Segment(1, 40, 5));
+        final Subgraph second = new Subgraph();
+        final Segment segment = new Segment(2, 66, 6);
+        second.add(segment);
+
+        cache.layoutDone(new LayoutDoneEvent(first));
+        cache.layoutDone(new LayoutDoneEvent(second));
+        cache.getRetrievalExecutor().block();
+
+        assertThat(segment.hasMetadata()).isTrue();
+    }
+
     @Test
     void testLargeRadius() {
         final CenterPointQuery cpq = mock(CenterPointQuery.class);
@@ -159,10 +180,125 @@ final class NodeMetadataCacheTest {
         cache.layoutDone(new LayoutDoneEvent(subgraph));
         cache.getRetrievalExecutor().block();
 
-        verify(parser).parseNodeMetadata(eq(gfaFile), captor.capture());
+        verify(parser).parseLazyNodeMetadata(eq(gfaFile), captor.capture());
         assertThat(captor.getValue()).isEmpty();
     }
 
+    @Test
+    void testStats() {
+        final Subgraph subgraph = createSubgraph(new Segment(1, 38, 5));
+
+        cache.layoutDone(new LayoutDoneEvent(subgraph));
+        cache.getRetrievalExecutor().block();
+        cache.layoutDone(new LayoutDoneEvent(createSubgraph(new Segment(1, 38, 5))));
+        cache.getRetrievalExecutor().block();
+
+        assertThat(cache.getStats().missCount()).isEqualTo(1);
+        assertThat(cache.getStats().hitCount()).isEqualTo(1);
+        assertThat(cache.getStats().evictionCount()).isEqualTo(0);
+        assertThat(cache.getWeight()).isPositive();
+    }
+
+    /**
+     * Tests that metadata that does not fit in the cache is evicted, and is therefore retrieved again.
+     *
+     * @throws MetadataParseException if the metadata could not be parsed
+     */
+    @Test
+    void testEviction() throws MetadataParseException {
+        cache.setMaximumWeight(1);
+        final Subgraph subgraph = createSubgraph(new Segment(1, 38, 5));
+
+        cache.layoutDone(new LayoutDoneEvent(subgraph));
+        cache.getRetrievalExecutor().block();
+        reset(parser);
+        cache.layoutDone(new LayoutDoneEvent(createSubgraph(new Segment(1, 38, 5))));
+        cache.getRetrievalExecutor().block();
+
+        verify(parser).parseLazyNodeMetadata(eq(gfaFile), captor.capture());
+        assertThat(captor.getValue().keySet()).containsExactly(1);
+        assertThat(cache.getStats().evictionCount()).isEqualTo(2);
+        assertThat(cache.getWeight()).isEqualTo(0);
+    }
+
+    @Test
+    void testSetMaximumWeightKeepsMetadata() {
+        final Subgraph subgraph = createSubgraph(new Segment(1, 38, 5));
+        cache.layoutDone(new LayoutDoneEvent(subgraph));
+        cache.getRetrievalExecutor().block();
+        final long weight = cache.getWeight();
+
+        cache.setMaximumWeight(NodeMetadataCache.DEFAULT_MAXIMUM_WEIGHT / 2);
+
+        assertThat(cache.getWeight()).isEqualTo(weight);
+    }
+
+    @Test
+    void testSetMaximumWeightKeepsStats() {
+        final Segment segment = new Segment(1, 38, 5);
+        cache.layoutDone(new LayoutDoneEvent(createSubgraph(segment)));
+        cache.getRetrievalExecutor().block();
+        final long missCount = cache.getStats().missCount();
+
+        cache.setMaximumWeight(NodeMetadataCache.DEFAULT_MAXIMUM_WEIGHT / 2);
+
+        assertThat(missCount).isPositive();
+        assertThat(cache.getStats().missCount()).isEqualTo(missCount);
+    }
+
+    /**
+     * Tests that metadata that is added while the cache is resized is not lost.
+     */
+    @Test
+    void testSetMaximumWeightConcurrentlyWithAdds() throws InterruptedException {
+        final int nodeCount = 2000;
+        final Thread adder = new Thread(() -> {
+            for (int id = 0; id < nodeCount; id++) {
+                cache.addPrefetched(Collections.singletonMap(id,
+                        new NodeMetadata(String.valueOf(id), "A", GenomeSet.EMPTY)));
+            }
+        });
+
+        adder.start();
+        while (adder.isAlive()) {
+            cache.setMaximumWeight(NodeMetadataCache.DEFAULT_MAXIMUM_WEIGHT);
+        }
+        adder.join();
+
+        assertThat(IntStream.range(0, nodeCount).filter(id -> !cache.contains(id)).toArray()).isEmpty();
+        assertThat(cache.getPrefetchedCount()).isEqualTo(nodeCount);
+    }
+
+    @Test
+    void testEstimateWeightGrowsWithSequence() {
+        final GenomeSet genomes = gfaFile.getGenomeDictionary().createSet(Arrays.asList("genA"));
+        final NodeMetadata shortMetadata = new NodeMetadata("1", "A", genomes);
+        final NodeMetadata longMetadata = new NodeMetadata("1", Strings.repeat("ACGT", 16), genomes);
+
+        assertThat(NodeMetadataCache.estimateWeight(longMetadata) - NodeMetadataCache.estimateWeight(shortMetadata))
+                .isEqualTo(Long.BYTES);
+    }
+
+    @Test
+    void testEstimateWeightIgnoresLazySequence() {
+        final GenomeSet genomes = gfaFile.getGenomeDictionary().createSet(Arrays.asList("genA"));
+        final NodeMetadata shortMetadata = new NodeMetadata("1", 1, (offset, length) -> "A", genomes);
+        final NodeMetadata longMetadata = new NodeMetadata("1", 10, (offset, length) -> "A", genomes);
+
+        assertThat(NodeMetadataCache.estimateWeight(longMetadata))
+                .isEqualTo(NodeMetadataCache.estimateWeight(shortMetadata));
+    }
+
+    @Test
+    void testRetrievedShortSequenceIsLoaded() {
+        final Segment segment = new Segment(1, 38, 5);
+        cache.layoutDone(new LayoutDoneEvent(createSubgraph(segment)));
+        cache.getRetrievalExecutor().block();
+
+        assertThat(segment.getMetadata().isSequenceLoaded()).isTrue();
+        assertThat(segment.getMetadata().getSequence()).isEqualTo("ACCTT");
+    }
+
     /**
      * Tests that the merge constructor creates an empty metadata object.
      */
@@ -180,7 +316,7 @@ final class NodeMetadataCacheTest {
     @Test
     void testMergeConstructorSingleElementNoGenomes() {
         final List<NodeMetadata> metadataList = new ArrayList<>();
-        final NodeMetadata metadata = new NodeMetadata("name", "sequence", new ArrayList<>());
+        final NodeMetadata metadata = new NodeMetadata("name", "sequence", GenomeSet.EMPTY);
         metadataList.add(metadata);
 
         final NodeMetadata mergedMetadata = new NodeMetadata(metadataList);
@@ -193,7 +329,8 @@ final class NodeMetadataCacheTest {
     @Test
     void testMergeConstructorSingleElementWithGenomes() {
         final List<NodeMetadata> metadataList = new ArrayList<>();
-        final NodeMetadata metadata = new NodeMetadata("name", "sequence", Arrays.asList("genA", "genB"));
+        final GenomeSet genomes = gfaFile.getGenomeDictionary().createSet(Arrays.asList("genA", "genB"));
+        final NodeMetadata metadata = new NodeMetadata("name", "sequence", genomes);
         metadataList.add(metadata);
 
         final NodeMetadata mergedMetadata = new NodeMetadata(metadataList);
@@ -206,8 +343,11 @@ final class NodeMetadataCacheTest {
     @Test
     void testMergeConstructorMultipleElementsWithoutDuplicates() {
         final List<NodeMetadata> metadataList = new ArrayList<>();
-        final NodeMetadata metadataA = new NodeMetadata("nameA", "sequenceA", Arrays.asList("genA", "genB"));
-        final NodeMetadata metadataB = new NodeMetadata("nameB", "sequenceB", Arrays.asList("genC", "genD"));
+        final GenomeDictionary dictionary = gfaFile.getGenomeDictionary();
+        final GenomeSet genomesA = dictionary.createSet(Arrays.asList("genA", "genB"));
+        final GenomeSet genomesB = dictionary.createSet(Arrays.asList("genC", "genD"));
+        final NodeMetadata metadataA = new NodeMetadata("nameA", "sequenceA", genomesA);
+        final NodeMetadata metadataB = new NodeMetadata("nameB", "sequenceB", genomesB);
         metadataList.add(metadataA);
         metadataList.add(metadataB);
 
@@ -221,8 +361,11 @@ final class NodeMetadataCacheTest {
     @Test
     void testMergeConstructorMultipleElementsWithDuplicates() {
         final List<NodeMetadata> metadataList = new ArrayList<>();
-        final NodeMetadata metadataA = new NodeMetadata("nameA", "sequenceA", Arrays.asList("genA", "genB"));
-        final NodeMetadata metadataB = new NodeMetadata("nameB", "sequenceB", Arrays.asList("genB", "genC"));
+        final GenomeDictionary dictionary = gfaFile.getGenomeDictionary();
+        final GenomeSet genomesA = dictionary.createSet(Arrays.asList("genA", "genB"));
+        final GenomeSet genomesB = dictionary.createSet(Arrays.asList("genB", "genC"));
+        final NodeMetadata metadataA = new NodeMetadata("nameA", "sequenceA", genomesA);
+        final NodeMetadata metadataB = new NodeMetadata("nameB", "sequenceB", genomesB);
         metadataList.add(metadataA);
         metadataList.add(metadataB);
 
@@ -234,6 +377,18 @@ final class NodeMetadataCacheTest {
     }
 
 
+    /**
+     * Creates a new {@link Subgraph} containing the given {@link Segment}.
+     *
+     * @param segment a {@link Segment}
+     * @return a new {@link Subgraph} containing the given {@link Segment}
+     */
+    private Subgraph createSubgraph(final Segment segment) {
+        final Subgraph subgraph = new Subgraph();
+        subgraph.add(segment);
+        return subgraph;
+    }
+
     /**
      * Creates a new {@link GfaFile}.
      *
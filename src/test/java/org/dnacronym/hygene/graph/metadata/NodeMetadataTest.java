@@ -0,0 +1,143 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link NodeMetadata}.
+ */
+final class NodeMetadataTest {
+    private static final String SEQUENCE = "ACGTACGTAC";
+    private static final SequenceSource SOURCE = (offset, length) -> SEQUENCE.substring(offset, offset + length);
+
+
+    @Test
+    void testGetSequenceWindow() {
+        final NodeMetadata metadata = new NodeMetadata("1", SEQUENCE, GenomeSet.EMPTY);
+
+        assertThat(metadata.getSequence(2, 3)).isEqualTo("GTA");
+        assertThat(metadata.getSequenceLength()).isEqualTo(SEQUENCE.length());
+        assertThat(metadata.isSequenceLoaded()).isTrue();
+    }
+
+    @Test
+    void testGetSequenceWindowClipped() {
+        final NodeMetadata metadata = new NodeMetadata("1", SEQUENCE, GenomeSet.EMPTY);
+
+        assertThat(metadata.getSequence(8, Integer.MAX_VALUE)).isEqualTo("AC");
+        assertThat(metadata.getSequence(20, 5)).isEmpty();
+    }
+
+    @Test
+    void testGetSequenceWindowNegative() {
+        final NodeMetadata metadata = new NodeMetadata("1", SEQUENCE, GenomeSet.EMPTY);
+
+        final Throwable e = catchThrowable(() -> metadata.getSequence(-1, 5));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testLazyGetSequence() {
+        final GenomeSet genomes = new GenomeDictionary().createSet(Collections.singletonList("genA"));
+        final NodeMetadata metadata = new NodeMetadata("1", SEQUENCE.length(), SOURCE, genomes);
+
+        assertThat(metadata.isSequenceLoaded()).isFalse();
+        assertThat(metadata.getName()).isEqualTo("1");
+        assertThat(metadata.getGenomes()).containsExactly("genA");
+        assertThat(metadata.getSequence()).isEqualTo(SEQUENCE);
+    }
+
+    @Test
+    void testLazyGetSequenceWindow() {
+        final NodeMetadata metadata = new NodeMetadata("1", SEQUENCE.length(), SOURCE, GenomeSet.EMPTY);
+
+        assertThat(metadata.getSequence(2, 3)).isEqualTo("GTA");
+        assertThat(metadata.getSequence(8, Integer.MAX_VALUE)).isEqualTo("AC");
+    }
+
+    @Test
+    void testLazyNegativeSequenceLength() {
+        final Throwable e = catchThrowable(() -> new NodeMetadata("1", -1, SOURCE, GenomeSet.EMPTY));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testLazyGetSequenceFails() {
+        final NodeMetadata metadata = new NodeMetadata("1", 5, (offset, length) -> {
+            throw new IOException("Could not read.");
+        }, GenomeSet.EMPTY);
+
+        final Throwable e = catchThrowable(metadata::getSequence);
+
+        assertThat(e).isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    void testLazyGetSequenceWithinPrefix() {
+        final NodeMetadata metadata = new NodeMetadata("1", 10, new PackedSequence("ACGT"), (offset, length) -> {
+            throw new IOException("Could not read.");
+        }, GenomeSet.EMPTY);
+
+        assertThat(metadata.getSequence(1, 3)).isEqualTo("CGT");
+        assertThat(metadata.getSequencePrefix(100)).isEqualTo("ACGT");
+        assertThat(catchThrowable(() -> metadata.getSequence(1, 4))).isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    void testLazyPrefixLongerThanSequence() {
+        final Throwable e = catchThrowable(() ->
+                new NodeMetadata("1", 2, new PackedSequence("ACGT"), SOURCE, GenomeSet.EMPTY));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Tests that combining lazily resolved metadata does not read its sequence.
+     */
+    @Test
+    void testCombineLazyStaysLazy() {
+        final NodeMetadata lazy = new NodeMetadata("2", 10, new PackedSequence("CG"), (offset, length) -> {
+            throw new IOException("Could not read.");
+        }, GenomeSet.EMPTY);
+
+        final NodeMetadata combined = new NodeMetadata(Arrays.asList(
+                new NodeMetadata("1", "A", GenomeSet.EMPTY), lazy));
+
+        assertThat(combined.isSequenceLoaded()).isFalse();
+        assertThat(combined.getSequenceLength()).isEqualTo("[A, ]".length() + 10);
+        assertThat(combined.getSequencePrefix(100)).isEqualTo("[A, CG");
+    }
+
+    @Test
+    void testCombineLazyGetSequence() {
+        final NodeMetadata combined = new NodeMetadata(Arrays.asList(
+                new NodeMetadata("1", SEQUENCE.length(), new PackedSequence("ACG"), SOURCE, GenomeSet.EMPTY),
+                new NodeMetadata("2", "TT", GenomeSet.EMPTY)));
+
+        assertThat(combined.getSequence()).isEqualTo("[" + SEQUENCE + ", TT]");
+        assertThat(combined.getSequence(9, 5)).isEqualTo("AC, T");
+        assertThat(combined.getSequence(14, 10)).isEqualTo("T]");
+    }
+
+    @Test
+    void testCombineLazyGetSequenceFails() {
+        final NodeMetadata combined = new NodeMetadata(Collections.singletonList(
+                new NodeMetadata("1", 5, (offset, length) -> {
+                    throw new IOException("Could not read.");
+                }, GenomeSet.EMPTY)));
+
+        final Throwable e = catchThrowable(combined::getSequence);
+
+        assertThat(e).isInstanceOf(UncheckedIOException.class).hasRootCauseInstanceOf(IOException.class);
+    }
+}
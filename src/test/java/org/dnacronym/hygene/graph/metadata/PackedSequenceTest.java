@@ -0,0 +1,166 @@
+package org.dnacronym.hygene.graph.metadata;
+
+import com.google.common.base.Strings;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link PackedSequence}.
+ */
+final class PackedSequenceTest {
+    private static final String SEQUENCE = "ACGTTGCAACGTACGTACGTACGTACGTACGTGGCCNNNNRYacgtA";
+    /**
+     * A sequence that is long enough to be packed despite its exceptions and lowercase runs.
+     */
+    private static final String LONG_SEQUENCE = Strings.repeat("ACGT", 64) + SEQUENCE + Strings.repeat("acgt", 64)
+            + "nnnnACGTacgnt";
+
+
+    @Test
+    void testToString() {
+        assertThat(new PackedSequence(SEQUENCE).toString()).isEqualTo(SEQUENCE);
+    }
+
+    @Test
+    void testEmpty() {
+        final PackedSequence sequence = new PackedSequence("");
+
+        assertThat(sequence.length()).isEqualTo(0);
+        assertThat(sequence.toString()).isEmpty();
+    }
+
+    @Test
+    void testLength() {
+        assertThat(new PackedSequence(SEQUENCE).length()).isEqualTo(SEQUENCE.length());
+    }
+
+    @Test
+    void testCharAt() {
+        final PackedSequence sequence = new PackedSequence(SEQUENCE);
+
+        for (int i = 0; i < SEQUENCE.length(); i++) {
+            assertThat(sequence.charAt(i)).isEqualTo(SEQUENCE.charAt(i));
+        }
+    }
+
+    @Test
+    void testCharAtPacked() {
+        final PackedSequence sequence = new PackedSequence(LONG_SEQUENCE);
+
+        assertThat(sequence.isPacked()).isTrue();
+        for (int i = 0; i < LONG_SEQUENCE.length(); i++) {
+            assertThat(sequence.charAt(i)).isEqualTo(LONG_SEQUENCE.charAt(i));
+        }
+    }
+
+    @Test
+    void testCharAtOutOfBounds() {
+        final PackedSequence sequence = new PackedSequence(SEQUENCE);
+
+        final Throwable e = catchThrowable(() -> sequence.charAt(SEQUENCE.length()));
+
+        assertThat(e).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testSubstring() {
+        final PackedSequence sequence = new PackedSequence(SEQUENCE);
+
+        for (int start = 0; start <= SEQUENCE.length(); start += 3) {
+            for (int end = start; end <= SEQUENCE.length(); end += 5) {
+                assertThat(sequence.substring(start, end)).isEqualTo(SEQUENCE.substring(start, end));
+            }
+        }
+    }
+
+    @Test
+    void testSubstringPacked() {
+        final PackedSequence sequence = new PackedSequence(LONG_SEQUENCE);
+
+        for (int start = 0; start <= LONG_SEQUENCE.length(); start += 7) {
+            for (int end = start; end <= LONG_SEQUENCE.length(); end += 11) {
+                assertThat(sequence.substring(start, end)).isEqualTo(LONG_SEQUENCE.substring(start, end));
+            }
+        }
+        assertThat(sequence.toString()).isEqualTo(LONG_SEQUENCE);
+    }
+
+    /**
+     * Tests that a substring that starts in the middle of a run of exceptions contains the rest of the run.
+     */
+    @Test
+    void testSubstringInsideExceptionRun() {
+        final PackedSequence sequence = new PackedSequence(LONG_SEQUENCE);
+        final int runStart = LONG_SEQUENCE.indexOf('N');
+
+        assertThat(sequence.substring(runStart + 1, runStart + 6)).isEqualTo("NNNRY");
+    }
+
+    @Test
+    void testSubstringOutOfBounds() {
+        final PackedSequence sequence = new PackedSequence(SEQUENCE);
+
+        final Throwable e = catchThrowable(() -> sequence.substring(2, 1));
+
+        assertThat(e).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testSubSequence() {
+        assertThat(new PackedSequence(SEQUENCE).subSequence(1, 4)).isEqualTo("CGT");
+    }
+
+    /**
+     * Tests that a long sequence of bases takes up about a quarter of a byte per base.
+     */
+    @Test
+    void testEstimateSize() {
+        final PackedSequence sequence = new PackedSequence(Strings.repeat("ACGT", 1024));
+
+        assertThat(sequence.estimateSize()).isLessThan(4 * 1024 / 4 + 100);
+    }
+
+    /**
+     * Tests that a soft-masked sequence is packed, and takes up only a single lowercase run more than the same
+     * sequence in uppercase.
+     */
+    @Test
+    void testEstimateSizeLowerCase() {
+        final PackedSequence upperCase = new PackedSequence(Strings.repeat("ACGT", 1024));
+        final PackedSequence softMasked = new PackedSequence(Strings.repeat("ACGT", 512) + Strings.repeat("acgt", 512));
+
+        assertThat(softMasked.isPacked()).isTrue();
+        assertThat(softMasked.estimateSize()).isEqualTo(upperCase.estimateSize() + 2 * Integer.BYTES);
+        assertThat(softMasked.substring(2046, 2050)).isEqualTo("GTac");
+    }
+
+    /**
+     * Tests that a sequence of which the exceptions would take up more space than the plain sequence is stored as plain
+     * bytes.
+     */
+    @Test
+    void testMostlyExceptionsNotPacked() {
+        final String iupac = Strings.repeat("RYKMSWBDHVN", 100);
+        final PackedSequence sequence = new PackedSequence(iupac);
+
+        assertThat(sequence.isPacked()).isFalse();
+        assertThat(sequence.estimateSize()).isLessThanOrEqualTo(new PackedSequence("").estimateSize() + iupac.length());
+        assertThat(sequence.toString()).isEqualTo(iupac);
+        assertThat(sequence.charAt(12)).isEqualTo('Y');
+        assertThat(sequence.substring(9, 13)).isEqualTo("VNRY");
+    }
+
+    /**
+     * Tests that a run of the same exception takes up as much space as a single exception.
+     */
+    @Test
+    void testEstimateSizeExceptionRun() {
+        final PackedSequence single = new PackedSequence("ACGTN");
+        final PackedSequence run = new PackedSequence("NNNNN");
+
+        assertThat(run.estimateSize()).isEqualTo(single.estimateSize());
+    }
+}
@@ -1,5 +1,6 @@
 package org.dnacronym.hygene.graph.node;
 
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
 import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.junit.jupiter.api.Test;
 
@@ -151,7 +152,7 @@ class AggregateSegmentTest {
     @Test
     void testGetMetadata() {
         final Segment segment = new Segment(89, 17, 23);
-        final NodeMetadata metadata = new NodeMetadata("name", "sequence", new ArrayList<>());
+        final NodeMetadata metadata = new NodeMetadata("name", "sequence", GenomeSet.EMPTY);
 
         segment.setMetadata(metadata);
 
@@ -169,7 +170,7 @@ class AggregateSegmentTest {
     void testHasMetadataTrue() {
         final Segment segment = new Segment(34, 78, 92);
 
-        segment.setMetadata(new NodeMetadata("name", "sequence", new ArrayList<>()));
+        segment.setMetadata(new NodeMetadata("name", "sequence", GenomeSet.EMPTY));
 
         assertThat(segment.hasMetadata()).isTrue();
     }
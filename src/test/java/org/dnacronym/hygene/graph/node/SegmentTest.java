@@ -2,12 +2,11 @@ package org.dnacronym.hygene.graph.node;
 
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
 import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.util.ArrayList;
-
 import static org.assertj.core.api.Assertions.assertThat;
 
 
@@ -51,7 +50,7 @@ final class SegmentTest extends NodeTest {
 
     @Test
     void testMetadata() {
-        final NodeMetadata nodeMetadata = new NodeMetadata("name", "sequence", new ArrayList<>());
+        final NodeMetadata nodeMetadata = new NodeMetadata("name", "sequence", GenomeSet.EMPTY);
 
         segment.setMetadata(nodeMetadata);
 
@@ -0,0 +1,123 @@
+package org.dnacronym.hygene.parser;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dnacronym.hygene.core.ByteOffsetArray;
+import org.dnacronym.hygene.core.UnsignedInteger;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.GraphStorage;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Benchmarks {@link EdgeBuilder} against appending edges to nested node arrays one at a time.
+ * <p>
+ * This benchmark is excluded from the default test run. Run it with {@code gradle junitPlatformTest -Pbenchmark}.
+ */
+@Tag("benchmark")
+final class EdgeBuilderBenchmarkTest {
+    private static final Logger LOGGER = LogManager.getLogger(EdgeBuilderBenchmarkTest.class);
+    private static final int NODE_COUNT = 200_000;
+    private static final int HUB_COUNT = 4;
+    private static final int RUNS = 3;
+
+
+    @Test
+    void testHubHeavyGraph() {
+        final LinkBuffer links = createHubHeavyLinks();
+
+        long appendTime = Long.MAX_VALUE;
+        long edgeBuilderTime = Long.MAX_VALUE;
+        int[][] appendNodeArrays = new int[0][];
+        GraphStorage storage = null;
+
+        for (int run = 0; run < RUNS; run++) {
+            final long appendStart = System.nanoTime();
+            appendNodeArrays = appendEdges(links);
+            appendTime = Math.min(appendTime, System.nanoTime() - appendStart);
+
+            final long edgeBuilderStart = System.nanoTime();
+            storage = new EdgeBuilder(new ByteOffsetArray(NODE_COUNT, false), new int[NODE_COUNT], links).build();
+            edgeBuilderTime = Math.min(edgeBuilderTime, System.nanoTime() - edgeBuilderStart);
+        }
+
+        LOGGER.info("Appending edges took " + appendTime / 1_000_000 + " ms, building edges took "
+                + edgeBuilderTime / 1_000_000 + " ms for " + links.size() + " links");
+
+        for (int nodeId = 0; nodeId < NODE_COUNT; nodeId++) {
+            assertThat(storage.getNodeArray(nodeId)).isEqualTo(appendNodeArrays[nodeId]);
+        }
+        assertThat(edgeBuilderTime).isLessThan(appendTime);
+    }
+
+
+    /**
+     * Creates links in which every node is connected to a small number of hubs, in both directions.
+     *
+     * @return the links of a hub-heavy graph
+     */
+    private LinkBuffer createHubHeavyLinks() {
+        final LinkBuffer links = new LinkBuffer();
+        for (int nodeId = HUB_COUNT + 1; nodeId < NODE_COUNT - 1; nodeId++) {
+            final int hub = 1 + nodeId % HUB_COUNT;
+            links.add(hub, nodeId, nodeId * 2L);
+            links.add(nodeId, hub + 1 > HUB_COUNT ? 1 : hub + 1, nodeId * 2L + 1);
+        }
+        return links;
+    }
+
+    private int[][] createNodeArrays() {
+        final int[][] nodeArrays = new int[NODE_COUNT][];
+        Arrays.setAll(nodeArrays, i -> Graph.createEmptyNodeArray());
+        return nodeArrays;
+    }
+
+    /**
+     * Adds the links and the sentinel edges by growing the node arrays for every edge, as the parser used to do.
+     *
+     * @param links the links to add
+     * @return the node arrays with all edges
+     */
+    private int[][] appendEdges(final LinkBuffer links) {
+        final int[][] nodeArrays = createNodeArrays();
+
+        for (int i = 0; i < links.size(); i++) {
+            appendEdge(nodeArrays, links.getFrom(i), links.getTo(i), UnsignedInteger.fromLong(links.getByteOffset(i)));
+        }
+
+        for (int nodeId = 1; nodeId < NODE_COUNT - 1; nodeId++) {
+            if (nodeArrays[nodeId].length
+                    == Graph.NODE_EDGE_DATA_OFFSET + nodeArrays[nodeId][Graph.NODE_OUTGOING_EDGES_INDEX] * 2) {
+                appendEdge(nodeArrays, 0, nodeId, 0);
+            }
+            if (nodeArrays[nodeId][Graph.NODE_OUTGOING_EDGES_INDEX] == 0) {
+                appendEdge(nodeArrays, nodeId, NODE_COUNT - 1, 0);
+            }
+        }
+
+        return nodeArrays;
+    }
+
+    private void appendEdge(final int[][] nodeArrays, final int fromId, final int toId, final int byteOffset) {
+        final int[] to = Arrays.copyOf(nodeArrays[toId], nodeArrays[toId].length + Graph.EDGE_DATA_SIZE);
+        to[to.length - 2] = fromId;
+        to[to.length - 1] = byteOffset;
+        nodeArrays[toId] = to;
+
+        final int[] from = nodeArrays[fromId];
+        final int position = Graph.NODE_EDGE_DATA_OFFSET
+                + from[Graph.NODE_OUTGOING_EDGES_INDEX] * Graph.EDGE_DATA_SIZE;
+        final int[] result = new int[from.length + Graph.EDGE_DATA_SIZE];
+        System.arraycopy(from, 0, result, 0, position);
+        result[position] = toId;
+        result[position + 1] = byteOffset;
+        System.arraycopy(from, position, result, position + Graph.EDGE_DATA_SIZE, from.length - position);
+        result[Graph.NODE_OUTGOING_EDGES_INDEX]++;
+        nodeArrays[fromId] = result;
+    }
+}
@@ -0,0 +1,143 @@
+package org.dnacronym.hygene.parser;
+
+import org.dnacronym.hygene.core.ByteOffsetArray;
+import org.dnacronym.hygene.core.UnsignedInteger;
+import org.dnacronym.hygene.graph.CsrGraphStorage;
+import org.dnacronym.hygene.graph.GraphStorage;
+import org.dnacronym.hygene.graph.GraphStorageType;
+import org.dnacronym.hygene.graph.OffHeapGraphStorage;
+import org.dnacronym.hygene.graph.SequenceDirection;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link EdgeBuilder}.
+ */
+final class EdgeBuilderTest {
+    @Test
+    void testNodeDataIsKept() {
+        final ByteOffsetArray byteOffsets = new ByteOffsetArray(3, false);
+        final int[] sequenceLengths = new int[3];
+        byteOffsets.set(1, 42);
+        sequenceLengths[1] = 7;
+
+        final GraphStorage storage = new EdgeBuilder(byteOffsets, sequenceLengths, new LinkBuffer()).build();
+
+        assertThat(storage.size()).isEqualTo(3);
+        assertThat(storage.getByteOffset(1)).isEqualTo(42);
+        assertThat(storage.getSequenceLength(1)).isEqualTo(7);
+        assertThat(storage.getUnscaledXPosition(1)).isEqualTo(-1);
+    }
+
+    @Test
+    void testSentinelEdges() {
+        final int[][] nodeArrays = build(4, new LinkBuffer());
+
+        assertThat(nodeArrays[0]).containsExactly(0, 0, -1, 2, 1, 0, 2, 0);
+        assertThat(nodeArrays[1]).containsExactly(0, 0, -1, 1, 3, 0, 0, 0);
+        assertThat(nodeArrays[2]).containsExactly(0, 0, -1, 1, 3, 0, 0, 0);
+        assertThat(nodeArrays[3]).containsExactly(0, 0, -1, 0, 1, 0, 2, 0);
+    }
+
+    @Test
+    void testEdgesInLinkOrder() {
+        final LinkBuffer links = new LinkBuffer();
+        links.add(1, 3, 10);
+        links.add(1, 2, 20);
+        links.add(2, 3, 30);
+
+        final int[][] nodeArrays = build(5, links);
+
+        assertThat(nodeArrays[1]).containsExactly(0, 0, -1, 2, 3, offset(10), 2, offset(20), 0, 0);
+        assertThat(nodeArrays[3]).containsExactly(0, 0, -1, 1, 4, 0, 1, offset(10), 2, offset(30));
+    }
+
+    @Test
+    void testNodeWithFileEdgesGetsNoSentinelEdges() {
+        final LinkBuffer links = new LinkBuffer();
+        links.add(1, 2, 10);
+
+        final int[][] nodeArrays = build(4, links);
+
+        assertThat(nodeArrays[0]).containsExactly(0, 0, -1, 1, 1, 0);
+        assertThat(nodeArrays[3]).containsExactly(0, 0, -1, 0, 2, 0);
+    }
+
+    @Test
+    void testWideByteOffsets() {
+        final ByteOffsetArray byteOffsets = new ByteOffsetArray(4, true);
+        byteOffsets.set(1, 5_000_000_000L);
+        final LinkBuffer links = new LinkBuffer();
+        links.add(1, 2, 6_000_000_000L);
+
+        final GraphStorage storage = new EdgeBuilder(byteOffsets, new int[4], links).build();
+
+        assertThat(storage.hasWideByteOffsets()).isTrue();
+        assertThat(storage.getByteOffset(1)).isEqualTo(5_000_000_000L);
+        assertThat(storage.getEdgeByteOffset(1, SequenceDirection.RIGHT, 0)).isEqualTo(6_000_000_000L);
+        assertThat(storage.getEdgeByteOffset(2, SequenceDirection.LEFT, 0)).isEqualTo(6_000_000_000L);
+    }
+
+    @Test
+    void testDefaultBuildsHeapStorage() {
+        final GraphStorage storage = new EdgeBuilder(new ByteOffsetArray(3, false), new int[3], new LinkBuffer())
+                .build();
+
+        assertThat(storage).isInstanceOf(CsrGraphStorage.class);
+    }
+
+    @Test
+    void testOffHeapMatchesHeap() {
+        final LinkBuffer links = new LinkBuffer();
+        links.add(1, 3, 10);
+        links.add(1, 2, 20);
+        links.add(2, 3, 30);
+        final ByteOffsetArray byteOffsets = new ByteOffsetArray(5, false);
+        final int[] sequenceLengths = {0, 3, 5, 7, 0};
+        for (int i = 0; i < 5; i++) {
+            byteOffsets.set(i, 100L * i);
+        }
+
+        final GraphStorage heap = new EdgeBuilder(byteOffsets, sequenceLengths, links).build();
+        final GraphStorage offHeap =
+                new EdgeBuilder(byteOffsets, sequenceLengths, links, GraphStorageType.OFF_HEAP).build();
+
+        assertThat(offHeap).isInstanceOf(OffHeapGraphStorage.class);
+        for (int i = 0; i < 5; i++) {
+            assertThat(offHeap.getNodeArray(i)).isEqualTo(heap.getNodeArray(i));
+        }
+    }
+
+    @Test
+    void testOffHeapWideByteOffsets() {
+        final ByteOffsetArray byteOffsets = new ByteOffsetArray(4, true);
+        byteOffsets.set(1, 5_000_000_000L);
+        final LinkBuffer links = new LinkBuffer();
+        links.add(1, 2, 6_000_000_000L);
+
+        final GraphStorage storage =
+                new EdgeBuilder(byteOffsets, new int[4], links, GraphStorageType.OFF_HEAP).build();
+
+        assertThat(storage.hasWideByteOffsets()).isTrue();
+        assertThat(storage.getByteOffset(1)).isEqualTo(5_000_000_000L);
+        assertThat(storage.getEdgeByteOffset(2, SequenceDirection.LEFT, 0)).isEqualTo(6_000_000_000L);
+    }
+
+
+    private int[][] build(final int nodeCount, final LinkBuffer links) {
+        final GraphStorage storage =
+                new EdgeBuilder(new ByteOffsetArray(nodeCount, false), new int[nodeCount], links).build();
+
+        final int[][] nodeArrays = new int[nodeCount][];
+        for (int i = 0; i < nodeCount; i++) {
+            nodeArrays[i] = storage.getNodeArray(i);
+        }
+        return nodeArrays;
+    }
+
+    private int offset(final long byteOffset) {
+        return UnsignedInteger.fromLong(byteOffset);
+    }
+}
@@ -0,0 +1,95 @@
+package org.dnacronym.hygene.parser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link GfaChunk}.
+ */
+final class GfaChunkTest {
+    private static final String GFA = "S\t1\tA\nS\t2\tBB\nL\t1\t+\t2\t+\t0M\nS\t3\tCCC\n";
+
+    private Path path;
+    private FileChannel channel;
+
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        path = Files.createTempFile("hygene-chunk-test", ".gfa");
+        Files.write(path, GFA.getBytes(StandardCharsets.UTF_8));
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        channel.close();
+        Files.delete(path);
+    }
+
+
+    @Test
+    void testSplitSingleChunk() throws IOException {
+        final List<GfaChunk> chunks = GfaChunk.split(channel, 1);
+
+        assertThat(chunks).hasSize(1);
+        assertThat(chunks.get(0).getSize()).isEqualTo(GFA.length());
+    }
+
+    @Test
+    void testSplitCoversFile() throws IOException {
+        final List<GfaChunk> chunks = GfaChunk.split(channel, 3);
+
+        assertThat(chunks.stream().mapToLong(GfaChunk::getSize).sum()).isEqualTo(GFA.length());
+    }
+
+    @Test
+    void testSplitAlignsToLines() throws IOException, GfaParseException {
+        final List<GfaChunk> chunks = GfaChunk.split(channel, 3);
+
+        int segmentCount = 0;
+        for (final GfaChunk chunk : chunks) {
+            segmentCount += chunk.read(channel).getSegmentNames().size();
+        }
+        assertThat(segmentCount).isEqualTo(3);
+    }
+
+    @Test
+    void testSplitMoreChunksThanLines() throws IOException {
+        final List<GfaChunk> chunks = GfaChunk.split(channel, 100);
+
+        assertThat(chunks).hasSize(4);
+    }
+
+    @Test
+    void testReadSegments() throws IOException, GfaParseException {
+        final GfaChunk chunk = GfaChunk.split(channel, 1).get(0).read(channel);
+
+        assertThat(chunk.getSegmentNames().size()).isEqualTo(3);
+        assertThat(chunk.getSegmentNames().getString(0)).isEqualTo("1");
+        assertThat(chunk.getSegmentNames().getString(2)).isEqualTo("3");
+        assertThat(chunk.getSegmentByteOffset(2)).isEqualTo(26);
+        assertThat(chunk.getSegmentSequenceLength(2)).isEqualTo(3);
+    }
+
+    @Test
+    void testReadLinks() throws IOException, GfaParseException {
+        final GfaChunk chunk = GfaChunk.split(channel, 1).get(0).read(channel);
+
+        assertThat(chunk.getLinks().size()).isEqualTo(1);
+        assertThat(chunk.getLinkNodeNames().getString(chunk.getLinks().getFrom(0))).isEqualTo("1");
+        assertThat(chunk.getLinkNodeNames().getString(chunk.getLinks().getTo(0))).isEqualTo("2");
+        assertThat(chunk.getLinks().getByteOffset(0)).isEqualTo(13);
+    }
+}
@@ -1,6 +1,12 @@
 package org.dnacronym.hygene.parser;
 
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.GraphStorageType;
+import org.dnacronym.hygene.graph.NodeOrdering;
+import org.dnacronym.hygene.graph.OffHeapGraphStorage;
+import org.dnacronym.hygene.graph.SequenceDirection;
 import org.dnacronym.hygene.graph.metadata.EdgeMetadata;
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
 import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.dnacronym.hygene.parser.factories.MetadataParserFactory;
 import org.dnacronym.hygene.parser.factories.GfaParserFactory;
@@ -13,6 +19,8 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -31,6 +39,7 @@ import static org.mockito.Mockito.verify;
  */
 final class GfaFileTest {
     private static final String GFA_TEST_FILE = "src/test/resources/gfa/simple.gfa";
+    private static final String UNORDERED_GFA_TEST_FILE = "src/test/resources/gfa/unordered.gfa";
     private static final String SIMPLE_GFA_CONTENTS = String.format("H\tVN:Z:1.0%n"
             + "H\tORI:Z:g1.fasta;g2.fasta;%n"
             + "S\t11\tACCTT\t*\tORI:Z:g1.fasta%n"
@@ -102,6 +111,68 @@ final class GfaFileTest {
         assertThat(gfaFile.getGraph()).isNotNull();
     }
 
+    @Test
+    void testParseFileOffHeap() throws GfaParseException {
+        currentFileName = GFA_TEST_FILE;
+        final GfaFile gfaFile = new GfaFile(GFA_TEST_FILE, GraphStorageType.OFF_HEAP);
+        gfaFile.parse(ProgressUpdater.DUMMY);
+
+        final Graph graph = gfaFile.getGraph();
+        assertThat(gfaFile.getStorageType()).isEqualTo(GraphStorageType.OFF_HEAP);
+        assertThat(graph.getStorage()).isInstanceOf(OffHeapGraphStorage.class);
+        assertThat(graph.size()).isEqualTo(4);
+        assertThat(graph.getUnscaledXPosition(3)).isGreaterThan(graph.getUnscaledXPosition(0));
+    }
+
+    /**
+     * Tests that nodes are renumbered by rank, while their names can still be found through their byte offsets.
+     */
+    @Test
+    void testParseFileTopologicalOrdering() throws GfaParseException, MetadataParseException {
+        currentFileName = UNORDERED_GFA_TEST_FILE;
+        final GfaFile gfaFile = new GfaFile(UNORDERED_GFA_TEST_FILE, GraphStorageType.HEAP, NodeOrdering.TOPOLOGICAL);
+        final Graph graph = gfaFile.parse(ProgressUpdater.DUMMY);
+
+        assertThat(gfaFile.getNodeOrdering()).isEqualTo(NodeOrdering.TOPOLOGICAL);
+        assertThat(graph.getNeighbour(0, SequenceDirection.RIGHT, 0)).isEqualTo(1);
+        assertThat(graph.getNeighbour(1, SequenceDirection.RIGHT, 0)).isEqualTo(2);
+        assertThat(graph.getNeighbour(2, SequenceDirection.RIGHT, 0)).isEqualTo(3);
+        assertThat(graph.getOriginalNodeId(1)).isEqualTo(3);
+        assertThat(graph.getNodeIdByOriginalId(3)).isEqualTo(1);
+        assertThat(gfaFile.parseNodeMetadata(graph.getByteOffset(1)).getName()).isEqualTo("11");
+        assertThat(graph.getTopologicalOrder().getRank(2)).isEqualTo(2);
+    }
+
+    @Test
+    void testParseFileHorizontalOrderingFromCache() throws GfaParseException, MetadataParseException {
+        currentFileName = UNORDERED_GFA_TEST_FILE;
+        final Graph parsedGraph = new GfaFile(UNORDERED_GFA_TEST_FILE, GraphStorageType.HEAP, NodeOrdering.HORIZONTAL)
+                .parse(ProgressUpdater.DUMMY);
+
+        final GfaFile gfaFile = new GfaFile(UNORDERED_GFA_TEST_FILE);
+        final Graph graph = gfaFile.parse(ProgressUpdater.DUMMY);
+
+        assertThat(graph.getOriginalNodeId(1)).isEqualTo(parsedGraph.getOriginalNodeId(1)).isEqualTo(3);
+        assertThat(graph.getNodeAtPosition(0)).isEqualTo(parsedGraph.getNodeAtPosition(0));
+        assertThat(gfaFile.parseNodeMetadata(graph.getByteOffset(3)).getName()).isEqualTo("13");
+    }
+
+    @Test
+    void testParseFileFromCache() throws GfaParseException {
+        currentFileName = GFA_TEST_FILE;
+        final Graph parsedGraph = new GfaFile(GFA_TEST_FILE).parse(ProgressUpdater.DUMMY);
+
+        final Graph graph = new GfaFile(GFA_TEST_FILE).parse(ProgressUpdater.DUMMY);
+
+        assertThat(graph.getStorage()).isInstanceOf(OffHeapGraphStorage.class);
+        assertThat(graph.getNodeRenumbering()).isNull();
+        assertThat(graph.size()).isEqualTo(4);
+        assertThat(graph.getNeighbour(1, SequenceDirection.RIGHT, 0)).isEqualTo(2);
+        assertThat(graph.getUnscaledXPosition(3)).isEqualTo(parsedGraph.getUnscaledXPosition(3));
+        assertThat(graph.getNodePositions().size()).isEqualTo(parsedGraph.getNodePositions().size());
+        assertThat(graph.getNodeAtPosition(Long.MAX_VALUE)).isEqualTo(parsedGraph.getNodeAtPosition(Long.MAX_VALUE));
+    }
+
     @Test
     void testParseNodeMetadata() throws IOException, GfaParseException, MetadataParseException {
         final MetadataParser metadataParser = spy(MetadataParser.class);
@@ -126,6 +197,41 @@ final class GfaFileTest {
         assertThat(gfaFile.getGenomeMapping()).containsExactly(entry("basta.fasta", "123"));
     }
 
+    @Test
+    void testContainsGenomeMapping() {
+        final GfaFile gfaFile = new GfaFile(GFA_TEST_FILE);
+
+        final Map<String, String> mapping = new HashMap<>();
+        mapping.put("0", "a.fasta");
+        mapping.put("1", "b.fasta");
+        gfaFile.setGenomeMapping(mapping);
+
+        final GenomeSet genomes = gfaFile.getGenomeDictionary().createSet(Arrays.asList("1", "c.fasta"));
+        assertThat(gfaFile.containsGenomeMapping(genomes, "b.fasta")).isTrue();
+        assertThat(gfaFile.containsGenomeMapping(genomes, "c.fasta")).isTrue();
+        assertThat(gfaFile.containsGenomeMapping(genomes, "a.fasta")).isFalse();
+    }
+
+    @Test
+    void testContainsGenomeMappingAfterMappingChanges() {
+        final GfaFile gfaFile = new GfaFile(GFA_TEST_FILE);
+        final GenomeSet genomes = gfaFile.getGenomeDictionary().createSet(Collections.singletonList("0"));
+
+        gfaFile.setGenomeMapping(Collections.singletonMap("0", "a.fasta"));
+        assertThat(gfaFile.containsGenomeMapping(genomes, "a.fasta")).isTrue();
+
+        gfaFile.setGenomeMapping(Collections.singletonMap("0", "b.fasta"));
+        assertThat(gfaFile.containsGenomeMapping(genomes, "a.fasta")).isFalse();
+    }
+
+    @Test
+    void testGenomeDictionaryPerFile() {
+        final GfaFile gfaFile = new GfaFile(GFA_TEST_FILE);
+        final GfaFile otherGfaFile = new GfaFile(GFA_TEST_FILE);
+
+        assertThat(gfaFile.getGenomeDictionary()).isNotSameAs(otherGfaFile.getGenomeDictionary());
+    }
+
     @Test
     void testParseEdgeMetadata() throws IOException, GfaParseException, MetadataParseException {
         final MetadataParser metadataParser = spy(MetadataParser.class);
@@ -0,0 +1,235 @@
+package org.dnacronym.hygene.parser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link GfaLineReader}.
+ */
+final class GfaLineReaderTest {
+    private static final String GFA = "S\t1\tACGT\nL\t1\t+\t2\t+\t0M\r\n\nS\t2\tTTTTTTTTTTTTTTTT\nS\t3\tC";
+
+    private Path path;
+
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        path = Files.createTempFile("hygene-line-reader-test", ".gfa");
+        Files.write(path, GFA.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        Files.delete(path);
+    }
+
+
+    @Test
+    void testReadLine() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            assertThat(reader.readLine(0)).isEqualTo("S\t1\tACGT");
+            assertThat(reader.readLine(GFA.indexOf("S\t2"))).isEqualTo("S\t2\tTTTTTTTTTTTTTTTT");
+        }
+    }
+
+    @Test
+    void testReadLineBackwards() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path, 8)) {
+            assertThat(reader.readLine(GFA.indexOf("S\t3"))).isEqualTo("S\t3\tC");
+            assertThat(reader.readLine(0)).isEqualTo("S\t1\tACGT");
+        }
+    }
+
+    @Test
+    void testReadLineWithCarriageReturn() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            assertThat(reader.readLine(GFA.indexOf('L'))).isEqualTo("L\t1\t+\t2\t+\t0M");
+        }
+    }
+
+    @Test
+    void testReadEmptyLine() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            assertThat(reader.readLine(GFA.indexOf("\n\n") + 1)).isEmpty();
+        }
+    }
+
+    @Test
+    void testReadLastLineWithoutLineFeed() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path, 4)) {
+            assertThat(reader.readLine(GFA.indexOf("S\t3"))).isEqualTo("S\t3\tC");
+        }
+    }
+
+    /**
+     * Tests that lines spanning multiple blocks are read in full.
+     */
+    @Test
+    void testReadLineLongerThanBlock() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path, 3)) {
+            assertThat(reader.readLine(0)).isEqualTo("S\t1\tACGT");
+            assertThat(reader.readLine(GFA.indexOf("S\t2"))).isEqualTo("S\t2\tTTTTTTTTTTTTTTTT");
+            assertThat(reader.readLine(GFA.indexOf('L'))).isEqualTo("L\t1\t+\t2\t+\t0M");
+        }
+    }
+
+    @Test
+    void testReadLineAtEndOfFile() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            assertThat(reader.readLine(GFA.length())).isNull();
+            assertThat(reader.readLine(GFA.length() + 100L)).isNull();
+        }
+    }
+
+    @Test
+    void testReadLineNegativeOffset() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            final Throwable e = catchThrowable(() -> reader.readLine(-1));
+
+            assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void testRead() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            assertThat(reader.read(GFA.indexOf("TTTT") + 2, 5)).isEqualTo("TTTTT");
+            assertThat(reader.read(0, 0)).isEmpty();
+        }
+    }
+
+    @Test
+    void testReadBeyondEndOfFile() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            final Throwable e = catchThrowable(() -> reader.read(GFA.length() - 1, 2));
+
+            assertThat(e).isInstanceOf(EOFException.class);
+        }
+    }
+
+    @Test
+    void testReadLines() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            final String[] lines = reader.readLines(new long[] {0, GFA.indexOf('L'), GFA.indexOf("S\t3")});
+
+            assertThat(lines).containsExactly("S\t1\tACGT", "L\t1\t+\t2\t+\t0M", "S\t3\tC");
+        }
+    }
+
+    @Test
+    void testReadLinesUnsorted() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            final String[] lines = reader.readLines(new long[] {GFA.indexOf("S\t3"), 0, 0});
+
+            assertThat(lines).containsExactly("S\t3\tC", "S\t1\tACGT", "S\t1\tACGT");
+        }
+    }
+
+    /**
+     * Tests that lines are read correctly if the offsets are split into multiple runs, and the last line of a run
+     * extends beyond the initial read.
+     */
+    @Test
+    void testReadLinesMultipleRuns() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path, 2)) {
+            final String[] lines = reader.readLines(new long[] {
+                    0, GFA.indexOf('L'), GFA.indexOf("S\t2"), GFA.indexOf("S\t3")});
+
+            assertThat(lines).containsExactly("S\t1\tACGT", "L\t1\t+\t2\t+\t0M", "S\t2\tTTTTTTTTTTTTTTTT",
+                    "S\t3\tC");
+        }
+    }
+
+    @Test
+    void testReadLinesWithParser() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path, 4)) {
+            final List<Integer> lengths = reader.readLines(new long[] {GFA.indexOf('L'), 0, GFA.length()},
+                    (bytes, start, end) -> end - start);
+
+            assertThat(lengths).containsExactly("L\t1\t+\t2\t+\t0M".length(), "S\t1\tACGT".length(), null);
+        }
+    }
+
+    @Test
+    void testReadLinesAtEndOfFile() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path, 4)) {
+            final String[] lines = reader.readLines(new long[] {GFA.indexOf("S\t3"), GFA.length()});
+
+            assertThat(lines).containsExactly("S\t3\tC", null);
+        }
+    }
+
+    @Test
+    void testReadLinesEmpty() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            assertThat(reader.readLines(new long[0])).isEmpty();
+        }
+    }
+
+    @Test
+    void testReadLinesNegativeOffset() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            final Throwable e = catchThrowable(() -> reader.readLines(new long[] {0, -1}));
+
+            assertThat(e).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    /**
+     * Tests that a reader thread that is interrupted mid-read, which closes the channel, does not break later reads.
+     */
+    @Test
+    void testReadAfterInterrupt() throws IOException, InterruptedException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            final AtomicReference<Throwable> thrown = new AtomicReference<>();
+            final Thread thread = new Thread(() -> {
+                Thread.currentThread().interrupt();
+                thrown.set(catchThrowable(() -> reader.readLines(new long[] {0})));
+            });
+            thread.start();
+            thread.join();
+
+            assertThat(thrown.get()).isInstanceOf(ClosedByInterruptException.class);
+            assertThat(reader.readLine(GFA.indexOf("S\t3"))).isEqualTo("S\t3\tC");
+            assertThat(reader.readLines(new long[] {0})).containsExactly("S\t1\tACGT");
+            assertThat(reader.read(GFA.indexOf("TTT"), 2)).isEqualTo("TT");
+        }
+    }
+
+    @Test
+    void testReadLineAfterInterruptOfSameThread() throws IOException {
+        try (GfaLineReader reader = new GfaLineReader(path)) {
+            Thread.currentThread().interrupt();
+            final Throwable e = catchThrowable(() -> reader.readLine(0));
+            Thread.interrupted();
+
+            assertThat(e).isInstanceOf(ClosedByInterruptException.class);
+            assertThat(reader.readLine(0)).isEqualTo("S\t1\tACGT");
+        }
+    }
+
+    @Test
+    void testReadAfterClose() throws IOException {
+        final GfaLineReader reader = new GfaLineReader(path);
+        reader.close();
+
+        final Throwable e = catchThrowable(() -> reader.readLine(0));
+
+        assertThat(e).isInstanceOf(ClosedChannelException.class);
+    }
+}
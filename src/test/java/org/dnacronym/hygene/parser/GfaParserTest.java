@@ -4,13 +4,17 @@ import org.dnacronym.hygene.core.UnsignedInteger;
 import org.dnacronym.hygene.graph.ArrayBasedNode;
 import org.dnacronym.hygene.graph.ArrayBasedEdge;
 import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.SequenceDirection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
@@ -27,7 +31,7 @@ final class GfaParserTest {
 
     @BeforeEach
     void beforeEach() {
-        parser = new GfaParser();
+        parser = new GfaParser(GfaParseMode.SINGLE_PASS);
     }
 
 
@@ -145,6 +149,114 @@ final class GfaParserTest {
         assertThat(ArrayBasedNode.fromGraph(graph, 3).getNumberOfIncomingEdges()).isEqualTo(1);
     }
 
+    @Test
+    void testSinglePassMatchesTwoPass() throws GfaParseException {
+        final String gfa = "H header\nS 1 A\nL 1 + 3 + 0M\nS 2 BB\nL 2 + 3 + 0M\nL 4 + 2 + 0M\nS 3 C\nS 4 D";
+
+        final Graph singlePassGraph = parse(gfa);
+        parser = new GfaParser(GfaParseMode.TWO_PASS);
+        final Graph twoPassGraph = parse(gfa);
+
+        assertThat(singlePassGraph.getNodeArrays()).isEqualTo(twoPassGraph.getNodeArrays());
+    }
+
+    @Test
+    void testSinglePassLinkWithMissingNode() {
+        final String gfa = "S 1 A\nL 1 + 2 + 0M";
+
+        final Throwable e = catchThrowable(() -> parse(gfa));
+        assertThat(e).isInstanceOf(GfaParseException.class);
+        assertThat(e).hasMessageContaining("Link has reference to non existing node 2");
+    }
+
+    @Test
+    void testParallelMatchesTwoPass() throws GfaParseException, IOException {
+        final String gfa = "H\tORI:Z:a.fasta;b.fasta\nS 1 A\nL 1 + 3 + 0M\nS 2 BB\nL 2 + 3 + 0M\nL 4 + 2 + 0M\n"
+                + "S 3 C\nP 1 1+ *\nS 4 D\nL 3 + 4 + 0M\nS 5 EEEEE\n\nL 5 + 1 + 0M";
+
+        parser = new GfaParser(GfaParseMode.TWO_PASS);
+        final Graph twoPassGraph = parse(gfa);
+
+        for (int chunkCount = 1; chunkCount <= 20; chunkCount++) {
+            parser = new GfaParser(GfaParseMode.PARALLEL, chunkCount);
+            final Graph parallelGraph = parseFile(gfa);
+
+            assertThat(parallelGraph.getNodeArrays()).isEqualTo(twoPassGraph.getNodeArrays());
+        }
+    }
+
+    @Test
+    void testParallelCarriageReturnByteOffsets() throws GfaParseException, IOException {
+        parser = new GfaParser(GfaParseMode.PARALLEL, 2);
+        final Graph graph = parseFile("S 1 A\r\nS 2 BB\r\nL 1 + 2 + 0M");
+
+        assertThat(graph.getByteOffset(1)).isEqualTo(0);
+        assertThat(graph.getByteOffset(2)).isEqualTo(7);
+        assertThat(graph.getSequenceLength(2)).isEqualTo(2);
+    }
+
+    @Test
+    void testParallelGenomeMapping() throws GfaParseException, IOException {
+        parser = new GfaParser(GfaParseMode.PARALLEL, 3);
+        final Graph graph = parseFile("H\tORI:Z:a.fasta;b.fasta\nS 1 A\nS 2 B\nL 1 + 2 + 0M");
+
+        assertThat(graph.getGfaFile().getGenomeMapping()).containsEntry("0", "a.fasta").containsEntry("1", "b.fasta");
+    }
+
+    @Test
+    void testParallelUnknownRecordType() {
+        parser = new GfaParser(GfaParseMode.PARALLEL, 2);
+
+        final Throwable e = catchThrowable(() -> parseFile("S 1 A\nX 1 + 2 + 0M"));
+        assertThat(e).isInstanceOf(GfaParseException.class);
+        assertThat(e).hasMessageContaining("Unknown record type `X` at position 6");
+    }
+
+    @Test
+    void testParallelLinkWithMissingNode() {
+        parser = new GfaParser(GfaParseMode.PARALLEL, 2);
+
+        final Throwable e = catchThrowable(() -> parseFile("S 1 A\nL 1 + 2 + 0M"));
+        assertThat(e).isInstanceOf(GfaParseException.class);
+        assertThat(e).hasMessageContaining("Link has reference to non existing node 2");
+    }
+
+    @Test
+    void testParallelNodeNames() throws GfaParseException, IOException {
+        parser = new GfaParser(GfaParseMode.PARALLEL, 2);
+        final Graph graph = parseFile("S 7 A\nS x B\nS 0042 C\nL 7 + x + 0M");
+
+        final NodeNameDictionary nodeNames = graph.getGfaFile().getNodeNames();
+
+        assertThat(nodeNames).isNotNull();
+        assertThat(nodeNames.get("7")).isEqualTo(1);
+        assertThat(nodeNames.get("x")).isEqualTo(2);
+        assertThat(nodeNames.get("0042")).isEqualTo(3);
+        assertThat(nodeNames.get("42")).isEqualTo(NodeNameDictionary.ABSENT);
+    }
+
+    @Test
+    void testSinglePassMixedNodeNames() throws GfaParseException {
+        final String gfa = "L b + 2 + 0M\nS 2 A\nL 2 + 2000000000 + 0M\nS b B\nS 2000000000 C";
+        final Graph graph = parse(gfa);
+
+        assertThat(graph.getNeighbour(2, SequenceDirection.RIGHT, 0)).isEqualTo(1);
+        assertThat(graph.getNeighbour(1, SequenceDirection.RIGHT, 0)).isEqualTo(3);
+    }
+
+    @Test
+    void testTwoPassEdgeSpecifiedBeforeAllNodes() throws GfaParseException {
+        parser = new GfaParser(GfaParseMode.TWO_PASS);
+        final String gfa = "L 100 + 200 + 0M\nS 100 A\nS 200 B";
+        final Graph graph = parse(gfa);
+
+        final ArrayBasedNode firstNode = ArrayBasedNode.fromGraph(graph, 1);
+
+        assertThat(firstNode.getNumberOfOutgoingEdges()).isEqualTo(1);
+        assertThat(firstNode.getOutgoingEdges()).contains(new ArrayBasedEdge(1, 2, UnsignedInteger.fromLong(0), null));
+    }
+
+
 
     private String replaceSpacesWithTabs(final String string) {
         return string.replaceAll(" ", "\t");
@@ -161,4 +273,14 @@ final class GfaParserTest {
         );
         return parser.parse(gfaFile, ProgressUpdater.DUMMY);
     }
+
+    private Graph parseFile(final String gfa) throws GfaParseException, IOException {
+        final Path path = Files.createTempFile("hygene-parser-test", ".gfa");
+        try {
+            Files.write(path, replaceSpacesWithTabs(gfa).getBytes(StandardCharsets.UTF_8));
+            return parser.parse(new GfaFile(path.toString()), ProgressUpdater.DUMMY);
+        } finally {
+            Files.delete(path);
+        }
+    }
 }
@@ -0,0 +1,227 @@
+package org.dnacronym.hygene.parser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Unit tests for {@link GfaTokenizer}.
+ */
+final class GfaTokenizerTest {
+    private Path path;
+    private FileChannel channel;
+
+
+    @AfterEach
+    void afterEach() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        if (path != null) {
+            Files.delete(path);
+        }
+    }
+
+
+    @Test
+    void testEmptyFile() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("");
+
+        assertThat(tokenizer.nextLine()).isFalse();
+    }
+
+    @Test
+    void testLines() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("S\t1\tA\nL\t1\t+\t2\t+\t0M\n");
+
+        assertThat(readLines(tokenizer)).containsExactly("S\t1\tA", "L\t1\t+\t2\t+\t0M");
+    }
+
+    @Test
+    void testLastLineWithoutNewline() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("S\t1\tA\nS\t2\tB");
+
+        assertThat(readLines(tokenizer)).containsExactly("S\t1\tA", "S\t2\tB");
+    }
+
+    @Test
+    void testCarriageReturnIsStripped() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("S\t1\tA\r\nS\t2\tB\r\n");
+
+        assertThat(readLines(tokenizer)).containsExactly("S\t1\tA", "S\t2\tB");
+    }
+
+    @Test
+    void testLineByteOffsets() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("S\t1\tA\r\n\nS\t2\tB\n");
+
+        final List<Long> byteOffsets = new ArrayList<>();
+        while (tokenizer.nextLine()) {
+            byteOffsets.add(tokenizer.getLineByteOffset());
+        }
+        assertThat(byteOffsets).containsExactly(0L, 7L, 8L);
+    }
+
+    @Test
+    void testFields() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("S\tname\tACGT\tRC:i:4\n");
+        tokenizer.nextLine();
+
+        final List<String> fields = new ArrayList<>();
+        while (tokenizer.nextField()) {
+            fields.add(tokenizer.getFieldString());
+        }
+        assertThat(fields).containsExactly("S", "name", "ACGT", "RC:i:4");
+    }
+
+    @Test
+    void testFieldLengthAndRecordType() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("S\tname\tACGT\n");
+        tokenizer.nextLine();
+        tokenizer.nextField();
+        tokenizer.nextField();
+        tokenizer.nextField();
+
+        assertThat(tokenizer.getRecordType()).isEqualTo((byte) 'S');
+        assertThat(tokenizer.getFieldLength()).isEqualTo(4);
+    }
+
+    @Test
+    void testLineContainsTab() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("no tabs here\nS\t1\n");
+
+        tokenizer.nextLine();
+        assertThat(tokenizer.lineContainsTab()).isFalse();
+        tokenizer.nextLine();
+        assertThat(tokenizer.lineContainsTab()).isTrue();
+    }
+
+    @Test
+    void testFieldEquals() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("S\tname\n");
+        tokenizer.nextLine();
+        tokenizer.nextField();
+        tokenizer.nextField();
+
+        final byte[] names = "names".getBytes(StandardCharsets.UTF_8);
+        assertThat(tokenizer.fieldEquals(names, 0, 4)).isTrue();
+        assertThat(tokenizer.fieldEquals(names, 0, 3)).isFalse();
+        assertThat(tokenizer.fieldEquals(names, 0, 5)).isFalse();
+        assertThat(tokenizer.fieldEquals(names, 1, 4)).isFalse();
+    }
+
+    @Test
+    void testFieldEqualsNonAscii() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("S\tnäme\n");
+        tokenizer.nextLine();
+        tokenizer.nextField();
+        tokenizer.nextField();
+
+        final byte[] nonAscii = "näme".getBytes(StandardCharsets.UTF_8);
+        final byte[] ascii = "name".getBytes(StandardCharsets.UTF_8);
+        assertThat(tokenizer.fieldEquals(nonAscii, 0, nonAscii.length)).isTrue();
+        assertThat(tokenizer.fieldEquals(ascii, 0, ascii.length)).isFalse();
+    }
+
+    @Test
+    void testCopyField() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("S\tnäme\n");
+        tokenizer.nextLine();
+        tokenizer.nextField();
+        tokenizer.nextField();
+
+        final byte[] destination = new byte[tokenizer.getFieldLength() + 1];
+        tokenizer.copyField(destination, 1);
+
+        assertThat(new String(destination, 1, destination.length - 1, StandardCharsets.UTF_8)).isEqualTo("näme");
+    }
+
+    @Test
+    void testFieldHashCodeEqualsStringHashCode() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("S\tsome-node-name\n");
+        tokenizer.nextLine();
+        tokenizer.nextField();
+        tokenizer.nextField();
+
+        assertThat(tokenizer.fieldHashCode()).isEqualTo("some-node-name".hashCode());
+    }
+
+    @Test
+    void testFieldStartsWithAndIndexOf() throws IOException {
+        final GfaTokenizer tokenizer = createTokenizer("S\t1\tA\tORI:Z:a;b\n");
+        tokenizer.nextLine();
+        for (int i = 0; i < 4; i++) {
+            tokenizer.nextField();
+        }
+
+        assertThat(tokenizer.fieldStartsWith("ORI:Z:".getBytes(StandardCharsets.UTF_8))).isTrue();
+        assertThat(tokenizer.fieldIndexOf((byte) ';', 0)).isEqualTo(7);
+        assertThat(tokenizer.fieldIndexOf((byte) ';', 8)).isEqualTo(-1);
+        assertThat(tokenizer.fieldRegionEquals(8, 1, "b".getBytes(StandardCharsets.UTF_8))).isTrue();
+    }
+
+    @Test
+    void testLinesAcrossWindows() throws IOException {
+        final StringBuilder gfa = new StringBuilder();
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final String line = "S\t" + i + "\tACGTACGT";
+            expected.add(line);
+            gfa.append(line).append('\n');
+        }
+        path = Files.createTempFile("hygene-tokenizer-test", ".gfa");
+        Files.write(path, gfa.toString().getBytes(StandardCharsets.UTF_8));
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        final GfaTokenizer tokenizer = new GfaTokenizer(channel, 0, channel.size(), 16);
+
+        assertThat(readLines(tokenizer)).isEqualTo(expected);
+    }
+
+    @Test
+    void testLineLongerThanWindow() throws IOException {
+        path = Files.createTempFile("hygene-tokenizer-test", ".gfa");
+        Files.write(path, "S\t1\tACGTACGTACGTACGTACGT\nS\t2\tA\n".getBytes(StandardCharsets.UTF_8));
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        final GfaTokenizer tokenizer = new GfaTokenizer(channel, 0, channel.size(), 4);
+
+        assertThat(readLines(tokenizer)).containsExactly("S\t1\tACGTACGTACGTACGTACGT", "S\t2\tA");
+    }
+
+    @Test
+    void testByteRange() throws IOException {
+        createTokenizer("S\t1\tA\nS\t2\tB\nS\t3\tC\n");
+
+        final GfaTokenizer tokenizer = new GfaTokenizer(channel, 6, 12);
+
+        assertThat(readLines(tokenizer)).containsExactly("S\t2\tB");
+    }
+
+
+    private GfaTokenizer createTokenizer(final String gfa) throws IOException {
+        path = Files.createTempFile("hygene-tokenizer-test", ".gfa");
+        Files.write(path, gfa.getBytes(StandardCharsets.UTF_8));
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new GfaTokenizer(channel);
+    }
+
+    private List<String> readLines(final GfaTokenizer tokenizer) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        while (tokenizer.nextLine()) {
+            lines.add(tokenizer.getLineString());
+        }
+        return lines;
+    }
+}
@@ -1,7 +1,9 @@
 package org.dnacronym.hygene.parser;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import org.dnacronym.hygene.graph.metadata.EdgeMetadata;
+import org.dnacronym.hygene.graph.metadata.GenomeDictionary;
 import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,19 +12,22 @@ import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.RandomAccessFile;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 
 final class MetadataParserTest {
     private MetadataParser parser;
-    private RandomAccessFile randomAccessFile;
+    private GfaLineReader lineReader;
 
 
     @BeforeEach
@@ -34,7 +39,7 @@ final class MetadataParserTest {
     @Test
     void testParseNodeMetadata() throws MetadataParseException, IOException {
         final GfaFile gfaFile = createGfaFile("%n%nS 12 TCAAGG * ORI:Z:test.fasta;");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("S 12 TCAAGG * ORI:Z:test.fasta;"));
+        when(lineReader.readLine(anyLong())).thenReturn(replaceSpacesWithTabs("S 12 TCAAGG * ORI:Z:test.fasta;"));
 
         final NodeMetadata nodeMetadata = parser.parseNodeMetadata(gfaFile, 0);
 
@@ -49,7 +54,7 @@ final class MetadataParserTest {
                 + "%n%n%nS 12 TAG * ORI:Z:test.fasta;"
                 + "%nS 12 CAT * ORI:Z:test.fasta;"
                 + "%nS 12 SANITYCHECK * ORI:Z:test.fasta;");
-        when(randomAccessFile.readLine()).thenReturn(
+        when(lineReader.readLine(anyLong())).thenReturn(
                 replaceSpacesWithTabs("S 12 TCAAGG * ORI:Z:test.fasta;"),
                 replaceSpacesWithTabs("S 12 TAG * ORI:Z:test.fasta;"),
                 replaceSpacesWithTabs("S 12 CAT * ORI:Z:test.fasta;")
@@ -65,10 +70,55 @@ final class MetadataParserTest {
         assertThat(nodesMetadata.get(3).getSequence()).isEqualTo("CAT");
     }
 
+    @Test
+    void testParseLazyNodeMetadata() throws MetadataParseException, IOException {
+        final String sequence = "T" + Strings.repeat("CAAGG", MetadataParser.LAZY_SEQUENCE_LENGTH);
+        final GfaFile gfaFile = createGfaFile("%nS 12 " + sequence + " * ORI:Z:test.fasta;");
+        when(lineReader.readLine(anyLong()))
+                .thenReturn(replaceSpacesWithTabs("S 12 " + sequence + " * ORI:Z:test.fasta;"));
+        when(lineReader.read(1033, 3)).thenReturn("CAA");
+
+        final NodeMetadata nodeMetadata = parser.parseLazyNodeMetadata(gfaFile, ImmutableMap.of(1, 2L)).get(1);
+
+        assertThat(nodeMetadata.getName()).isEqualTo("12");
+        assertThat(nodeMetadata.getGenomes()).contains("test.fasta");
+        assertThat(nodeMetadata.getSequenceLength()).isEqualTo(sequence.length());
+        assertThat(nodeMetadata.isSequenceLoaded()).isFalse();
+        assertThat(nodeMetadata.getSequence(1026, 3)).isEqualTo("CAA");
+        assertThat(nodeMetadata.getSequencePrefix(Integer.MAX_VALUE))
+                .isEqualTo(sequence.substring(0, MetadataParser.LAZY_SEQUENCE_PREFIX_LENGTH));
+    }
+
+    @Test
+    void testParseLazyNodeMetadataWithRepeatedTabs() throws MetadataParseException, IOException {
+        final String sequence = "T" + Strings.repeat("CAAGG", MetadataParser.LAZY_SEQUENCE_LENGTH);
+        final GfaFile gfaFile = createGfaFile("%nS  12  " + sequence + " * ORI:Z:test.fasta;");
+        when(lineReader.readLine(anyLong()))
+                .thenReturn(replaceSpacesWithTabs("S  12  " + sequence + " * ORI:Z:test.fasta;"));
+        when(lineReader.read(2 + 7 + 1026, 3)).thenReturn("CAA");
+
+        final NodeMetadata nodeMetadata = parser.parseLazyNodeMetadata(gfaFile, ImmutableMap.of(1, 2L)).get(1);
+
+        assertThat(nodeMetadata.getName()).isEqualTo("12");
+        assertThat(nodeMetadata.getSequenceLength()).isEqualTo(sequence.length());
+        assertThat(nodeMetadata.getSequence(1026, 3)).isEqualTo("CAA");
+    }
+
+    @Test
+    void testParseLazyNodeMetadataWithShortSequence() throws MetadataParseException, IOException {
+        final GfaFile gfaFile = createGfaFile("%nS 12 TCAAGG * ORI:Z:test.fasta;");
+        when(lineReader.readLine(anyLong())).thenReturn(replaceSpacesWithTabs("S 12 TCAAGG * ORI:Z:test.fasta;"));
+
+        final NodeMetadata nodeMetadata = parser.parseLazyNodeMetadata(gfaFile, ImmutableMap.of(1, 2L)).get(1);
+
+        assertThat(nodeMetadata.isSequenceLoaded()).isTrue();
+        assertThat(nodeMetadata.getSequence()).isEqualTo("TCAAGG");
+    }
+
     @Test
     void testParseEdgeMetadata() throws MetadataParseException, IOException {
         final GfaFile gfaFile = createGfaFile("L 12 + 24 - 4M");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("L 12 + 24 - 4M"));
+        when(lineReader.readLine(anyLong())).thenReturn(replaceSpacesWithTabs("L 12 + 24 - 4M"));
         final EdgeMetadata edgeMetadata = parser.parseEdgeMetadata(gfaFile, 2);
 
         assertThat(edgeMetadata.getFromOrient()).isEqualTo("+");
@@ -79,7 +129,7 @@ final class MetadataParserTest {
     @Test
     void testParseNodeMetadataWithInvalidLineBecauseTheSequenceIsMissing() throws MetadataParseException, IOException {
         final GfaFile gfaFile = createGfaFile("S 12");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("S 12"));
+        when(lineReader.readLine(anyLong())).thenReturn(replaceSpacesWithTabs("S 12"));
 
         final Throwable e = catchThrowable(() -> parser.parseNodeMetadata(gfaFile, 1));
 
@@ -90,7 +140,7 @@ final class MetadataParserTest {
     @Test
     void testParseNodeMetadataWithInvalidLineBecauseTheGenomeIsMissing() throws MetadataParseException, IOException {
         final GfaFile gfaFile = createGfaFile("S 12 AC *");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("S 12 AC *"));
+        when(lineReader.readLine(anyLong())).thenReturn(replaceSpacesWithTabs("S 12 AC *"));
 
         Throwable e = catchThrowable(() -> parser.parseNodeMetadata(gfaFile, 1));
 
@@ -101,7 +151,7 @@ final class MetadataParserTest {
     void testParseNodeMetadataWithInvalidLineBecauseTheGenomePrefixIsIncorrect()
             throws MetadataParseException, IOException {
         final GfaFile gfaFile = createGfaFile("S 12 AC * ORY:Z:test.fasta;");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("S 12 AC * ORY:Z:test.fasta;"));
+        when(lineReader.readLine(anyLong())).thenReturn(replaceSpacesWithTabs("S 12 AC * ORY:Z:test.fasta;"));
 
         Throwable e = catchThrowable(() -> parser.parseNodeMetadata(gfaFile, 1));
 
@@ -111,7 +161,7 @@ final class MetadataParserTest {
     @Test
     void testParseEdgeMetadataWithInvalidLineBecauseTheOrientIsMissing() throws MetadataParseException, IOException {
         final GfaFile gfaFile = createGfaFile("L 12 + 24");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("L 12 + 24"));
+        when(lineReader.readLine(anyLong())).thenReturn(replaceSpacesWithTabs("L 12 + 24"));
 
         final Throwable e = catchThrowable(() -> parser.parseEdgeMetadata(gfaFile, 1));
 
@@ -122,7 +172,7 @@ final class MetadataParserTest {
     @Test
     void testParseNodeMetadataWithAnEdgeLine() throws MetadataParseException, IOException {
         final GfaFile gfaFile = createGfaFile("L 12 + 24 - 4M");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("L 12 + 24 - 4M"));
+        when(lineReader.readLine(anyLong())).thenReturn(replaceSpacesWithTabs("L 12 + 24 - 4M"));
 
         final Throwable e = catchThrowable(() -> parser.parseNodeMetadata(gfaFile, 1));
 
@@ -130,10 +180,31 @@ final class MetadataParserTest {
         assertThat(e).hasMessageContaining("Expected line at position 1 to start with S");
     }
 
+    @Test
+    void testParseNodeMetadataBeyondEndOfFile() throws MetadataParseException, IOException {
+        final GfaFile gfaFile = createGfaFile("S 12 ACTG");
+        when(lineReader.readLine(anyLong())).thenReturn(null);
+
+        final Throwable e = catchThrowable(() -> parser.parseNodeMetadata(gfaFile, 100));
+
+        assertThat(e).isInstanceOf(MetadataParseException.class);
+        assertThat(e).hasMessageContaining("Line was null");
+    }
+
+    @Test
+    void testParseNodeMetadataWithNegativeByteOffset() throws MetadataParseException, IOException {
+        final GfaFile gfaFile = createGfaFile("S 12 ACTG");
+
+        final Throwable e = catchThrowable(() -> parser.parseNodeMetadata(gfaFile, ImmutableMap.of(1, 0L, 2, -1L)));
+
+        assertThat(e).isInstanceOf(MetadataParseException.class);
+        assertThat(e).hasMessageContaining("Byte offset -1 is not a valid byte offset");
+    }
+
     @Test
     void testParseEdgeMetadataWithANodeLine() throws MetadataParseException, IOException {
         final GfaFile gfaFile = createGfaFile("S 12 ACTG");
-        when(randomAccessFile.readLine()).thenReturn(replaceSpacesWithTabs("S 12 ACTG"));
+        when(lineReader.readLine(anyLong())).thenReturn(replaceSpacesWithTabs("S 12 ACTG"));
 
         final Throwable e = catchThrowable(() -> parser.parseEdgeMetadata(gfaFile, 1));
 
@@ -142,7 +213,7 @@ final class MetadataParserTest {
     }
 
 
-    private GfaFile createGfaFile(final String gfa) throws MetadataParseException {
+    private GfaFile createGfaFile(final String gfa) throws MetadataParseException, IOException {
         final byte[] gfaBytes = replaceSpacesWithTabs(gfa).getBytes(StandardCharsets.UTF_8);
         final GfaFile gfaFile = mock(GfaFile.class);
         try {
@@ -152,8 +223,20 @@ final class MetadataParserTest {
         } catch (final GfaParseException e) {
             e.printStackTrace();
         }
-        randomAccessFile = mock(RandomAccessFile.class);
-        when(gfaFile.getRandomAccessFile()).thenReturn(randomAccessFile);
+        lineReader = mock(GfaLineReader.class);
+        when(lineReader.readLines(any(), any())).thenAnswer(invocationOnMock -> {
+            final long[] byteOffsets = invocationOnMock.getArgument(0);
+            final GfaLineReader.LineParser<?> lineParser = invocationOnMock.getArgument(1);
+            final List<Object> lines = new ArrayList<>();
+            for (final long byteOffset : byteOffsets) {
+                final String line = lineReader.readLine(byteOffset);
+                final byte[] bytes = line == null ? null : line.getBytes(StandardCharsets.UTF_8);
+                lines.add(bytes == null ? null : lineParser.parse(bytes, 0, bytes.length));
+            }
+            return lines;
+        });
+        when(gfaFile.getLineReader()).thenReturn(lineReader);
+        when(gfaFile.getGenomeDictionary()).thenReturn(new GenomeDictionary());
         return gfaFile;
     }
 
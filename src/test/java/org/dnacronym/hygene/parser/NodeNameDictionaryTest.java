@@ -0,0 +1,177 @@
+package org.dnacronym.hygene.parser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link NodeNameDictionary}.
+ */
+final class NodeNameDictionaryTest {
+    private NodeNameDictionary dictionary;
+
+
+    @BeforeEach
+    void beforeEach() {
+        dictionary = new NodeNameDictionary();
+    }
+
+
+    @Test
+    void testGetAbsent() {
+        assertThat(dictionary.get("1")).isEqualTo(NodeNameDictionary.ABSENT);
+        assertThat(dictionary.get("name")).isEqualTo(NodeNameDictionary.ABSENT);
+        assertThat(dictionary.size()).isEqualTo(0);
+    }
+
+    @Test
+    void testPutAndGetNumeric() {
+        dictionary.put("0", 1);
+        dictionary.put("12", 2);
+
+        assertThat(dictionary.get("0")).isEqualTo(1);
+        assertThat(dictionary.get("12")).isEqualTo(2);
+        assertThat(dictionary.get("1")).isEqualTo(NodeNameDictionary.ABSENT);
+        assertThat(dictionary.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testPutAndGetText() {
+        dictionary.put("<source>", 0);
+        dictionary.put("node", 1);
+
+        assertThat(dictionary.get("<source>")).isEqualTo(0);
+        assertThat(dictionary.get("node")).isEqualTo(1);
+        assertThat(dictionary.get("nod")).isEqualTo(NodeNameDictionary.ABSENT);
+    }
+
+    @Test
+    void testPutAndGetNonAscii() {
+        dictionary.put("knoop-é", 1);
+        dictionary.put("knoop-e", 2);
+
+        assertThat(dictionary.get("knoop-é")).isEqualTo(1);
+        assertThat(dictionary.get("knoop-e")).isEqualTo(2);
+    }
+
+    /**
+     * Tests that numbers with leading zeroes or signs are distinct from the numbers they represent.
+     */
+    @Test
+    void testNonCanonicalNumbers() {
+        dictionary.put("7", 1);
+        dictionary.put("007", 2);
+        dictionary.put("+7", 3);
+
+        assertThat(dictionary.get("7")).isEqualTo(1);
+        assertThat(dictionary.get("007")).isEqualTo(2);
+        assertThat(dictionary.get("+7")).isEqualTo(3);
+    }
+
+    @Test
+    void testLargeNumbers() {
+        dictionary.put("2147483647", 1);
+        dictionary.put("2147483648", 2);
+        dictionary.put("5", 3);
+
+        assertThat(dictionary.get("2147483647")).isEqualTo(1);
+        assertThat(dictionary.get("2147483648")).isEqualTo(2);
+        assertThat(dictionary.get("5")).isEqualTo(3);
+        assertThat(dictionary.get("2147483646")).isEqualTo(NodeNameDictionary.ABSENT);
+    }
+
+    /**
+     * Tests that a number that was hashed because it was too large is not stored a second time once the array of
+     * numeric names has grown past it.
+     */
+    @Test
+    void testPutNumberHashedBeforeArrayGrew() {
+        dictionary.put("5000", 1);
+        for (int i = 0; i < 3000; i++) {
+            dictionary.put(Integer.toString(i), i);
+        }
+
+        dictionary.put("5000", 2);
+
+        assertThat(dictionary.get("5000")).isEqualTo(2);
+        assertThat(dictionary.size()).isEqualTo(3001);
+    }
+
+    @Test
+    void testPutReplaces() {
+        dictionary.put("1", 1);
+        dictionary.put("a", 2);
+        dictionary.put("1", 3);
+        dictionary.put("a", 4);
+
+        assertThat(dictionary.get("1")).isEqualTo(3);
+        assertThat(dictionary.get("a")).isEqualTo(4);
+        assertThat(dictionary.size()).isEqualTo(2);
+    }
+
+    /**
+     * Tests that names given as bytes and names given as strings refer to the same entries.
+     */
+    @Test
+    void testPutAndGetBytes() {
+        final byte[] bytes = "L\t12\tsegment\tknoop-é".getBytes(StandardCharsets.UTF_8);
+        dictionary.put(bytes, 2, 2, 1);
+        dictionary.put(bytes, 5, 7, 2);
+        dictionary.put("knoop-é", 3);
+
+        assertThat(dictionary.get("12")).isEqualTo(1);
+        assertThat(dictionary.get("segment")).isEqualTo(2);
+        assertThat(dictionary.get(bytes, 13, bytes.length - 13)).isEqualTo(3);
+        assertThat(dictionary.get(bytes, 5, 6)).isEqualTo(NodeNameDictionary.ABSENT);
+        assertThat(dictionary.size()).isEqualTo(3);
+    }
+
+    @Test
+    void testPutNegativeId() {
+        final Throwable e = catchThrowable(() -> dictionary.put("a", -1));
+
+        assertThat(e).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Tests that names are still found after the numeric array, the hash table and the arena have grown.
+     */
+    @Test
+    void testManyNames() {
+        for (int i = 0; i < 100_000; i++) {
+            dictionary.put(Integer.toString(i), i);
+            dictionary.put("segment" + i, i);
+        }
+
+        assertThat(dictionary.size()).isEqualTo(200_000);
+        for (int i = 0; i < 100_000; i += 7) {
+            assertThat(dictionary.get(Integer.toString(i))).isEqualTo(i);
+            assertThat(dictionary.get("segment" + i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void testParseNumber() {
+        assertThat(NodeNameDictionary.parseNumber("0")).isEqualTo(0);
+        assertThat(NodeNameDictionary.parseNumber("42")).isEqualTo(42);
+        assertThat(NodeNameDictionary.parseNumber("042")).isEqualTo(-1);
+        assertThat(NodeNameDictionary.parseNumber("-42")).isEqualTo(-1);
+        assertThat(NodeNameDictionary.parseNumber("")).isEqualTo(-1);
+        assertThat(NodeNameDictionary.parseNumber("4a")).isEqualTo(-1);
+        assertThat(NodeNameDictionary.parseNumber("2147483648")).isEqualTo(-1);
+    }
+
+    @Test
+    void testParseNumberBytes() {
+        final byte[] bytes = "S\t042\t42".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(NodeNameDictionary.parseNumber(bytes, 6, 2)).isEqualTo(42);
+        assertThat(NodeNameDictionary.parseNumber(bytes, 2, 3)).isEqualTo(-1);
+        assertThat(NodeNameDictionary.parseNumber(bytes, 0, 1)).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,355 @@
+package org.dnacronym.hygene.persistence;
+
+import org.dnacronym.hygene.core.ByteOffsetArray;
+import org.dnacronym.hygene.core.UnsignedInteger;
+import org.dnacronym.hygene.graph.CsrGraphStorage;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.NodeBuilder;
+import org.dnacronym.hygene.graph.NodePositionIndex;
+import org.dnacronym.hygene.graph.NodeRenumbering;
+import org.dnacronym.hygene.graph.OffHeapGraphStorage;
+import org.dnacronym.hygene.graph.SequenceDirection;
+import org.dnacronym.hygene.graph.TopologicalOrder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+
+/**
+ * Unit tests for {@link GraphCacheFile}.
+ */
+final class GraphCacheFileTest {
+    private static final NodePositionIndex EMPTY_POSITIONS = new NodePositionIndex(new long[0], new int[0], 0);
+
+    private File file;
+    private GraphCacheFile cacheFile;
+    private int[][] nodeArrays;
+
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = File.createTempFile("graph", ".hygenecache");
+        cacheFile = new GraphCacheFile(file);
+
+        nodeArrays = new int[][] {
+                NodeBuilder.start().withOutgoingEdge(1, 0).withOutgoingEdge(2, 0).toArray(),
+                NodeBuilder.start().withByteOffset(3_000_000_000L).withSequenceLength(3).withUnscaledXPosition(7)
+                        .withOutgoingEdge(3, UnsignedInteger.fromLong(30)).withIncomingEdge(0, 0).toArray(),
+                NodeBuilder.start().withByteOffset(20).withSequenceLength(5)
+                        .withOutgoingEdge(3, UnsignedInteger.fromLong(4_000_000_000L)).withIncomingEdge(0, 0)
+                        .toArray(),
+                NodeBuilder.start().withIncomingEdge(1, UnsignedInteger.fromLong(30))
+                        .withIncomingEdge(2, UnsignedInteger.fromLong(4_000_000_000L)).toArray()
+        };
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+
+    @Test
+    void testRoundTrip() throws IOException {
+        write(nodeArrays, EMPTY_POSITIONS);
+
+        final OffHeapGraphStorage storage = cacheFile.map();
+
+        assertThat(storage.size()).isEqualTo(nodeArrays.length);
+        assertThat(storage.getByteOffset(1)).isEqualTo(3_000_000_000L);
+        assertThat(storage.getEdgeByteOffset(3, SequenceDirection.LEFT, 1)).isEqualTo(4_000_000_000L);
+        for (int id = 0; id < nodeArrays.length; id++) {
+            assertThat(storage.getNodeArray(id)).isEqualTo(nodeArrays[id]);
+        }
+    }
+
+    @Test
+    void testRoundTripEmpty() throws IOException {
+        write(new int[][] {}, EMPTY_POSITIONS);
+
+        assertThat(cacheFile.map().size()).isEqualTo(0);
+    }
+
+    @Test
+    void testRoundTripLargerThanBuffer() throws IOException {
+        final int[][] chain = new int[600_000][];
+        chain[0] = NodeBuilder.start().withOutgoingEdge(1, 0).toArray();
+        for (int id = 1; id < chain.length - 1; id++) {
+            chain[id] = NodeBuilder.start().withByteOffset(id).withSequenceLength(id % 7)
+                    .withIncomingEdge(id - 1, id).withOutgoingEdge(id + 1, id + 1).toArray();
+        }
+        chain[chain.length - 1] = NodeBuilder.start().withIncomingEdge(chain.length - 2, chain.length - 1).toArray();
+        write(chain, EMPTY_POSITIONS);
+
+        final OffHeapGraphStorage storage = cacheFile.map();
+
+        for (int id = 0; id < chain.length; id += 997) {
+            assertThat(storage.getNodeArray(id)).isEqualTo(chain[id]);
+        }
+        assertThat(storage.getNodeArray(chain.length - 1)).isEqualTo(chain[chain.length - 1]);
+    }
+
+    @Test
+    void testMap() throws IOException {
+        write(nodeArrays, EMPTY_POSITIONS);
+
+        final OffHeapGraphStorage storage = cacheFile.map();
+
+        assertThat(storage.size()).isEqualTo(nodeArrays.length);
+        assertThat(storage.getEdgeCount()).isEqualTo(4);
+        for (int id = 0; id < nodeArrays.length; id++) {
+            assertThat(storage.getNodeArray(id)).isEqualTo(nodeArrays[id]);
+        }
+    }
+
+    @Test
+    void testMapDoesNotWriteBack() throws IOException {
+        write(nodeArrays, EMPTY_POSITIONS);
+
+        cacheFile.map().setUnscaledXPosition(1, 42);
+
+        assertThat(cacheFile.map().getUnscaledXPosition(1)).isEqualTo(7);
+    }
+
+    @Test
+    void testMapReadOnlyFile() throws IOException {
+        write(nodeArrays, EMPTY_POSITIONS);
+        final byte[] contents = Files.readAllBytes(file.toPath());
+        assertThat(file.setReadOnly()).isTrue();
+
+        final OffHeapGraphStorage storage = cacheFile.map();
+        storage.setUnscaledXPosition(1, 42);
+
+        assertThat(storage.getUnscaledXPosition(1)).isEqualTo(42);
+        assertThat(storage.getNodeArray(2)).isEqualTo(nodeArrays[2]);
+        assertThat(Files.readAllBytes(file.toPath())).isEqualTo(contents);
+    }
+
+    @Test
+    void testMapSurvivesRewrite() throws IOException {
+        write(nodeArrays, EMPTY_POSITIONS);
+        final OffHeapGraphStorage storage = cacheFile.map();
+
+        write(new int[][] {}, EMPTY_POSITIONS);
+
+        assertThat(storage.getNodeArray(2)).isEqualTo(nodeArrays[2]);
+        assertThat(cacheFile.map().size()).isEqualTo(0);
+    }
+
+    @Test
+    void testMapWideByteOffsets() throws IOException {
+        writeWide();
+
+        final OffHeapGraphStorage storage = cacheFile.map();
+
+        assertThat(storage.hasWideByteOffsets()).isTrue();
+        assertThat(storage.getByteOffset(1)).isEqualTo(5_000_000_000L);
+        assertThat(storage.getSequenceLength(1)).isEqualTo(7);
+        assertThat(storage.getEdgeByteOffset(0, SequenceDirection.RIGHT, 0)).isEqualTo(6_000_000_000L);
+        assertThat(storage.getEdgeByteOffset(1, SequenceDirection.LEFT, 0)).isEqualTo(6_000_000_000L);
+    }
+
+    @Test
+    void testMapNarrowByteOffsets() throws IOException {
+        write(nodeArrays, EMPTY_POSITIONS);
+
+        assertThat(cacheFile.map().hasWideByteOffsets()).isFalse();
+    }
+
+    @Test
+    void testMapTruncatedWideFile() throws IOException {
+        writeWide();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(randomAccessFile.length() - 1);
+        }
+
+        final Throwable e = catchThrowable(() -> cacheFile.map());
+
+        assertThat(e).isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void testMapTruncatedFile() throws IOException {
+        write(nodeArrays, EMPTY_POSITIONS);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(randomAccessFile.length() - 2);
+        }
+
+        final Throwable e = catchThrowable(() -> cacheFile.map());
+
+        assertThat(e).isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void testReadNodePositions() throws IOException {
+        final NodePositionIndex nodePositions = new NodePositionIndex(
+                new long[] {0, 3_000, 3_000, 5_000_000_000L}, new int[] {1, 0, 2, 3}, 500);
+        write(nodeArrays, nodePositions);
+
+        final NodePositionIndex restored = cacheFile.readNodePositions();
+
+        assertThat(restored.size()).isEqualTo(4);
+        assertThat(restored.getMaxSpan()).isEqualTo(500);
+        for (int i = 0; i < restored.size(); i++) {
+            assertThat(restored.getPosition(i)).isEqualTo(nodePositions.getPosition(i));
+            assertThat(restored.getNodeId(i)).isEqualTo(nodePositions.getNodeId(i));
+        }
+        assertThat(cacheFile.map().getNodeArray(3)).isEqualTo(nodeArrays[3]);
+    }
+
+    @Test
+    void testReadTopologicalOrder() throws IOException {
+        final NodePositionIndex nodePositions = new NodePositionIndex(new long[] {0, 3_000}, new int[] {1, 2}, 500);
+        write(nodeArrays, nodePositions);
+
+        final TopologicalOrder restored = cacheFile.readTopologicalOrder();
+
+        assertThat(restored.size()).isEqualTo(4);
+        assertThat(restored.getNodeCount()).isEqualTo(4);
+        assertThat(restored.getNodeId(0)).isEqualTo(0);
+        assertThat(restored.getNodeId(3)).isEqualTo(3);
+        assertThat(restored.getRank(1)).isIn(1, 2);
+        assertThat(restored.getRank(2)).isIn(1, 2);
+        assertThat(cacheFile.readNodePositions().getNodeId(1)).isEqualTo(2);
+    }
+
+    @Test
+    void testReadNodeRenumberingAbsent() throws IOException {
+        write(nodeArrays, EMPTY_POSITIONS);
+
+        assertThat(cacheFile.readNodeRenumbering()).isNull();
+    }
+
+    @Test
+    void testReadNodeRenumbering() throws IOException {
+        final CsrGraphStorage storage = CsrGraphStorage.fromNodeArrays(nodeArrays);
+        cacheFile.write(storage, EMPTY_POSITIONS, TopologicalOrder.compute(new Graph(storage, null)),
+                new NodeRenumbering(new int[] {0, 2, 1, 3}));
+
+        final NodeRenumbering restored = cacheFile.readNodeRenumbering();
+
+        assertThat(restored).isNotNull();
+        assertThat(restored.size()).isEqualTo(4);
+        assertThat(restored.getOriginalId(1)).isEqualTo(2);
+        assertThat(restored.getId(1)).isEqualTo(2);
+        assertThat(cacheFile.map().getNodeArray(3)).isEqualTo(nodeArrays[3]);
+    }
+
+    @Test
+    void testHeaderIsLittleEndian() throws IOException {
+        write(nodeArrays, EMPTY_POSITIONS);
+
+        final ByteBuffer header = ByteBuffer.wrap(Arrays.copyOf(Files.readAllBytes(file.toPath()), 40))
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        assertThat(new String(header.array(), 0, 4, "US-ASCII")).isEqualTo("HYGC");
+        assertThat(header.getInt(4)).isEqualTo(GraphCacheFile.VERSION);
+        assertThat(header.getInt(12)).isEqualTo(nodeArrays.length);
+        assertThat(header.getInt(16)).isEqualTo(4);
+        assertThat(header.getInt(20)).isEqualTo(0);
+        assertThat(header.getInt(24)).isEqualTo(0);
+        assertThat(header.getInt(28)).isEqualTo(nodeArrays.length);
+        assertThat(header.getInt(32)).isEqualTo(0);
+        assertThat(header.getInt(36)).isEqualTo(0);
+    }
+
+    @Test
+    void testReadOtherMajorVersion() throws IOException {
+        write(nodeArrays, EMPTY_POSITIONS);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.seek(4);
+            randomAccessFile.writeInt(Integer.reverseBytes(GraphCacheFile.MAJOR_VERSION + 1 << 16));
+        }
+
+        final Throwable e = catchThrowable(() -> cacheFile.map());
+
+        assertThat(e).isInstanceOf(IOException.class).hasMessageContaining("major version");
+    }
+
+    /**
+     * Tests that a file of a newer minor version with an additional header field can still be read.
+     */
+    @Test
+    void testReadNewerMinorVersion() throws IOException {
+        final NodePositionIndex nodePositions = new NodePositionIndex(new long[] {0, 3_000}, new int[] {1, 2}, 500);
+        write(nodeArrays, nodePositions);
+        final byte[] original = Files.readAllBytes(file.toPath());
+        final ByteBuffer extended = ByteBuffer.allocate(original.length + Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        extended.put(original, 0, 40).putInt(-1).put(original, 40, original.length - 40);
+        extended.putInt(4, GraphCacheFile.VERSION + 1).putInt(8, extended.getInt(8) + Integer.BYTES);
+        Files.write(file.toPath(), extended.array());
+
+        final OffHeapGraphStorage storage = cacheFile.map();
+
+        for (int id = 0; id < nodeArrays.length; id++) {
+            assertThat(storage.getNodeArray(id)).isEqualTo(nodeArrays[id]);
+        }
+        assertThat(cacheFile.readNodePositions().getNodeId(1)).isEqualTo(2);
+        assertThat(cacheFile.readTopologicalOrder().size()).isEqualTo(4);
+    }
+
+    @Test
+    void testReadHeaderTooShort() throws IOException {
+        write(nodeArrays, EMPTY_POSITIONS);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.seek(8);
+            randomAccessFile.writeInt(Integer.reverseBytes(Integer.BYTES));
+        }
+
+        final Throwable e = catchThrowable(() -> cacheFile.map());
+
+        assertThat(e).isInstanceOf(IOException.class).hasMessageContaining("header");
+    }
+
+    @Test
+    void testReadTextFile() throws IOException {
+        Files.write(file.toPath(), "0 0 -1 1 1 0 \n".getBytes("UTF-8"));
+
+        final Throwable e = catchThrowable(() -> cacheFile.map());
+
+        assertThat(e).isInstanceOf(IOException.class).hasMessageContaining("not a graph cache file");
+    }
+
+
+    /**
+     * Writes the graph with the given node arrays to the cache file, together with its topological order.
+     *
+     * @param graph         the node arrays of the graph to write
+     * @param nodePositions the node positions to write
+     * @throws IOException if the cache file cannot be written to
+     */
+    private void write(final int[][] graph, final NodePositionIndex nodePositions) throws IOException {
+        final CsrGraphStorage storage = CsrGraphStorage.fromNodeArrays(graph);
+        cacheFile.write(storage, nodePositions, TopologicalOrder.compute(new Graph(storage, null)), null);
+    }
+
+    /**
+     * Writes a graph of two nodes with an edge between them to the cache file, of which the node and edge byte offsets
+     * lie beyond 4 GB.
+     *
+     * @throws IOException if the cache file cannot be written to
+     */
+    private void writeWide() throws IOException {
+        final ByteOffsetArray byteOffsets = new ByteOffsetArray(2, true);
+        byteOffsets.set(1, 5_000_000_000L);
+        final ByteOffsetArray edgeByteOffsets = new ByteOffsetArray(1, true);
+        edgeByteOffsets.set(0, 6_000_000_000L);
+        final CsrGraphStorage storage = new CsrGraphStorage(byteOffsets, new int[] {0, 7}, new int[] {-1, -1},
+                new int[] {0, 1, 1}, new int[] {1}, edgeByteOffsets,
+                new int[] {0, 0, 1}, new int[] {0}, edgeByteOffsets);
+
+        cacheFile.write(storage, EMPTY_POSITIONS, TopologicalOrder.compute(new Graph(storage, null)), null);
+    }
+}
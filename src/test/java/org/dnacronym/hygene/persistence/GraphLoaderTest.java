@@ -1,5 +1,11 @@
 package org.dnacronym.hygene.persistence;
 
+import org.dnacronym.hygene.graph.CsrGraphStorage;
+import org.dnacronym.hygene.graph.Graph;
+import org.dnacronym.hygene.graph.GraphStorage;
+import org.dnacronym.hygene.graph.NodeBuilder;
+import org.dnacronym.hygene.graph.NodePositionIndex;
+import org.dnacronym.hygene.graph.TopologicalOrder;
 import org.dnacronym.hygene.parser.ProgressUpdater;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +22,8 @@ import static org.assertj.core.api.Assertions.assertThat;
  * Unit tests for {@link GraphLoader}.
  */
 final class GraphLoaderTest extends FileDatabaseTestBase {
+    private static final NodePositionIndex EMPTY_POSITIONS = new NodePositionIndex(new long[0], new int[0], 0);
+
     private FileDatabase fileDatabase;
     private GraphLoader graphLoader;
     private ProgressUpdater progressUpdater;
@@ -49,14 +57,14 @@ final class GraphLoaderTest extends FileDatabaseTestBase {
 
     @Test
     void testHasGraphTrue() throws IOException {
-        graphLoader.dumpGraph(new int[][] {}, temporaryPath);
+        dumpGraph(new int[][] {}, EMPTY_POSITIONS);
 
         assertThat(graphLoader.hasGraph()).isTrue();
     }
 
     @Test
     void testDeleteGraph() throws IOException {
-        graphLoader.dumpGraph(new int[][] {}, temporaryPath);
+        dumpGraph(new int[][] {}, EMPTY_POSITIONS);
         graphLoader.deleteGraph();
 
         assertThat(graphLoader.hasGraph()).isFalse();
@@ -64,22 +72,83 @@ final class GraphLoaderTest extends FileDatabaseTestBase {
 
     @Test
     void testDumpGraphEquivalence() throws IOException {
-        final int[][] graph = new int[][] {{88, 5}, {8, 11, 41, 65, 45}, {18, 33}, {90, 61, 85, 83}, {6, 61, 4, 89, 98},
-                {77, 53, 24, 91}};
+        final int[][] graph = new int[][] {
+                NodeBuilder.start().withOutgoingEdge(1, 0).toArray(),
+                NodeBuilder.start().withByteOffset(88).withSequenceLength(5).withUnscaledXPosition(3)
+                        .withIncomingEdge(0, 0).withOutgoingEdge(2, 41).withOutgoingEdge(3, 65).toArray(),
+                NodeBuilder.start().withByteOffset(18).withSequenceLength(33)
+                        .withIncomingEdge(1, 41).withOutgoingEdge(3, 90).toArray(),
+                NodeBuilder.start().withIncomingEdge(1, 65).withIncomingEdge(2, 90).toArray()
+        };
+
+        dumpGraph(graph, EMPTY_POSITIONS);
+
+        assertThat(toNodeArrays(graphLoader.restoreGraph(progressUpdater, temporaryPath))).isEqualTo(graph);
+    }
+
+    @Test
+    void testDumpGraphTwice() throws IOException {
+        final int[][] graphA = new int[][] {
+                NodeBuilder.start().withOutgoingEdge(1, 0).toArray(),
+                NodeBuilder.start().withIncomingEdge(0, 0).toArray()
+        };
+        final int[][] graphB = new int[][] {
+                NodeBuilder.start().withOutgoingEdge(1, 0).toArray(),
+                NodeBuilder.start().withByteOffset(44).withIncomingEdge(0, 0).withOutgoingEdge(2, 75).toArray(),
+                NodeBuilder.start().withIncomingEdge(1, 75).toArray()
+        };
+
+        dumpGraph(graphA, EMPTY_POSITIONS);
+        dumpGraph(graphB, EMPTY_POSITIONS);
+
+        assertThat(toNodeArrays(graphLoader.restoreGraph(progressUpdater, temporaryPath))).isEqualTo(graphB);
+    }
 
-        graphLoader.dumpGraph(graph, temporaryPath);
+    @Test
+    void testDumpNodePositionsEquivalence() throws IOException {
+        final NodePositionIndex nodePositions = new NodePositionIndex(new long[] {1000, 3000}, new int[] {1, 2}, 500);
+
+        dumpGraph(new int[][] {}, nodePositions);
 
-        assertThat(graphLoader.restoreGraph(progressUpdater, temporaryPath)).isEqualTo(graph);
+        final NodePositionIndex restored = graphLoader.restoreNodePositions(temporaryPath);
+        assertThat(restored.size()).isEqualTo(2);
+        assertThat(restored.getNodeAtPosition(2999)).isEqualTo(1);
+        assertThat(restored.getNodeAtPosition(3000)).isEqualTo(2);
     }
 
     @Test
-    void testDumpGraphTwice() throws IOException {
-        final int[][] graphA = new int[][] {{47, 68, 74}, {83, 37}};
-        final int[][] graphB = new int[][] {{56}, {83, 69}, {44, 75, 91, 11}};
+    void testDumpTopologicalOrderEquivalence() throws IOException {
+        final int[][] graph = new int[][] {
+                NodeBuilder.start().withOutgoingEdge(1, 0).toArray(),
+                NodeBuilder.start().withIncomingEdge(0, 0).withOutgoingEdge(2, 0).toArray(),
+                NodeBuilder.start().withIncomingEdge(1, 0).toArray()
+        };
+
+        dumpGraph(graph, EMPTY_POSITIONS);
+
+        final TopologicalOrder restored = graphLoader.restoreTopologicalOrder(temporaryPath);
+        assertThat(restored.size()).isEqualTo(3);
+        assertThat(restored.getRank(2)).isEqualTo(2);
+    }
+
 
-        graphLoader.dumpGraph(graphA, temporaryPath);
-        graphLoader.dumpGraph(graphB, temporaryPath);
+    /**
+     * Dumps the graph with the given node arrays into the temporary file, together with its topological order.
+     *
+     * @param graph         the node arrays of the graph to dump
+     * @param nodePositions the node positions to dump
+     */
+    private void dumpGraph(final int[][] graph, final NodePositionIndex nodePositions) {
+        final CsrGraphStorage storage = CsrGraphStorage.fromNodeArrays(graph);
+        graphLoader.dumpGraph(storage, nodePositions, TopologicalOrder.compute(new Graph(storage, null)), null,
+                temporaryPath);
+    }
 
-        assertThat(graphLoader.restoreGraph(progressUpdater, temporaryPath)).isEqualTo(graphB);
+    private int[][] toNodeArrays(final GraphStorage storage) {
+        final int[][] nodeArrays = new int[storage.size()][];
+        for (int id = 0; id < storage.size(); id++) {
+            nodeArrays[id] = storage.getNodeArray(id);
+        }
+        return nodeArrays;
     }
 }
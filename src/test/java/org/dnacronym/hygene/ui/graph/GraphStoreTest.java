@@ -1,6 +1,8 @@
 package org.dnacronym.hygene.ui.graph;
 
 import javafx.application.Platform;
+import org.dnacronym.hygene.graph.GraphStorageType;
+import org.dnacronym.hygene.graph.NodeOrdering;
 import org.dnacronym.hygene.parser.ProgressUpdater;
 import org.dnacronym.hygene.persistence.FileDatabaseDriver;
 import org.dnacronym.hygene.ui.UITestBase;
@@ -34,6 +36,16 @@ final class GraphStoreTest extends UITestBase {
         assertThat(graphStore.getGfaFileProperty().get()).isNull();
     }
 
+    @Test
+    void testInitialStorageTypeHeap() {
+        assertThat(graphStore.getStorageTypeProperty().get()).isEqualTo(GraphStorageType.HEAP);
+    }
+
+    @Test
+    void testInitialNodeOrderingFile() {
+        assertThat(graphStore.getNodeOrderingProperty().get()).isEqualTo(NodeOrdering.FILE);
+    }
+
     @Test
     void testOpenGfaFile() throws IOException, ExecutionException, InterruptedException {
         final File file = new File("src/test/resources/gfa/simple.gfa");
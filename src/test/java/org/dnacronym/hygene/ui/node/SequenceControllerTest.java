@@ -1,10 +1,12 @@
 package org.dnacronym.hygene.ui.node;
 
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.event.ActionEvent;
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
+import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.dnacronym.hygene.ui.UITestBase;
 import org.junit.jupiter.api.Test;
 
@@ -19,7 +21,7 @@ import static org.mockito.Mockito.when;
 final class SequenceControllerTest extends UITestBase {
     private SequenceController sequenceController;
     private SequenceVisualizer sequenceVisualizer;
-    private StringProperty sequenceProperty;
+    private ObjectProperty<NodeMetadata> sequenceProperty;
 
 
     @Override
@@ -27,7 +29,7 @@ final class SequenceControllerTest extends UITestBase {
         sequenceController = new SequenceController();
 
         sequenceVisualizer = mock(SequenceVisualizer.class);
-        sequenceProperty = new SimpleStringProperty("sequence");
+        sequenceProperty = new SimpleObjectProperty<>(new NodeMetadata("1", "sequence", GenomeSet.EMPTY));
         when(sequenceVisualizer.getSequenceProperty()).thenReturn(sequenceProperty);
 
         sequenceController.setSequenceVisualizer(sequenceVisualizer);
@@ -77,6 +79,6 @@ final class SequenceControllerTest extends UITestBase {
     void testGoToEndAction() {
         interact(() -> sequenceController.goToEndAction(mock(ActionEvent.class)));
 
-        verify(sequenceVisualizer).setOffset(sequenceProperty.get().length() - 1);
+        verify(sequenceVisualizer).setOffset(sequenceProperty.get().getSequenceLength() - 1);
     }
 }
@@ -4,6 +4,8 @@ import javafx.beans.property.DoubleProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import org.dnacronym.hygene.graph.metadata.GenomeSet;
+import org.dnacronym.hygene.graph.metadata.NodeMetadata;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -60,7 +62,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testIncrementOffset() {
-        sequenceVisualizer.getSequenceProperty().set("aab");
+        sequenceVisualizer.getSequenceProperty().set(new NodeMetadata("1", "aab", GenomeSet.EMPTY));
 
         sequenceVisualizer.incrementOffset(1);
 
@@ -69,7 +71,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testOffsetUpperBound() {
-        sequenceVisualizer.getSequenceProperty().set("aab");
+        sequenceVisualizer.getSequenceProperty().set(new NodeMetadata("1", "aab", GenomeSet.EMPTY));
 
         sequenceVisualizer.incrementOffset(100);
 
@@ -78,7 +80,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testOffsetLowerBound() {
-        sequenceVisualizer.getSequenceProperty().set("aab");
+        sequenceVisualizer.getSequenceProperty().set(new NodeMetadata("1", "aab", GenomeSet.EMPTY));
 
         sequenceVisualizer.decrementOffset(100);
 
@@ -87,7 +89,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testSetOffset() {
-        sequenceVisualizer.getSequenceProperty().set("aab");
+        sequenceVisualizer.getSequenceProperty().set(new NodeMetadata("1", "aab", GenomeSet.EMPTY));
 
         sequenceVisualizer.setOffset(2);
 
@@ -96,7 +98,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testSetOffsetLowerBound() {
-        sequenceVisualizer.getSequenceProperty().set("aab");
+        sequenceVisualizer.getSequenceProperty().set(new NodeMetadata("1", "aab", GenomeSet.EMPTY));
 
         sequenceVisualizer.setOffset(-10);
 
@@ -105,7 +107,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testSetOffsetUpperBound() {
-        sequenceVisualizer.getSequenceProperty().set("aab");
+        sequenceVisualizer.getSequenceProperty().set(new NodeMetadata("1", "aab", GenomeSet.EMPTY));
 
         sequenceVisualizer.setOffset(1000);
 
@@ -118,7 +120,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testDrawSequenceChange() {
-        sequenceVisualizer.getSequenceProperty().set("asdf");
+        sequenceVisualizer.getSequenceProperty().set(new NodeMetadata("1", "asdf", GenomeSet.EMPTY));
 
         verify(graphicsContext).clearRect(anyDouble(), anyDouble(), anyDouble(), anyDouble());
     }
@@ -133,7 +135,7 @@ final class SequenceVisualizerTest {
 
     @Test
     void testDrawOffsetChangeSequenceNotNull() {
-        sequenceVisualizer.getSequenceProperty().set("asdf");
+        sequenceVisualizer.getSequenceProperty().set(new NodeMetadata("1", "asdf", GenomeSet.EMPTY));
         sequenceVisualizer.setOffset(2);
 
         assertThat(sequenceVisualizer.getOffsetProperty().get()).isEqualTo(2);
@@ -3,9 +3,18 @@ package org.dnacronym.hygene.ui.settings;
 
 import com.google.inject.testing.fieldbinder.Bind;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleLongProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.event.ActionEvent;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyEvent;
+import org.dnacronym.hygene.graph.GraphStorageType;
+import org.dnacronym.hygene.graph.NodeOrdering;
 import org.dnacronym.hygene.ui.UITestBase;
+import org.dnacronym.hygene.ui.graph.GraphDimensionsCalculator;
+import org.dnacronym.hygene.ui.graph.GraphStore;
 import org.dnacronym.hygene.ui.graph.GraphVisualizer;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -27,6 +36,10 @@ final class AdvancedSettingsViewControllerTest extends UITestBase {
     @Bind
     private GraphVisualizer graphVisualizer;
     @Bind
+    private GraphDimensionsCalculator graphDimensionsCalculator;
+    @Bind
+    private GraphStore graphStore;
+    @Bind
     private Settings settings;
     private CheckBox checkBox;
     private ActionEvent mouseEvent;
@@ -34,6 +47,8 @@ final class AdvancedSettingsViewControllerTest extends UITestBase {
     @Override
     public void beforeEach() {
         graphVisualizer = mock(GraphVisualizer.class);
+        graphDimensionsCalculator = mock(GraphDimensionsCalculator.class);
+        graphStore = mock(GraphStore.class);
         settings = mock(Settings.class);
         createContextOfTest();
 
@@ -73,4 +88,53 @@ final class AdvancedSettingsViewControllerTest extends UITestBase {
 
         assertThat(graphVisualizer.getDisplayBordersProperty().getValue()).isTrue();
     }
+
+    @Test
+    void testMetadataCacheSizeRunnable() {
+        final SimpleLongProperty metadataCacheSize = new SimpleLongProperty();
+        when(graphDimensionsCalculator.getMetadataCacheSizeProperty()).thenReturn(metadataCacheSize);
+        final TextField textField = new TextField("16");
+        final KeyEvent keyEvent = mock(KeyEvent.class);
+        when(keyEvent.getSource()).thenReturn(textField);
+
+        interact(() -> advancedSettingsViewController.setMetadataCacheSize(keyEvent));
+
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(settings).addRunnable(captor.capture());
+        captor.getValue().run();
+
+        assertThat(metadataCacheSize.get()).isEqualTo(16L * 1024 * 1024);
+    }
+
+    @Test
+    void testStoreGraphOffHeapRunnable() {
+        final SimpleObjectProperty<GraphStorageType> storageType = new SimpleObjectProperty<>(GraphStorageType.HEAP);
+        when(graphStore.getStorageTypeProperty()).thenReturn(storageType);
+        when(mouseEvent.getSource()).thenReturn(checkBox);
+
+        interact(() -> advancedSettingsViewController.storeGraphOffHeapClicked(mouseEvent));
+
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(settings).addRunnable(captor.capture());
+        captor.getValue().run();
+
+        assertThat(storageType.get()).isEqualTo(GraphStorageType.OFF_HEAP);
+    }
+
+    @Test
+    void testNodeOrderingRunnable() {
+        final SimpleObjectProperty<NodeOrdering> nodeOrdering = new SimpleObjectProperty<>(NodeOrdering.FILE);
+        when(graphStore.getNodeOrderingProperty()).thenReturn(nodeOrdering);
+        final ChoiceBox<NodeOrdering> choiceBox = new ChoiceBox<>();
+        choiceBox.setValue(NodeOrdering.HORIZONTAL);
+        when(mouseEvent.getSource()).thenReturn(choiceBox);
+
+        interact(() -> advancedSettingsViewController.nodeOrderingChanged(mouseEvent));
+
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(settings).addRunnable(captor.capture());
+        captor.getValue().run();
+
+        assertThat(nodeOrdering.get()).isEqualTo(NodeOrdering.HORIZONTAL);
+    }
 }